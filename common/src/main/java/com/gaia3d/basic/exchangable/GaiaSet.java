@@ -59,8 +59,8 @@ public class GaiaSet implements Serializable {
     public static GaiaSet readFile(Path path) throws FileNotFoundException {
         File input = path.toFile();
         Path imagesPath = path.getParent().resolve("images");
-        try (ObjectInputStream inputStream = new ObjectInputStream(new BufferedInputStream(new FileInputStream(input)))) {
-            GaiaSet gaiaSet = (GaiaSet) inputStream.readObject();
+        try {
+            GaiaSet gaiaSet = readTempFile(input);
             for (GaiaMaterial material : gaiaSet.getMaterials()) {
                 material.getTextures().forEach((textureType, textures) -> {
                     for (GaiaTexture texture : textures) {
@@ -79,6 +79,18 @@ public class GaiaSet implements Serializable {
         return null;
     }
 
+    /**
+     * Reads the binary temp format, files written by the legacy java serialization are still readable.
+     */
+    private static GaiaSet readTempFile(File input) throws IOException, ClassNotFoundException {
+        if (GaiaSetTempFile.isTempFile(input)) {
+            return GaiaSetTempFile.read(input);
+        }
+        try (ObjectInputStream inputStream = new ObjectInputStream(new BufferedInputStream(new FileInputStream(input)))) {
+            return (GaiaSet) inputStream.readObject();
+        }
+    }
+
     public GaiaBoundingBox getBoundingBox() {
         GaiaBoundingBox boundingBox = new GaiaBoundingBox();
         for (GaiaBufferDataSet bufferDataSet : bufferDataList) {
@@ -91,10 +103,8 @@ public class GaiaSet implements Serializable {
         String tempFileName = this.attribute.getIdentifier().toString() + "." + FormatType.TEMP.getExtension();
         Path tempDir = path.resolve(this.projectName);
         File tempFile = path.resolve(tempFileName).toFile();
-        try (ObjectOutputStream outputStream = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
-            outputStream.writeObject(this);
-            outputStream.flush();
-            outputStream.close();
+        try {
+            GaiaSetTempFile.write(this, tempFile);
 
             // Copy images to the temp directory
             for (GaiaMaterial material : materials) {
@@ -110,10 +120,8 @@ public class GaiaSet implements Serializable {
     public Path writeFileInThePath(Path path) {
         Path folder = path.getParent();
         File file = new File(String.valueOf(path));
-        try (ObjectOutputStream outputStream = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
-            outputStream.writeObject(this);
-            outputStream.flush();
-            outputStream.close();
+        try {
+            GaiaSetTempFile.write(this, file);
 
             // Copy images to the temp directory
             for (GaiaMaterial material : materials) {
@@ -136,8 +144,8 @@ public class GaiaSet implements Serializable {
             log.debug("Directory created: {}", tempDir);
         }
         File tempFile = tempDir.resolve(tempFileName).toFile();
-        try (ObjectOutputStream outputStream = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
-            outputStream.writeObject(this);
+        try {
+            GaiaSetTempFile.write(this, tempFile);
 
             // Copy images to the temp directory
             for (GaiaMaterial material : materials) {
@@ -160,8 +168,8 @@ public class GaiaSet implements Serializable {
             log.debug("Directory created: {}", tempDir);
         }
         File tempFile = tempDir.resolve(tempFileName).toFile();
-        try (ObjectOutputStream outputStream = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
-            outputStream.writeObject(this);
+        try {
+            GaiaSetTempFile.write(this, tempFile);
 
             // Copy images to the temp directory
             for (GaiaMaterial material : materials) {
@@ -0,0 +1,597 @@
+package com.gaia3d.basic.exchangable;
+
+import com.gaia3d.basic.geometry.GaiaBoundingBox;
+import com.gaia3d.basic.geometry.GaiaRectangle;
+import com.gaia3d.basic.model.GaiaAttribute;
+import com.gaia3d.basic.model.GaiaMaterial;
+import com.gaia3d.basic.model.GaiaTexture;
+import com.gaia3d.basic.types.AccessorType;
+import com.gaia3d.basic.types.AttributeType;
+import com.gaia3d.basic.types.TextureType;
+import lombok.extern.slf4j.Slf4j;
+import org.joml.Matrix4d;
+import org.joml.Vector4d;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Binary temp file format of GaiaSet.
+ * Little-endian and length-prefixed, primitive arrays are written and read in bulk through a FileChannel.
+ * Large files are memory-mapped when they are read back.
+ * <pre>
+ * header   : magic(int) version(int)
+ * set      : projectName filePath folderPath projectFolderPath outputDir (string)
+ * attribute: flag(byte) identifier(long, long) fileName nodeName count(int) [key value]...
+ * materials: count(int) [material]...
+ * buffers  : count(int) [bufferDataSet]...
+ * string   : length(int, -1 is null) utf-8 bytes
+ * array    : length(int, -1 is null) elements
+ * </pre>
+ */
+@Slf4j
+public class GaiaSetTempFile {
+    public static final int MAGIC = 0x54455347; // "GSET"
+    public static final int VERSION = 2;
+
+    private static final int WRITE_BUFFER_SIZE = 1024 * 1024;
+    private static final long MAP_THRESHOLD = 16L * 1024 * 1024;
+
+    public static boolean isTempFile(File file) {
+        if (!file.isFile() || file.length() < 8) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            header.flip();
+            return header.getInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public static void write(GaiaSet gaiaSet, File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ChannelWriter writer = new ChannelWriter(channel);
+            writer.putInt(MAGIC);
+            writer.putInt(VERSION);
+            writer.putString(gaiaSet.getProjectName());
+            writer.putString(gaiaSet.getFilePath());
+            writer.putString(gaiaSet.getFolderPath());
+            writer.putString(gaiaSet.getProjectFolderPath());
+            writer.putString(gaiaSet.getOutputDir());
+            writeAttribute(writer, gaiaSet.getAttribute());
+
+            List<GaiaMaterial> materials = gaiaSet.getMaterials();
+            writer.putInt(materials == null ? -1 : materials.size());
+            if (materials != null) {
+                for (GaiaMaterial material : materials) {
+                    writeMaterial(writer, material);
+                }
+            }
+
+            List<GaiaBufferDataSet> bufferDataList = gaiaSet.getBufferDataList();
+            writer.putInt(bufferDataList == null ? -1 : bufferDataList.size());
+            if (bufferDataList != null) {
+                for (GaiaBufferDataSet bufferDataSet : bufferDataList) {
+                    writeBufferDataSet(writer, bufferDataSet);
+                }
+            }
+            writer.flush();
+        }
+    }
+
+    public static GaiaSet read(File file) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r"); FileChannel channel = randomAccessFile.getChannel()) {
+            long size = channel.size();
+            ByteBuffer buffer;
+            if (size >= MAP_THRESHOLD) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else {
+                buffer = ByteBuffer.allocate((int) size);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) {
+                        break;
+                    }
+                }
+                buffer.flip();
+            }
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return read(buffer);
+        }
+    }
+
+    private static GaiaSet read(ByteBuffer buffer) throws IOException {
+        int magic = buffer.getInt();
+        if (magic != MAGIC) {
+            throw new IOException("Invalid GaiaSet temp file.");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported GaiaSet temp file version : " + version);
+        }
+
+        GaiaSet gaiaSet = new GaiaSet();
+        gaiaSet.setProjectName(getString(buffer));
+        gaiaSet.setFilePath(getString(buffer));
+        gaiaSet.setFolderPath(getString(buffer));
+        gaiaSet.setProjectFolderPath(getString(buffer));
+        gaiaSet.setOutputDir(getString(buffer));
+        gaiaSet.setAttribute(readAttribute(buffer));
+
+        int materialCount = buffer.getInt();
+        if (materialCount >= 0) {
+            List<GaiaMaterial> materials = new ArrayList<>(materialCount);
+            for (int i = 0; i < materialCount; i++) {
+                materials.add(readMaterial(buffer));
+            }
+            gaiaSet.setMaterials(materials);
+        }
+
+        int bufferDataCount = buffer.getInt();
+        if (bufferDataCount >= 0) {
+            List<GaiaBufferDataSet> bufferDataList = new ArrayList<>(bufferDataCount);
+            for (int i = 0; i < bufferDataCount; i++) {
+                bufferDataList.add(readBufferDataSet(buffer));
+            }
+            gaiaSet.setBufferDataList(bufferDataList);
+        }
+        return gaiaSet;
+    }
+
+    private static void writeAttribute(ChannelWriter writer, GaiaAttribute attribute) throws IOException {
+        writer.putBoolean(attribute != null);
+        if (attribute == null) {
+            return;
+        }
+        UUID identifier = attribute.getIdentifier();
+        writer.putBoolean(identifier != null);
+        if (identifier != null) {
+            writer.putLong(identifier.getMostSignificantBits());
+            writer.putLong(identifier.getLeastSignificantBits());
+        }
+        writer.putString(attribute.getFileName());
+        writer.putString(attribute.getNodeName());
+        Map<String, String> attributes = attribute.getAttributes();
+        writer.putInt(attributes == null ? -1 : attributes.size());
+        if (attributes != null) {
+            for (Map.Entry<String, String> entry : attributes.entrySet()) {
+                writer.putString(entry.getKey());
+                writer.putString(entry.getValue());
+            }
+        }
+    }
+
+    private static GaiaAttribute readAttribute(ByteBuffer buffer) {
+        if (!getBoolean(buffer)) {
+            return null;
+        }
+        GaiaAttribute attribute = new GaiaAttribute();
+        if (getBoolean(buffer)) {
+            attribute.setIdentifier(new UUID(buffer.getLong(), buffer.getLong()));
+        } else {
+            attribute.setIdentifier(null);
+        }
+        attribute.setFileName(getString(buffer));
+        attribute.setNodeName(getString(buffer));
+        int attributeCount = buffer.getInt();
+        if (attributeCount >= 0) {
+            Map<String, String> attributes = new HashMap<>();
+            for (int i = 0; i < attributeCount; i++) {
+                attributes.put(getString(buffer), getString(buffer));
+            }
+            attribute.setAttributes(attributes);
+        } else {
+            attribute.setAttributes(null);
+        }
+        return attribute;
+    }
+
+    private static void writeMaterial(ChannelWriter writer, GaiaMaterial material) throws IOException {
+        writer.putInt(material.getId());
+        writer.putString(material.getName());
+        writer.putVector4(material.getDiffuseColor());
+        writer.putVector4(material.getAmbientColor());
+        writer.putVector4(material.getSpecularColor());
+        writer.putFloat(material.getShininess());
+        writer.putBoolean(material.isRepeat());
+        writer.putBoolean(material.isBlend());
+        writer.putBoolean(material.isOpaque());
+
+        Map<TextureType, List<GaiaTexture>> textures = material.getTextures();
+        writer.putInt(textures == null ? -1 : textures.size());
+        if (textures == null) {
+            return;
+        }
+        for (Map.Entry<TextureType, List<GaiaTexture>> entry : textures.entrySet()) {
+            writer.putByte(entry.getKey().getValue());
+            List<GaiaTexture> gaiaTextures = entry.getValue();
+            writer.putInt(gaiaTextures == null ? -1 : gaiaTextures.size());
+            if (gaiaTextures == null) {
+                continue;
+            }
+            for (GaiaTexture texture : gaiaTextures) {
+                writer.putBoolean(texture != null);
+                if (texture == null) {
+                    continue;
+                }
+                writer.putString(texture.getParentPath());
+                writer.putString(texture.getName());
+                writer.putString(texture.getPath());
+                writer.putByte(texture.getType() == null ? -1 : texture.getType().getValue());
+                writer.putInt(texture.getWidth());
+                writer.putInt(texture.getHeight());
+                writer.putInt(texture.getFormat());
+                writer.putInt(texture.getByteLength());
+                writer.putInt(texture.getTextureId());
+                writer.putString(texture.getFingerprint());
+            }
+        }
+    }
+
+    private static GaiaMaterial readMaterial(ByteBuffer buffer) {
+        GaiaMaterial material = new GaiaMaterial();
+        material.setId(buffer.getInt());
+        material.setName(getString(buffer));
+        material.setDiffuseColor(getVector4(buffer));
+        material.setAmbientColor(getVector4(buffer));
+        material.setSpecularColor(getVector4(buffer));
+        material.setShininess(buffer.getFloat());
+        material.setRepeat(getBoolean(buffer));
+        material.setBlend(getBoolean(buffer));
+        material.setOpaque(getBoolean(buffer));
+
+        int textureTypeCount = buffer.getInt();
+        if (textureTypeCount < 0) {
+            material.setTextures(null);
+            return material;
+        }
+        Map<TextureType, List<GaiaTexture>> textures = new LinkedHashMap<>();
+        for (int i = 0; i < textureTypeCount; i++) {
+            TextureType textureType = TextureType.fromValue(buffer.get());
+            int textureCount = buffer.getInt();
+            if (textureCount < 0) {
+                textures.put(textureType, null);
+                continue;
+            }
+            List<GaiaTexture> gaiaTextures = new ArrayList<>(textureCount);
+            for (int j = 0; j < textureCount; j++) {
+                if (!getBoolean(buffer)) {
+                    gaiaTextures.add(null);
+                    continue;
+                }
+                GaiaTexture texture = new GaiaTexture();
+                texture.setParentPath(getString(buffer));
+                texture.setName(getString(buffer));
+                texture.setPath(getString(buffer));
+                byte type = buffer.get();
+                texture.setType(type < 0 ? null : TextureType.fromValue(type));
+                texture.setWidth(buffer.getInt());
+                texture.setHeight(buffer.getInt());
+                texture.setFormat(buffer.getInt());
+                texture.setByteLength(buffer.getInt());
+                texture.setTextureId(buffer.getInt());
+                texture.setFingerprint(getString(buffer));
+                gaiaTextures.add(texture);
+            }
+            textures.put(textureType, gaiaTextures);
+        }
+        material.setTextures(textures);
+        return material;
+    }
+
+    private static void writeBufferDataSet(ChannelWriter writer, GaiaBufferDataSet bufferDataSet) throws IOException {
+        writer.putInt(bufferDataSet.getMaterialId());
+        writer.putInt(bufferDataSet.getId());
+        writer.putString(bufferDataSet.getGuid());
+
+        GaiaBoundingBox boundingBox = bufferDataSet.getBoundingBox();
+        writer.putBoolean(boundingBox != null);
+        if (boundingBox != null) {
+            writer.putDouble(boundingBox.getMinX());
+            writer.putDouble(boundingBox.getMinY());
+            writer.putDouble(boundingBox.getMinZ());
+            writer.putDouble(boundingBox.getMaxX());
+            writer.putDouble(boundingBox.getMaxY());
+            writer.putDouble(boundingBox.getMaxZ());
+            writer.putBoolean(boundingBox.isInit());
+        }
+        GaiaRectangle rectangle = bufferDataSet.getTexcoordBoundingRectangle();
+        writer.putBoolean(rectangle != null);
+        if (rectangle != null) {
+            writer.putDouble(rectangle.getMinX());
+            writer.putDouble(rectangle.getMinY());
+            writer.putDouble(rectangle.getMaxX());
+            writer.putDouble(rectangle.getMaxY());
+        }
+        writer.putMatrix4(bufferDataSet.getTransformMatrix());
+        writer.putMatrix4(bufferDataSet.getPreMultipliedTransformMatrix());
+
+        Map<AttributeType, GaiaBuffer> buffers = bufferDataSet.getBuffers();
+        writer.putInt(buffers.size());
+        for (Map.Entry<AttributeType, GaiaBuffer> entry : buffers.entrySet()) {
+            GaiaBuffer buffer = entry.getValue();
+            writer.putByte((byte) entry.getKey().ordinal());
+            writer.putByte(buffer.getAttributeType() == null ? -1 : (byte) buffer.getAttributeType().ordinal());
+            writer.putByte(buffer.getAccessorType() == null ? -1 : (byte) buffer.getAccessorType().ordinal());
+            writer.putInt(buffer.getElementsCount());
+            writer.putByte(buffer.getGlDimension());
+            writer.putInt(buffer.getGlType());
+            writer.putInt(buffer.getGlTarget());
+            writer.putFloats(buffer.getFloats());
+            writer.putInts(buffer.getInts());
+            writer.putShorts(buffer.getShorts());
+            writer.putBytes(buffer.getBytes());
+        }
+    }
+
+    private static GaiaBufferDataSet readBufferDataSet(ByteBuffer buffer) {
+        GaiaBufferDataSet bufferDataSet = new GaiaBufferDataSet();
+        bufferDataSet.setMaterialId(buffer.getInt());
+        bufferDataSet.setId(buffer.getInt());
+        bufferDataSet.setGuid(getString(buffer));
+        if (getBoolean(buffer)) {
+            double minX = buffer.getDouble();
+            double minY = buffer.getDouble();
+            double minZ = buffer.getDouble();
+            double maxX = buffer.getDouble();
+            double maxY = buffer.getDouble();
+            double maxZ = buffer.getDouble();
+            boolean isInit = getBoolean(buffer);
+            bufferDataSet.setBoundingBox(new GaiaBoundingBox(minX, minY, minZ, maxX, maxY, maxZ, isInit));
+        }
+        if (getBoolean(buffer)) {
+            double minX = buffer.getDouble();
+            double minY = buffer.getDouble();
+            double maxX = buffer.getDouble();
+            double maxY = buffer.getDouble();
+            bufferDataSet.setTexcoordBoundingRectangle(new GaiaRectangle(minX, minY, maxX, maxY));
+        }
+        bufferDataSet.setTransformMatrix(getMatrix4(buffer));
+        bufferDataSet.setPreMultipliedTransformMatrix(getMatrix4(buffer));
+
+        AttributeType[] attributeTypes = AttributeType.values();
+        AccessorType[] accessorTypes = AccessorType.values();
+        int bufferCount = buffer.getInt();
+        Map<AttributeType, GaiaBuffer> buffers = bufferDataSet.getBuffers();
+        for (int i = 0; i < bufferCount; i++) {
+            AttributeType key = attributeTypes[buffer.get()];
+            GaiaBuffer gaiaBuffer = new GaiaBuffer();
+            byte attributeType = buffer.get();
+            gaiaBuffer.setAttributeType(attributeType < 0 ? null : attributeTypes[attributeType]);
+            byte accessorType = buffer.get();
+            gaiaBuffer.setAccessorType(accessorType < 0 ? null : accessorTypes[accessorType]);
+            gaiaBuffer.setElementsCount(buffer.getInt());
+            gaiaBuffer.setGlDimension(buffer.get());
+            gaiaBuffer.setGlType(buffer.getInt());
+            gaiaBuffer.setGlTarget(buffer.getInt());
+            gaiaBuffer.setFloats(getFloats(buffer));
+            gaiaBuffer.setInts(getInts(buffer));
+            gaiaBuffer.setShorts(getShorts(buffer));
+            gaiaBuffer.setBytes(getBytes(buffer));
+            buffers.put(key, gaiaBuffer);
+        }
+        return bufferDataSet;
+    }
+
+    private static boolean getBoolean(ByteBuffer buffer) {
+        return buffer.get() != 0;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = getBytes(buffer);
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Vector4d getVector4(ByteBuffer buffer) {
+        if (!getBoolean(buffer)) {
+            return null;
+        }
+        return new Vector4d(buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+    }
+
+    private static Matrix4d getMatrix4(ByteBuffer buffer) {
+        if (!getBoolean(buffer)) {
+            return null;
+        }
+        double[] values = new double[16];
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Double.BYTES);
+        return new Matrix4d().set(values);
+    }
+
+    private static float[] getFloats(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        float[] values = new float[length];
+        buffer.asFloatBuffer().get(values);
+        buffer.position(buffer.position() + length * Float.BYTES);
+        return values;
+    }
+
+    private static int[] getInts(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        int[] values = new int[length];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + length * Integer.BYTES);
+        return values;
+    }
+
+    private static short[] getShorts(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        short[] values = new short[length];
+        buffer.asShortBuffer().get(values);
+        buffer.position(buffer.position() + length * Short.BYTES);
+        return values;
+    }
+
+    private static byte[] getBytes(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] values = new byte[length];
+        buffer.get(values);
+        return values;
+    }
+
+    /**
+     * Buffered little-endian writer, the primitive arrays are copied into the buffer in bulk.
+     */
+    private static class ChannelWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        ChannelWriter(FileChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        void putByte(byte value) throws IOException {
+            ensure(Byte.BYTES);
+            buffer.put(value);
+        }
+
+        void putBoolean(boolean value) throws IOException {
+            putByte(value ? (byte) 1 : (byte) 0);
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        void putFloat(float value) throws IOException {
+            ensure(Float.BYTES);
+            buffer.putFloat(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(Double.BYTES);
+            buffer.putDouble(value);
+        }
+
+        void putString(String value) throws IOException {
+            putBytes(value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void putVector4(Vector4d value) throws IOException {
+            putBoolean(value != null);
+            if (value != null) {
+                putDouble(value.x);
+                putDouble(value.y);
+                putDouble(value.z);
+                putDouble(value.w);
+            }
+        }
+
+        void putMatrix4(Matrix4d value) throws IOException {
+            putBoolean(value != null);
+            if (value != null) {
+                double[] values = value.get(new double[16]);
+                ensure(values.length * Double.BYTES);
+                buffer.asDoubleBuffer().put(values);
+                buffer.position(buffer.position() + values.length * Double.BYTES);
+            }
+        }
+
+        void putFloats(float[] values) throws IOException {
+            putInt(values == null ? -1 : values.length);
+            if (values == null) {
+                return;
+            }
+            int offset = 0;
+            while (offset < values.length) {
+                ensure(Float.BYTES);
+                int length = Math.min(values.length - offset, buffer.remaining() / Float.BYTES);
+                buffer.asFloatBuffer().put(values, offset, length);
+                buffer.position(buffer.position() + length * Float.BYTES);
+                offset += length;
+            }
+        }
+
+        void putInts(int[] values) throws IOException {
+            putInt(values == null ? -1 : values.length);
+            if (values == null) {
+                return;
+            }
+            int offset = 0;
+            while (offset < values.length) {
+                ensure(Integer.BYTES);
+                int length = Math.min(values.length - offset, buffer.remaining() / Integer.BYTES);
+                buffer.asIntBuffer().put(values, offset, length);
+                buffer.position(buffer.position() + length * Integer.BYTES);
+                offset += length;
+            }
+        }
+
+        void putShorts(short[] values) throws IOException {
+            putInt(values == null ? -1 : values.length);
+            if (values == null) {
+                return;
+            }
+            int offset = 0;
+            while (offset < values.length) {
+                ensure(Short.BYTES);
+                int length = Math.min(values.length - offset, buffer.remaining() / Short.BYTES);
+                buffer.asShortBuffer().put(values, offset, length);
+                buffer.position(buffer.position() + length * Short.BYTES);
+                offset += length;
+            }
+        }
+
+        void putBytes(byte[] values) throws IOException {
+            putInt(values == null ? -1 : values.length);
+            if (values == null) {
+                return;
+            }
+            int offset = 0;
+            while (offset < values.length) {
+                ensure(Byte.BYTES);
+                int length = Math.min(values.length - offset, buffer.remaining());
+                buffer.put(values, offset, length);
+                offset += length;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void ensure(int size) throws IOException {
+            if (buffer.remaining() < size) {
+                flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.gaia3d.basic.geometry;
+
+import com.gaia3d.basic.model.GaiaFace;
+import com.gaia3d.basic.model.GaiaSurface;
+import com.gaia3d.basic.model.GaiaVertex;
+import org.joml.Vector3d;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Welds the coincident vertices with a spatial hash grid.
+ * The cell size is the weld error, so every vertex within the error of a master vertex is in one of the 27 neighbouring cells.
+ * Each vertex is compared only with the master vertices of those cells, so the welding runs in linear time for bounded densities.
+ * The batchId is a part of the cell key when it is checked, the texcoord, normal and color are compared within the error.
+ * The first vertex of a group in the input order becomes the master, so the result is deterministic.
+ */
+public class GaiaVertexWelder {
+    private static final double MINIMUM_CELL_SIZE = 1.0E-9;
+    private static final int EMPTY = -1;
+
+    private final double error;
+    private final boolean checkTexCoord;
+    private final boolean checkNormal;
+    private final boolean checkColor;
+    private final boolean checkBatchId;
+
+    /* cell hash table, open addressing, a vertex opens at most one cell so it is never more than half full */
+    private long[] cellXs;
+    private long[] cellYs;
+    private long[] cellZs;
+    private int[] cellBatchIds;
+    private int[] cellHeads;
+
+    public GaiaVertexWelder(double error, boolean checkTexCoord, boolean checkNormal, boolean checkColor, boolean checkBatchId) {
+        this.error = error;
+        this.checkTexCoord = checkTexCoord;
+        this.checkNormal = checkNormal;
+        this.checkColor = checkColor;
+        this.checkBatchId = checkBatchId;
+    }
+
+    /**
+     * Finds the master vertex of every vertex.
+     * @return the index of the master vertex for each vertex, a master points to itself
+     */
+    public int[] findMasters(List<GaiaVertex> vertices) {
+        return findMasters(new IndexedVertices() {
+            @Override
+            public int size() {
+                return vertices.size();
+            }
+
+            @Override
+            public Vector3d getPosition(int index, Vector3d resultPosition) {
+                return resultPosition.set(vertices.get(index).getPosition());
+            }
+
+            @Override
+            public float getBatchId(int index) {
+                return vertices.get(index).getBatchId();
+            }
+
+            @Override
+            public boolean isWeldable(int master, int vertex, double error, boolean checkTexCoord, boolean checkNormal, boolean checkColor, boolean checkBatchId) {
+                return vertices.get(master).isWeldable(vertices.get(vertex), error, checkTexCoord, checkNormal, checkColor, checkBatchId);
+            }
+        });
+    }
+
+    /**
+     * Finds the master vertex of every vertex stored by index.
+     * @return the index of the master vertex for each vertex, a master points to itself
+     */
+    public int[] findMasters(IndexedVertices vertices) {
+        int vertexCount = vertices.size();
+        int[] masters = new int[vertexCount];
+        int[] nextMasters = new int[vertexCount];
+        double cellSize = Math.max(error, MINIMUM_CELL_SIZE);
+        initCells(vertexCount);
+
+        Vector3d position = new Vector3d();
+        for (int i = 0; i < vertexCount; i++) {
+            vertices.getPosition(i, position);
+            long cellX = (long) Math.floor(position.x / cellSize);
+            long cellY = (long) Math.floor(position.y / cellSize);
+            long cellZ = (long) Math.floor(position.z / cellSize);
+            int batchId = checkBatchId ? Float.floatToIntBits(vertices.getBatchId(i)) : 0;
+
+            int master = EMPTY;
+            for (long x = cellX - 1; x <= cellX + 1; x++) {
+                for (long y = cellY - 1; y <= cellY + 1; y++) {
+                    for (long z = cellZ - 1; z <= cellZ + 1; z++) {
+                        int slot = findSlot(x, y, z, batchId);
+                        for (int candidate = cellHeads[slot]; candidate != EMPTY; candidate = nextMasters[candidate]) {
+                            if ((master == EMPTY || candidate < master) && vertices.isWeldable(candidate, i, error, checkTexCoord, checkNormal, checkColor, checkBatchId)) {
+                                master = candidate;
+                            }
+                        }
+                    }
+                }
+            }
+
+            if (master == EMPTY) {
+                masters[i] = i;
+                int slot = findSlot(cellX, cellY, cellZ, batchId);
+                if (cellHeads[slot] == EMPTY) {
+                    cellXs[slot] = cellX;
+                    cellYs[slot] = cellY;
+                    cellZs[slot] = cellZ;
+                    cellBatchIds[slot] = batchId;
+                }
+                nextMasters[i] = cellHeads[slot];
+                cellHeads[slot] = i;
+            } else {
+                masters[i] = master;
+            }
+        }
+        releaseCells();
+        return masters;
+    }
+
+    /**
+     * Welds the vertices of the surfaces and returns the new vertex list.
+     * The face indices are remapped, the collapsed faces are removed and the unused vertices are cleared.
+     */
+    public List<GaiaVertex> weld(List<GaiaVertex> vertices, List<GaiaSurface> surfaces) {
+        int[] masters = findMasters(vertices);
+        int vertexCount = vertices.size();
+        int[] newIndices = new int[vertexCount];
+        List<GaiaVertex> newVertices = new ArrayList<>();
+        for (int i = 0; i < vertexCount; i++) {
+            if (masters[i] == i) {
+                newIndices[i] = newVertices.size();
+                newVertices.add(vertices.get(i));
+            }
+        }
+
+        for (GaiaSurface surface : surfaces) {
+            List<GaiaFace> faces = surface.getFaces();
+            List<GaiaFace> newFaces = new ArrayList<>(faces.size());
+            boolean hasCollapsedFace = false;
+            for (GaiaFace face : faces) {
+                int[] indices = face.getIndices();
+                for (int k = 0; k < indices.length; k++) {
+                    indices[k] = newIndices[masters[indices[k]]];
+                }
+                if (isCollapsed(indices)) {
+                    hasCollapsedFace = true;
+                } else {
+                    newFaces.add(face);
+                }
+            }
+            if (hasCollapsedFace) {
+                surface.setFaces(newFaces);
+            }
+        }
+
+        for (int i = 0; i < vertexCount; i++) {
+            if (masters[i] != i) {
+                vertices.get(i).clear();
+            }
+        }
+        return newVertices;
+    }
+
+    private boolean isCollapsed(int[] indices) {
+        for (int k = 0; k < indices.length; k++) {
+            for (int m = k + 1; m < indices.length; m++) {
+                if (indices[k] == indices[m]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Vertices stored by index, as the flat arrays of the half-edge array mesh.
+     */
+    public interface IndexedVertices {
+        int size();
+
+        Vector3d getPosition(int index, Vector3d resultPosition);
+
+        float getBatchId(int index);
+
+        boolean isWeldable(int master, int vertex, double error, boolean checkTexCoord, boolean checkNormal, boolean checkColor, boolean checkBatchId);
+    }
+
+    /**
+     * The capacity is at least twice the vertex count, as the cells are never more than the vertices.
+     */
+    private void initCells(int vertexCount) {
+        int capacity = Integer.highestOneBit(Math.max(16, vertexCount) * 2 - 1) << 1;
+        assert capacity >= vertexCount * 2L;
+        cellXs = new long[capacity];
+        cellYs = new long[capacity];
+        cellZs = new long[capacity];
+        cellBatchIds = new int[capacity];
+        cellHeads = new int[capacity];
+        Arrays.fill(cellHeads, EMPTY);
+    }
+
+    private void releaseCells() {
+        cellXs = null;
+        cellYs = null;
+        cellZs = null;
+        cellBatchIds = null;
+        cellHeads = null;
+    }
+
+    /**
+     * Returns the slot of the cell, or the empty slot where the cell would be stored.
+     */
+    private int findSlot(long x, long y, long z, int batchId) {
+        int mask = cellHeads.length - 1;
+        int slot = hash(x, y, z, batchId) & mask;
+        while (cellHeads[slot] != EMPTY) {
+            if (cellXs[slot] == x && cellYs[slot] == y && cellZs[slot] == z && cellBatchIds[slot] == batchId) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int hash(long x, long y, long z, int batchId) {
+        long hash = x * 73856093L ^ y * 19349663L ^ z * 83492791L ^ batchId * 2654435761L;
+        hash ^= (hash >>> 32);
+        hash ^= (hash >>> 16);
+        return (int) hash;
+    }
+}
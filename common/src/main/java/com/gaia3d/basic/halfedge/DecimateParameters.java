@@ -13,6 +13,8 @@ public class DecimateParameters {
     private int maxCollapsesCount = 1000000;
     private int iterationsCount = 1;
     private double smallHedgeSize = 1.0;
+    private double targetTrianglesRatio = 0.0; // quadric decimation, ratio of the triangles to keep (0 : only the error bound).***
+    private double maxQuadricError = -1.0; // quadric decimation, distance error bound (negative : hedgeMinLength).***
 
     public void setBasicValues(double maxDiffAngDegrees, double hedgeMinLength, double frontierMaxDiffAngDeg, double maxAspectRatio, int maxCollapsesCount, int iterationsCount, double smallHedgeSize) {
         this.maxDiffAngDegrees = maxDiffAngDegrees;
@@ -0,0 +1,763 @@
+package com.gaia3d.basic.halfedge;
+
+import com.gaia3d.basic.geometry.GaiaRectangle;
+import com.gaia3d.basic.geometry.GaiaVertexWelder;
+import com.gaia3d.basic.model.*;
+import com.gaia3d.basic.types.TextureType;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.joml.Vector2d;
+import org.joml.Vector3d;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact half-edge triangle mesh of a primitive, backed by flat arrays instead of the HalfEdge object graph.
+ * The half-edge h belongs to the triangle h / 3 and its next half-edge is the following one in the triangle,
+ * so a half-edge only stores its start vertex and its twin (-1 on the frontiers).
+ * The vertex attributes are flat arrays, null when the primitive has no such attribute.
+ */
+@Slf4j
+@Getter
+public class HalfEdgeArrayMesh {
+    private static final int ABOVE = 2;
+    private static final int BELOW = 1;
+
+    private int verticesCount = 0;
+    private double[] positions = new double[0];
+    private float[] normals = null;
+    private double[] texcoords = null;
+    private byte[] colors = null;
+    private int colorSize = 0;
+    private float[] batchIds = new float[0];
+
+    private int trianglesCount = 0;
+    private int[] halfEdgeVertices = new int[0];
+    private int[] halfEdgeTwins = new int[0];
+
+    @Setter
+    private int materialIndex = -1;
+
+    public static HalfEdgeArrayMesh fromGaiaPrimitive(GaiaPrimitive primitive) {
+        HalfEdgeArrayMesh mesh = new HalfEdgeArrayMesh();
+        mesh.materialIndex = primitive.getMaterialIndex();
+        List<GaiaVertex> vertices = primitive.getVertices();
+        int verticesCount = vertices.size();
+        boolean hasNormals = false;
+        boolean hasTexcoords = false;
+        int colorSize = 0;
+        for (GaiaVertex vertex : vertices) {
+            hasNormals |= vertex.getNormal() != null;
+            hasTexcoords |= vertex.getTexcoords() != null;
+            if (vertex.getColor() != null) {
+                colorSize = Math.max(colorSize, vertex.getColor().length);
+            }
+        }
+        mesh.allocateVertices(verticesCount, hasNormals, hasTexcoords, colorSize);
+        for (int i = 0; i < verticesCount; i++) {
+            GaiaVertex vertex = vertices.get(i);
+            Vector3d position = vertex.getPosition();
+            mesh.positions[i * 3] = position.x;
+            mesh.positions[i * 3 + 1] = position.y;
+            mesh.positions[i * 3 + 2] = position.z;
+            if (hasNormals && vertex.getNormal() != null) {
+                mesh.normals[i * 3] = (float) vertex.getNormal().x;
+                mesh.normals[i * 3 + 1] = (float) vertex.getNormal().y;
+                mesh.normals[i * 3 + 2] = (float) vertex.getNormal().z;
+            }
+            if (hasTexcoords && vertex.getTexcoords() != null) {
+                mesh.texcoords[i * 2] = vertex.getTexcoords().x;
+                mesh.texcoords[i * 2 + 1] = vertex.getTexcoords().y;
+            }
+            if (colorSize > 0 && vertex.getColor() != null) {
+                System.arraycopy(vertex.getColor(), 0, mesh.colors, i * colorSize, vertex.getColor().length);
+            }
+            mesh.batchIds[i] = vertex.getBatchId();
+        }
+        mesh.verticesCount = verticesCount;
+
+        // the polygons are triangulated as fans.***
+        int trianglesCount = 0;
+        for (GaiaSurface surface : primitive.getSurfaces()) {
+            for (GaiaFace face : surface.getFaces()) {
+                if (face != null && face.getIndices() != null && face.getIndices().length >= 3) {
+                    trianglesCount += face.getIndices().length - 2;
+                }
+            }
+        }
+        mesh.allocateTriangles(trianglesCount);
+        int h = 0;
+        for (GaiaSurface surface : primitive.getSurfaces()) {
+            for (GaiaFace face : surface.getFaces()) {
+                if (face == null || face.getIndices() == null || face.getIndices().length < 3) {
+                    continue;
+                }
+                int[] indices = face.getIndices();
+                for (int k = 1; k < indices.length - 1; k++) {
+                    mesh.halfEdgeVertices[h++] = indices[0];
+                    mesh.halfEdgeVertices[h++] = indices[k];
+                    mesh.halfEdgeVertices[h++] = indices[k + 1];
+                }
+            }
+        }
+        mesh.trianglesCount = trianglesCount;
+        mesh.setTwins();
+        return mesh;
+    }
+
+    /**
+     * Creates the primitive with the used vertices only and one surface of triangles.
+     */
+    public GaiaPrimitive toGaiaPrimitive() {
+        GaiaPrimitive primitive = new GaiaPrimitive();
+        primitive.setMaterialIndex(materialIndex);
+        int[] newIndices = new int[verticesCount];
+        Arrays.fill(newIndices, -1);
+        List<GaiaVertex> vertices = new ArrayList<>();
+        GaiaSurface surface = new GaiaSurface();
+        for (int t = 0; t < trianglesCount; t++) {
+            int[] indices = new int[3];
+            for (int k = 0; k < 3; k++) {
+                int vertex = halfEdgeVertices[t * 3 + k];
+                if (newIndices[vertex] == -1) {
+                    newIndices[vertex] = vertices.size();
+                    vertices.add(toGaiaVertex(vertex));
+                }
+                indices[k] = newIndices[vertex];
+            }
+            GaiaFace face = new GaiaFace();
+            face.setIndices(indices);
+            surface.getFaces().add(face);
+        }
+        primitive.setVertices(vertices);
+        primitive.getSurfaces().add(surface);
+        return primitive;
+    }
+
+    private GaiaVertex toGaiaVertex(int vertex) {
+        GaiaVertex gaiaVertex = new GaiaVertex();
+        gaiaVertex.setPosition(new Vector3d(positions[vertex * 3], positions[vertex * 3 + 1], positions[vertex * 3 + 2]));
+        if (normals != null) {
+            gaiaVertex.setNormal(new Vector3d(normals[vertex * 3], normals[vertex * 3 + 1], normals[vertex * 3 + 2]));
+        }
+        if (texcoords != null) {
+            gaiaVertex.setTexcoords(new Vector2d(texcoords[vertex * 2], texcoords[vertex * 2 + 1]));
+        }
+        if (colors != null) {
+            gaiaVertex.setColor(Arrays.copyOfRange(colors, vertex * colorSize, (vertex + 1) * colorSize));
+        }
+        gaiaVertex.setBatchId(batchIds[vertex]);
+        return gaiaVertex;
+    }
+
+    public static int getNext(int halfEdge) {
+        return halfEdge % 3 == 2 ? halfEdge - 2 : halfEdge + 1;
+    }
+
+    public static int getPrev(int halfEdge) {
+        return halfEdge % 3 == 0 ? halfEdge + 2 : halfEdge - 1;
+    }
+
+    public int getStartVertex(int halfEdge) {
+        return halfEdgeVertices[halfEdge];
+    }
+
+    public int getEndVertex(int halfEdge) {
+        return halfEdgeVertices[getNext(halfEdge)];
+    }
+
+    public int getTwin(int halfEdge) {
+        return halfEdgeTwins[halfEdge];
+    }
+
+    public int getHalfEdgesCount() {
+        return trianglesCount * 3;
+    }
+
+    /**
+     * Twins the half-edges by vertex identity, a directed edge used by several triangles is left without twin.
+     */
+    public void setTwins() {
+        int halfEdgesCount = trianglesCount * 3;
+        if (halfEdgeTwins.length < halfEdgesCount) {
+            halfEdgeTwins = new int[halfEdgeVertices.length];
+        }
+        EdgeTable edgeTable = new EdgeTable(halfEdgesCount);
+        for (int h = 0; h < halfEdgesCount; h++) {
+            edgeTable.put(getStartVertex(h), getEndVertex(h), h);
+        }
+        for (int h = 0; h < halfEdgesCount; h++) {
+            halfEdgeTwins[h] = edgeTable.get(getEndVertex(h), getStartVertex(h));
+        }
+        for (int h = 0; h < halfEdgesCount; h++) {
+            int twin = halfEdgeTwins[h];
+            if (twin != -1 && halfEdgeTwins[twin] != h) {
+                halfEdgeTwins[h] = -1;
+            }
+        }
+    }
+
+    public void weldVertices(double error, boolean checkTexCoord, boolean checkNormal, boolean checkColor, boolean checkBatchId) {
+        GaiaVertexWelder welder = new GaiaVertexWelder(error, checkTexCoord, checkNormal, checkColor, checkBatchId);
+        int[] masters = welder.findMasters(new GaiaVertexWelder.IndexedVertices() {
+            @Override
+            public int size() {
+                return verticesCount;
+            }
+
+            @Override
+            public Vector3d getPosition(int index, Vector3d resultPosition) {
+                return resultPosition.set(positions[index * 3], positions[index * 3 + 1], positions[index * 3 + 2]);
+            }
+
+            @Override
+            public float getBatchId(int index) {
+                return batchIds[index];
+            }
+
+            @Override
+            public boolean isWeldable(int master, int vertex, double error, boolean checkTexCoord, boolean checkNormal, boolean checkColor, boolean checkBatchId) {
+                return isWeldableVertex(master, vertex, error, checkTexCoord, checkNormal, checkColor, checkBatchId);
+            }
+        });
+        int halfEdgesCount = trianglesCount * 3;
+        for (int h = 0; h < halfEdgesCount; h++) {
+            halfEdgeVertices[h] = masters[halfEdgeVertices[h]];
+        }
+        boolean[] removedTriangles = new boolean[trianglesCount];
+        for (int t = 0; t < trianglesCount; t++) {
+            int a = halfEdgeVertices[t * 3];
+            int b = halfEdgeVertices[t * 3 + 1];
+            int c = halfEdgeVertices[t * 3 + 2];
+            removedTriangles[t] = a == b || b == c || c == a;
+        }
+        setTriangles(halfEdgeVertices, removedTriangles);
+    }
+
+    /**
+     * The same comparison as GaiaVertex.isWeldable.
+     */
+    private boolean isWeldableVertex(int master, int vertex, double error, boolean checkTexCoord, boolean checkNormal, boolean checkColor, boolean checkBatchId) {
+        double dx = positions[master * 3] - positions[vertex * 3];
+        double dy = positions[master * 3 + 1] - positions[vertex * 3 + 1];
+        double dz = positions[master * 3 + 2] - positions[vertex * 3 + 2];
+        if (Math.sqrt(dx * dx + dy * dy + dz * dz) > error) {
+            return false;
+        }
+        if (checkTexCoord && texcoords != null) {
+            double du = texcoords[master * 2] - texcoords[vertex * 2];
+            double dv = texcoords[master * 2 + 1] - texcoords[vertex * 2 + 1];
+            if (Math.sqrt(du * du + dv * dv) > error) {
+                return false;
+            }
+        }
+        if (checkNormal && normals != null) {
+            double nx = normals[master * 3] - normals[vertex * 3];
+            double ny = normals[master * 3 + 1] - normals[vertex * 3 + 1];
+            double nz = normals[master * 3 + 2] - normals[vertex * 3 + 2];
+            if (Math.sqrt(nx * nx + ny * ny + nz * nz) > error) {
+                return false;
+            }
+        }
+        if (checkColor && colors != null) {
+            for (int k = 0; k < colorSize; k++) {
+                if (Math.abs(colors[master * colorSize + k] - colors[vertex * colorSize + k]) > error) {
+                    return false;
+                }
+            }
+        }
+        return !checkBatchId || batchIds[master] == batchIds[vertex];
+    }
+
+    /**
+     * Decimates the mesh with the quadric error decimator.
+     *
+     * @return the collapses count
+     */
+    public int decimate(DecimateParameters decimateParameters) {
+        return new HalfEdgeQuadricDecimator(this).decimate(decimateParameters);
+    }
+
+    /**
+     * Splits the triangles crossed by an axis aligned plane, the new vertices interpolate the attributes of the cut edges.
+     * The vertices nearer than the error to the plane are considered on the plane.
+     *
+     * @return true if some triangle was split
+     */
+    public boolean cutByPlane(PlaneType planeType, Vector3d planePosition, double error) {
+        int axis = getAxis(planeType);
+        if (axis == -1) {
+            log.warn("[Cut] Only the axis aligned planes are supported : {}", planeType);
+            return false;
+        }
+        double planeValue = planePosition.get(axis);
+        int[] sides = new int[verticesCount];
+        for (int v = 0; v < verticesCount; v++) {
+            double distance = positions[v * 3 + axis] - planeValue;
+            sides[v] = distance > error ? 1 : distance < -error ? -1 : 0;
+        }
+
+        int crossedCount = 0;
+        for (int t = 0; t < trianglesCount; t++) {
+            if (isCrossed(sides, t)) {
+                crossedCount++;
+            }
+        }
+        if (crossedCount == 0) {
+            return false;
+        }
+        ensureVerticesCapacity(verticesCount + crossedCount * 2);
+        ensureTrianglesCapacity(trianglesCount + crossedCount * 2);
+
+        // the cut vertex of an edge is shared by the two triangles of the edge.***
+        EdgeTable cutVertices = new EdgeTable(crossedCount * 2);
+        int originalTrianglesCount = trianglesCount;
+        for (int t = 0; t < originalTrianglesCount; t++) {
+            if (!isCrossed(sides, t)) {
+                continue;
+            }
+            // rotate the triangle so that its first vertex is the alone one (or the one on the plane).***
+            int first = 0;
+            for (int k = 0; k < 3; k++) {
+                int side = sides[halfEdgeVertices[t * 3 + k]];
+                int nextSide = sides[halfEdgeVertices[t * 3 + (k + 1) % 3]];
+                int prevSide = sides[halfEdgeVertices[t * 3 + (k + 2) % 3]];
+                if (side == 0 || (nextSide == prevSide && nextSide == -side)) {
+                    first = k;
+                    break;
+                }
+            }
+            int a = halfEdgeVertices[t * 3 + first];
+            int b = halfEdgeVertices[t * 3 + (first + 1) % 3];
+            int c = halfEdgeVertices[t * 3 + (first + 2) % 3];
+            if (sides[a] == 0) {
+                int m = getCutVertex(cutVertices, b, c, axis, planeValue);
+                setTriangle(t, a, b, m);
+                addTriangle(a, m, c);
+            } else {
+                int m1 = getCutVertex(cutVertices, a, b, axis, planeValue);
+                int m2 = getCutVertex(cutVertices, a, c, axis, planeValue);
+                setTriangle(t, a, m1, m2);
+                addTriangle(m1, b, c);
+                addTriangle(m1, c, m2);
+            }
+        }
+        setTwins();
+        return true;
+    }
+
+    private boolean isCrossed(int[] sides, int triangle) {
+        boolean above = false;
+        boolean below = false;
+        for (int k = 0; k < 3; k++) {
+            int side = sides[halfEdgeVertices[triangle * 3 + k]];
+            above |= side > 0;
+            below |= side < 0;
+        }
+        return above && below;
+    }
+
+    private int getCutVertex(EdgeTable cutVertices, int a, int b, int axis, double planeValue) {
+        int start = Math.min(a, b);
+        int end = Math.max(a, b);
+        int cutVertex = cutVertices.get(start, end);
+        if (cutVertex != -1) {
+            return cutVertex;
+        }
+        double startValue = positions[start * 3 + axis];
+        double endValue = positions[end * 3 + axis];
+        double factor = (planeValue - startValue) / (endValue - startValue);
+        cutVertex = addInterpolatedVertex(start, end, factor);
+        positions[cutVertex * 3 + axis] = planeValue;
+        cutVertices.put(start, end, cutVertex);
+        return cutVertex;
+    }
+
+    private int addInterpolatedVertex(int a, int b, double factor) {
+        int vertex = verticesCount++;
+        for (int k = 0; k < 3; k++) {
+            positions[vertex * 3 + k] = positions[a * 3 + k] + (positions[b * 3 + k] - positions[a * 3 + k]) * factor;
+        }
+        if (normals != null) {
+            double nx = normals[a * 3] + (normals[b * 3] - normals[a * 3]) * factor;
+            double ny = normals[a * 3 + 1] + (normals[b * 3 + 1] - normals[a * 3 + 1]) * factor;
+            double nz = normals[a * 3 + 2] + (normals[b * 3 + 2] - normals[a * 3 + 2]) * factor;
+            double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+            if (length > 0.0) {
+                nx /= length;
+                ny /= length;
+                nz /= length;
+            }
+            normals[vertex * 3] = (float) nx;
+            normals[vertex * 3 + 1] = (float) ny;
+            normals[vertex * 3 + 2] = (float) nz;
+        }
+        if (texcoords != null) {
+            for (int k = 0; k < 2; k++) {
+                texcoords[vertex * 2 + k] = texcoords[a * 2 + k] + (texcoords[b * 2 + k] - texcoords[a * 2 + k]) * factor;
+            }
+        }
+        if (colors != null) {
+            for (int k = 0; k < colorSize; k++) {
+                int colorA = colors[a * colorSize + k] & 0xff;
+                int colorB = colors[b * colorSize + k] & 0xff;
+                colors[vertex * colorSize + k] = (byte) Math.round(colorA + (colorB - colorA) * factor);
+            }
+        }
+        batchIds[vertex] = batchIds[a];
+        return vertex;
+    }
+
+    /**
+     * Classifies the triangles by the side of their barycenter, 2 above the plane and 1 below or on it.
+     */
+    public int[] classifyFacesByPlane(PlaneType planeType, Vector3d planePosition) {
+        int axis = getAxis(planeType);
+        int[] classifyIds = new int[trianglesCount];
+        if (axis == -1) {
+            Arrays.fill(classifyIds, BELOW);
+            return classifyIds;
+        }
+        double planeValue = planePosition.get(axis);
+        for (int t = 0; t < trianglesCount; t++) {
+            double barycenter = 0.0;
+            for (int k = 0; k < 3; k++) {
+                barycenter += positions[halfEdgeVertices[t * 3 + k] * 3 + axis];
+            }
+            classifyIds[t] = barycenter / 3.0 > planeValue ? ABOVE : BELOW;
+        }
+        return classifyIds;
+    }
+
+    /**
+     * Copies the triangles with the classifyId, with their used vertices only.
+     */
+    public HalfEdgeArrayMesh cloneByClassifyId(int[] classifyIds, int classifyId) {
+        HalfEdgeArrayMesh clone = new HalfEdgeArrayMesh();
+        clone.materialIndex = materialIndex;
+        clone.allocateVertices(verticesCount, normals != null, texcoords != null, colorSize);
+        clone.verticesCount = verticesCount;
+        System.arraycopy(positions, 0, clone.positions, 0, verticesCount * 3);
+        if (normals != null) {
+            System.arraycopy(normals, 0, clone.normals, 0, verticesCount * 3);
+        }
+        if (texcoords != null) {
+            System.arraycopy(texcoords, 0, clone.texcoords, 0, verticesCount * 2);
+        }
+        if (colors != null) {
+            System.arraycopy(colors, 0, clone.colors, 0, verticesCount * colorSize);
+        }
+        System.arraycopy(batchIds, 0, clone.batchIds, 0, verticesCount);
+        clone.allocateTriangles(trianglesCount);
+        clone.trianglesCount = trianglesCount;
+        System.arraycopy(halfEdgeVertices, 0, clone.halfEdgeVertices, 0, trianglesCount * 3);
+
+        boolean[] removedTriangles = new boolean[trianglesCount];
+        for (int t = 0; t < trianglesCount; t++) {
+            removedTriangles[t] = classifyIds[t] != classifyId;
+        }
+        clone.setTriangles(clone.halfEdgeVertices, removedTriangles);
+        return clone;
+    }
+
+    /**
+     * Groups the triangles connected through their vertices, so each vertex belongs to one group.
+     *
+     * @return the groups count
+     */
+    public int getWeldedFacesGroups(int[] resultGroupIds) {
+        int[] parents = new int[verticesCount];
+        for (int v = 0; v < verticesCount; v++) {
+            parents[v] = v;
+        }
+        for (int t = 0; t < trianglesCount; t++) {
+            int a = findRoot(parents, halfEdgeVertices[t * 3]);
+            for (int k = 1; k < 3; k++) {
+                int b = findRoot(parents, halfEdgeVertices[t * 3 + k]);
+                if (a != b) {
+                    parents[b] = a;
+                }
+            }
+        }
+        int[] rootGroups = new int[verticesCount];
+        Arrays.fill(rootGroups, -1);
+        int groupsCount = 0;
+        for (int t = 0; t < trianglesCount; t++) {
+            int root = findRoot(parents, halfEdgeVertices[t * 3]);
+            if (rootGroups[root] == -1) {
+                rootGroups[root] = groupsCount++;
+            }
+            resultGroupIds[t] = rootGroups[root];
+        }
+        return groupsCount;
+    }
+
+    private static int findRoot(int[] parents, int vertex) {
+        while (parents[vertex] != vertex) {
+            parents[vertex] = parents[parents[vertex]];
+            vertex = parents[vertex];
+        }
+        return vertex;
+    }
+
+    /**
+     * Scissors the used parts of the diffuse texture into an atlas, as HalfEdgeSurface.scissorTextures.
+     */
+    public void scissorTextures(GaiaMaterial material) {
+        if (material == null || texcoords == null) {
+            return;
+        }
+        List<GaiaTexture> diffuseTextures = material.getTextures().get(TextureType.DIFFUSE);
+        if (diffuseTextures == null || diffuseTextures.isEmpty()) {
+            return;
+        }
+        GaiaTexture texture = diffuseTextures.get(0);
+        if (texture.getBufferedImage() == null) {
+            return;
+        }
+        boolean existPngTextures = texture.getPath().endsWith(".png") || texture.getPath().endsWith(".PNG");
+        int texWidth = texture.getWidth();
+        int texHeight = texture.getHeight();
+
+        int[] groupIds = new int[trianglesCount];
+        int groupsCount = getWeldedFacesGroups(groupIds);
+        int[] vertexGroups = new int[verticesCount];
+        Arrays.fill(vertexGroups, -1);
+        double[] groupRects = new double[groupsCount * 4];
+        Arrays.fill(groupRects, Double.NaN);
+        for (int t = 0; t < trianglesCount; t++) {
+            int group = groupIds[t];
+            for (int k = 0; k < 3; k++) {
+                int vertex = halfEdgeVertices[t * 3 + k];
+                vertexGroups[vertex] = group;
+                double u = texcoords[vertex * 2];
+                double v = texcoords[vertex * 2 + 1];
+                if (Double.isNaN(groupRects[group * 4])) {
+                    groupRects[group * 4] = u;
+                    groupRects[group * 4 + 1] = v;
+                    groupRects[group * 4 + 2] = u;
+                    groupRects[group * 4 + 3] = v;
+                } else {
+                    groupRects[group * 4] = Math.min(groupRects[group * 4], u);
+                    groupRects[group * 4 + 1] = Math.min(groupRects[group * 4 + 1], v);
+                    groupRects[group * 4 + 2] = Math.max(groupRects[group * 4 + 2], u);
+                    groupRects[group * 4 + 3] = Math.max(groupRects[group * 4 + 3], v);
+                }
+            }
+        }
+
+        // translate the groups out of the unit square into the positive quadrant.***
+        for (int group = 0; group < groupsCount; group++) {
+            double minU = groupRects[group * 4];
+            double minV = groupRects[group * 4 + 1];
+            double offsetU = minU < 0.0 || minU > 1.0 ? Math.floor(minU) : 0.0;
+            double offsetV = minV < 0.0 || minV > 1.0 ? Math.floor(minV) : 0.0;
+            groupRects[group * 4] -= offsetU;
+            groupRects[group * 4 + 1] -= offsetV;
+            groupRects[group * 4 + 2] -= offsetU;
+            groupRects[group * 4 + 3] -= offsetV;
+            if (offsetU != 0.0 || offsetV != 0.0) {
+                for (int vertex = 0; vertex < verticesCount; vertex++) {
+                    if (vertexGroups[vertex] == group) {
+                        texcoords[vertex * 2] -= offsetU;
+                        texcoords[vertex * 2 + 1] -= offsetV;
+                    }
+                }
+            }
+        }
+
+        GaiaTextureScissorData[] groupScissorDatas = new GaiaTextureScissorData[groupsCount];
+        List<GaiaTextureScissorData> textureScissorDatasWidth = new ArrayList<>();
+        List<GaiaTextureScissorData> textureScissorDatasHeight = new ArrayList<>();
+        for (int group = 0; group < groupsCount; group++) {
+            GaiaRectangle groupTexCoordRect = new GaiaRectangle(groupRects[group * 4], groupRects[group * 4 + 1], groupRects[group * 4 + 2], groupRects[group * 4 + 3]);
+            if (groupTexCoordRect.getWidthInt() == 0 || groupTexCoordRect.getHeightInt() == 0) {
+                continue;
+            }
+            GaiaTextureScissorData textureScissorData = new GaiaTextureScissorData();
+            textureScissorData.setCurrentBoundary(new GaiaRectangle(groupTexCoordRect.getMinX() * texWidth, groupTexCoordRect.getMinY() * texHeight, groupTexCoordRect.getMaxX() * texWidth, groupTexCoordRect.getMaxY() * texHeight));
+            if (groupTexCoordRect.getWidth() > groupTexCoordRect.getHeight()) {
+                textureScissorDatasWidth.add(textureScissorData);
+            } else {
+                textureScissorDatasHeight.add(textureScissorData);
+            }
+            groupScissorDatas[group] = textureScissorData;
+        }
+
+        List<GaiaTextureScissorData> textureScissorDatas = HalfEdgeSurface.packTextureScissorDatas(textureScissorDatasWidth, textureScissorDatasHeight);
+        int maxWidth = HalfEdgeSurface.getMaxWidth(textureScissorDatas);
+        int maxHeight = HalfEdgeSurface.getMaxHeight(textureScissorDatas);
+        if (maxWidth == 0 || maxHeight == 0) {
+            log.warn("[Atlas] HalfEdgeArrayMesh.scissorTextures() : maxWidth == 0 || maxHeight == 0.");
+            return;
+        }
+
+        // texCoords relative to the current boundary, then placed on the batched boundary of the atlas.***
+        for (int vertex = 0; vertex < verticesCount; vertex++) {
+            int group = vertexGroups[vertex];
+            if (group == -1 || groupScissorDatas[group] == null) {
+                continue;
+            }
+            GaiaRectangle currentBoundary = groupScissorDatas[group].getCurrentBoundary();
+            GaiaRectangle batchedBoundary = groupScissorDatas[group].getBatchedBoundary();
+            double xRel = (texcoords[vertex * 2] * texWidth - currentBoundary.getMinX()) / currentBoundary.getWidthInt();
+            double yRel = (texcoords[vertex * 2 + 1] * texHeight - currentBoundary.getMinY()) / currentBoundary.getHeightInt();
+            texcoords[vertex * 2] = (batchedBoundary.getMinX() + xRel * batchedBoundary.getWidthInt()) / maxWidth;
+            texcoords[vertex * 2 + 1] = (batchedBoundary.getMinY() + yRel * batchedBoundary.getHeightInt()) / maxHeight;
+        }
+        HalfEdgeSurface.writeTextureAtlas(texture, textureScissorDatas, maxWidth, maxHeight, existPngTextures);
+    }
+
+    /**
+     * Keeps the triangles that are not removed, removes the unused vertices and sets the twins again.
+     */
+    void setTriangles(int[] newHalfEdgeVertices, boolean[] removedTriangles) {
+        int count = 0;
+        for (int t = 0; t < trianglesCount; t++) {
+            if (removedTriangles[t]) {
+                continue;
+            }
+            halfEdgeVertices[count * 3] = newHalfEdgeVertices[t * 3];
+            halfEdgeVertices[count * 3 + 1] = newHalfEdgeVertices[t * 3 + 1];
+            halfEdgeVertices[count * 3 + 2] = newHalfEdgeVertices[t * 3 + 2];
+            count++;
+        }
+        trianglesCount = count;
+        removeUnusedVertices();
+        setTwins();
+    }
+
+    private void removeUnusedVertices() {
+        int[] newIndices = new int[verticesCount];
+        Arrays.fill(newIndices, -1);
+        for (int h = 0; h < trianglesCount * 3; h++) {
+            newIndices[halfEdgeVertices[h]] = 0;
+        }
+        int count = 0;
+        for (int v = 0; v < verticesCount; v++) {
+            if (newIndices[v] == -1) {
+                continue;
+            }
+            newIndices[v] = count;
+            if (count != v) {
+                System.arraycopy(positions, v * 3, positions, count * 3, 3);
+                if (normals != null) {
+                    System.arraycopy(normals, v * 3, normals, count * 3, 3);
+                }
+                if (texcoords != null) {
+                    System.arraycopy(texcoords, v * 2, texcoords, count * 2, 2);
+                }
+                if (colors != null) {
+                    System.arraycopy(colors, v * colorSize, colors, count * colorSize, colorSize);
+                }
+                batchIds[count] = batchIds[v];
+            }
+            count++;
+        }
+        verticesCount = count;
+        for (int h = 0; h < trianglesCount * 3; h++) {
+            halfEdgeVertices[h] = newIndices[halfEdgeVertices[h]];
+        }
+    }
+
+    private void setTriangle(int triangle, int a, int b, int c) {
+        halfEdgeVertices[triangle * 3] = a;
+        halfEdgeVertices[triangle * 3 + 1] = b;
+        halfEdgeVertices[triangle * 3 + 2] = c;
+    }
+
+    private void addTriangle(int a, int b, int c) {
+        setTriangle(trianglesCount++, a, b, c);
+    }
+
+    private void allocateVertices(int capacity, boolean hasNormals, boolean hasTexcoords, int colorSize) {
+        this.positions = new double[capacity * 3];
+        this.normals = hasNormals ? new float[capacity * 3] : null;
+        this.texcoords = hasTexcoords ? new double[capacity * 2] : null;
+        this.colorSize = colorSize;
+        this.colors = colorSize > 0 ? new byte[capacity * colorSize] : null;
+        this.batchIds = new float[capacity];
+    }
+
+    private void allocateTriangles(int capacity) {
+        this.halfEdgeVertices = new int[capacity * 3];
+        this.halfEdgeTwins = new int[capacity * 3];
+    }
+
+    private void ensureVerticesCapacity(int capacity) {
+        if (batchIds.length >= capacity) {
+            return;
+        }
+        positions = Arrays.copyOf(positions, capacity * 3);
+        normals = normals != null ? Arrays.copyOf(normals, capacity * 3) : null;
+        texcoords = texcoords != null ? Arrays.copyOf(texcoords, capacity * 2) : null;
+        colors = colors != null ? Arrays.copyOf(colors, capacity * colorSize) : null;
+        batchIds = Arrays.copyOf(batchIds, capacity);
+    }
+
+    private void ensureTrianglesCapacity(int capacity) {
+        if (halfEdgeVertices.length >= capacity * 3) {
+            return;
+        }
+        halfEdgeVertices = Arrays.copyOf(halfEdgeVertices, capacity * 3);
+        halfEdgeTwins = Arrays.copyOf(halfEdgeTwins, capacity * 3);
+    }
+
+    private static int getAxis(PlaneType planeType) {
+        if (planeType == PlaneType.YZ) {
+            return 0;
+        } else if (planeType == PlaneType.XZ) {
+            return 1;
+        } else if (planeType == PlaneType.XY) {
+            return 2;
+        }
+        return -1;
+    }
+
+    /**
+     * Open addressing table from a directed edge (start, end) to an int value, -1 when absent.
+     */
+    private static class EdgeTable {
+        private final long[] keys;
+        private final int[] values;
+        private final int mask;
+
+        EdgeTable(int expectedSize) {
+            int capacity = Integer.highestOneBit(Math.max(16, expectedSize) * 2 - 1) << 1;
+            keys = new long[capacity];
+            values = new int[capacity];
+            Arrays.fill(values, -1);
+            mask = capacity - 1;
+        }
+
+        void put(int start, int end, int value) {
+            long key = ((long) start << 32) | (end & 0xffffffffL);
+            int slot = slot(key);
+            while (values[slot] != -1 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+        }
+
+        int get(int start, int end) {
+            long key = ((long) start << 32) | (end & 0xffffffffL);
+            int slot = slot(key);
+            while (values[slot] != -1) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private int slot(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
@@ -27,6 +27,12 @@ public class HalfEdgeMesh implements Serializable {
         }
     }
 
+    public void doTrianglesReductionQuadric(DecimateParameters decimateParameters) {
+        for (HalfEdgePrimitive primitive : primitives) {
+            primitive.doTrianglesReductionQuadric(decimateParameters);
+        }
+    }
+
     public void deleteObjects() {
         for (HalfEdgePrimitive primitive : primitives) {
             primitive.deleteObjects();
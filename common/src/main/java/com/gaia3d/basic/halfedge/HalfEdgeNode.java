@@ -34,6 +34,15 @@ public class HalfEdgeNode implements Serializable {
         }
     }
 
+    public void doTrianglesReductionQuadric(DecimateParameters decimateParameters) {
+        for (HalfEdgeMesh mesh : meshes) {
+            mesh.doTrianglesReductionQuadric(decimateParameters);
+        }
+        for (HalfEdgeNode child : children) {
+            child.doTrianglesReductionQuadric(decimateParameters);
+        }
+    }
+
     public void deleteObjects() {
         for (HalfEdgeMesh mesh : meshes) {
             mesh.deleteObjects();
@@ -36,6 +36,18 @@ public class HalfEdgePrimitive implements Serializable {
         }
     }
 
+    public void doTrianglesReductionQuadric(DecimateParameters decimateParameters) {
+        for (HalfEdgeSurface surface : surfaces) {
+            surface.doTrianglesReductionQuadric(decimateParameters);
+        }
+
+        // Remake vertices.***
+        vertices.clear();
+        for (HalfEdgeSurface surface : surfaces) {
+            this.vertices.addAll(surface.getVertices());
+        }
+    }
+
     public List<HalfEdgeVertex> getVertices() {
         return calculateVertices();
     }
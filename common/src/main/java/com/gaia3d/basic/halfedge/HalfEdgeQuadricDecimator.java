@@ -0,0 +1,838 @@
+package com.gaia3d.basic.halfedge;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+
+/**
+ * Quadric error metric decimator of a triangulated HalfEdgeSurface or HalfEdgeArrayMesh.
+ * The surface is copied into index based half-edge arrays (half-edge h belongs to the triangle h / 3),
+ * the candidate collapses are ordered by their quadric error in an updatable binary heap
+ * and only the neighbourhood of each collapse is updated.
+ * The quadrics are weighted by the triangle areas, so the error of a collapse is the mean squared distance to the original planes.
+ * The collapsed vertex is moved onto the kept vertex (half-edge collapse), so the vertex attributes are never interpolated.
+ * The frontier vertices, as the texture seams, only collapse along straight frontiers.
+ */
+@Slf4j
+public class HalfEdgeQuadricDecimator {
+    private static final byte INTERIOR = 0;
+    private static final byte FRONTIER = 1;
+    private static final byte LOCKED = 2;
+    private static final double FRONTIER_WEIGHT = 10.0;
+    private static final double MIN_SQUARED_AREA = 1e-24;
+    private static final int QUADRIC_SIZE = 11;
+
+    private final HalfEdgeSurface surface;
+    private final HalfEdgeArrayMesh arrayMesh;
+    private final List<HalfEdgeVertex> vertexList = new ArrayList<>();
+    private final List<HalfEdge> halfEdgeList = new ArrayList<>();
+    private final List<HalfEdgeFace> faceList = new ArrayList<>();
+
+    private double[] positions;
+    private double[] quadrics;
+    private int[] halfEdgeVertices;
+    private int[] halfEdgeTwins;
+    private int[] vertexHalfEdges;
+    private byte[] vertexTypes;
+    private boolean[] removedFaces;
+    private int[] vertexMarks;
+    private int verticesCount = 0;
+    private int markStamp = 0;
+    private int trianglesCount = 0;
+    private CollapseHeap heap;
+    private final IntList fanU = new IntList();
+    private final IntList fanV = new IntList();
+    private final IntList candidates = new IntList();
+
+    private double maxDiffAngCos;
+    private double frontierMaxDiffAngCos;
+    private double maxAspectRatio;
+
+    public HalfEdgeQuadricDecimator(HalfEdgeSurface surface) {
+        this.surface = surface;
+        this.arrayMesh = null;
+    }
+
+    public HalfEdgeQuadricDecimator(HalfEdgeArrayMesh arrayMesh) {
+        this.surface = null;
+        this.arrayMesh = arrayMesh;
+    }
+
+    /**
+     * Decimates with the target ratio and the error bound of the parameters, the error bound defaults to the hedgeMinLength.
+     */
+    public int decimate(DecimateParameters decimateParameters) {
+        int activeFacesCount = 0;
+        if (arrayMesh != null) {
+            activeFacesCount = arrayMesh.getTrianglesCount();
+        } else {
+            for (HalfEdgeFace face : surface.getFaces()) {
+                if (face.getStatus() != ObjectStatus.DELETED) {
+                    activeFacesCount++;
+                }
+            }
+        }
+        int targetTrianglesCount = (int) (activeFacesCount * decimateParameters.getTargetTrianglesRatio());
+        double maxError = decimateParameters.getMaxQuadricError();
+        if (maxError < 0.0) {
+            maxError = decimateParameters.getHedgeMinLength();
+        }
+        return decimate(targetTrianglesCount, maxError, decimateParameters);
+    }
+
+    /**
+     * Collapses the cheapest half-edges until the surface has targetTrianglesCount triangles
+     * or the next collapse moves the surface farther than maxError, as the root mean squared distance to the original planes.
+     *
+     * @return the collapses count
+     */
+    public int decimate(int targetTrianglesCount, double maxError, DecimateParameters decimateParameters) {
+        if (!build()) {
+            log.debug("[Decimate] The surface is not triangulated, skipped the quadric decimation.");
+            return 0;
+        }
+        maxDiffAngCos = Math.cos(Math.toRadians(decimateParameters.getMaxDiffAngDegrees()));
+        frontierMaxDiffAngCos = Math.cos(Math.toRadians(decimateParameters.getFrontierMaxDiffAngDeg()));
+        maxAspectRatio = decimateParameters.getMaxAspectRatio();
+        double maxSquaredError = maxError * maxError;
+        int maxCollapsesCount = decimateParameters.getMaxCollapsesCount();
+
+        int originalTrianglesCount = trianglesCount;
+        int collapsesCount = 0;
+        while (trianglesCount > targetTrianglesCount && collapsesCount < maxCollapsesCount && !heap.isEmpty()) {
+            if (heap.peekCost() > maxSquaredError) {
+                break;
+            }
+            int candidate = heap.poll();
+            if (collapse(candidate)) {
+                collapsesCount++;
+            }
+        }
+        apply();
+        log.debug("[Decimate] triangles {} -> {}, collapses {}", originalTrianglesCount, trianglesCount, collapsesCount);
+        return collapsesCount;
+    }
+
+    private boolean build() {
+        boolean copied = arrayMesh != null ? copyArrayMesh() : copySurface();
+        if (!copied) {
+            return false;
+        }
+        buildTopology();
+        return true;
+    }
+
+    private boolean copyArrayMesh() {
+        verticesCount = arrayMesh.getVerticesCount();
+        trianglesCount = arrayMesh.getTrianglesCount();
+        positions = Arrays.copyOf(arrayMesh.getPositions(), verticesCount * 3);
+        halfEdgeVertices = Arrays.copyOf(arrayMesh.getHalfEdgeVertices(), trianglesCount * 3);
+        return true;
+    }
+
+    private boolean copySurface() {
+        Map<HalfEdgeVertex, Integer> mapVertexToIndex = new IdentityHashMap<>();
+        List<HalfEdge> loop = new ArrayList<>();
+        for (HalfEdgeFace face : surface.getFaces()) {
+            if (face.getStatus() == ObjectStatus.DELETED) {
+                continue;
+            }
+            loop.clear();
+            face.getHalfEdgesLoop(loop);
+            if (loop.size() != 3) {
+                return false;
+            }
+            faceList.add(face);
+            for (HalfEdge halfEdge : loop) {
+                halfEdgeList.add(halfEdge);
+                HalfEdgeVertex vertex = halfEdge.getStartVertex();
+                if (vertex == null || vertex.getPosition() == null) {
+                    return false;
+                }
+                if (!mapVertexToIndex.containsKey(vertex)) {
+                    mapVertexToIndex.put(vertex, vertexList.size());
+                    vertexList.add(vertex);
+                }
+            }
+        }
+
+        verticesCount = vertexList.size();
+        int halfEdgesCount = halfEdgeList.size();
+        trianglesCount = faceList.size();
+        positions = new double[verticesCount * 3];
+        for (int i = 0; i < verticesCount; i++) {
+            HalfEdgeVertex vertex = vertexList.get(i);
+            positions[i * 3] = vertex.getPosition().x;
+            positions[i * 3 + 1] = vertex.getPosition().y;
+            positions[i * 3 + 2] = vertex.getPosition().z;
+        }
+        halfEdgeVertices = new int[halfEdgesCount];
+        for (int h = 0; h < halfEdgesCount; h++) {
+            halfEdgeVertices[h] = mapVertexToIndex.get(halfEdgeList.get(h).getStartVertex());
+        }
+        return true;
+    }
+
+    private void buildTopology() {
+        int halfEdgesCount = halfEdgeVertices.length;
+        removedFaces = new boolean[trianglesCount];
+        vertexMarks = new int[verticesCount];
+
+        // twins by vertex identity, the repeated directed edges are non-manifold.***
+        halfEdgeTwins = new int[halfEdgesCount];
+        vertexTypes = new byte[verticesCount];
+        Map<Long, Integer> mapEdgeToHalfEdge = new HashMap<>(halfEdgesCount * 2);
+        for (int h = 0; h < halfEdgesCount; h++) {
+            Integer previous = mapEdgeToHalfEdge.put(edgeKey(halfEdgeVertices[h], endVertex(h)), h);
+            if (previous != null) {
+                vertexTypes[halfEdgeVertices[h]] = LOCKED;
+                vertexTypes[endVertex(h)] = LOCKED;
+            }
+        }
+        for (int h = 0; h < halfEdgesCount; h++) {
+            Integer twin = mapEdgeToHalfEdge.get(edgeKey(endVertex(h), halfEdgeVertices[h]));
+            halfEdgeTwins[h] = twin == null ? -1 : twin;
+        }
+        for (int h = 0; h < halfEdgesCount; h++) {
+            int twin = halfEdgeTwins[h];
+            if (twin != -1 && halfEdgeTwins[twin] != h) {
+                halfEdgeTwins[h] = -1;
+            }
+        }
+
+        // the frontier vertices start their fan at the frontier outing half-edge.***
+        vertexHalfEdges = new int[verticesCount];
+        Arrays.fill(vertexHalfEdges, -1);
+        int[] outingCounts = new int[verticesCount];
+        int[] frontierCounts = new int[verticesCount];
+        for (int h = 0; h < halfEdgesCount; h++) {
+            int vertex = halfEdgeVertices[h];
+            outingCounts[vertex]++;
+            if (halfEdgeTwins[h] == -1) {
+                frontierCounts[vertex]++;
+                vertexHalfEdges[vertex] = h;
+            } else if (vertexHalfEdges[vertex] == -1) {
+                vertexHalfEdges[vertex] = h;
+            }
+        }
+        for (int v = 0; v < verticesCount; v++) {
+            if (vertexTypes[v] == LOCKED) {
+                continue;
+            }
+            if (frontierCounts[v] > 1 || countFan(v) != outingCounts[v]) {
+                vertexTypes[v] = LOCKED;
+            } else if (frontierCounts[v] == 1) {
+                vertexTypes[v] = FRONTIER;
+            }
+        }
+
+        buildQuadrics();
+        heap = new CollapseHeap(halfEdgesCount * 2);
+        for (int h = 0; h < halfEdgesCount; h++) {
+            updateEdge(h);
+        }
+    }
+
+    private void buildQuadrics() {
+        quadrics = new double[verticesCount * QUADRIC_SIZE];
+        double[] normal = new double[3];
+        for (int f = 0; f < trianglesCount; f++) {
+            int a = halfEdgeVertices[f * 3];
+            int b = halfEdgeVertices[f * 3 + 1];
+            int c = halfEdgeVertices[f * 3 + 2];
+            if (!triangleNormal(a, b, c, normal)) {
+                continue;
+            }
+            double area = Math.sqrt(triangleSquaredDoubleArea(a, b, c)) * 0.5;
+            double d = -dot(normal, a);
+            addPlane(a, normal[0], normal[1], normal[2], d, area);
+            addPlane(b, normal[0], normal[1], normal[2], d, area);
+            addPlane(c, normal[0], normal[1], normal[2], d, area);
+
+            // the frontier edges keep their place by a plane perpendicular to the face.***
+            for (int k = 0; k < 3; k++) {
+                int h = f * 3 + k;
+                if (halfEdgeTwins[h] != -1) {
+                    continue;
+                }
+                int start = halfEdgeVertices[h];
+                int end = endVertex(h);
+                double ex = positions[end * 3] - positions[start * 3];
+                double ey = positions[end * 3 + 1] - positions[start * 3 + 1];
+                double ez = positions[end * 3 + 2] - positions[start * 3 + 2];
+                double px = ey * normal[2] - ez * normal[1];
+                double py = ez * normal[0] - ex * normal[2];
+                double pz = ex * normal[1] - ey * normal[0];
+                double length = Math.sqrt(px * px + py * py + pz * pz);
+                if (length <= 0.0) {
+                    continue;
+                }
+                px /= length;
+                py /= length;
+                pz /= length;
+                double pd = -(px * positions[start * 3] + py * positions[start * 3 + 1] + pz * positions[start * 3 + 2]);
+                double weight = FRONTIER_WEIGHT * length * length;
+                addPlane(start, px, py, pz, pd, weight);
+                addPlane(end, px, py, pz, pd, weight);
+            }
+        }
+    }
+
+    private void addPlane(int vertex, double a, double b, double c, double d, double weight) {
+        int offset = vertex * QUADRIC_SIZE;
+        quadrics[offset] += weight * a * a;
+        quadrics[offset + 1] += weight * a * b;
+        quadrics[offset + 2] += weight * a * c;
+        quadrics[offset + 3] += weight * a * d;
+        quadrics[offset + 4] += weight * b * b;
+        quadrics[offset + 5] += weight * b * c;
+        quadrics[offset + 6] += weight * b * d;
+        quadrics[offset + 7] += weight * c * c;
+        quadrics[offset + 8] += weight * c * d;
+        quadrics[offset + 9] += weight * d * d;
+        quadrics[offset + 10] += weight;
+    }
+
+    private double evaluateQuadric(int quadricVertex, int positionVertex) {
+        int offset = quadricVertex * QUADRIC_SIZE;
+        double x = positions[positionVertex * 3];
+        double y = positions[positionVertex * 3 + 1];
+        double z = positions[positionVertex * 3 + 2];
+        double[] q = quadrics;
+        return q[offset] * x * x + 2 * q[offset + 1] * x * y + 2 * q[offset + 2] * x * z + 2 * q[offset + 3] * x
+                + q[offset + 4] * y * y + 2 * q[offset + 5] * y * z + 2 * q[offset + 6] * y
+                + q[offset + 7] * z * z + 2 * q[offset + 8] * z
+                + q[offset + 9];
+    }
+
+    /**
+     * The candidate 2h collapses the start vertex of h into its end vertex,
+     * the candidate 2h + 1 collapses the end vertex into the start vertex and only exists for the frontier half-edges.
+     */
+    private void updateEdge(int h) {
+        if (removedFaces[h / 3]) {
+            heap.remove(h * 2);
+            heap.remove(h * 2 + 1);
+            return;
+        }
+        int start = halfEdgeVertices[h];
+        int end = endVertex(h);
+        boolean frontier = halfEdgeTwins[h] == -1;
+        updateCandidate(h * 2, start, end, frontier);
+        if (frontier) {
+            updateCandidate(h * 2 + 1, end, start, true);
+        } else {
+            heap.remove(h * 2 + 1);
+        }
+    }
+
+    private void updateCandidate(int candidate, int collapsedVertex, int keptVertex, boolean frontierEdge) {
+        byte type = vertexTypes[collapsedVertex];
+        if (type == LOCKED || (type == FRONTIER && !frontierEdge)) {
+            heap.remove(candidate);
+            return;
+        }
+        double cost = evaluateQuadric(collapsedVertex, keptVertex) + evaluateQuadric(keptVertex, keptVertex);
+        double weight = quadrics[collapsedVertex * QUADRIC_SIZE + 10] + quadrics[keptVertex * QUADRIC_SIZE + 10];
+        heap.update(candidate, weight > 0.0 ? Math.max(cost / weight, 0.0) : 0.0);
+    }
+
+    private boolean collapse(int candidate) {
+        int h = candidate >> 1;
+        if (removedFaces[h / 3]) {
+            return false;
+        }
+        int u;
+        int v;
+        int halfEdgeUV;
+        int halfEdgeVU;
+        if ((candidate & 1) == 0) {
+            u = halfEdgeVertices[h];
+            v = endVertex(h);
+            halfEdgeUV = h;
+            halfEdgeVU = halfEdgeTwins[h];
+        } else {
+            u = endVertex(h);
+            v = halfEdgeVertices[h];
+            halfEdgeUV = -1;
+            halfEdgeVU = h;
+        }
+        if (!canCollapse(u, v, halfEdgeUV, halfEdgeVU)) {
+            return false;
+        }
+
+        IntList outingHalfEdges = getFan(u, fanU);
+        int a = -1;
+        int b = -1;
+        candidates.clear();
+        if (halfEdgeUV != -1) {
+            int next = next(halfEdgeUV);
+            int prev = prev(halfEdgeUV);
+            a = halfEdgeVertices[prev];
+            int twinNext = halfEdgeTwins[next];
+            int twinPrev = halfEdgeTwins[prev];
+            linkTwins(twinNext, twinPrev);
+            candidates.add(twinNext);
+            if (twinPrev != -1) {
+                candidates.add(next(twinPrev));
+            }
+            removeFace(halfEdgeUV / 3);
+        }
+        if (halfEdgeVU != -1) {
+            int next = next(halfEdgeVU);
+            int prev = prev(halfEdgeVU);
+            b = halfEdgeVertices[prev];
+            int twinNext = halfEdgeTwins[next];
+            int twinPrev = halfEdgeTwins[prev];
+            linkTwins(twinNext, twinPrev);
+            candidates.add(twinNext);
+            if (twinPrev != -1) {
+                candidates.add(next(twinPrev));
+            }
+            removeFace(halfEdgeVU / 3);
+        }
+        for (int i = 0; i < outingHalfEdges.size(); i++) {
+            int outing = outingHalfEdges.get(i);
+            if (!removedFaces[outing / 3]) {
+                halfEdgeVertices[outing] = v;
+            }
+        }
+        for (int i = 0; i < QUADRIC_SIZE; i++) {
+            quadrics[v * QUADRIC_SIZE + i] += quadrics[u * QUADRIC_SIZE + i];
+        }
+        vertexHalfEdges[u] = -1;
+
+        outingHalfEdges.add(vertexHalfEdges[v]);
+        resetVertexHalfEdge(v, outingHalfEdges);
+        if (a != -1) {
+            candidates.add(vertexHalfEdges[a]);
+            resetVertexHalfEdge(a, candidates);
+        }
+        if (b != -1) {
+            candidates.add(vertexHalfEdges[b]);
+            resetVertexHalfEdge(b, candidates);
+        }
+
+        // the costs of all the edges around the kept vertex changed.***
+        IntList fan = getFan(v, fanV);
+        for (int i = 0; i < fan.size(); i++) {
+            int outing = fan.get(i);
+            updateEdge(outing);
+            updateEdge(prev(outing));
+            if (halfEdgeTwins[outing] != -1) {
+                updateEdge(halfEdgeTwins[outing]);
+            }
+        }
+        return true;
+    }
+
+    private boolean canCollapse(int u, int v, int halfEdgeUV, int halfEdgeVU) {
+        if (vertexHalfEdges[u] == -1 || vertexHalfEdges[v] == -1 || vertexTypes[u] == LOCKED) {
+            return false;
+        }
+        boolean frontierEdge = halfEdgeUV == -1 || halfEdgeVU == -1;
+        if (vertexTypes[u] == FRONTIER) {
+            if (!frontierEdge) {
+                return false;
+            }
+            // the frontier only collapses where it is straight.***
+            int w;
+            if (halfEdgeUV != -1) {
+                IntList frontierFan = getFan(u, fanU);
+                w = halfEdgeVertices[prev(frontierFan.get(frontierFan.size() - 1))];
+            } else {
+                w = endVertex(vertexHalfEdges[u]);
+            }
+            if (cosAngle(w, u, u, v) < frontierMaxDiffAngCos) {
+                return false;
+            }
+        }
+        // a triangle whose other edges are frontiers would leave its opposite vertex alone.***
+        if (halfEdgeUV != -1 && halfEdgeTwins[next(halfEdgeUV)] == -1 && halfEdgeTwins[prev(halfEdgeUV)] == -1) {
+            return false;
+        }
+        if (halfEdgeVU != -1 && halfEdgeTwins[next(halfEdgeVU)] == -1 && halfEdgeTwins[prev(halfEdgeVU)] == -1) {
+            return false;
+        }
+
+        // link condition, the only common neighbours are the opposite vertices of the collapsed triangles.***
+        int a = halfEdgeUV != -1 ? halfEdgeVertices[prev(halfEdgeUV)] : -1;
+        int b = halfEdgeVU != -1 ? halfEdgeVertices[prev(halfEdgeVU)] : -1;
+        markStamp++;
+        IntList fan = getFan(u, fanU);
+        for (int i = 0; i < fan.size(); i++) {
+            int outing = fan.get(i);
+            vertexMarks[endVertex(outing)] = markStamp;
+            vertexMarks[halfEdgeVertices[prev(outing)]] = markStamp;
+        }
+        IntList neighbourFan = getFan(v, fanV);
+        for (int i = 0; i < neighbourFan.size(); i++) {
+            int outing = neighbourFan.get(i);
+            int neighbour = endVertex(outing);
+            if (neighbour != u && neighbour != a && neighbour != b && vertexMarks[neighbour] == markStamp) {
+                return false;
+            }
+            neighbour = halfEdgeVertices[prev(outing)];
+            if (neighbour != u && neighbour != a && neighbour != b && vertexMarks[neighbour] == markStamp) {
+                return false;
+            }
+        }
+
+        // the moved triangles must not flip or turn into slivers.***
+        double[] oldNormal = new double[3];
+        double[] newNormal = new double[3];
+        for (int i = 0; i < fan.size(); i++) {
+            int outing = fan.get(i);
+            int face = outing / 3;
+            if (outing == halfEdgeUV || (halfEdgeVU != -1 && face == halfEdgeVU / 3)) {
+                continue;
+            }
+            int second = endVertex(outing);
+            int third = halfEdgeVertices[prev(outing)];
+            if (second == v || third == v) {
+                continue;
+            }
+            if (!triangleNormal(u, second, third, oldNormal)) {
+                continue;
+            }
+            if (!triangleNormal(v, second, third, newNormal)) {
+                return false;
+            }
+            double cos = oldNormal[0] * newNormal[0] + oldNormal[1] * newNormal[1] + oldNormal[2] * newNormal[2];
+            if (cos < maxDiffAngCos) {
+                return false;
+            }
+            double newAspectRatio = aspectRatio(v, second, third);
+            if (newAspectRatio > maxAspectRatio && newAspectRatio > aspectRatio(u, second, third)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void removeFace(int face) {
+        removedFaces[face] = true;
+        trianglesCount--;
+        for (int k = 0; k < 3; k++) {
+            int h = face * 3 + k;
+            heap.remove(h * 2);
+            heap.remove(h * 2 + 1);
+        }
+    }
+
+    private void linkTwins(int first, int second) {
+        if (first != -1) {
+            halfEdgeTwins[first] = second;
+        }
+        if (second != -1) {
+            halfEdgeTwins[second] = first;
+        }
+    }
+
+    /**
+     * Sets the first valid outing half-edge of the candidates, rewound to the frontier for the frontier vertices.
+     */
+    private void resetVertexHalfEdge(int vertex, IntList candidates) {
+        int outing = -1;
+        for (int i = 0; i < candidates.size(); i++) {
+            int candidate = candidates.get(i);
+            if (candidate != -1 && !removedFaces[candidate / 3] && halfEdgeVertices[candidate] == vertex) {
+                outing = candidate;
+                break;
+            }
+        }
+        if (outing != -1) {
+            int start = outing;
+            while (halfEdgeTwins[outing] != -1) {
+                int previousOuting = next(halfEdgeTwins[outing]);
+                if (previousOuting == start) {
+                    break;
+                }
+                outing = previousOuting;
+            }
+        }
+        vertexHalfEdges[vertex] = outing;
+    }
+
+    /**
+     * The outing half-edges of the vertex, in order from its frontier outing half-edge when it has one.
+     */
+    private IntList getFan(int vertex, IntList resultFan) {
+        resultFan.clear();
+        int start = vertexHalfEdges[vertex];
+        if (start == -1) {
+            return resultFan;
+        }
+        int outing = start;
+        int guard = halfEdgeVertices.length;
+        do {
+            resultFan.add(outing);
+            outing = halfEdgeTwins[prev(outing)];
+        } while (outing != -1 && outing != start && --guard > 0);
+        return resultFan;
+    }
+
+    private int countFan(int vertex) {
+        return getFan(vertex, fanU).size();
+    }
+
+    /**
+     * Writes the collapses back into the surface objects and removes the deleted ones,
+     * or keeps the remaining triangles of the array mesh.
+     */
+    private void apply() {
+        if (arrayMesh != null) {
+            arrayMesh.setTriangles(halfEdgeVertices, removedFaces);
+            return;
+        }
+        int halfEdgesCount = halfEdgeList.size();
+        for (HalfEdge halfEdge : halfEdgeList) {
+            halfEdge.setTwin(null);
+        }
+        for (int h = 0; h < halfEdgesCount; h++) {
+            HalfEdge halfEdge = halfEdgeList.get(h);
+            if (removedFaces[h / 3]) {
+                halfEdge.setStatus(ObjectStatus.DELETED);
+            } else {
+                halfEdge.setStartVertex(vertexList.get(halfEdgeVertices[h]));
+            }
+        }
+        for (int h = 0; h < halfEdgesCount; h++) {
+            int twin = halfEdgeTwins[h];
+            if (!removedFaces[h / 3] && twin > h) {
+                halfEdgeList.get(h).setTwin(halfEdgeList.get(twin));
+            }
+        }
+        for (int f = 0; f < faceList.size(); f++) {
+            if (removedFaces[f]) {
+                faceList.get(f).setStatus(ObjectStatus.DELETED);
+            }
+        }
+        for (int v = 0; v < vertexList.size(); v++) {
+            HalfEdgeVertex vertex = vertexList.get(v);
+            if (vertexHalfEdges[v] == -1) {
+                vertex.setStatus(ObjectStatus.DELETED);
+            } else {
+                vertex.setOutingHalfEdge(halfEdgeList.get(vertexHalfEdges[v]));
+            }
+        }
+        surface.removeDeletedObjects();
+        surface.setDirty(true);
+    }
+
+    private int endVertex(int h) {
+        return halfEdgeVertices[next(h)];
+    }
+
+    private static int next(int h) {
+        return h % 3 == 2 ? h - 2 : h + 1;
+    }
+
+    private static int prev(int h) {
+        return h % 3 == 0 ? h + 2 : h - 1;
+    }
+
+    private static long edgeKey(int start, int end) {
+        return ((long) start << 32) | (end & 0xffffffffL);
+    }
+
+    private double dot(double[] normal, int vertex) {
+        return normal[0] * positions[vertex * 3] + normal[1] * positions[vertex * 3 + 1] + normal[2] * positions[vertex * 3 + 2];
+    }
+
+    private boolean triangleNormal(int a, int b, int c, double[] resultNormal) {
+        cross(a, b, c, resultNormal);
+        double squaredLength = resultNormal[0] * resultNormal[0] + resultNormal[1] * resultNormal[1] + resultNormal[2] * resultNormal[2];
+        if (squaredLength <= MIN_SQUARED_AREA) {
+            return false;
+        }
+        double length = Math.sqrt(squaredLength);
+        resultNormal[0] /= length;
+        resultNormal[1] /= length;
+        resultNormal[2] /= length;
+        return true;
+    }
+
+    private double triangleSquaredDoubleArea(int a, int b, int c) {
+        double[] cross = new double[3];
+        cross(a, b, c, cross);
+        return cross[0] * cross[0] + cross[1] * cross[1] + cross[2] * cross[2];
+    }
+
+    private void cross(int a, int b, int c, double[] result) {
+        double abx = positions[b * 3] - positions[a * 3];
+        double aby = positions[b * 3 + 1] - positions[a * 3 + 1];
+        double abz = positions[b * 3 + 2] - positions[a * 3 + 2];
+        double acx = positions[c * 3] - positions[a * 3];
+        double acy = positions[c * 3 + 1] - positions[a * 3 + 1];
+        double acz = positions[c * 3 + 2] - positions[a * 3 + 2];
+        result[0] = aby * acz - abz * acy;
+        result[1] = abz * acx - abx * acz;
+        result[2] = abx * acy - aby * acx;
+    }
+
+    /**
+     * The longest edge over the height on it.
+     */
+    private double aspectRatio(int a, int b, int c) {
+        double ab = squaredDistance(a, b);
+        double bc = squaredDistance(b, c);
+        double ca = squaredDistance(c, a);
+        double longest = Math.max(ab, Math.max(bc, ca));
+        double doubleArea = Math.sqrt(triangleSquaredDoubleArea(a, b, c));
+        if (doubleArea <= 0.0) {
+            return Double.MAX_VALUE;
+        }
+        return longest / doubleArea;
+    }
+
+    private double squaredDistance(int a, int b) {
+        double dx = positions[b * 3] - positions[a * 3];
+        double dy = positions[b * 3 + 1] - positions[a * 3 + 1];
+        double dz = positions[b * 3 + 2] - positions[a * 3 + 2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * The cosine of the angle between the directions from a to b and from c to d.
+     */
+    private double cosAngle(int a, int b, int c, int d) {
+        double x1 = positions[b * 3] - positions[a * 3];
+        double y1 = positions[b * 3 + 1] - positions[a * 3 + 1];
+        double z1 = positions[b * 3 + 2] - positions[a * 3 + 2];
+        double x2 = positions[d * 3] - positions[c * 3];
+        double y2 = positions[d * 3 + 1] - positions[c * 3 + 1];
+        double z2 = positions[d * 3 + 2] - positions[c * 3 + 2];
+        double lengths = Math.sqrt((x1 * x1 + y1 * y1 + z1 * z1) * (x2 * x2 + y2 * y2 + z2 * z2));
+        if (lengths <= 0.0) {
+            return 1.0;
+        }
+        return (x1 * x2 + y1 * y2 + z1 * z2) / lengths;
+    }
+
+    /**
+     * Growable int array, reused by the fan traversals.
+     */
+    private static class IntList {
+        private int[] values = new int[16];
+        private int size = 0;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+
+    /**
+     * Binary min heap of the candidate collapses, the position of each candidate is kept to update or remove it in place.
+     */
+    private static class CollapseHeap {
+        private final int[] items;
+        private final double[] costs;
+        private final int[] positions;
+        private int size = 0;
+
+        CollapseHeap(int candidatesCount) {
+            items = new int[candidatesCount];
+            costs = new double[candidatesCount];
+            positions = new int[candidatesCount];
+            Arrays.fill(positions, -1);
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        double peekCost() {
+            return costs[items[0]];
+        }
+
+        int poll() {
+            int first = items[0];
+            remove(first);
+            return first;
+        }
+
+        void update(int candidate, double cost) {
+            int position = positions[candidate];
+            costs[candidate] = cost;
+            if (position == -1) {
+                position = size++;
+                items[position] = candidate;
+                positions[candidate] = position;
+                siftUp(position);
+            } else {
+                siftDown(siftUp(position));
+            }
+        }
+
+        void remove(int candidate) {
+            int position = positions[candidate];
+            if (position == -1) {
+                return;
+            }
+            positions[candidate] = -1;
+            size--;
+            if (position == size) {
+                return;
+            }
+            int last = items[size];
+            items[position] = last;
+            positions[last] = position;
+            siftDown(siftUp(position));
+        }
+
+        private int siftUp(int position) {
+            int item = items[position];
+            while (position > 0) {
+                int parent = (position - 1) / 2;
+                int parentItem = items[parent];
+                if (costs[parentItem] <= costs[item]) {
+                    break;
+                }
+                items[position] = parentItem;
+                positions[parentItem] = position;
+                position = parent;
+            }
+            items[position] = item;
+            positions[item] = position;
+            return position;
+        }
+
+        private void siftDown(int position) {
+            int item = items[position];
+            while (true) {
+                int child = position * 2 + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && costs[items[child + 1]] < costs[items[child]]) {
+                    child++;
+                }
+                int childItem = items[child];
+                if (costs[item] <= costs[childItem]) {
+                    break;
+                }
+                items[position] = childItem;
+                positions[childItem] = position;
+                position = child;
+            }
+            items[position] = item;
+            positions[item] = position;
+        }
+    }
+}
@@ -80,6 +80,12 @@ public class HalfEdgeScene implements Serializable {
         }
     }
 
+    public void doTrianglesReductionQuadric(DecimateParameters decimateParameters) {
+        for (HalfEdgeNode node : nodes) {
+            node.doTrianglesReductionQuadric(decimateParameters);
+        }
+    }
+
     public List<GaiaMaterial> getCopyMaterials() {
         List<GaiaMaterial> copyMaterials = new ArrayList<>();
         for (GaiaMaterial material : materials) {
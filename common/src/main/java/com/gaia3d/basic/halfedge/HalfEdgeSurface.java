@@ -519,7 +519,7 @@ public class HalfEdgeSurface implements Serializable {
         int originalHalfEdgesCount = halfEdges.size();
         int originalVerticesCount = vertices.size();
 
-        log.info("halfEdgesCount = " + originalHalfEdgesCount);
+        log.debug("halfEdgesCount = " + originalHalfEdgesCount);
         int counterAux = 0;
         int hedgesCollapsedCount = 0;
         int frontierHedgesCollapsedCount = 0;
@@ -624,8 +624,8 @@ public class HalfEdgeSurface implements Serializable {
                 }
                 if (counterAux >= 4000) {
                     counterAux = 0;
-                    log.info("iteration = " + iteration + " halfEdges deleted = " + hedgesCollapsedCount);
-                    log.info("iteration = " + iteration + " frontierHedges deleted = " + frontierHedgesCollapsedCount);
+                    log.debug("iteration = " + iteration + " halfEdges deleted = " + hedgesCollapsedCount);
+                    log.debug("iteration = " + iteration + " frontierHedges deleted = " + frontierHedgesCollapsedCount);
                 }
             }
 
@@ -637,8 +637,8 @@ public class HalfEdgeSurface implements Serializable {
                 finished = true;
             }
 
-            log.info("iteration = " + iteration + ", hedgesCollapsedInOneIteration = " + hedgesCollapsedInOneIteration);
-            log.info("iteration = " + iteration + ", frontierHedgesCollapsedInOneIteration = " + frontierHedgesCollapsedInOneIteration);
+            log.debug("iteration = " + iteration + ", hedgesCollapsedInOneIteration = " + hedgesCollapsedInOneIteration);
+            log.debug("iteration = " + iteration + ", frontierHedgesCollapsedInOneIteration = " + frontierHedgesCollapsedInOneIteration);
 
             iteration++;
 
@@ -648,7 +648,7 @@ public class HalfEdgeSurface implements Serializable {
             this.removeDeletedObjects();
         }
 
-        log.info("*** TOTAL HALFEDGES DELETED = " + hedgesCollapsedCount);
+        log.debug("*** TOTAL HALFEDGES DELETED = " + hedgesCollapsedCount);
 
         int finalFacesCount = faces.size();
         int finalHalfEdgesCount = halfEdges.size();
@@ -658,9 +658,13 @@ public class HalfEdgeSurface implements Serializable {
         int halfEdgesCountDiff = originalHalfEdgesCount - finalHalfEdgesCount;
         int verticesCountDiff = originalVerticesCount - finalVerticesCount;
 
-        log.info("faces % deleted = " + (facesCountDiff * 100.0) / originalFacesCount);
-        log.info("halfEdges % deleted = " + (halfEdgesCountDiff * 100.0) / originalHalfEdgesCount);
-        log.info("vertices % deleted = " + (verticesCountDiff * 100.0) / originalVerticesCount);
+        log.debug("faces % deleted = " + (facesCountDiff * 100.0) / originalFacesCount);
+        log.debug("halfEdges % deleted = " + (halfEdgesCountDiff * 100.0) / originalHalfEdgesCount);
+        log.debug("vertices % deleted = " + (verticesCountDiff * 100.0) / originalVerticesCount);
+    }
+
+    public void doTrianglesReductionQuadric(DecimateParameters decimateParameters) {
+        new HalfEdgeQuadricDecimator(this).decimate(decimateParameters);
     }
 
     public List<HalfEdge> getHalfEdgesSortedByLength(List<HalfEdge> resultHalfEdgesSortedByLength) {
@@ -3009,30 +3013,7 @@ public class HalfEdgeSurface implements Serializable {
             scissorDataToFaceGroupMap.put(textureScissorData, weldedFacesGroup);
         }
 
-        // Now, sort the textureScissorDatas by xLength & yLength (big to small).***
-        textureScissorDatasWidth = textureScissorDatasWidth.stream().sorted(Comparator.comparing(textureScissorData -> textureScissorData.getCurrentBoundary().getWidthInt())).collect(Collectors.toList());
-        Collections.reverse(textureScissorDatasWidth);
-        textureScissorDatasHeight = textureScissorDatasHeight.stream().sorted(Comparator.comparing(textureScissorData -> textureScissorData.getCurrentBoundary().getHeightInt())).collect(Collectors.toList());
-        Collections.reverse(textureScissorDatasHeight);
-
-        // make a unique textureScissorData, alternating width & height.***
-        int textureScissorDatasWidthCount = textureScissorDatasWidth.size();
-        int textureScissorDatasHeightCount = textureScissorDatasHeight.size();
-
-        List<GaiaTextureScissorData> textureScissorDatas = new ArrayList<>();
-        int maxCount = Math.max(textureScissorDatasWidthCount, textureScissorDatasHeightCount);
-        for (int i = 0; i < maxCount; i++) {
-            if (i < textureScissorDatasWidthCount) {
-                textureScissorDatas.add(textureScissorDatasWidth.get(i));
-            }
-
-            if (i < textureScissorDatasHeightCount) {
-                textureScissorDatas.add(textureScissorDatasHeight.get(i));
-            }
-        }
-
-        // do texture atlas process.***
-        doTextureAtlasProcess(textureScissorDatas);
+        List<GaiaTextureScissorData> textureScissorDatas = packTextureScissorDatas(textureScissorDatasWidth, textureScissorDatasHeight);
 
         // recalculate texCoords for each faceGroup.***************************************************************************************************
         // TODO : must recalculate the texCoords for each faceGroup. is not necessary to recalculate all texCoords.***
@@ -3103,6 +3084,44 @@ public class HalfEdgeSurface implements Serializable {
         }
 
 
+        writeTextureAtlas(texture, textureScissorDatas, maxWidth, maxHeight, existPngTextures);
+    }
+
+    /**
+     * Places the scissored rectangles into the atlas, alternating the widest and the tallest ones (big to small).
+     */
+    static List<GaiaTextureScissorData> packTextureScissorDatas(List<GaiaTextureScissorData> textureScissorDatasWidth, List<GaiaTextureScissorData> textureScissorDatasHeight) {
+        // Now, sort the textureScissorDatas by xLength & yLength (big to small).***
+        textureScissorDatasWidth = textureScissorDatasWidth.stream().sorted(Comparator.comparing(textureScissorData -> textureScissorData.getCurrentBoundary().getWidthInt())).collect(Collectors.toList());
+        Collections.reverse(textureScissorDatasWidth);
+        textureScissorDatasHeight = textureScissorDatasHeight.stream().sorted(Comparator.comparing(textureScissorData -> textureScissorData.getCurrentBoundary().getHeightInt())).collect(Collectors.toList());
+        Collections.reverse(textureScissorDatasHeight);
+
+        // make a unique textureScissorData, alternating width & height.***
+        int textureScissorDatasWidthCount = textureScissorDatasWidth.size();
+        int textureScissorDatasHeightCount = textureScissorDatasHeight.size();
+
+        List<GaiaTextureScissorData> textureScissorDatas = new ArrayList<>();
+        int maxCount = Math.max(textureScissorDatasWidthCount, textureScissorDatasHeightCount);
+        for (int i = 0; i < maxCount; i++) {
+            if (i < textureScissorDatasWidthCount) {
+                textureScissorDatas.add(textureScissorDatasWidth.get(i));
+            }
+
+            if (i < textureScissorDatasHeightCount) {
+                textureScissorDatas.add(textureScissorDatasHeight.get(i));
+            }
+        }
+
+        // do texture atlas process.***
+        doTextureAtlasProcess(textureScissorDatas);
+        return textureScissorDatas;
+    }
+
+    /**
+     * Draws the scissored rectangles of the texture into the atlas image, which replaces the texture file.
+     */
+    static void writeTextureAtlas(GaiaTexture texture, List<GaiaTextureScissorData> textureScissorDatas, int maxWidth, int maxHeight, boolean existPngTextures) {
         int imageType = existPngTextures ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
 
         GaiaTexture textureAtlas = new GaiaTexture();
@@ -3120,7 +3139,7 @@ public class HalfEdgeSurface implements Serializable {
 
         // draw the images into textureAtlas.***
         g2d = textureAtlas.getBufferedImage().createGraphics();
-        textureScissorDatasCount = textureScissorDatas.size();
+        int textureScissorDatasCount = textureScissorDatas.size();
         for (int i = 0; i < textureScissorDatasCount; i++) {
             GaiaTextureScissorData textureScissorData = textureScissorDatas.get(i);
             GaiaRectangle currentBoundary = textureScissorData.getCurrentBoundary();
@@ -3189,7 +3208,7 @@ public class HalfEdgeSurface implements Serializable {
         textureAtlas.saveImage(textureAtlasPath);
 
         // change the diffuseTexture path.***
-        diffuseTextures.get(0).setPath(textureAtlasName);
+        texture.setPath(textureAtlasName);
 
         // delete the original texture.***
         String textureToDeletePath = imageParentPath + File.separator + texturePath;
@@ -3199,7 +3218,7 @@ public class HalfEdgeSurface implements Serializable {
         }
     }
 
-    private void doTextureAtlasProcess(List<GaiaTextureScissorData> textureScissorDates) {
+    static void doTextureAtlasProcess(List<GaiaTextureScissorData> textureScissorDates) {
         //*********************************************************************
         // here calculates the batchedBoundaries of each textureScissorData.***
         //*********************************************************************
@@ -3239,7 +3258,7 @@ public class HalfEdgeSurface implements Serializable {
                 beforeMosaicRectangle.copyFrom(batchedBoundary);
             } else {
                 // 1rst, find the best position for image into atlas.***
-                bestPosition = this.getBestPositionMosaicInAtlas(currProcessScissorDates, textureScissorData, bestPosition, beforeMosaicRectangle, listRectangles, mapMaxXrectangles);
+                bestPosition = getBestPositionMosaicInAtlas(currProcessScissorDates, textureScissorData, bestPosition, beforeMosaicRectangle, listRectangles, mapMaxXrectangles);
                 batchedBoundary = new GaiaRectangle(bestPosition.x, bestPosition.y, bestPosition.x + originBoundary.getWidthInt(), bestPosition.y + originBoundary.getHeightInt());
                 textureScissorData.setBatchedBoundary(batchedBoundary);
                 beforeMosaicRectangle.addBoundingRectangle(batchedBoundary);
@@ -3255,17 +3274,17 @@ public class HalfEdgeSurface implements Serializable {
         }
     }
 
-    private int getMaxWidth(List<GaiaTextureScissorData> compareImages) {
+    static int getMaxWidth(List<GaiaTextureScissorData> compareImages) {
         int result = compareImages.stream().mapToInt(textureScissorData -> (int) textureScissorData.getBatchedBoundary().getMaxX()).max().orElse(0);
         return result;
     }
 
-    private int getMaxHeight(List<GaiaTextureScissorData> compareImages) {
+    static int getMaxHeight(List<GaiaTextureScissorData> compareImages) {
         int result = compareImages.stream().mapToInt(textureScissorData -> (int) textureScissorData.getBatchedBoundary().getMaxY()).max().orElse(0);
         return result;
     }
 
-    private Vector2d getBestPositionMosaicInAtlas(List<GaiaTextureScissorData> currProcessScissorDates, GaiaTextureScissorData scissorDataToPutInMosaic, Vector2d resultVec, GaiaRectangle beforeMosaicRectangle, List<GaiaRectangle> listRectangles, TreeMap<Double, List<GaiaRectangle>> map_maxXrectangles) {
+    private static Vector2d getBestPositionMosaicInAtlas(List<GaiaTextureScissorData> currProcessScissorDates, GaiaTextureScissorData scissorDataToPutInMosaic, Vector2d resultVec, GaiaRectangle beforeMosaicRectangle, List<GaiaRectangle> listRectangles, TreeMap<Double, List<GaiaRectangle>> map_maxXrectangles) {
         if (resultVec == null) {
             resultVec = new Vector2d();
         }
@@ -3306,7 +3325,7 @@ public class HalfEdgeSurface implements Serializable {
             scissorDataToPutInMosaic.getBatchedBoundary().setMaxY(currPosY + height);
 
             // put our rectangle into mosaic & check that no intersects with another rectangles.***
-            if (!this.intersectsRectangleAtlasingProcess(listRectangles, scissorDataToPutInMosaic.getBatchedBoundary(), map_maxXrectangles)) {
+            if (!intersectsRectangleAtlasingProcess(listRectangles, scissorDataToPutInMosaic.getBatchedBoundary(), map_maxXrectangles)) {
                 GaiaRectangle afterMosaicRectangle = new GaiaRectangle(0.0, 0.0, 0.0, 0.0);
                 afterMosaicRectangle.copyFrom(beforeMosaicRectangle);
                 afterMosaicRectangle.addBoundingRectangle(scissorDataToPutInMosaic.getBatchedBoundary());
@@ -3338,7 +3357,7 @@ public class HalfEdgeSurface implements Serializable {
             scissorDataToPutInMosaic.getBatchedBoundary().setMaxY(currPosY + height);
 
             // put our rectangle into mosaic & check that no intersects with another rectangles.***
-            if (!this.intersectsRectangleAtlasingProcess(listRectangles, scissorDataToPutInMosaic.getBatchedBoundary(), map_maxXrectangles)) {
+            if (!intersectsRectangleAtlasingProcess(listRectangles, scissorDataToPutInMosaic.getBatchedBoundary(), map_maxXrectangles)) {
                 GaiaRectangle afterMosaicRectangle = new GaiaRectangle(0.0, 0.0, 0.0, 0.0);
                 afterMosaicRectangle.copyFrom(beforeMosaicRectangle);
                 afterMosaicRectangle.addBoundingRectangle(scissorDataToPutInMosaic.getBatchedBoundary());
@@ -3366,7 +3385,7 @@ public class HalfEdgeSurface implements Serializable {
     }
 
 
-    private boolean intersectsRectangleAtlasingProcess(List<GaiaRectangle> listRectangles, GaiaRectangle rectangle, TreeMap<Double, List<GaiaRectangle>> map_maxXrectangles) {
+    private static boolean intersectsRectangleAtlasingProcess(List<GaiaRectangle> listRectangles, GaiaRectangle rectangle, TreeMap<Double, List<GaiaRectangle>> map_maxXrectangles) {
         // this function returns true if the rectangle intersects with any existent rectangle of the listRectangles.***
         boolean intersects = false;
         double error = 10E-5;
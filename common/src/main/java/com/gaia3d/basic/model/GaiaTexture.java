@@ -11,6 +11,8 @@ import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBufferByte;
@@ -18,6 +20,12 @@ import java.beans.Transient;
 import java.io.*;
 import java.nio.ByteBuffer;
 import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A class that represents a texture of a Gaia object.
@@ -31,6 +39,8 @@ import java.nio.file.Path;
 @NoArgsConstructor
 @AllArgsConstructor
 public class GaiaTexture extends TextureStructure implements Serializable {
+    private static final Map<String, String> fingerprintCache = new ConcurrentHashMap<>();
+
     private String parentPath;
     private String name;
     private String path;
@@ -46,6 +56,9 @@ public class GaiaTexture extends TextureStructure implements Serializable {
 
     private int textureId = -1;
 
+    /* content hash of the image file and the image size, equal fingerprints are the same image */
+    private String fingerprint;
+
     public void loadImage() {
         Path diffusePath = new File(path).toPath();
         String imagePath = parentPath + File.separator + diffusePath;
@@ -258,6 +271,70 @@ public class GaiaTexture extends TextureStructure implements Serializable {
         return isEqualTexture(compareTexture);
     }
 
+    /**
+     * Returns the fingerprint of the image, it is created from the image file once and kept in the temp file.
+     * A texture without a readable image file is identified by its full path.
+     */
+    public String getFingerprint() {
+        if (this.fingerprint == null) {
+            this.fingerprint = createFingerprint();
+        }
+        return this.fingerprint;
+    }
+
+    private String createFingerprint() {
+        if (path == null) {
+            return null;
+        }
+        String fullPath = getFullPath();
+        File imageFile;
+        try {
+            imageFile = ImageUtils.correctPath(parentPath == null ? null : new File(parentPath), new File(path));
+        } catch (FileNotFoundException e) {
+            log.debug("Texture file not found for fingerprint : {}", fullPath);
+            return "path:" + fullPath;
+        }
+        String cacheKey = imageFile.getAbsolutePath() + ":" + imageFile.length() + ":" + imageFile.lastModified();
+        return fingerprintCache.computeIfAbsent(cacheKey, (key) -> {
+            try {
+                return hashImageFile(imageFile);
+            } catch (IOException | NoSuchAlgorithmException e) {
+                log.error("Failed to create texture fingerprint : {}", imageFile.getAbsolutePath(), e);
+                return "path:" + fullPath;
+            }
+        });
+    }
+
+    private String hashImageFile(File imageFile) throws IOException, NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (DigestInputStream stream = new DigestInputStream(new BufferedInputStream(new FileInputStream(imageFile)), digest)) {
+            byte[] buffer = new byte[64 * 1024];
+            while (stream.read(buffer) != -1) {
+                // digest the whole file
+            }
+        }
+
+        // the size is read from the image header without decoding the pixels
+        int imageWidth = -1;
+        int imageHeight = -1;
+        try (ImageInputStream input = ImageIO.createImageInputStream(imageFile)) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers != null && readers.hasNext()) {
+                ImageReader reader = readers.next();
+                reader.setInput(input);
+                imageWidth = reader.getWidth(0);
+                imageHeight = reader.getHeight(0);
+                reader.dispose();
+            }
+        }
+
+        StringBuilder result = new StringBuilder();
+        for (byte value : digest.digest()) {
+            result.append(String.format("%02x", value));
+        }
+        return result.append(':').append(imageWidth).append('x').append(imageHeight).toString();
+    }
+
     public void clear() {
         if (this.bufferedImage != null) {
             this.bufferedImage.flush();
@@ -280,6 +357,7 @@ public class GaiaTexture extends TextureStructure implements Serializable {
         clonedTexture.setByteBuffer(this.byteBuffer);
         clonedTexture.setTextureId(this.textureId);
         clonedTexture.setParentPath(this.parentPath);
+        clonedTexture.setFingerprint(this.fingerprint);
         return clonedTexture;
     }
 
@@ -0,0 +1,195 @@
+package com.gaia3d.basic.pointcloud;
+
+import com.gaia3d.basic.geometry.GaiaBoundingBox;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Struct-of-arrays point storage for the point cloud path.
+ * Positions are kept as interleaved xyz doubles and colors as packed 0xRRGGBB ints,
+ * so a point costs no object allocation. Intensity and classification are allocated only when used.
+ * The arrays start at MIN_CAPACITY points and grow by half of their capacity,
+ * so the many small octree children do not reserve more than they hold.
+ */
+@Getter
+public class GaiaPointBuffer implements Serializable {
+    public static final int MIN_CAPACITY = 16;
+
+    private double[] positions;
+    private int[] colors;
+    private char[] intensities = null;
+    private byte[] classifications = null;
+    private int size = 0;
+
+    public GaiaPointBuffer() {
+        this(0);
+    }
+
+    public GaiaPointBuffer(int initialCapacity) {
+        this.positions = new double[initialCapacity * 3];
+        this.colors = new int[initialCapacity];
+    }
+
+    public static int packColor(byte red, byte green, byte blue) {
+        return ((red & 0xFF) << 16) | ((green & 0xFF) << 8) | (blue & 0xFF);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int capacity() {
+        return colors.length;
+    }
+
+    public int add(double x, double y, double z, int color) {
+        ensureCapacity(size + 1);
+        int index = size++;
+        int positionIndex = index * 3;
+        positions[positionIndex] = x;
+        positions[positionIndex + 1] = y;
+        positions[positionIndex + 2] = z;
+        colors[index] = color;
+        return index;
+    }
+
+    public int add(double x, double y, double z, byte red, byte green, byte blue) {
+        return add(x, y, z, packColor(red, green, blue));
+    }
+
+    /**
+     * Appends the point at the index of the source buffer, with its optional attributes.
+     */
+    public int add(GaiaPointBuffer source, int sourceIndex) {
+        int sourcePositionIndex = sourceIndex * 3;
+        int index = add(source.positions[sourcePositionIndex], source.positions[sourcePositionIndex + 1], source.positions[sourcePositionIndex + 2], source.colors[sourceIndex]);
+        if (source.intensities != null) {
+            setIntensity(index, source.intensities[sourceIndex]);
+        }
+        if (source.classifications != null) {
+            setClassification(index, source.classifications[sourceIndex]);
+        }
+        return index;
+    }
+
+    public double getX(int index) {
+        return positions[index * 3];
+    }
+
+    public double getY(int index) {
+        return positions[index * 3 + 1];
+    }
+
+    public double getZ(int index) {
+        return positions[index * 3 + 2];
+    }
+
+    public int getColor(int index) {
+        return colors[index];
+    }
+
+    public byte getRed(int index) {
+        return (byte) (colors[index] >> 16);
+    }
+
+    public byte getGreen(int index) {
+        return (byte) (colors[index] >> 8);
+    }
+
+    public byte getBlue(int index) {
+        return (byte) colors[index];
+    }
+
+    public char getIntensity(int index) {
+        return intensities == null ? 0 : intensities[index];
+    }
+
+    public void setIntensity(int index, char intensity) {
+        if (intensities == null) {
+            intensities = new char[capacity()];
+        }
+        intensities[index] = intensity;
+    }
+
+    public byte getClassification(int index) {
+        return classifications == null ? 0 : classifications[index];
+    }
+
+    public void setClassification(int index, byte classification) {
+        if (classifications == null) {
+            classifications = new byte[capacity()];
+        }
+        classifications[index] = classification;
+    }
+
+    /**
+     * Returns a new buffer holding the points in [from, to).
+     */
+    public GaiaPointBuffer copyRange(int from, int to) {
+        int length = Math.max(0, to - from);
+        GaiaPointBuffer copy = new GaiaPointBuffer(length);
+        System.arraycopy(positions, from * 3, copy.positions, 0, length * 3);
+        System.arraycopy(colors, from, copy.colors, 0, length);
+        if (intensities != null) {
+            copy.intensities = Arrays.copyOfRange(intensities, from, from + length);
+        }
+        if (classifications != null) {
+            copy.classifications = Arrays.copyOfRange(classifications, from, from + length);
+        }
+        copy.size = length;
+        return copy;
+    }
+
+    public GaiaBoundingBox calcBoundingBox() {
+        GaiaBoundingBox boundingBox = new GaiaBoundingBox();
+        for (int i = 0; i < size; i++) {
+            int positionIndex = i * 3;
+            boundingBox.addPoint(positions[positionIndex], positions[positionIndex + 1], positions[positionIndex + 2]);
+        }
+        return boundingBox;
+    }
+
+    public void ensureCapacity(int minCapacity) {
+        int capacity = capacity();
+        if (minCapacity <= capacity) {
+            return;
+        }
+        int newCapacity = Math.max(minCapacity, capacity + Math.max(MIN_CAPACITY, capacity >> 1));
+        positions = Arrays.copyOf(positions, newCapacity * 3);
+        colors = Arrays.copyOf(colors, newCapacity);
+        if (intensities != null) {
+            intensities = Arrays.copyOf(intensities, newCapacity);
+        }
+        if (classifications != null) {
+            classifications = Arrays.copyOf(classifications, newCapacity);
+        }
+    }
+
+    public void trimToSize() {
+        if (size == capacity()) {
+            return;
+        }
+        positions = Arrays.copyOf(positions, size * 3);
+        colors = Arrays.copyOf(colors, size);
+        if (intensities != null) {
+            intensities = Arrays.copyOf(intensities, size);
+        }
+        if (classifications != null) {
+            classifications = Arrays.copyOf(classifications, size);
+        }
+    }
+
+    public void clear() {
+        positions = new double[0];
+        colors = new int[0];
+        intensities = null;
+        classifications = null;
+        size = 0;
+    }
+}
@@ -2,7 +2,6 @@ package com.gaia3d.basic.pointcloud;
 
 import com.gaia3d.basic.geometry.GaiaBoundingBox;
 import com.gaia3d.basic.model.GaiaAttribute;
-import com.gaia3d.basic.model.GaiaVertex;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -25,7 +24,7 @@ public class GaiaPointCloud implements Serializable {
     private String code = "A";
     private Path originalPath;
     private GaiaBoundingBox gaiaBoundingBox = new GaiaBoundingBox();
-    private List<GaiaVertex> vertices = new ArrayList<>();
+    private GaiaPointBuffer points = new GaiaPointBuffer();
     private int vertexCount = 0;
     private GaiaAttribute gaiaAttribute = new GaiaAttribute();
     private boolean isMinimized = false;
@@ -34,7 +33,7 @@ public class GaiaPointCloud implements Serializable {
     private Vector3d quantizedVolumeOffset = null;
 
     public void minimizeTemp() {
-        vertices = null;
+        points = null;
         isMinimized = true;
     }
 
@@ -59,20 +58,14 @@ public class GaiaPointCloud implements Serializable {
         volumeScale[1] = quantizationScale.y;
         volumeScale[2] = quantizationScale.z;
         pointCloudTemp.writeHeader();
-        this.vertexCount = vertices.size();
-
-        pointCloudTemp.writePositionsFast(vertices);
-        this.vertices.clear();
-        try {
-            pointCloudTemp.getOutputStream().flush();
-            pointCloudTemp.getOutputStream().close();
-        } catch (IOException e) {
-            log.error("[Error][minimize] : Failed to minimize the point cloud.", e);
-            throw new RuntimeException(e);
-        }
+        this.vertexCount = points.size();
+
+        pointCloudTemp.writePositionsFast(points);
+        this.points.clear();
+        pointCloudTemp.close();
 
         // Minimize the point cloud
-        this.vertices = null;
+        this.points = null;
         this.isMinimized = true;
         this.minimizedFile = minimizedFile;
     }
@@ -85,42 +78,10 @@ public class GaiaPointCloud implements Serializable {
 
         pointCloudTemp.readHeader();
 
-        List<GaiaVertex> vertices = pointCloudTemp.readTemp();
-        vertexCount = vertices.size();
-        try {
-            pointCloudTemp.getInputStream().close();
-        } catch (IOException e) {
-            log.error("[Error][maximize] : Failed to maximize the point cloud.", e);
-        }
-        this.vertices = vertices;
-    }
-
-    public void maximizeTempOld() {
-        if (!isMinimized) {
-            log.warn("The point cloud is already maximized.");
-            return;
-        }
-        try (ObjectInputStream objectInputStream = new ObjectInputStream(new BufferedInputStream(new FileInputStream(minimizedFile)))) {
-            List<GaiaVertex> vertices = (List<GaiaVertex>) objectInputStream.readObject();
-            this.vertices = vertices;
-
-            vertices.forEach(vertex -> {
-                short[] quantizedPosition = vertex.getQuantizedPosition();
-                int xQuantizedPositionInt = toDoubleFromUnsignedShort(quantizedPosition[0]);
-                int yQuantizedPositionInt = toDoubleFromUnsignedShort(quantizedPosition[1]);
-                int zQuantizedPositionInt = toDoubleFromUnsignedShort(quantizedPosition[2]);
-
-                double xQuantizedPosition = xQuantizedPositionInt / 65535.0;
-                double yQuantizedPosition = yQuantizedPositionInt / 65535.0;
-                double zQuantizedPosition = zQuantizedPositionInt / 65535.0;
-
-                Vector3d position = new Vector3d(quantizedVolumeScale.x * xQuantizedPosition + quantizedVolumeOffset.x, quantizedVolumeScale.y * yQuantizedPosition + quantizedVolumeOffset.y, quantizedVolumeScale.z * zQuantizedPosition + quantizedVolumeOffset.z);
-                vertex.setPosition(position);
-                vertex.setQuantizedPosition(null);
-            });
-        } catch (Exception e) {
-            log.error("[Error][maximize] : Failed to maximize the point cloud.", e);
-        }
+        GaiaPointBuffer points = pointCloudTemp.readTemp();
+        vertexCount = points.size();
+        pointCloudTemp.close();
+        this.points = points;
     }
 
     public void maximize() {
@@ -165,20 +126,8 @@ public class GaiaPointCloud implements Serializable {
     // Quarter based on the bounding box
     public List<GaiaPointCloud> distributeHalf(boolean isX) {
         List<GaiaPointCloud> pointClouds = new ArrayList<>();
-
-        GaiaBoundingBox gaiaBoundingBoxA = new GaiaBoundingBox();
-        GaiaPointCloud gaiaPointCloudA = new GaiaPointCloud();
-        gaiaPointCloudA.setCode("A");
-        gaiaPointCloudA.setOriginalPath(originalPath);
-        gaiaPointCloudA.setGaiaBoundingBox(gaiaBoundingBoxA);
-        List<GaiaVertex> verticesA = gaiaPointCloudA.getVertices();
-
-        GaiaBoundingBox gaiaBoundingBoxB = new GaiaBoundingBox();
-        GaiaPointCloud gaiaPointCloudB = new GaiaPointCloud();
-        gaiaPointCloudB.setCode("B");
-        gaiaPointCloudB.setOriginalPath(originalPath);
-        gaiaPointCloudB.setGaiaBoundingBox(gaiaBoundingBoxB);
-        List<GaiaVertex> verticesB = gaiaPointCloudB.getVertices();
+        GaiaPointCloud gaiaPointCloudA = createChild("A", false);
+        GaiaPointCloud gaiaPointCloudB = createChild("B", false);
 
         double minX = gaiaBoundingBox.getMinX();
         double minY = gaiaBoundingBox.getMinY();
@@ -187,24 +136,13 @@ public class GaiaPointCloud implements Serializable {
         double midX = (minX + maxX) / 2;
         double midY = (minY + maxY) / 2;
 
-        for (GaiaVertex vertex : this.vertices) {
-            Vector3d center = vertex.getPosition();
-            if (isX) {
-                if (midX < center.x()) {
-                    verticesB.add(vertex);
-                    gaiaBoundingBoxB.addPoint(center);
-                } else {
-                    verticesA.add(vertex);
-                    gaiaBoundingBoxA.addPoint(center);
-                }
+        int size = points.size();
+        for (int i = 0; i < size; i++) {
+            boolean isUpper = isX ? midX < points.getX(i) : midY < points.getY(i);
+            if (isUpper) {
+                gaiaPointCloudB.addPoint(points, i);
             } else {
-                if (midY < center.y()) {
-                    verticesB.add(vertex);
-                    gaiaBoundingBoxB.addPoint(center);
-                } else {
-                    verticesA.add(vertex);
-                    gaiaBoundingBoxA.addPoint(center);
-                }
+                gaiaPointCloudA.addPoint(points, i);
             }
         }
 
@@ -216,34 +154,10 @@ public class GaiaPointCloud implements Serializable {
     // Quarter based on the bounding box
     public List<GaiaPointCloud> distributeQuad() {
         List<GaiaPointCloud> pointClouds = new ArrayList<>();
-
-        GaiaBoundingBox gaiaBoundingBoxA = new GaiaBoundingBox();
-        GaiaPointCloud gaiaPointCloudA = new GaiaPointCloud();
-        gaiaPointCloudA.setCode("A");
-        gaiaPointCloudA.setOriginalPath(originalPath);
-        gaiaPointCloudA.setGaiaBoundingBox(gaiaBoundingBoxA);
-        List<GaiaVertex> verticesA = gaiaPointCloudA.getVertices();
-
-        GaiaBoundingBox gaiaBoundingBoxB = new GaiaBoundingBox();
-        GaiaPointCloud gaiaPointCloudB = new GaiaPointCloud();
-        gaiaPointCloudB.setCode("B");
-        gaiaPointCloudB.setOriginalPath(originalPath);
-        gaiaPointCloudB.setGaiaBoundingBox(gaiaBoundingBoxB);
-        List<GaiaVertex> verticesB = gaiaPointCloudB.getVertices();
-
-        GaiaBoundingBox gaiaBoundingBoxC = new GaiaBoundingBox();
-        GaiaPointCloud gaiaPointCloudC = new GaiaPointCloud();
-        gaiaPointCloudC.setCode("C");
-        gaiaPointCloudC.setOriginalPath(originalPath);
-        gaiaPointCloudC.setGaiaBoundingBox(gaiaBoundingBoxC);
-        List<GaiaVertex> verticesC = gaiaPointCloudC.getVertices();
-
-        GaiaBoundingBox gaiaBoundingBoxD = new GaiaBoundingBox();
-        GaiaPointCloud gaiaPointCloudD = new GaiaPointCloud();
-        gaiaPointCloudD.setCode("D");
-        gaiaPointCloudD.setOriginalPath(originalPath);
-        gaiaPointCloudD.setGaiaBoundingBox(gaiaBoundingBoxD);
-        List<GaiaVertex> verticesD = gaiaPointCloudD.getVertices();
+        GaiaPointCloud gaiaPointCloudA = createChild("A", false);
+        GaiaPointCloud gaiaPointCloudB = createChild("B", false);
+        GaiaPointCloud gaiaPointCloudC = createChild("C", false);
+        GaiaPointCloud gaiaPointCloudD = createChild("D", false);
 
         double minX = gaiaBoundingBox.getMinX();
         double minY = gaiaBoundingBox.getMinY();
@@ -252,23 +166,21 @@ public class GaiaPointCloud implements Serializable {
         double midX = (minX + maxX) / 2;
         double midY = (minY + maxY) / 2;
 
-        for (GaiaVertex vertex : this.vertices) {
-            Vector3d center = vertex.getPosition();
-            if (midX < center.x()) {
-                if (midY < center.y()) {
-                    verticesC.add(vertex);
-                    gaiaBoundingBoxC.addPoint(center);
+        int size = points.size();
+        for (int i = 0; i < size; i++) {
+            double x = points.getX(i);
+            double y = points.getY(i);
+            if (midX < x) {
+                if (midY < y) {
+                    gaiaPointCloudC.addPoint(points, i);
                 } else {
-                    verticesB.add(vertex);
-                    gaiaBoundingBoxB.addPoint(center);
+                    gaiaPointCloudB.addPoint(points, i);
                 }
             } else {
-                if (midY < center.y()) {
-                    verticesD.add(vertex);
-                    gaiaBoundingBoxD.addPoint(center);
+                if (midY < y) {
+                    gaiaPointCloudD.addPoint(points, i);
                 } else {
-                    verticesA.add(vertex);
-                    gaiaBoundingBoxA.addPoint(center);
+                    gaiaPointCloudA.addPoint(points, i);
                 }
             }
         }
@@ -283,70 +195,14 @@ public class GaiaPointCloud implements Serializable {
     // Octree based on the bounding box
     public List<GaiaPointCloud> distributeOct() {
         List<GaiaPointCloud> pointClouds = new ArrayList<>();
-
-        GaiaBoundingBox gaiaBoundingBoxA = new GaiaBoundingBox();
-        GaiaPointCloud gaiaPointCloudA = new GaiaPointCloud();
-        gaiaPointCloudA.setCode("A");
-        gaiaPointCloudA.setOriginalPath(originalPath);
-        gaiaPointCloudA.setGaiaBoundingBox(gaiaBoundingBoxA);
-        gaiaPointCloudA.setGaiaAttribute(gaiaAttribute);
-        List<GaiaVertex> verticesA = gaiaPointCloudA.getVertices();
-
-        GaiaBoundingBox gaiaBoundingBoxB = new GaiaBoundingBox();
-        GaiaPointCloud gaiaPointCloudB = new GaiaPointCloud();
-        gaiaPointCloudB.setCode("B");
-        gaiaPointCloudB.setOriginalPath(originalPath);
-        gaiaPointCloudB.setGaiaBoundingBox(gaiaBoundingBoxB);
-        gaiaPointCloudB.setGaiaAttribute(gaiaAttribute);
-        List<GaiaVertex> verticesB = gaiaPointCloudB.getVertices();
-
-        GaiaBoundingBox gaiaBoundingBoxC = new GaiaBoundingBox();
-        GaiaPointCloud gaiaPointCloudC = new GaiaPointCloud();
-        gaiaPointCloudC.setCode("C");
-        gaiaPointCloudC.setOriginalPath(originalPath);
-        gaiaPointCloudC.setGaiaBoundingBox(gaiaBoundingBoxC);
-        gaiaPointCloudC.setGaiaAttribute(gaiaAttribute);
-        List<GaiaVertex> verticesC = gaiaPointCloudC.getVertices();
-
-        GaiaBoundingBox gaiaBoundingBoxD = new GaiaBoundingBox();
-        GaiaPointCloud gaiaPointCloudD = new GaiaPointCloud();
-        gaiaPointCloudD.setCode("D");
-        gaiaPointCloudD.setOriginalPath(originalPath);
-        gaiaPointCloudD.setGaiaBoundingBox(gaiaBoundingBoxD);
-        gaiaPointCloudD.setGaiaAttribute(gaiaAttribute);
-        List<GaiaVertex> verticesD = gaiaPointCloudD.getVertices();
-
-        GaiaBoundingBox gaiaBoundingBoxE = new GaiaBoundingBox();
-        GaiaPointCloud gaiaPointCloudE = new GaiaPointCloud();
-        gaiaPointCloudE.setCode("E");
-        gaiaPointCloudE.setOriginalPath(originalPath);
-        gaiaPointCloudE.setGaiaBoundingBox(gaiaBoundingBoxE);
-        gaiaPointCloudE.setGaiaAttribute(gaiaAttribute);
-        List<GaiaVertex> verticesE = gaiaPointCloudE.getVertices();
-
-        GaiaBoundingBox gaiaBoundingBoxF = new GaiaBoundingBox();
-        GaiaPointCloud gaiaPointCloudF = new GaiaPointCloud();
-        gaiaPointCloudF.setCode("F");
-        gaiaPointCloudF.setOriginalPath(originalPath);
-        gaiaPointCloudF.setGaiaBoundingBox(gaiaBoundingBoxF);
-        gaiaPointCloudF.setGaiaAttribute(gaiaAttribute);
-        List<GaiaVertex> verticesF = gaiaPointCloudF.getVertices();
-
-        GaiaBoundingBox gaiaBoundingBoxG = new GaiaBoundingBox();
-        GaiaPointCloud gaiaPointCloudG = new GaiaPointCloud();
-        gaiaPointCloudG.setCode("G");
-        gaiaPointCloudG.setOriginalPath(originalPath);
-        gaiaPointCloudG.setGaiaBoundingBox(gaiaBoundingBoxG);
-        gaiaPointCloudG.setGaiaAttribute(gaiaAttribute);
-        List<GaiaVertex> verticesG = gaiaPointCloudG.getVertices();
-
-        GaiaBoundingBox gaiaBoundingBoxH = new GaiaBoundingBox();
-        GaiaPointCloud gaiaPointCloudH = new GaiaPointCloud();
-        gaiaPointCloudH.setCode("H");
-        gaiaPointCloudH.setOriginalPath(originalPath);
-        gaiaPointCloudH.setGaiaBoundingBox(gaiaBoundingBoxH);
-        gaiaPointCloudH.setGaiaAttribute(gaiaAttribute);
-        List<GaiaVertex> verticesH = gaiaPointCloudH.getVertices();
+        GaiaPointCloud gaiaPointCloudA = createChild("A", true);
+        GaiaPointCloud gaiaPointCloudB = createChild("B", true);
+        GaiaPointCloud gaiaPointCloudC = createChild("C", true);
+        GaiaPointCloud gaiaPointCloudD = createChild("D", true);
+        GaiaPointCloud gaiaPointCloudE = createChild("E", true);
+        GaiaPointCloud gaiaPointCloudF = createChild("F", true);
+        GaiaPointCloud gaiaPointCloudG = createChild("G", true);
+        GaiaPointCloud gaiaPointCloudH = createChild("H", true);
 
         double minX = gaiaBoundingBox.getMinX();
         double minY = gaiaBoundingBox.getMinY();
@@ -359,42 +215,37 @@ public class GaiaPointCloud implements Serializable {
         double midY = (minY + maxY) / 2;
         double midZ = (minZ + maxZ) / 2;
 
-        for (GaiaVertex vertex : this.vertices) {
-            Vector3d center = vertex.getPosition();
-            if (midZ < center.z()) {
-                if (midX < center.x()) {
-                    if (midY < center.y()) {
-                        verticesC.add(vertex);
-                        gaiaBoundingBoxC.addPoint(center);
+        int size = points.size();
+        for (int i = 0; i < size; i++) {
+            double x = points.getX(i);
+            double y = points.getY(i);
+            double z = points.getZ(i);
+            if (midZ < z) {
+                if (midX < x) {
+                    if (midY < y) {
+                        gaiaPointCloudC.addPoint(points, i);
                     } else {
-                        verticesB.add(vertex);
-                        gaiaBoundingBoxB.addPoint(center);
+                        gaiaPointCloudB.addPoint(points, i);
                     }
                 } else {
-                    if (midY < center.y()) {
-                        verticesD.add(vertex);
-                        gaiaBoundingBoxD.addPoint(center);
+                    if (midY < y) {
+                        gaiaPointCloudD.addPoint(points, i);
                     } else {
-                        verticesA.add(vertex);
-                        gaiaBoundingBoxA.addPoint(center);
+                        gaiaPointCloudA.addPoint(points, i);
                     }
                 }
             } else {
-                if (midX < center.x()) {
-                    if (midY < center.y()) {
-                        verticesG.add(vertex);
-                        gaiaBoundingBoxG.addPoint(center);
+                if (midX < x) {
+                    if (midY < y) {
+                        gaiaPointCloudG.addPoint(points, i);
                     } else {
-                        verticesF.add(vertex);
-                        gaiaBoundingBoxF.addPoint(center);
+                        gaiaPointCloudF.addPoint(points, i);
                     }
                 } else {
-                    if (midY < center.y()) {
-                        verticesH.add(vertex);
-                        gaiaBoundingBoxH.addPoint(center);
+                    if (midY < y) {
+                        gaiaPointCloudH.addPoint(points, i);
                     } else {
-                        verticesE.add(vertex);
-                        gaiaBoundingBoxE.addPoint(center);
+                        gaiaPointCloudE.addPoint(points, i);
                     }
                 }
             }
@@ -424,11 +275,12 @@ public class GaiaPointCloud implements Serializable {
         remainderPointCloud.setGaiaBoundingBox(gaiaBoundingBox);
         remainderPointCloud.setGaiaAttribute(gaiaAttribute);
 
-        if (vertices.size() > chunkSize) {
-            chunkPointCloud.setVertices(new ArrayList<>(vertices.subList(0, chunkSize)));
-            remainderPointCloud.setVertices(new ArrayList<>(vertices.subList(chunkSize, vertices.size())));
+        int size = points.size();
+        if (size > chunkSize) {
+            chunkPointCloud.setPoints(points.copyRange(0, chunkSize));
+            remainderPointCloud.setPoints(points.copyRange(chunkSize, size));
         } else {
-            chunkPointCloud.setVertices(new ArrayList<>(vertices.subList(0, vertices.size())));
+            chunkPointCloud.setPoints(points.copyRange(0, size));
         }
 
         pointClouds.add(chunkPointCloud);
@@ -436,6 +288,22 @@ public class GaiaPointCloud implements Serializable {
         return pointClouds;
     }
 
+    private GaiaPointCloud createChild(String code, boolean withAttribute) {
+        GaiaPointCloud child = new GaiaPointCloud();
+        child.setCode(code);
+        child.setOriginalPath(originalPath);
+        child.setGaiaBoundingBox(new GaiaBoundingBox());
+        if (withAttribute) {
+            child.setGaiaAttribute(gaiaAttribute);
+        }
+        return child;
+    }
+
+    private void addPoint(GaiaPointBuffer source, int index) {
+        points.add(source, index);
+        gaiaBoundingBox.addPoint(source.getX(index), source.getY(index), source.getZ(index));
+    }
+
     private short toUnsignedShort(int value) {
         if (value < 0 || value > 65535) {
             throw new IllegalArgumentException("Value out of range for unsigned short: " + value);
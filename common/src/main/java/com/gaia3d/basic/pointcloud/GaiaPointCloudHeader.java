@@ -42,12 +42,16 @@ public class GaiaPointCloudHeader {
     }
 
     public GaiaPointCloudTemp findTemp(Vector3d position) {
+        return findTemp(position.x, position.y);
+    }
+
+    public GaiaPointCloudTemp findTemp(double x, double y) {
         int gridXLength = tempGrid.length;
         int gridYLength = tempGrid[0].length;
 
         Vector3d volume = srsBoundingBox.getVolume();
-        int gridX = (int) Math.floor((position.x - srsBoundingBox.getMinX()) / volume.x * gridXLength);
-        int gridY = (int) Math.floor((position.y - srsBoundingBox.getMinY()) / volume.y * gridYLength);
+        int gridX = (int) Math.floor((x - srsBoundingBox.getMinX()) / volume.x * gridXLength);
+        int gridY = (int) Math.floor((y - srsBoundingBox.getMinY()) / volume.y * gridYLength);
 
         // Check if the point is outside the bounding box
         if (gridX < 0 || gridX >= gridXLength || gridY < 0 || gridY >= gridYLength) {
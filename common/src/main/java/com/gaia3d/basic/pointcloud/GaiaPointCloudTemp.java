@@ -1,29 +1,36 @@
 package com.gaia3d.basic.pointcloud;
 
-import com.gaia3d.basic.model.GaiaVertex;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FileUtils;
-import org.joml.Vector3d;
 
 import java.io.*;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
+/**
+ * Temp file of the point cloud, a 52 byte header followed by 16 byte blocks (big endian).
+ * Points are read and written through a FileChannel in large batches.
+ */
 @Setter
 @Getter
 @Slf4j
 public class GaiaPointCloudTemp {
-    private static List<Integer> SHUFFLE_INDEXES = null;
+    private static int[] SHUFFLE_INDEXES = null;
+    private static final int SHUFFLE_BUFFER_SIZE = 65536 * 8; // blocks
+    private static final long MAP_REGION_SIZE = 1L << 30; // 1GB, multiple of the block size
     private final short VERSION = 1106;
-    private final int BUFFER_SIZE = 8192; // 8KB
-    private final int RANDOM_SEED = 42;
+    private final int WRITE_BUFFER_SIZE = 65536; // 64KB
+    private final int READ_BUFFER_SIZE = 1 << 22; // 4MB
+    private static final int RANDOM_SEED = 42;
     /* Header Total Size 52 byte */
     private final short HEADER_SIZE = 52; // 2 (Version) + 2 (Block Size) + 24 (Quantized Volume Scale) + 24 (Quantized Volume Offset)
     private final short BLOCK_SIZE = 16; // 12 (FLOAT XYZ) + 3 (RGB) + 1 (Padding)
@@ -31,8 +38,9 @@ public class GaiaPointCloudTemp {
     private final double[] quantizedVolumeOffset = new double[3];
 
     private File tempFile;
-    private DataOutputStream outputStream;
-    private DataInputStream inputStream;
+    private FileChannel outputChannel;
+    private ByteBuffer writeBuffer;
+    private FileChannel inputChannel;
 
     public GaiaPointCloudTemp(File file) {
         this.tempFile = file;
@@ -40,26 +48,29 @@ public class GaiaPointCloudTemp {
 
     public boolean readHeader() {
         try {
-            this.inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(this.tempFile), BUFFER_SIZE));
+            this.inputChannel = FileChannel.open(this.tempFile.toPath(), StandardOpenOption.READ);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+            readFully(inputChannel, header);
+            header.flip();
             /* header total size = 2 + 2 + 24 + 24 = 52 bytes */
             // version 2 bytes
-            if (this.VERSION != inputStream.readShort()) {
+            if (this.VERSION != header.getShort()) {
                 log.error("Invalid Pointscloud temp version");
                 return false;
             }
             // block size 2 bytes
-            if (this.BLOCK_SIZE != inputStream.readShort()) {
+            if (this.BLOCK_SIZE != header.getShort()) {
                 log.error("Invalid block size");
                 return false;
             }
             // quantized volume scale (double xyz) 24 bytes
-            this.quantizedVolumeScale[0] = inputStream.readDouble();
-            this.quantizedVolumeScale[1] = inputStream.readDouble();
-            this.quantizedVolumeScale[2] = inputStream.readDouble();
+            this.quantizedVolumeScale[0] = header.getDouble();
+            this.quantizedVolumeScale[1] = header.getDouble();
+            this.quantizedVolumeScale[2] = header.getDouble();
             // quantized volume offset (double xyz) 24 bytes
-            this.quantizedVolumeOffset[0] = inputStream.readDouble();
-            this.quantizedVolumeOffset[1] = inputStream.readDouble();
-            this.quantizedVolumeOffset[2] = inputStream.readDouble();
+            this.quantizedVolumeOffset[0] = header.getDouble();
+            this.quantizedVolumeOffset[1] = header.getDouble();
+            this.quantizedVolumeOffset[2] = header.getDouble();
             return true;
         } catch (IOException e) {
             log.error("Failed to read header from input stream", e);
@@ -74,207 +85,282 @@ public class GaiaPointCloudTemp {
                 log.info("Deleted existing temp file: {}", this.tempFile.getAbsolutePath());
             }
 
-            outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(this.tempFile, true), BUFFER_SIZE));
-            /* header total size = 2 + 2 + 24 + 24 = 52 bytes */
-            // version 2 bytes
-            outputStream.writeShort(VERSION);
-            // block size 2 bytes
-            outputStream.writeShort(BLOCK_SIZE);
-            // quantized volume scale (double xyz) 24 bytes
-            outputStream.writeDouble(quantizedVolumeScale[0]);
-            outputStream.writeDouble(quantizedVolumeScale[1]);
-            outputStream.writeDouble(quantizedVolumeScale[2]);
-            // quantized volume offset (double xyz) 24 bytes
-            outputStream.writeDouble(quantizedVolumeOffset[0]);
-            outputStream.writeDouble(quantizedVolumeOffset[1]);
-            outputStream.writeDouble(quantizedVolumeOffset[2]);
-            outputStream.flush();
+            outputChannel = FileChannel.open(this.tempFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            writeBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE).order(ByteOrder.BIG_ENDIAN);
+            putHeader(writeBuffer, VERSION, BLOCK_SIZE, quantizedVolumeScale, quantizedVolumeOffset);
+            flushWriteBuffer();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
-    public List<GaiaVertex> readTemp() {
-        List<GaiaVertex> vertices = new ArrayList<>();
+    public GaiaPointBuffer readTemp() {
+        GaiaPointBuffer points = new GaiaPointBuffer();
         try {
-            while (inputStream.available() > 0) {
-                float floatX = inputStream.readFloat();
-                float floatY = inputStream.readFloat();
-                float floatZ = inputStream.readFloat();
-                byte[] bytes = new byte[3];
-                inputStream.read(bytes);
-                inputStream.readByte(); // padding
+            long blockCount = (inputChannel.size() - HEADER_SIZE) / BLOCK_SIZE;
+            points.ensureCapacity((int) Math.max(0, blockCount));
+            ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE).order(ByteOrder.BIG_ENDIAN);
+            inputChannel.position(HEADER_SIZE);
+            while (inputChannel.read(buffer) > 0 || buffer.position() > 0) {
+                buffer.flip();
+                while (buffer.remaining() >= BLOCK_SIZE) {
+                    float floatX = buffer.getFloat();
+                    float floatY = buffer.getFloat();
+                    float floatZ = buffer.getFloat();
+                    byte red = buffer.get();
+                    byte green = buffer.get();
+                    byte blue = buffer.get();
+                    buffer.get(); // padding
 
-                double x = floatX * quantizedVolumeScale[0] + quantizedVolumeOffset[0];
-                double y = floatY * quantizedVolumeScale[1] + quantizedVolumeOffset[1];
-                double z = floatZ * quantizedVolumeScale[2] + quantizedVolumeOffset[2];
-
-                GaiaVertex vertex = new GaiaVertex();
-                vertex.setColor(bytes);
-                vertex.setPosition(new Vector3d(x, y, z));
-                vertices.add(vertex);
+                    double x = floatX * quantizedVolumeScale[0] + quantizedVolumeOffset[0];
+                    double y = floatY * quantizedVolumeScale[1] + quantizedVolumeOffset[1];
+                    double z = floatZ * quantizedVolumeScale[2] + quantizedVolumeOffset[2];
+                    points.add(x, y, z, red, green, blue);
+                }
+                if (buffer.hasRemaining() && inputChannel.position() >= inputChannel.size()) {
+                    log.warn("Ignored incomplete block at the end of temp file: {}", this.tempFile.getName());
+                    break;
+                }
+                buffer.compact();
             }
         } catch (IOException e) {
             log.error("Failed to read temp from input stream", e);
         }
-        return vertices;
+        return points;
     }
 
-    public void writePositionsFast(List<GaiaVertex> vertices) {
+    public void writePositionsFast(GaiaPointBuffer points) {
         try {
-            int size = vertices.size() * BLOCK_SIZE;
-            byte[] bytes = new byte[size];
-            int index = 0;
-            for (GaiaVertex vertex : vertices) {
-                Vector3d position = vertex.getPosition();
-                byte[] color = vertex.getColor();
-                float x = (float) ((position.x - quantizedVolumeOffset[0]) / quantizedVolumeScale[0]);
-                float y = (float) ((position.y - quantizedVolumeOffset[1]) / quantizedVolumeScale[1]);
-                float z = (float) ((position.z - quantizedVolumeOffset[2]) / quantizedVolumeScale[2]);
-
-                // XYZ
-                byte[] xBytes = ByteBuffer.allocate(4).order(ByteOrder.BIG_ENDIAN).putFloat(x).array();
-                byte[] yBytes = ByteBuffer.allocate(4).order(ByteOrder.BIG_ENDIAN).putFloat(y).array();
-                byte[] zBytes = ByteBuffer.allocate(4).order(ByteOrder.BIG_ENDIAN).putFloat(z).array();
-                System.arraycopy(xBytes, 0, bytes, index, 4);
-                System.arraycopy(yBytes, 0, bytes, index + 4, 4);
-                System.arraycopy(zBytes, 0, bytes, index + 8, 4);
-                // RGB
-                System.arraycopy(color, 0, bytes, index + 12, 3);
-                // padding
-                bytes[index + 15] = 0;
-                index += BLOCK_SIZE;
+            int pointCount = points.size();
+            for (int i = 0; i < pointCount; i++) {
+                putPosition(points.getX(i), points.getY(i), points.getZ(i), points.getColor(i));
             }
-            outputStream.write(bytes);
+            flushWriteBuffer();
         } catch (Exception e) {
             log.error("Failed to write positions to output stream", e);
         }
     }
 
-    public void writePosition(Vector3d position, byte[] bytes) {
+    public void writePosition(double positionX, double positionY, double positionZ, int color) {
         try {
-            float x = (float) ((position.x - quantizedVolumeOffset[0]) / quantizedVolumeScale[0]);
-            float y = (float) ((position.y - quantizedVolumeOffset[1]) / quantizedVolumeScale[1]);
-            float z = (float) ((position.z - quantizedVolumeOffset[2]) / quantizedVolumeScale[2]);
-
-            // XYZ
-            outputStream.writeFloat(x);
-            outputStream.writeFloat(y);
-            outputStream.writeFloat(z);
-            // RGB
-            outputStream.write(bytes);
-            // padding
-            outputStream.writeByte(0);
+            putPosition(positionX, positionY, positionZ, color);
         } catch (IOException e) {
             log.error("Failed to write bytes to output stream", e);
         }
     }
 
     /**
-     * Shuffles the temp file
+     * Creates a shard of this temp file with the same quantization, written by one reader without locking.
+     */
+    public GaiaPointCloudTemp createShard(String suffix) {
+        GaiaPointCloudTemp shard = new GaiaPointCloudTemp(new File(this.tempFile.getParent(), this.tempFile.getName() + "." + suffix));
+        System.arraycopy(this.quantizedVolumeScale, 0, shard.quantizedVolumeScale, 0, 3);
+        System.arraycopy(this.quantizedVolumeOffset, 0, shard.quantizedVolumeOffset, 0, 3);
+        shard.writeHeader();
+        return shard;
+    }
+
+    /**
+     * Appends the blocks of a closed shard to this temp file and deletes the shard.
+     */
+    public synchronized void appendShard(GaiaPointCloudTemp shard) {
+        File shardFile = shard.getTempFile();
+        try (FileChannel shardChannel = FileChannel.open(shardFile.toPath(), StandardOpenOption.READ)) {
+            flushWriteBuffer();
+            long position = HEADER_SIZE;
+            long size = shardChannel.size();
+            while (position < size) {
+                position += shardChannel.transferTo(position, size - position, outputChannel);
+            }
+        } catch (IOException e) {
+            log.error("Failed to append shard: {}", shardFile.getName(), e);
+            throw new RuntimeException(e);
+        }
+        FileUtils.deleteQuietly(shardFile);
+    }
+
+    /**
+     * Flushes the pending blocks and closes the channels.
+     */
+    public synchronized void close() {
+        try {
+            if (outputChannel != null) {
+                flushWriteBuffer();
+                outputChannel.close();
+                outputChannel = null;
+                writeBuffer = null;
+            }
+            if (inputChannel != null) {
+                inputChannel.close();
+                inputChannel = null;
+            }
+        } catch (IOException e) {
+            log.error("Failed to close temp file", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void putPosition(double positionX, double positionY, double positionZ, int color) throws IOException {
+        if (writeBuffer.remaining() < BLOCK_SIZE) {
+            flushWriteBuffer();
+        }
+        float x = (float) ((positionX - quantizedVolumeOffset[0]) / quantizedVolumeScale[0]);
+        float y = (float) ((positionY - quantizedVolumeOffset[1]) / quantizedVolumeScale[1]);
+        float z = (float) ((positionZ - quantizedVolumeOffset[2]) / quantizedVolumeScale[2]);
+
+        // XYZ
+        writeBuffer.putFloat(x);
+        writeBuffer.putFloat(y);
+        writeBuffer.putFloat(z);
+        // RGB
+        writeBuffer.put((byte) (color >> 16));
+        writeBuffer.put((byte) (color >> 8));
+        writeBuffer.put((byte) color);
+        // padding
+        writeBuffer.put((byte) 0);
+    }
+
+    private void flushWriteBuffer() throws IOException {
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) {
+            outputChannel.write(writeBuffer);
+        }
+        writeBuffer.clear();
+    }
+
+    /**
+     * Shuffles the temp file.
+     * The source is read chunk by chunk, and each block is copied to its shuffled position in the memory-mapped output.
+     * The order is the same as reading the shuffled indexes of every chunk one by one.
      */
     public void shuffleTempMoreFast(int shuffleNumber, int shuffleLength) {
         String fileName = "shuffled-" + this.tempFile.getName();
         File shuffledFile = new File(this.tempFile.getParent(), fileName);
-        try {
-            RandomAccessFile randomAccessFile = new RandomAccessFile(this.tempFile, "rw");
-            DataOutputStream dataOutputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(shuffledFile, false), BUFFER_SIZE));
-            int headerSize = 52;
-            int blockCount = (int) ((randomAccessFile.length() - headerSize) / BLOCK_SIZE);
-            int loop = blockCount;
+        try (FileChannel sourceChannel = FileChannel.open(this.tempFile.toPath(), StandardOpenOption.READ);
+             RandomAccessFile shuffledAccessFile = new RandomAccessFile(shuffledFile, "rw")) {
+            int headerSize = HEADER_SIZE;
+            long blockCount = (sourceChannel.size() - headerSize) / BLOCK_SIZE;
 
             // Read header
-            short version = randomAccessFile.readShort();
-            short blockSize = randomAccessFile.readShort();
-            double[] volumeScale = new double[3];
-            volumeScale[0] = randomAccessFile.readDouble();
-            volumeScale[1] = randomAccessFile.readDouble();
-            volumeScale[2] = randomAccessFile.readDouble();
-            double[] volumeOffset = new double[3];
-            volumeOffset[0] = randomAccessFile.readDouble();
-            volumeOffset[1] = randomAccessFile.readDouble();
-            volumeOffset[2] = randomAccessFile.readDouble();
+            ByteBuffer header = ByteBuffer.allocate(headerSize).order(ByteOrder.BIG_ENDIAN);
+            readFully(sourceChannel, header);
+            header.flip();
+            short version = header.getShort();
+            short blockSize = header.getShort();
+            if (blockSize != BLOCK_SIZE) {
+                throw new IOException("Invalid block size : " + blockSize);
+            }
 
-            // Write header
-            dataOutputStream.writeShort(version);
-            dataOutputStream.writeShort(blockSize);
-            dataOutputStream.writeDouble(volumeScale[0]);
-            dataOutputStream.writeDouble(volumeScale[1]);
-            dataOutputStream.writeDouble(volumeScale[2]);
-            dataOutputStream.writeDouble(volumeOffset[0]);
-            dataOutputStream.writeDouble(volumeOffset[1]);
-            dataOutputStream.writeDouble(volumeOffset[2]);
+            int shuffleBufferSize = SHUFFLE_BUFFER_SIZE;
+            int shuffleCount = (int) ((blockCount + shuffleBufferSize - 1) / shuffleBufferSize);
+            int[] indexes = getShuffleIndexes();
+            log.info("[Pre][{}/{}][Shuffle] TotalPoints: {}, shuffleBufferSize: {}, shuffleCount: {}, blockSize: {}", shuffleNumber, shuffleLength, blockCount, shuffleBufferSize, shuffleCount, blockSize);
 
+            long fileSize = headerSize + blockCount * BLOCK_SIZE;
+            shuffledAccessFile.setLength(fileSize);
+            FileChannel shuffledChannel = shuffledAccessFile.getChannel();
 
-            int shuffleBufferSize = 65536 * 8;
-            int shuffleCount = loop / shuffleBufferSize;
-            int remainder = loop % shuffleBufferSize;
-            if (remainder > 0) {
-                shuffleCount += 1;
-            }
-            List<Integer> indexes;
-            if (SHUFFLE_INDEXES == null) {
-                SHUFFLE_INDEXES = createShuffleIndexes(shuffleBufferSize);
+            // Write header
+            header.rewind();
+            while (header.hasRemaining()) {
+                shuffledChannel.write(header, header.position());
             }
-            indexes = SHUFFLE_INDEXES;
-
-            byte[] bytes = new byte[blockSize];
-            log.info("[Pre][{}/{}][Shuffle] TotalPoints: {}, shuffleBufferSize: {}, shuffleCount: {}, blockSize: {}", shuffleNumber, shuffleLength, loop, shuffleBufferSize, shuffleCount, blockSize);
-
-            int fileSize = (int) randomAccessFile.length();
-            for (Integer integer : indexes) {
+            if (blockCount == 0) {
+                shuffledChannel.force(false);
+            } else {
+                long[] outputBlockIndexes = createOutputBlockIndexes(indexes, blockCount, shuffleCount);
+                MappedByteBuffer[] regions = mapRegions(shuffledChannel, headerSize, blockCount * BLOCK_SIZE);
+                ByteBuffer chunk = ByteBuffer.allocateDirect(shuffleBufferSize * BLOCK_SIZE);
                 for (int count = 0; count < shuffleCount; count++) {
-                    int index = (shuffleBufferSize * count) + integer;
-                    int pointer = headerSize + (index * blockSize);
-                    if ((pointer) <= fileSize) {
-                        randomAccessFile.seek(pointer);
-                        randomAccessFile.read(bytes);
-                        dataOutputStream.write(bytes);
+                    chunk.clear();
+                    long chunkBlockCount = Math.min(shuffleBufferSize, blockCount - (long) count * shuffleBufferSize);
+                    chunk.limit((int) chunkBlockCount * BLOCK_SIZE);
+                    readFully(sourceChannel, chunk);
+                    for (int index = 0; index < chunkBlockCount; index++) {
+                        long outputOffset = (outputBlockIndexes[index] + count) * BLOCK_SIZE;
+                        MappedByteBuffer region = regions[(int) (outputOffset / MAP_REGION_SIZE)];
+                        int regionOffset = (int) (outputOffset % MAP_REGION_SIZE);
+                        int chunkOffset = index * BLOCK_SIZE;
+                        region.putLong(regionOffset, chunk.getLong(chunkOffset));
+                        region.putLong(regionOffset + 8, chunk.getLong(chunkOffset + 8));
                     }
                 }
+                for (MappedByteBuffer region : regions) {
+                    region.force();
+                }
             }
-            dataOutputStream.flush();
-            dataOutputStream.close();
-            randomAccessFile.close();
-            FileUtils.deleteQuietly(this.tempFile);
-            this.tempFile = shuffledFile;
+            log.debug("[Pre][{}/{}][Shuffle] version: {}, file size: {}", shuffleNumber, shuffleLength, version, fileSize);
         } catch (IOException e) {
             log.error("Failed to shuffle temp file", e);
             throw new RuntimeException(e);
         }
+        FileUtils.deleteQuietly(this.tempFile);
+        this.tempFile = shuffledFile;
     }
 
-    private List<Integer> createShuffleIndexes(int loop) {
-        List<Integer> indexes = new ArrayList<>();
-        for (int i = 0; i < loop; i++) {
-            indexes.add(i);
+    /**
+     * The block of a chunk at the index is written after the blocks of the indexes shuffled before it.
+     * Returns the first output block of each index, the chunk number is added to it.
+     */
+    private long[] createOutputBlockIndexes(int[] indexes, long blockCount, int shuffleCount) {
+        long lastChunkSize = blockCount - (long) (shuffleCount - 1) * SHUFFLE_BUFFER_SIZE;
+        long[] outputBlockIndexes = new long[SHUFFLE_BUFFER_SIZE];
+        long outputBlockIndex = 0;
+        for (int index : indexes) {
+            outputBlockIndexes[index] = outputBlockIndex;
+            outputBlockIndex += index < lastChunkSize ? shuffleCount : shuffleCount - 1;
         }
-        Collections.shuffle(indexes, new Random(RANDOM_SEED));
-        return indexes;
+        return outputBlockIndexes;
     }
 
-    // 두 블록을 교환하는 메서드
-    private void swapBlocks(FileChannel channel, long index1, long index2, int headerSize, int blockSize) throws IOException {
-        ByteBuffer buffer1 = ByteBuffer.allocate(blockSize);
-        ByteBuffer buffer2 = ByteBuffer.allocate(blockSize);
-
-        // 첫 번째 블록 읽기
-        channel.position(headerSize + (index1 * blockSize));
-        channel.read(buffer1);
-        //buffer1.flip();
+    private MappedByteBuffer[] mapRegions(FileChannel channel, long offset, long length) throws IOException {
+        int regionCount = (int) ((length + MAP_REGION_SIZE - 1) / MAP_REGION_SIZE);
+        MappedByteBuffer[] regions = new MappedByteBuffer[regionCount];
+        for (int i = 0; i < regionCount; i++) {
+            long regionOffset = i * MAP_REGION_SIZE;
+            long regionLength = Math.min(MAP_REGION_SIZE, length - regionOffset);
+            regions[i] = channel.map(FileChannel.MapMode.READ_WRITE, offset + regionOffset, regionLength);
+        }
+        return regions;
+    }
 
-        // 두 번째 블록 읽기
-        channel.position(headerSize + (index2 * blockSize));
-        channel.read(buffer2);
-        //buffer2.flip();
+    private void putHeader(ByteBuffer buffer, short version, short blockSize, double[] volumeScale, double[] volumeOffset) {
+        /* header total size = 2 + 2 + 24 + 24 = 52 bytes */
+        // version 2 bytes
+        buffer.putShort(version);
+        // block size 2 bytes
+        buffer.putShort(blockSize);
+        // quantized volume scale (double xyz) 24 bytes
+        buffer.putDouble(volumeScale[0]);
+        buffer.putDouble(volumeScale[1]);
+        buffer.putDouble(volumeScale[2]);
+        // quantized volume offset (double xyz) 24 bytes
+        buffer.putDouble(volumeOffset[0]);
+        buffer.putDouble(volumeOffset[1]);
+        buffer.putDouble(volumeOffset[2]);
+    }
 
-        // 첫 번째 블록을 두 번째 위치에 쓰기
-        channel.position(headerSize + (index2 * blockSize));
-        channel.write(buffer1);
+    private void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Unexpected end of temp file: " + this.tempFile.getName());
+            }
+        }
+    }
 
-        // 두 번째 블록을 첫 번째 위치에 s쓰기
-        channel.position(headerSize + (index1 * blockSize));
-        channel.write(buffer2);
+    private static synchronized int[] getShuffleIndexes() {
+        if (SHUFFLE_INDEXES == null) {
+            SHUFFLE_INDEXES = createShuffleIndexes(SHUFFLE_BUFFER_SIZE);
+        }
+        return SHUFFLE_INDEXES;
     }
 
+    private static int[] createShuffleIndexes(int loop) {
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < loop; i++) {
+            indexes.add(i);
+        }
+        Collections.shuffle(indexes, new Random(RANDOM_SEED));
+        return indexes.stream().mapToInt(Integer::intValue).toArray();
+    }
 }
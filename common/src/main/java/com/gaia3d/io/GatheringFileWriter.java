@@ -0,0 +1,35 @@
+package com.gaia3d.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a file from a sequence of buffers with gathering writes, the buffers are not copied into one array.
+ */
+public class GatheringFileWriter {
+
+    public static void write(Path path, ByteBuffer... buffers) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(channel, buffers);
+        }
+    }
+
+    public static void write(GatheringByteChannel channel, ByteBuffer... buffers) throws IOException {
+        long remaining = getRemaining(buffers);
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+    }
+
+    public static long getRemaining(ByteBuffer... buffers) {
+        long remaining = 0;
+        for (ByteBuffer buffer : buffers) {
+            remaining += buffer.remaining();
+        }
+        return remaining;
+    }
+}
@@ -0,0 +1,183 @@
+package com.gaia3d.util;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.joml.Vector3d;
+import org.locationtech.proj4j.BasicCoordinateTransform;
+import org.locationtech.proj4j.CoordinateReferenceSystem;
+import org.locationtech.proj4j.Proj4jException;
+import org.locationtech.proj4j.ProjCoordinate;
+import org.locationtech.proj4j.proj.ExtendedTransverseMercatorProjection;
+import org.locationtech.proj4j.proj.MercatorProjection;
+import org.locationtech.proj4j.proj.Projection;
+import org.locationtech.proj4j.proj.TransverseMercatorProjection;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Batched coordinate transformer from a source CRS to WGS84 geographic or cartesian (ECEF) coordinates.
+ * The coordinates are transformed in place as packed xyz arrays, the z value is kept as the altitude.
+ * proj4j transforms are not thread-safe, so the transformers are cached per thread and per CRS pair.
+ * Sources without datum shift in TM, UTM and spherical Mercator (EPSG:3857) are inverse projected directly,
+ * the fast path is used only when it gives the same result as the generic transform.
+ */
+@Slf4j
+public class CoordinateTransformer {
+    private static final ThreadLocal<Map<String, CoordinateTransformer>> transformers = ThreadLocal.withInitial(HashMap::new);
+    private static final double FAST_PATH_TOLERANCE = 1.0E-9; // in degrees
+    private static final double[][] FAST_PATH_SAMPLES = {{0.0, 0.0}, {0.5, 0.5}, {-0.5, -0.5}, {0.5, -0.5}};
+
+    @Getter
+    private final CoordinateReferenceSystem source;
+    @Getter
+    private final CoordinateReferenceSystem target;
+    private final BasicCoordinateTransform transform;
+    private final FastPath fastPath;
+    private final ProjCoordinate sourceCoordinate = new ProjCoordinate();
+    private final ProjCoordinate targetCoordinate = new ProjCoordinate();
+    private final ProjCoordinate projectedCoordinate = new ProjCoordinate();
+
+    private CoordinateTransformer(CoordinateReferenceSystem source, CoordinateReferenceSystem target) {
+        this.source = source;
+        this.target = target;
+        this.transform = new BasicCoordinateTransform(source, target);
+        this.fastPath = findFastPath();
+    }
+
+    /**
+     * Returns the transformer of the current thread from the source CRS to WGS84.
+     */
+    public static CoordinateTransformer getInstance(CoordinateReferenceSystem source) {
+        return getInstance(source, GlobeUtils.wgs84);
+    }
+
+    /**
+     * Returns the transformer of the current thread from the source CRS to the target CRS.
+     */
+    public static CoordinateTransformer getInstance(CoordinateReferenceSystem source, CoordinateReferenceSystem target) {
+        // proj4j crs has no consistent hashCode, so the pair is keyed by the parameters
+        String key = source.getName() + source.getParameterString() + " -> " + target.getName() + target.getParameterString();
+        return transformers.get().computeIfAbsent(key, (k) -> new CoordinateTransformer(source, target));
+    }
+
+    public boolean isFastPath() {
+        return fastPath != FastPath.NONE;
+    }
+
+    public ProjCoordinate transform(ProjCoordinate coordinate, ProjCoordinate result) {
+        if (fastPath == FastPath.NONE) {
+            return transform.transform(coordinate, result);
+        }
+        inverseProject(fastPath, coordinate.x, coordinate.y, result);
+        result.z = coordinate.z;
+        return result;
+    }
+
+    public Vector3d transform(Vector3d position, Vector3d result) {
+        sourceCoordinate.setValue(position.x, position.y, position.z);
+        transform(sourceCoordinate, targetCoordinate);
+        return result.set(targetCoordinate.x, targetCoordinate.y, position.z);
+    }
+
+    /**
+     * Transforms the packed xyz coordinates to longitude, latitude and altitude.
+     * A coordinate that can not be transformed throws the Proj4jException, as GlobeUtils.transform does.
+     * @param coordinates packed xyz coordinates, transformed in place
+     * @param offset index of the first coordinate
+     * @param count number of the coordinates
+     */
+    public void transform(double[] coordinates, int offset, int count) {
+        int end = (offset + count) * 3;
+        for (int i = offset * 3; i < end; i += 3) {
+            if (fastPath == FastPath.NONE) {
+                sourceCoordinate.setValue(coordinates[i], coordinates[i + 1], coordinates[i + 2]);
+                transform.transform(sourceCoordinate, targetCoordinate);
+            } else {
+                inverseProject(fastPath, coordinates[i], coordinates[i + 1], targetCoordinate);
+            }
+            coordinates[i] = targetCoordinate.x;
+            coordinates[i + 1] = targetCoordinate.y;
+        }
+    }
+
+    public void transform(double[] coordinates) {
+        transform(coordinates, 0, coordinates.length / 3);
+    }
+
+    /**
+     * Transforms the packed xyz coordinates to WGS84 cartesian (ECEF) coordinates.
+     * @param coordinates packed xyz coordinates, transformed in place
+     * @param offset index of the first coordinate
+     * @param count number of the coordinates
+     */
+    public void transformToCartesian(double[] coordinates, int offset, int count) {
+        transform(coordinates, offset, count);
+        int end = (offset + count) * 3;
+        for (int i = offset * 3; i < end; i += 3) {
+            GlobeUtils.geographicToCartesianWgs84(coordinates[i], coordinates[i + 1], coordinates[i + 2], coordinates, i);
+        }
+    }
+
+    public void transformToCartesian(double[] coordinates) {
+        transformToCartesian(coordinates, 0, coordinates.length / 3);
+    }
+
+    private void inverseProject(FastPath path, double x, double y, ProjCoordinate result) {
+        Projection projection = source.getProjection();
+        if (path == FastPath.SPHERICAL_MERCATOR) {
+            double radius = projection.getEquatorRadius() * projection.getScaleFactor();
+            double longitude = (x - projection.getFalseEasting()) / radius + projection.getProjectionLongitude();
+            double latitude = Math.PI * 0.5 - 2.0 * Math.atan(Math.exp(-(y - projection.getFalseNorthing()) / radius));
+            result.x = Math.toDegrees(longitude);
+            result.y = Math.toDegrees(latitude);
+        } else {
+            projectedCoordinate.setValue(x, y);
+            projection.inverseProject(projectedCoordinate, result);
+        }
+    }
+
+    /**
+     * Picks the direct inverse projection when it matches the generic transform around the projection origin.
+     */
+    private FastPath findFastPath() {
+        Projection projection = source.getProjection();
+        if (projection == null || !Boolean.TRUE.equals(target.isGeographic()) || Boolean.TRUE.equals(source.isGeographic())) {
+            return FastPath.NONE;
+        }
+        FastPath candidate;
+        if (projection instanceof MercatorProjection && projection.getEllipsoid().getEccentricitySquared() == 0.0 && projection.getFromMetres() == 1.0) {
+            candidate = FastPath.SPHERICAL_MERCATOR;
+        } else if (projection instanceof TransverseMercatorProjection || projection instanceof ExtendedTransverseMercatorProjection) {
+            candidate = FastPath.TRANSVERSE_MERCATOR;
+        } else {
+            return FastPath.NONE;
+        }
+
+        try {
+            BasicCoordinateTransform forward = new BasicCoordinateTransform(target, source);
+            ProjCoordinate projected = new ProjCoordinate();
+            ProjCoordinate expected = new ProjCoordinate();
+            ProjCoordinate actual = new ProjCoordinate();
+            double originLongitude = projection.getProjectionLongitudeDegrees();
+            double originLatitude = Math.max(-80.0, Math.min(80.0, projection.getProjectionLatitudeDegrees()));
+            for (double[] sample : FAST_PATH_SAMPLES) {
+                forward.transform(new ProjCoordinate(originLongitude + sample[0], originLatitude + sample[1]), projected);
+                transform.transform(projected, expected);
+                inverseProject(candidate, projected.x, projected.y, actual);
+                if (Math.abs(expected.x - actual.x) > FAST_PATH_TOLERANCE || Math.abs(expected.y - actual.y) > FAST_PATH_TOLERANCE) {
+                    log.debug("Fast path is not matched for {}", source.getName());
+                    return FastPath.NONE;
+                }
+            }
+        } catch (Proj4jException e) {
+            log.debug("Failed to check the fast path for {}", source.getName(), e);
+            return FastPath.NONE;
+        }
+        return candidate;
+    }
+
+    private enum FastPath {
+        NONE, TRANSVERSE_MERCATOR, SPHERICAL_MERCATOR
+    }
+}
@@ -1,7 +1,7 @@
 package com.gaia3d.util;
 
 import com.gaia3d.basic.geometry.GaiaBoundingBox;
-import com.gaia3d.basic.geometry.octree.GaiaOctreeVertices;
+import com.gaia3d.basic.geometry.GaiaVertexWelder;
 import com.gaia3d.basic.halfedge.HalfEdgeScene;
 import com.gaia3d.basic.halfedge.HalfEdgeUtils;
 import com.gaia3d.basic.model.*;
@@ -124,35 +124,21 @@ public class GaiaSceneUtils {
         }
 
         // 1rst, find the coincident vertices.
-        //List<GaiaVertex> primitiveVertices = primitive.getVertices();
-        GaiaOctreeVertices octreeVertices = new GaiaOctreeVertices(null);
-        octreeVertices.getVertices().addAll(totalVertices);
-        octreeVertices.calculateSize();
-        octreeVertices.setAsCube();
-        octreeVertices.setMaxDepth(10);
-        octreeVertices.setMinBoxSize(1.0); // 1m.
-
-        octreeVertices.makeTreeByMinVertexCount(50);
-
-        List<GaiaOctreeVertices> octreesWithContents = new ArrayList<>();
-        octreeVertices.extractOctreesWithContents(octreesWithContents);
-
-        Map<GaiaVertex, GaiaVertex> mapVertexToVertexMaster = new HashMap<>();
         double error = 0.001;
         boolean checkTexCoord = false;
         boolean checkNormal = false;
         boolean checkColor = false;
         boolean checkBatchId = false;
-
-        for (GaiaOctreeVertices octree : octreesWithContents) {
-            List<GaiaVertex> vertices = octree.getVertices();
-            GaiaPrimitiveUtils.getWeldableVertexMap(mapVertexToVertexMaster, vertices, error, checkTexCoord, checkNormal, checkColor, checkBatchId);
-        }
+        GaiaVertexWelder welder = new GaiaVertexWelder(error, checkTexCoord, checkNormal, checkColor, checkBatchId);
+        int[] masters = welder.findMasters(totalVertices);
 
         // make a map<vertexMaster, List<GaiaVertex>>
+        Map<GaiaVertex, GaiaVertex> mapVertexToVertexMaster = new HashMap<>();
         Map<GaiaVertex, List<GaiaVertex>> mapVertexMasterToListVertices = new HashMap<>();
-        for (GaiaVertex vertex : mapVertexToVertexMaster.keySet()) {
-            GaiaVertex vertexMaster = mapVertexToVertexMaster.get(vertex);
+        for (int i = 0; i < masters.length; i++) {
+            GaiaVertex vertex = totalVertices.get(i);
+            GaiaVertex vertexMaster = totalVertices.get(masters[i]);
+            mapVertexToVertexMaster.put(vertex, vertexMaster);
             List<GaiaVertex> listVertices = mapVertexMasterToListVertices.computeIfAbsent(vertexMaster, k -> new ArrayList<>());
             listVertices.add(vertex);
         }
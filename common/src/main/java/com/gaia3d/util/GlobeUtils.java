@@ -6,7 +6,6 @@ import org.geotools.referencing.CRS;
 import org.joml.Matrix4d;
 import org.joml.Vector3d;
 import org.locationtech.jts.geom.Coordinate;
-import org.locationtech.proj4j.BasicCoordinateTransform;
 import org.locationtech.proj4j.CRSFactory;
 import org.locationtech.proj4j.CoordinateReferenceSystem;
 import org.locationtech.proj4j.ProjCoordinate;
@@ -30,6 +29,14 @@ public class GlobeUtils {
 
     public static double[] geographicToCartesianWgs84(double longitude, double latitude, double altitude) {
         double[] result = new double[3];
+        geographicToCartesianWgs84(longitude, latitude, altitude, result, 0);
+        return result;
+    }
+
+    /**
+     * Writes the cartesian coordinate at the offset of the result array, without allocation.
+     */
+    public static void geographicToCartesianWgs84(double longitude, double latitude, double altitude, double[] result, int offset) {
         double lonRad = longitude * DEGREE_TO_RADIAN_FACTOR;
         double latRad = latitude * DEGREE_TO_RADIAN_FACTOR;
         double cosLon = Math.cos(lonRad);
@@ -38,10 +45,9 @@ public class GlobeUtils {
         double sinLat = Math.sin(latRad);
         double e2 = FIRST_ECCENTRICITY_SQUARED;
         double v = EQUATORIAL_RADIUS / Math.sqrt(1.0 - e2 * sinLat * sinLat);
-        result[0] = (v + altitude) * cosLat * cosLon;
-        result[1] = (v + altitude) * cosLat * sinLon;
-        result[2] = (v * (1.0 - e2) + altitude) * sinLat;
-        return result;
+        result[offset] = (v + altitude) * cosLat * cosLon;
+        result[offset + 1] = (v + altitude) * cosLat * sinLon;
+        result[offset + 2] = (v * (1.0 - e2) + altitude) * sinLat;
     }
 
     public static double radiusAtLatitudeRad(double latRad) {
@@ -200,8 +206,7 @@ public class GlobeUtils {
     }
 
     public static ProjCoordinate transform(CoordinateReferenceSystem source, ProjCoordinate coordinate) {
-        BasicCoordinateTransform transformer = new BasicCoordinateTransform(source, wgs84);
-        return transformer.transform(coordinate, new ProjCoordinate());
+        return CoordinateTransformer.getInstance(source).transform(coordinate, new ProjCoordinate());
     }
 
     public static Coordinate transformOnGeotools(org.opengis.referencing.crs.CoordinateReferenceSystem source, Coordinate coordinate) {
@@ -2,6 +2,7 @@ package com.gaia3d.command.mago;
 
 import com.gaia3d.TilerExtensionModule;
 import com.gaia3d.basic.types.FormatType;
+import com.gaia3d.converter.jgltf.GltfImageType;
 import com.gaia3d.process.ProcessOptions;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -37,6 +38,8 @@ public class GlobalOptions {
     public static final int DEFAULT_MAX_TRIANGLES = 65536 * 8;
     public static final int DEFAULT_MAX_NODE_DEPTH = 32;
     public static final int DEFAULT_MAX_INSTANCE = 1024 * 8;
+    public static final int DEFAULT_STAGE_QUEUE_SIZE_PER_THREAD = 4;
+    public static final String DEFAULT_IMAGE_TYPE = "uri";
 
     //public static final int DEFAULT_POINT_PER_TILE = 100000;
     public static final int DEFAULT_POINT_PER_TILE = 300000;
@@ -115,6 +118,13 @@ public class GlobalOptions {
 
     private byte multiThreadCount;
 
+    // Streaming pipeline options
+    private boolean streaming = false;
+    private int loadThreadCount;
+    private int preProcessThreadCount;
+    private int postProcessThreadCount;
+    private int stageQueueSize;
+
     /* 3D Data Options */
     private boolean recursive = false; // recursive flag
     private boolean autoUpAxis = false; // automatically assign 3D matrix axes flag
@@ -128,11 +138,15 @@ public class GlobalOptions {
     private boolean flipCoordinate = false; // flip coordinate flag for 2D Data
     private boolean zeroOrigin = false; // data origin to zero point flag
     private boolean ignoreTextures = false; // ignore textures flag
+    private GltfImageType imageType; // texture image storage of the glb contents
 
     // [Experimental] 3D Data Options
     private boolean largeMesh = false; // [Experimental] large mesh splitting mode flag
     private boolean voxelLod = false; // [Experimental] voxel level of detail flag
     private boolean photorealistic = false; // [Experimental] photorealistic mode flag
+    private boolean simplify = false; // [Experimental] lower LOD mesh simplification flag
+    private boolean quantization = false; // [Experimental] KHR_mesh_quantization flag
+    private boolean meshopt = false; // [Experimental] EXT_meshopt_compression flag
 
     /* 2D Data Column Options */
     private String nameColumn;
@@ -266,12 +280,21 @@ public class GlobalOptions {
         instance.setMinGeometricError(command.hasOption(ProcessOptions.MIN_GEOMETRIC_ERROR.getArgName()) ? Integer.parseInt(command.getOptionValue(ProcessOptions.MIN_GEOMETRIC_ERROR.getArgName())) : DEFAULT_MIN_GEOMETRIC_ERROR);
         instance.setMaxGeometricError(command.hasOption(ProcessOptions.MAX_GEOMETRIC_ERROR.getArgName()) ? Integer.parseInt(command.getOptionValue(ProcessOptions.MAX_GEOMETRIC_ERROR.getArgName())) : DEFAULT_MAX_GEOMETRIC_ERROR);
         instance.setIgnoreTextures(command.hasOption(ProcessOptions.IGNORE_TEXTURES.getArgName()));
+        String imageTypeName = command.hasOption(ProcessOptions.IMAGE_TYPE.getArgName()) ? command.getOptionValue(ProcessOptions.IMAGE_TYPE.getArgName()) : DEFAULT_IMAGE_TYPE;
+        GltfImageType imageType = GltfImageType.fromName(imageTypeName);
+        if (imageType == null) {
+            throw new IllegalArgumentException("Invalid image type: " + imageTypeName);
+        }
+        instance.setImageType(imageType);
         instance.setMaxTriangles(DEFAULT_MAX_TRIANGLES);
         instance.setMaxInstance(DEFAULT_MAX_INSTANCE);
         instance.setMaxNodeDepth(DEFAULT_MAX_NODE_DEPTH);
         instance.setLargeMesh(command.hasOption(ProcessOptions.LARGE_MESH.getArgName()));
         instance.setVoxelLod(command.hasOption(ProcessOptions.VOXEL_LOD.getArgName()));
         instance.setPhotorealistic(command.hasOption(ProcessOptions.PHOTOREALISTIC.getArgName()));
+        instance.setSimplify(command.hasOption(ProcessOptions.SIMPLIFY.getArgName()));
+        instance.setQuantization(command.hasOption(ProcessOptions.QUANTIZATION.getArgName()));
+        instance.setMeshopt(command.hasOption(ProcessOptions.MESHOPT.getArgName()));
 
         TilerExtensionModule extensionModule = new TilerExtensionModule();
         extensionModule.executePhotorealistic(null, null);
@@ -346,6 +369,25 @@ public class GlobalOptions {
             instance.setMultiThreadCount((byte) threadCount);
         }
 
+        int multiThreadCount = instance.getMultiThreadCount();
+        int loadThreadCount = multiThreadCount;
+        int preProcessThreadCount = multiThreadCount;
+        int postProcessThreadCount = multiThreadCount;
+        if (command.hasOption(ProcessOptions.STAGE_THREAD_COUNT.getArgName())) {
+            String[] stageThreadCounts = command.getOptionValue(ProcessOptions.STAGE_THREAD_COUNT.getArgName()).split(",");
+            if (stageThreadCounts.length != 3) {
+                throw new IllegalArgumentException("Please enter the stage thread count as 'load,pre,post'.");
+            }
+            loadThreadCount = Integer.parseInt(stageThreadCounts[0].trim());
+            preProcessThreadCount = Integer.parseInt(stageThreadCounts[1].trim());
+            postProcessThreadCount = Integer.parseInt(stageThreadCounts[2].trim());
+        }
+        instance.setStreaming(command.hasOption(ProcessOptions.STREAMING.getArgName()));
+        instance.setLoadThreadCount(Math.max(1, loadThreadCount));
+        instance.setPreProcessThreadCount(Math.max(1, preProcessThreadCount));
+        instance.setPostProcessThreadCount(Math.max(1, postProcessThreadCount));
+        instance.setStageQueueSize(Math.max(1, multiThreadCount) * DEFAULT_STAGE_QUEUE_SIZE_PER_THREAD);
+
         instance.setZeroOrigin(command.hasOption(ProcessOptions.ZERO_ORIGIN.getArgName()));
         instance.setAutoUpAxis(command.hasOption(ProcessOptions.AUTO_UP_AXIS.getArgName()));
 
@@ -400,8 +442,11 @@ public class GlobalOptions {
         log.debug("Debug Mode: {}", debug);
         log.debug("Debug LOD: {}", debugLod);
         log.debug("Debug GLB: {}", glb);
+        log.debug("Image Type: {}", imageType);
         log.debug("classicTransformMatrix: {}", classicTransformMatrix);
         log.debug("Multi-Thread Count: {}", multiThreadCount);
+        log.debug("Streaming Pipeline: {}", streaming);
+        log.debug("Stage Thread Count (load/pre/post): {}/{}/{}", loadThreadCount, preProcessThreadCount, postProcessThreadCount);
 
         // 3D Data Options
         log.debug("========================================");
@@ -419,6 +464,9 @@ public class GlobalOptions {
         log.debug("LargeMesh: {}", largeMesh);
         log.debug("Voxel LOD: {}", voxelLod);
         log.debug("Photorealistic: {}", photorealistic);
+        log.debug("Simplify: {}", simplify);
+        log.debug("Quantization: {}", quantization);
+        log.debug("Meshopt: {}", meshopt);
 
         // 2D Data Column Options
         log.debug("========================================");
@@ -16,6 +16,7 @@ import com.gaia3d.converter.loader.BatchedFileLoader;
 import com.gaia3d.process.TilingPipeline;
 import com.gaia3d.process.postprocess.GaiaMaximizer;
 import com.gaia3d.process.postprocess.GaiaRelocator;
+import com.gaia3d.process.postprocess.GaiaSimplifier;
 import com.gaia3d.process.postprocess.PostProcess;
 import com.gaia3d.process.postprocess.batch.Batched3DModel;
 import com.gaia3d.process.preprocess.*;
@@ -71,6 +72,9 @@ public class BatchedProcessModel implements ProcessFlowModel {
         /* Post-process */
         List<PostProcess> postProcessors = new ArrayList<>();
         postProcessors.add(new GaiaMaximizer());
+        if (globalOptions.isSimplify()) {
+            postProcessors.add(new GaiaSimplifier());
+        }
         postProcessors.add(new GaiaRelocator());
         postProcessors.add(new Batched3DModel());
 
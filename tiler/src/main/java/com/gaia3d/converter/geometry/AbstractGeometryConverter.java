@@ -145,9 +145,15 @@ public abstract class AbstractGeometryConverter {
     }
 
     protected double getHeight(SimpleFeature feature, String column, double minimumHeight) {
+        return getHeight(feature.getAttribute(column), feature.getAttribute(column.toUpperCase()), minimumHeight);
+    }
+
+    protected double getHeight(Map<String, Object> properties, String column, double minimumHeight) {
+        return getHeight(properties.get(column), properties.get(column.toUpperCase()), minimumHeight);
+    }
+
+    private double getHeight(Object heightLower, Object heightUpper, double minimumHeight) {
         double result = 0.0d;
-        Object heightLower = feature.getAttribute(column);
-        Object heightUpper = feature.getAttribute(column.toUpperCase());
         Object heightObject = null;
         if (heightLower != null) {
             heightObject = heightLower;
@@ -221,9 +227,15 @@ public abstract class AbstractGeometryConverter {
     }
 
     protected String getAttributeValueOfDefault(SimpleFeature feature, String column, String defaultValue) {
+        return getAttributeValueOfDefault(feature.getAttribute(column), feature.getAttribute(column.toUpperCase()), defaultValue);
+    }
+
+    protected String getAttributeValueOfDefault(Map<String, Object> properties, String column, String defaultValue) {
+        return getAttributeValueOfDefault(properties.get(column), properties.get(column.toUpperCase()), defaultValue);
+    }
+
+    private String getAttributeValueOfDefault(Object LowerObject, Object UpperObject, String defaultValue) {
         String result = defaultValue;
-        Object LowerObject = feature.getAttribute(column);
-        Object UpperObject = feature.getAttribute(column.toUpperCase());
         Object attributeObject = null;
         if (LowerObject != null) {
             attributeObject = LowerObject;
@@ -273,9 +285,15 @@ public abstract class AbstractGeometryConverter {
     }
 
     protected double getAltitude(SimpleFeature feature, String column) {
+        return getAltitude(feature.getAttribute(column), feature.getAttribute(column.toUpperCase()));
+    }
+
+    protected double getAltitude(Map<String, Object> properties, String column) {
+        return getAltitude(properties.get(column), properties.get(column.toUpperCase()));
+    }
+
+    private double getAltitude(Object heightLower, Object heightUpper) {
         double result = 0.0d;
-        Object heightLower = feature.getAttribute(column);
-        Object heightUpper = feature.getAttribute(column.toUpperCase());
         Object heightObject = null;
         if (heightLower != null) {
             heightObject = heightLower;
@@ -300,9 +318,15 @@ public abstract class AbstractGeometryConverter {
     }
 
     protected double getDiameter(SimpleFeature feature, String column) {
+        return getDiameter(feature.getAttribute(column), feature.getAttribute(column.toUpperCase()));
+    }
+
+    protected double getDiameter(Map<String, Object> properties, String column) {
+        return getDiameter(properties.get(column), properties.get(column.toUpperCase()));
+    }
+
+    private double getDiameter(Object attributeLower, Object attributeUpper) {
         double result = 10.0d;
-        Object attributeLower = feature.getAttribute(column);
-        Object attributeUpper = feature.getAttribute(column.toUpperCase());
         Object attributeObject = null;
         if (attributeLower != null) {
             attributeObject = attributeLower;
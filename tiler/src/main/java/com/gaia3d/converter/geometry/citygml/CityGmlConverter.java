@@ -45,9 +45,11 @@ import org.citygml4j.core.model.waterbody.WaterGroundSurface;
 import org.citygml4j.core.model.waterbody.WaterSurface;
 import org.citygml4j.xml.CityGMLContext;
 import org.citygml4j.xml.CityGMLContextException;
+import org.citygml4j.xml.reader.ChunkOptions;
 import org.citygml4j.xml.reader.CityGMLInputFactory;
 import org.citygml4j.xml.reader.CityGMLReadException;
 import org.citygml4j.xml.reader.CityGMLReader;
+import org.apache.commons.io.FilenameUtils;
 import org.joml.Matrix4d;
 import org.joml.Vector3d;
 import org.locationtech.proj4j.CoordinateReferenceSystem;
@@ -70,6 +72,8 @@ import java.util.*;
 @Slf4j
 @RequiredArgsConstructor
 public class CityGmlConverter extends AbstractGeometryConverter implements Converter {
+    private static final String TEMP_EXTENSION = "tmp";
+    private static final int TEMP_SCENE_COUNT = 1000;
     private final GlobalOptions globalOptions = GlobalOptions.getInstance();
 
     @Override
@@ -89,10 +93,59 @@ public class CityGmlConverter extends AbstractGeometryConverter implements Conve
 
     @Override
     public List<GaiaSceneTempHolder> convertTemp(File input, File output) {
-        return null;
+        List<GaiaSceneTempHolder> sceneTemps = new ArrayList<>();
+        List<GaiaScene> scenes = new ArrayList<>();
+        int cityObjectCount = 0;
+        try {
+            CityGMLContext context = CityGMLContext.newInstance();
+            CityGMLInputFactory factory = context.createCityGMLInputFactory().withChunking(ChunkOptions.defaults());
+            try (CityGMLReader reader = factory.createCityGMLReader(input)) {
+                while (reader.hasNext()) {
+                    AbstractFeature feature = reader.next();
+                    List<AbstractCityObject> cityObjects = new ArrayList<>();
+                    if (feature instanceof CityModel cityModel) {
+                        // members that were not chunked
+                        cityModel.getCityObjectMembers().forEach((cityObjectProperty) -> cityObjects.add(cityObjectProperty.getObject()));
+                    } else if (feature instanceof AbstractCityObject cityObject) {
+                        cityObjects.add(cityObject);
+                    }
+
+                    for (AbstractCityObject cityObject : cityObjects) {
+                        cityObjectCount++;
+                        for (List<GaiaBuildingSurface> surfaces : convertCityObject(cityObject)) {
+                            GaiaScene scene = createScene(input, surfaces);
+                            if (scene != null) {
+                                scenes.add(scene);
+                            }
+                        }
+                        if (scenes.size() >= TEMP_SCENE_COUNT) {
+                            sceneTemps.add(writeTemp(scenes, input, output));
+                            scenes.clear();
+                        }
+                    }
+                }
+            }
+        } catch (CityGMLContextException | CityGMLReadException e) {
+            log.error("Failed to read citygml file: {}", input.getName());
+            throw new RuntimeException(e);
+        }
+        if (!scenes.isEmpty()) {
+            sceneTemps.add(writeTemp(scenes, input, output));
+        }
+        log.info(" - Total CityGML Object Count : {}", cityObjectCount);
+        return sceneTemps;
     }
 
     protected List<GaiaScene> convert(File file) {
+        if (TEMP_EXTENSION.equals(FilenameUtils.getExtension(file.getName()))) {
+            GaiaSceneTempHolder sceneTemp = GaiaSceneTempHolder.builder()
+                    .tempFile(file)
+                    .isMinimized(true)
+                    .build();
+            sceneTemp.maximize();
+            return sceneTemp.getTempScene();
+        }
+
         List<GaiaScene> scenes = new ArrayList<>();
         try {
             CityGMLContext context = CityGMLContext.newInstance();
@@ -101,190 +154,180 @@ public class CityGmlConverter extends AbstractGeometryConverter implements Conve
 
             while (reader.hasNext()) {
                 CityModel cityModel = (CityModel) reader.next();
-                //List<GaiaExtrusionBuilding> buildingList = new ArrayList<>();
                 List<List<GaiaBuildingSurface>> buildingSurfacesList = new ArrayList<>();
                 List<AbstractCityObjectProperty> cityObjectMembers = cityModel.getCityObjectMembers();
                 for (AbstractCityObjectProperty cityObjectProperty : cityObjectMembers) {
-                    AbstractCityObject cityObject = cityObjectProperty.getObject();
-
-                    List<SolidProperty> solidProperties = extractSolid(cityObject);
-                    for (SolidProperty solidProperty : solidProperties) {
-                        AbstractSolid solid = solidProperty.getObject();
-                        if (solid == null) {
-                            log.error("No solid found for city object: {}", cityObject.getId());
-                        } else {
-                            buildingSurfacesList.add(convertSolidSurfaceProperty(cityObject, solid));
-                        }
-                        //buildingList.addAll(convertSolidProperty(cityObject, solid));
-                    }
+                    buildingSurfacesList.addAll(convertCityObject(cityObjectProperty.getObject()));
+                }
 
-                    List<MultiSurfaceProperty> multiSurfaceProperties = extractMultiSurfaceProperty(cityObject);
-                    for (MultiSurfaceProperty multiSurfaceProperty : multiSurfaceProperties) {
-                        buildingSurfacesList.add(convertMultiSurfaceProperty(cityObject, multiSurfaceProperty));
+                for (List<GaiaBuildingSurface> surfaces : buildingSurfacesList) {
+                    GaiaScene scene = createScene(file, surfaces);
+                    if (scene != null) {
+                        scenes.add(scene);
                     }
-
-                    /*// TinRelief
-                    List<TriangleArrayProperty> triangleArrayProperties = extractTriangleArrayProperty(cityObject);
-                    for (TriangleArrayProperty triangleArrayProperty : triangleArrayProperties) {
-                        buildingSurfacesList.add(convertTriangleArrayProperty(cityObject, triangleArrayProperty));
-                    }*/
                 }
+            }
+            reader.close();
+        } catch (CityGMLContextException | CityGMLReadException e) {
+            log.error("Failed to read citygml file: {}", file.getName());
+            throw new RuntimeException(e);
+        }
 
-                EasySceneCreator easySceneCreator = new EasySceneCreator();
-                /*for (GaiaExtrusionBuilding gaiaBuilding : buildingList) {
-                    GaiaScene scene = easySceneCreator.createScene(file);
-                    GaiaMaterial material = getMaterialByClassification(scene.getMaterials(), gaiaBuilding.getClassification());
-                    GaiaNode rootNode = scene.getNodes().get(0);
-
-                    GaiaAttribute attribute = scene.getAttribute();
-                    attribute.setAttributes(gaiaBuilding.getProperties());
-
-                    GaiaBoundingBox boundingBox = gaiaBuilding.getBoundingBox();
-                    Vector3d center = boundingBox.getCenter();
-                    center.z = center.z - skirtHeight;
-
-                    Vector3d centerWorldCoordinate = GlobeUtils.geographicToCartesianWgs84(center);
-                    Matrix4d transformMatrix = GlobeUtils.transformMatrixAtCartesianPointWgs84(centerWorldCoordinate);
-                    Matrix4d transformMatrixInv = new Matrix4d(transformMatrix).invert();
-
-                    List<Vector3d> localPositions = new ArrayList<>();
-                    for (Vector3d position : gaiaBuilding.getPositions()) {
-                        Vector3d positionWorldCoordinate = GlobeUtils.geographicToCartesianWgs84(position);
-                        Vector3d localPosition = positionWorldCoordinate.mulPosition(transformMatrixInv);
-                        localPosition.z = 0.0d;
-                        localPositions.add(localPosition);
-                    }
+        return scenes;
+    }
 
-                    Extrusion extrusion = extruder.extrude(localPositions, gaiaBuilding.getRoofHeight(), gaiaBuilding.getFloorHeight());
-                    GaiaNode node = createNode(material, extrusion.getPositions(), extrusion.getTriangles());
-                    rootNode.getChildren().add(node);
+    /**
+     * Writes the scenes of a batch to a temp file, so only one batch of a large file is held in memory.
+     */
+    private GaiaSceneTempHolder writeTemp(List<GaiaScene> scenes, File input, File output) {
+        String tempName = UUID.randomUUID() + "_" + input.getName() + "." + TEMP_EXTENSION;
+        File tempFile = new File(output, tempName);
+
+        scenes.forEach((gaiaScene) -> {
+            gaiaScene.setOriginalPath(tempFile.toPath());
+        });
+        log.info("[{}] write temp : {}", tempName, scenes.size());
+        GaiaSceneTempHolder sceneTemp = GaiaSceneTempHolder.builder()
+                .tempScene(scenes)
+                .tempFile(tempFile).build();
+        sceneTemp.minimize(tempFile);
+        return sceneTemp;
+    }
 
-                    Matrix4d rootTransformMatrix = new Matrix4d().identity();
-                    rootTransformMatrix.translate(center, rootTransformMatrix);
-                    rootNode.setTransformMatrix(rootTransformMatrix);
+    private List<List<GaiaBuildingSurface>> convertCityObject(AbstractCityObject cityObject) {
+        List<List<GaiaBuildingSurface>> buildingSurfacesList = new ArrayList<>();
 
-                    if (rootNode.getChildren().size() <= 0) {
-                        log.debug("Invalid Scene : {}", rootNode.getName());
-                        continue;
-                    }
-                    scenes.add(scene);
-                }*/
-
-                for (List<GaiaBuildingSurface> surfaces : buildingSurfacesList) {
-                    if (surfaces.isEmpty()) {
-                        continue;
-                    }
+        List<SolidProperty> solidProperties = extractSolid(cityObject);
+        for (SolidProperty solidProperty : solidProperties) {
+            AbstractSolid solid = solidProperty.getObject();
+            if (solid == null) {
+                log.error("No solid found for city object: {}", cityObject.getId());
+            } else {
+                buildingSurfacesList.add(convertSolidSurfaceProperty(cityObject, solid));
+            }
+            //buildingList.addAll(convertSolidProperty(cityObject, solid));
+        }
 
-                    GaiaScene scene = easySceneCreator.createScene(file);
-                    GaiaNode rootNode = scene.getNodes().get(0);
+        List<MultiSurfaceProperty> multiSurfaceProperties = extractMultiSurfaceProperty(cityObject);
+        for (MultiSurfaceProperty multiSurfaceProperty : multiSurfaceProperties) {
+            buildingSurfacesList.add(convertMultiSurfaceProperty(cityObject, multiSurfaceProperty));
+        }
 
-                    GaiaAttribute attribute = scene.getAttribute();
-                    //attribute.setAttributes(surfaces.getProperties());
+        /*// TinRelief
+        List<TriangleArrayProperty> triangleArrayProperties = extractTriangleArrayProperty(cityObject);
+        for (TriangleArrayProperty triangleArrayProperty : triangleArrayProperties) {
+            buildingSurfacesList.add(convertTriangleArrayProperty(cityObject, triangleArrayProperty));
+        }*/
+        return buildingSurfacesList;
+    }
 
-                    GaiaBoundingBox globalBoundingBox = new GaiaBoundingBox();
-                    for (GaiaBuildingSurface buildingSurface : surfaces) {
-                        GaiaBoundingBox localBoundingBox = buildingSurface.getBoundingBox();
-                        globalBoundingBox.addBoundingBox(localBoundingBox);
-                    }
+    private GaiaScene createScene(File file, List<GaiaBuildingSurface> surfaces) {
+        if (surfaces.isEmpty()) {
+            return null;
+        }
 
-                    Vector3d center = globalBoundingBox.getCenter();
-                    Vector3d centerWorldCoordinate = GlobeUtils.geographicToCartesianWgs84(center);
-                    Matrix4d transformMatrix = GlobeUtils.transformMatrixAtCartesianPointWgs84(centerWorldCoordinate);
-                    Matrix4d transformMatrixInv = new Matrix4d(transformMatrix).invert();
+        EasySceneCreator easySceneCreator = new EasySceneCreator();
+        GaiaScene scene = easySceneCreator.createScene(file);
+        GaiaNode rootNode = scene.getNodes().get(0);
 
-                    for (GaiaBuildingSurface buildingSurface : surfaces) {
-                        GaiaMaterial material = getMaterialByClassification(scene.getMaterials(), buildingSurface.getClassification());
+        GaiaAttribute attribute = scene.getAttribute();
+        //attribute.setAttributes(surfaces.getProperties());
 
-                        // Check if buildingSurface has holes.***
-                        List<List<Vector3d>> interiorPolygons = buildingSurface.getInteriorPositions();
-                        boolean hasHoles = interiorPolygons != null && !interiorPolygons.isEmpty();
+        GaiaBoundingBox globalBoundingBox = new GaiaBoundingBox();
+        for (GaiaBuildingSurface buildingSurface : surfaces) {
+            GaiaBoundingBox localBoundingBox = buildingSurface.getBoundingBox();
+            globalBoundingBox.addBoundingBox(localBoundingBox);
+        }
 
-                        GaiaNode node = new GaiaNode();
-                        node.setTransformMatrix(new Matrix4d().identity());
-                        GaiaMesh mesh = new GaiaMesh();
-                        node.getMeshes().add(mesh);
+        Vector3d center = globalBoundingBox.getCenter();
+        Vector3d centerWorldCoordinate = GlobeUtils.geographicToCartesianWgs84(center);
+        Matrix4d transformMatrix = GlobeUtils.transformMatrixAtCartesianPointWgs84(centerWorldCoordinate);
+        Matrix4d transformMatrixInv = new Matrix4d(transformMatrix).invert();
 
-                        if (!hasHoles) {
-                            List<List<Vector3d>> polygons = new ArrayList<>();
-                            List<Vector3d> polygon = new ArrayList<>();
+        for (GaiaBuildingSurface buildingSurface : surfaces) {
+            GaiaMaterial material = getMaterialByClassification(scene.getMaterials(), buildingSurface.getClassification());
 
-                            if (buildingSurface.getExteriorPositions().size() < 3) {
-                                log.debug("Invalid Geometry : {}", buildingSurface.getId());
-                                continue;
-                            }
-                            for (Vector3d position : buildingSurface.getExteriorPositions()) {
-                                Vector3d positionWorldCoordinate = GlobeUtils.geographicToCartesianWgs84(position);
-                                Vector3d localPosition = positionWorldCoordinate.mulPosition(transformMatrixInv);
-                                polygon.add(new Vector3dOnlyHashEquals(localPosition));
-                            }
-                            polygons.add(polygon);
+            // Check if buildingSurface has holes.***
+            List<List<Vector3d>> interiorPolygons = buildingSurface.getInteriorPositions();
+            boolean hasHoles = interiorPolygons != null && !interiorPolygons.isEmpty();
 
-                            GaiaPrimitive primitive = createPrimitiveFromPolygons(polygons);
+            GaiaNode node = new GaiaNode();
+            node.setTransformMatrix(new Matrix4d().identity());
+            GaiaMesh mesh = new GaiaMesh();
+            node.getMeshes().add(mesh);
 
-                            primitive.setMaterialIndex(material.getId());
-                            if (primitive.getSurfaces().isEmpty() || primitive.getVertices().size() < 3) {
-                                log.debug("Invalid Geometry : {}", buildingSurface.getId());
-                                log.debug("Vertices count : {}", primitive.getVertices().size());
-                                log.debug("Surfaces count : {}", primitive.getSurfaces().size());
-                                continue;
-                            }
-                            mesh.getPrimitives().add(primitive);
-                            rootNode.getChildren().add(node);
-                        } else {
-                            // Has holes.***
-                            List<Vector3d> ExteriorPolygon = buildingSurface.getExteriorPositions();
-
-                            // convert points to local coordinates.***
-                            List<Vector3d> ExteriorPolygonLocal = new ArrayList<>();
-                            for (Vector3d position : ExteriorPolygon) {
-                                Vector3d positionWorldCoordinate = GlobeUtils.geographicToCartesianWgs84(position);
-                                Vector3d localPosition = positionWorldCoordinate.mulPosition(transformMatrixInv);
-                                ExteriorPolygonLocal.add(localPosition);
-                            }
+            if (!hasHoles) {
+                List<List<Vector3d>> polygons = new ArrayList<>();
+                List<Vector3d> polygon = new ArrayList<>();
 
-                            // interior points.***
-                            List<List<Vector3d>> interiorPolygonsLocal = new ArrayList<>();
-                            for (List<Vector3d> interiorPolygon : interiorPolygons) {
-                                List<Vector3d> interiorPolygonLocal = new ArrayList<>();
-                                for (Vector3d position : interiorPolygon) {
-                                    Vector3d positionWorldCoordinate = GlobeUtils.geographicToCartesianWgs84(position);
-                                    Vector3d localPosition = positionWorldCoordinate.mulPosition(transformMatrixInv);
-                                    interiorPolygonLocal.add(localPosition);
-                                }
-                                interiorPolygonsLocal.add(interiorPolygonLocal);
-                            }
-                            GaiaPrimitive primitive = createSurfaceFromExteriorAndInteriorPolygons(ExteriorPolygonLocal, interiorPolygonsLocal);
-                            if (primitive.getSurfaces().isEmpty() || primitive.getVertices().size() < 3) {
-                                log.debug("Invalid Geometry : {}", buildingSurface.getId());
-                                log.debug("Vertices count : {}", primitive.getVertices().size());
-                                log.debug("Surfaces count : {}", primitive.getSurfaces().size());
-                                continue;
-                            }
+                if (buildingSurface.getExteriorPositions().size() < 3) {
+                    log.debug("Invalid Geometry : {}", buildingSurface.getId());
+                    continue;
+                }
+                for (Vector3d position : buildingSurface.getExteriorPositions()) {
+                    Vector3d positionWorldCoordinate = GlobeUtils.geographicToCartesianWgs84(position);
+                    Vector3d localPosition = positionWorldCoordinate.mulPosition(transformMatrixInv);
+                    polygon.add(new Vector3dOnlyHashEquals(localPosition));
+                }
+                polygons.add(polygon);
 
-                            primitive.setMaterialIndex(material.getId());
-                            mesh.getPrimitives().add(primitive);
-                            rootNode.getChildren().add(node);
-                        }
-                    }
+                GaiaPrimitive primitive = createPrimitiveFromPolygons(polygons);
 
-                    Matrix4d rootTransformMatrix = new Matrix4d().identity();
-                    rootTransformMatrix.translate(center, rootTransformMatrix);
-                    rootNode.setTransformMatrix(rootTransformMatrix);
+                primitive.setMaterialIndex(material.getId());
+                if (primitive.getSurfaces().isEmpty() || primitive.getVertices().size() < 3) {
+                    log.debug("Invalid Geometry : {}", buildingSurface.getId());
+                    log.debug("Vertices count : {}", primitive.getVertices().size());
+                    log.debug("Surfaces count : {}", primitive.getSurfaces().size());
+                    continue;
+                }
+                mesh.getPrimitives().add(primitive);
+                rootNode.getChildren().add(node);
+            } else {
+                // Has holes.***
+                List<Vector3d> ExteriorPolygon = buildingSurface.getExteriorPositions();
+
+                // convert points to local coordinates.***
+                List<Vector3d> ExteriorPolygonLocal = new ArrayList<>();
+                for (Vector3d position : ExteriorPolygon) {
+                    Vector3d positionWorldCoordinate = GlobeUtils.geographicToCartesianWgs84(position);
+                    Vector3d localPosition = positionWorldCoordinate.mulPosition(transformMatrixInv);
+                    ExteriorPolygonLocal.add(localPosition);
+                }
 
-                    if (rootNode.getChildren().size() <= 0) {
-                        log.debug("Invalid Scene : {}", rootNode.getName());
-                        continue;
+                // interior points.***
+                List<List<Vector3d>> interiorPolygonsLocal = new ArrayList<>();
+                for (List<Vector3d> interiorPolygon : interiorPolygons) {
+                    List<Vector3d> interiorPolygonLocal = new ArrayList<>();
+                    for (Vector3d position : interiorPolygon) {
+                        Vector3d positionWorldCoordinate = GlobeUtils.geographicToCartesianWgs84(position);
+                        Vector3d localPosition = positionWorldCoordinate.mulPosition(transformMatrixInv);
+                        interiorPolygonLocal.add(localPosition);
                     }
-                    scenes.add(scene);
+                    interiorPolygonsLocal.add(interiorPolygonLocal);
                 }
+                GaiaPrimitive primitive = createSurfaceFromExteriorAndInteriorPolygons(ExteriorPolygonLocal, interiorPolygonsLocal);
+                if (primitive.getSurfaces().isEmpty() || primitive.getVertices().size() < 3) {
+                    log.debug("Invalid Geometry : {}", buildingSurface.getId());
+                    log.debug("Vertices count : {}", primitive.getVertices().size());
+                    log.debug("Surfaces count : {}", primitive.getSurfaces().size());
+                    continue;
+                }
+
+                primitive.setMaterialIndex(material.getId());
+                mesh.getPrimitives().add(primitive);
+                rootNode.getChildren().add(node);
             }
-            reader.close();
-        } catch (CityGMLContextException | CityGMLReadException e) {
-            log.error("Failed to read citygml file: {}", file.getName());
-            throw new RuntimeException(e);
         }
 
-        return scenes;
+        Matrix4d rootTransformMatrix = new Matrix4d().identity();
+        rootTransformMatrix.translate(center, rootTransformMatrix);
+        rootNode.setTransformMatrix(rootTransformMatrix);
+
+        if (rootNode.getChildren().size() <= 0) {
+            log.debug("Invalid Scene : {}", rootNode.getName());
+            return null;
+        }
+        return scene;
     }
 
     /*private List<GaiaExtrusionBuilding> convertSolidProperty(AbstractCityObject cityObject, AbstractSolid abstractSolid) {
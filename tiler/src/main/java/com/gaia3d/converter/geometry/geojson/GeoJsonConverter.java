@@ -17,32 +17,28 @@ import com.gaia3d.converter.geometry.pipe.PipeType;
 import com.gaia3d.util.GlobeUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.geotools.data.simple.SimpleFeatureCollection;
-import org.geotools.feature.FeatureIterator;
-import org.geotools.feature.simple.SimpleFeatureImpl;
-import org.geotools.geojson.feature.FeatureJSON;
 import org.joml.Matrix4d;
 import org.joml.Vector3d;
 import org.locationtech.jts.geom.*;
 import org.locationtech.proj4j.CoordinateReferenceSystem;
 import org.locationtech.proj4j.ProjCoordinate;
-import org.opengis.feature.simple.SimpleFeature;
-import org.opengis.feature.type.FeatureType;
-import org.opengis.feature.type.PropertyDescriptor;
 
-import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.StringReader;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @RequiredArgsConstructor
 public class GeoJsonConverter extends AbstractGeometryConverter implements Converter {
 
+    private static final int BUILDING_BATCH_COUNT = 10000;
+    private static final int PIPE_LINE_BATCH_COUNT = 1000;
+    private static final long MIN_RANGE_BYTE_LENGTH = 4L * 1024 * 1024;
+    private static final long MAX_RANGE_BYTE_LENGTH = 64L * 1024 * 1024;
+
     private final GlobalOptions globalOptions = GlobalOptions.getInstance();
 
     @Override
@@ -62,276 +58,332 @@ public class GeoJsonConverter extends AbstractGeometryConverter implements Conve
 
     @Override
     public List<GaiaSceneTempHolder> convertTemp(File input, File output) {
-        List<GaiaSceneTempHolder> sceneTemps = new ArrayList<>();
-        GaiaExtruder gaiaExtruder = new GaiaExtruder();
-        InnerRingRemover innerRingRemover = new InnerRingRemover();
-
+        GeoJsonStreamReader reader = new GeoJsonStreamReader(input);
         boolean isDefaultCrs = globalOptions.getCrs().equals(GlobalOptions.DEFAULT_CRS);
-        boolean flipCoordinate = globalOptions.isFlipCoordinate();
-        String nameColumnName = globalOptions.getNameColumn();
-        String heightColumnName = globalOptions.getHeightColumn();
-        String altitudeColumnName = globalOptions.getAltitudeColumn();
-        String diameterColumnName = globalOptions.getDiameterColumn();
-
-        double absoluteAltitudeValue = globalOptions.getAbsoluteAltitude();
-        double minimumHeightValue = globalOptions.getMinimumHeight();
-        double skirtHeight = globalOptions.getSkirtHeight();
-
-        try (BufferedInputStream bufferedInputStream = new BufferedInputStream(Files.newInputStream(input.toPath()))){
-            FeatureJSON geojson = new FeatureJSON();
+        try {
             log.info("Reading GeoJSON file : {}", input.getAbsolutePath());
-            SimpleFeatureCollection featureCollection = (SimpleFeatureCollection) geojson.readFeatureCollection(bufferedInputStream);
-            FeatureIterator<SimpleFeature> iterator = featureCollection.features();
+            if (isDefaultCrs) {
+                CoordinateReferenceSystem crs = reader.readCrs();
+                if (crs != null) {
+                    log.info(" - Coordinate Reference System : {}", crs.getName());
+                    globalOptions.setCrs(crs);
+                }
+            }
+
+            // the batch table needs every property on every feature, the missing ones are written as "Null".***
+            Set<String> propertyNames = reader.readPropertyNames();
+            List<GaiaSceneTempHolder> sceneTemps;
+            if (reader.isSequence()) {
+                sceneTemps = convertSequence(reader, input, output, propertyNames);
+            } else {
+                FeatureSceneWriter sceneWriter = new FeatureSceneWriter(input, output, propertyNames);
+                reader.read(sceneWriter::write);
+                sceneTemps = sceneWriter.finish();
+            }
             log.info("Reading GeoJSON file : {} done", input.getAbsolutePath());
+            return sceneTemps;
+        } catch (IOException e) {
+            log.error("Failed to read GeoJSON file : {}", input.getAbsolutePath(), e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Reads the byte ranges of a GeoJSONSeq file on several threads, each range writes its own temp files.
+     */
+    private List<GaiaSceneTempHolder> convertSequence(GeoJsonStreamReader reader, File input, File output, Set<String> propertyNames) throws IOException {
+        int threadCount = Math.max(1, globalOptions.getMultiThreadCount());
+        long rangeByteLength = Math.min(MAX_RANGE_BYTE_LENGTH, Math.max(MIN_RANGE_BYTE_LENGTH, input.length() / threadCount + 1));
+        List<long[]> ranges = reader.splitRanges(rangeByteLength);
+        if (threadCount == 1 || ranges.size() == 1) {
+            FeatureSceneWriter sceneWriter = new FeatureSceneWriter(input, output, propertyNames);
+            reader.read(sceneWriter::write);
+            return sceneWriter.finish();
+        }
 
-            var coordinateReferenceSystem = featureCollection.getSchema().getCoordinateReferenceSystem();
-            if (isDefaultCrs && coordinateReferenceSystem != null) {
-                CoordinateReferenceSystem crs = GlobeUtils.convertProj4jCrsFromGeotoolsCrs(coordinateReferenceSystem);
-                log.info(" - Coordinate Reference System : {}", crs.getName());
-                globalOptions.setCrs(crs);
+        int rangeLength = ranges.size();
+        AtomicInteger rangeCount = new AtomicInteger(0);
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.min(threadCount, rangeLength));
+        List<Future<List<GaiaSceneTempHolder>>> futures = new ArrayList<>();
+        List<GaiaSceneTempHolder> sceneTemps = new ArrayList<>();
+        try {
+            for (long[] range : ranges) {
+                Callable<List<GaiaSceneTempHolder>> callableTask = () -> {
+                    FeatureSceneWriter sceneWriter = new FeatureSceneWriter(input, output, propertyNames);
+                    reader.read(range[0], range[1], sceneWriter::write);
+                    List<GaiaSceneTempHolder> rangeSceneTemps = sceneWriter.finish();
+                    log.info("[Pre][{}/{}] Read GeoJSON range {}-{} of {}", rangeCount.incrementAndGet(), rangeLength, range[0], range[1], input.getName());
+                    return rangeSceneTemps;
+                };
+                Future<List<GaiaSceneTempHolder>> future = executorService.submit(callableTask);
+                if (globalOptions.isDebug()) {
+                    future.get();
+                }
+                futures.add(future);
+            }
+            for (Future<List<GaiaSceneTempHolder>> future : futures) {
+                sceneTemps.addAll(future.get());
             }
+        } catch (InterruptedException | ExecutionException e) {
+            executorService.shutdownNow();
+            log.error("Failed to read GeoJSON file on thread : {}", input.getAbsolutePath(), e);
+            throw new RuntimeException(e);
+        }
+        executorService.shutdown();
+        return sceneTemps;
+    }
 
-            List<GaiaExtrusionBuilding> buildings = new ArrayList<>();
-            List<GaiaPipeLineString> pipeLineStrings = new ArrayList<>();
-            while (iterator.hasNext()) {
-                SimpleFeatureImpl feature = (SimpleFeatureImpl) iterator.next();
-                Geometry geom = (Geometry) feature.getDefaultGeometry();
+    /**
+     * Converts the features as they are read, extruding the buildings at once and writing the scenes to temp files in bounded batches.
+     */
+    private class FeatureSceneWriter {
+        private final File input;
+        private final File output;
+        private final Set<String> propertyNames;
+        private final GaiaExtruder gaiaExtruder = new GaiaExtruder();
+        private final InnerRingRemover innerRingRemover = new InnerRingRemover();
+        private final EasySceneCreator easySceneCreator = new EasySceneCreator();
+        private final List<GaiaSceneTempHolder> sceneTemps = new ArrayList<>();
+        private final List<GaiaScene> scenes = new ArrayList<>();
+        private final List<GaiaPipeLineString> pipeLineStrings = new ArrayList<>();
+
+        private final boolean flipCoordinate = globalOptions.isFlipCoordinate();
+        private final String nameColumnName = globalOptions.getNameColumn();
+        private final String heightColumnName = globalOptions.getHeightColumn();
+        private final String altitudeColumnName = globalOptions.getAltitudeColumn();
+        private final String diameterColumnName = globalOptions.getDiameterColumn();
+        private final double absoluteAltitudeValue = globalOptions.getAbsoluteAltitude();
+        private final double minimumHeightValue = globalOptions.getMinimumHeight();
+        private final double skirtHeight = globalOptions.getSkirtHeight();
+
+        FeatureSceneWriter(File input, File output, Set<String> propertyNames) {
+            this.input = input;
+            this.output = output;
+            this.propertyNames = propertyNames;
+        }
 
-                if (geom == null) {
-                    log.debug("Is Null Geometry : {}", feature.getID());
-                    continue;
+        void write(GeoJsonFeature feature) {
+            Geometry geom = feature.getGeometry();
+            if (geom == null) {
+                log.debug("Is Null Geometry : {}", feature.getId());
+                return;
+            }
+
+            List<Polygon> polygons = new ArrayList<>();
+            List<LineString> lineStrings = new ArrayList<>();
+            if (geom instanceof MultiPolygon) {
+                int count = geom.getNumGeometries();
+                for (int i = 0; i < count; i++) {
+                    Polygon polygon = (Polygon) geom.getGeometryN(i);
+                    polygons.add(polygon);
+                }
+            } else if (geom instanceof Polygon) {
+                polygons.add((Polygon) geom);
+            } else if (geom instanceof LineString) {
+                lineStrings.add((LineString) geom);
+            } else if (geom instanceof MultiLineString) {
+                int count = geom.getNumGeometries();
+                for (int i = 0; i < count; i++) {
+                    LineString lineString = (LineString) geom.getGeometryN(i);
+                    lineStrings.add(lineString);
                 }
+            } else {
+                log.debug("Is Not Supported Geometry Type : {}", geom.getGeometryType());
+                return;
+            }
 
-                List<Polygon> polygons = new ArrayList<>();
-                List<LineString> lineStrings = new ArrayList<>();
-                if (geom instanceof MultiPolygon) {
-                    int count = geom.getNumGeometries();
-                    for (int i = 0; i < count; i++) {
-                        Polygon polygon = (Polygon) geom.getGeometryN(i);
-                        polygons.add(polygon);
-                    }
-                } else if (geom instanceof Polygon) {
-                    polygons.add((Polygon) geom);
-                } else if (geom instanceof LineString) {
-                    lineStrings.add((LineString) geom);
-                } else if (geom instanceof MultiLineString) {
-                    int count = geom.getNumGeometries();
-                    for (int i = 0; i < count; i++) {
-                        LineString lineString = (LineString) geom.getGeometryN(i);
-                        lineStrings.add(lineString);
+            Map<String, Object> properties = feature.getProperties();
+            Map<String, String> attributes = new HashMap<>();
+            propertyNames.forEach((key) -> attributes.put(key, castStringFromObject(properties.get(key), "Null")));
+
+            for (LineString lineString : lineStrings) {
+                Coordinate[] coordinates = lineString.getCoordinates();
+                List<Vector3d> positions = new ArrayList<>();
+                if (coordinates.length < 2) {
+                    log.warn("Invalid LineString : {}", feature.getId());
+                    continue;
+                }
+                for (Coordinate coordinate : coordinates) {
+                    double x, y, z;
+                    if (flipCoordinate) {
+                        x = coordinate.getY();
+                        y = coordinate.getX();
+                    } else {
+                        x = coordinate.getX();
+                        y = coordinate.getY();
                     }
-                }else {
-                    log.debug("Is Not Supported Geometry Type : {}", geom.getGeometryType());
+                    z = coordinate.getZ();
+                    Vector3d position = new Vector3d(x, y, z); // usually crs 3857.***
+                    positions.add(position);
+                }
+                double diameter = getDiameter(properties, diameterColumnName);
+
+                GaiaPipeLineString pipeLineString = GaiaPipeLineString.builder().id(feature.getId()).profileType(PipeType.CIRCULAR).diameter(diameter).properties(attributes).positions(positions).build();
+                pipeLineString.setOriginalFilePath(input.getPath());
+                pipeLineStrings.add(pipeLineString);
+                if (pipeLineStrings.size() >= PIPE_LINE_BATCH_COUNT) {
+                    convertPipeLineStrings(pipeLineStrings, sceneTemps, input, output);
+                    pipeLineStrings.clear();
+                }
+            }
+
+            for (Polygon polygon : polygons) {
+                if (!polygon.isValid()) {
+                    log.debug("Is Invalid Polygon. : {}", feature.getId());
                     continue;
                 }
 
-                Map<String, String> attributes = new HashMap<>();
-                FeatureType featureType = feature.getFeatureType();
-                Collection<PropertyDescriptor> featureDescriptors = featureType.getDescriptors();
-                AtomicInteger index = new AtomicInteger(0);
-                featureDescriptors.forEach(attributeDescriptor -> {
-                    Object attribute = feature.getAttribute(index.getAndIncrement());
-                    if (attribute instanceof Geometry) {
-                        return;
-                    }
-                    String attributeString = castStringFromObject(attribute, "Null");
-                    //log.debug("{} : {}", attributeDescriptor.getName(), attributeString);
-                    attributes.put(attributeDescriptor.getName().getLocalPart(), attributeString);
-                });
-
-                for (LineString lineString : lineStrings) {
-                    Coordinate[] coordinates = lineString.getCoordinates();
-                    List<Vector3d> positions = new ArrayList<>();
-                    if (coordinates.length < 2) {
-                        log.warn("Invalid LineString : {}", feature.getID());
-                        continue;
-                    }
-                    for (Coordinate coordinate : coordinates) {
-                        Point point = new GeometryFactory().createPoint(coordinate);
-                        double x, y, z;
-                        if (flipCoordinate) {
-                            x = point.getY();
-                            y = point.getX();
-                        } else {
-                            x = point.getX();
-                            y = point.getY();
-                        }
-                        z = point.getCoordinate().getZ();
-                        Vector3d position = new Vector3d(x, y, z); // usually crs 3857.***
-                        positions.add(position);
-                    }
-                    double diameter = getDiameter(feature, diameterColumnName);
+                LineString lineString = polygon.getExteriorRing();
+                Coordinate[] outerCoordinates = lineString.getCoordinates();
 
-                    GaiaPipeLineString pipeLineString = GaiaPipeLineString.builder().id(feature.getID()).profileType(PipeType.CIRCULAR).diameter(diameter).properties(attributes).positions(positions).build();
-                    pipeLineString.setOriginalFilePath(input.getPath());
-                    pipeLineStrings.add(pipeLineString);
+                int innerRingCount = polygon.getNumInteriorRing();
+                List<Coordinate[]> innerCoordinates = new ArrayList<>();
+                for (int i = 0; i < innerRingCount; i++) {
+                    LineString innerRing = polygon.getInteriorRingN(i);
+                    Coordinate[] innerCoordinatesArray = innerRing.getCoordinates();
+                    innerCoordinates.add(innerCoordinatesArray);
                 }
 
-                for (Polygon polygon : polygons) {
-                    if (!polygon.isValid()) {
-                        log.debug("Is Invalid Polygon. : {}", feature.getID());
-                        continue;
-                    }
+                outerCoordinates = innerRingRemover.removeAll(outerCoordinates, innerCoordinates);
+                GaiaBoundingBox boundingBox = new GaiaBoundingBox();
+                List<Vector3d> positions = new ArrayList<>();
 
-                    LineString lineString = polygon.getExteriorRing();
-                    Coordinate[] outerCoordinates = lineString.getCoordinates();
+                for (Coordinate coordinate : outerCoordinates) {
+                    double x, y;
+                    if (flipCoordinate) {
+                        x = coordinate.getY();
+                        y = coordinate.getX();
+                    } else {
+                        x = coordinate.getX();
+                        y = coordinate.getY();
+                    }
 
-                    int innerRingCount = polygon.getNumInteriorRing();
-                    List<Coordinate[]> innerCoordinates = new ArrayList<>();
-                    for (int i = 0; i < innerRingCount; i++) {
-                        LineString innerRing = polygon.getInteriorRingN(i);
-                        Coordinate[] innerCoordinatesArray = innerRing.getCoordinates();
-                        innerCoordinates.add(innerCoordinatesArray);
+                    Vector3d position;
+                    CoordinateReferenceSystem crs = globalOptions.getCrs();
+                    if (crs != null && !crs.getName().equals("EPSG:4326")) {
+                        ProjCoordinate projCoordinate = new ProjCoordinate(x, y, boundingBox.getMinZ());
+                        ProjCoordinate centerWgs84 = GlobeUtils.transform(crs, projCoordinate);
+                        position = new Vector3d(centerWgs84.x, centerWgs84.y, 0.0d);
+                    } else {
+                        position = new Vector3d(x, y, 0.0d);
                     }
 
-                    outerCoordinates = innerRingRemover.removeAll(outerCoordinates, innerCoordinates);
-                    GaiaBoundingBox boundingBox = new GaiaBoundingBox();
-                    List<Vector3d> positions = new ArrayList<>();
-
-                    for (Coordinate coordinate : outerCoordinates) {
-                        double x, y, z;
-                        if (flipCoordinate) {
-                            x = coordinate.getY();
-                            y = coordinate.getX();
-                        } else {
-                            x = coordinate.getX();
-                            y = coordinate.getY();
-                        }
-                        z = coordinate.getZ();
-
-                        Vector3d position;
-                        CoordinateReferenceSystem crs = globalOptions.getCrs();
-                        if (crs != null && !crs.getName().equals("EPSG:4326")) {
-                            ProjCoordinate projCoordinate = new ProjCoordinate(x, y, boundingBox.getMinZ());
-                            ProjCoordinate centerWgs84 = GlobeUtils.transform(crs, projCoordinate);
-                            position = new Vector3d(centerWgs84.x, centerWgs84.y, 0.0d);
-                        } else {
-                            position = new Vector3d(x, y, 0.0d);
-                        }
+                    positions.add(position);
+                    boundingBox.addPoint(position);
+                }
 
-                        positions.add(position);
-                        boundingBox.addPoint(position);
+                String name = getAttributeValueOfDefault(properties, nameColumnName, "Extrusion-Building");
+                if (positions.size() >= 3) {
+                    double height = getHeight(properties, heightColumnName, minimumHeightValue);
+                    double altitude = absoluteAltitudeValue;
+                    if (altitudeColumnName != null) {
+                        altitude = getAltitude(properties, altitudeColumnName);
                     }
-
-                    String name = getAttributeValueOfDefault(feature, nameColumnName, "Extrusion-Building");
-                    if (positions.size() >= 3) {
-                        double height = getHeight(feature, heightColumnName, minimumHeightValue);
-                        double altitude = absoluteAltitudeValue;
-                        if (altitudeColumnName != null) {
-                            altitude = getAltitude(feature, altitudeColumnName);
+                    GaiaExtrusionBuilding building = GaiaExtrusionBuilding.builder()
+                            .id(feature.getId())
+                            .name(name)
+                            .boundingBox(boundingBox)
+                            .floorHeight(altitude)
+                            .roofHeight(height + skirtHeight)
+                            .positions(positions)
+                            .properties(attributes)
+                            .build();
+                    GaiaScene scene = createScene(building);
+                    if (scene != null) {
+                        scenes.add(scene);
+                        if (scenes.size() >= BUILDING_BATCH_COUNT) {
+                            writeTemp();
                         }
-                        GaiaExtrusionBuilding building = GaiaExtrusionBuilding.builder()
-                                .id(feature.getID())
-                                .name(name)
-                                .boundingBox(boundingBox)
-                                .floorHeight(altitude)
-                                .roofHeight(height + skirtHeight)
-                                .positions(positions)
-                                .properties(attributes)
-                                .build();
-                        buildings.add(building);
-                    } else {
-                        log.warn("Invalid Geometry : {}, {}", feature.getID(), name);
                     }
+                } else {
+                    log.warn("Invalid Geometry : {}, {}", feature.getId(), name);
                 }
             }
-            iterator.close();
-            EasySceneCreator easySceneCreator = new EasySceneCreator();
-
-            int sceneCount = 10000;
-            List<GaiaScene> scenes = new ArrayList<>();
-            for (GaiaExtrusionBuilding building : buildings) {
-                GaiaScene scene = easySceneCreator.createScene(input);
-                GaiaNode rootNode = scene.getNodes().get(0);
-
-                GaiaAttribute gaiaAttribute = scene.getAttribute();
-                gaiaAttribute.setAttributes(building.getProperties());
-                Map<String, String> attributes = gaiaAttribute.getAttributes();
-                gaiaAttribute.setNodeName(rootNode.getName());
-                attributes.put("name", building.getName());
-
-                Vector3d center = building.getBoundingBox().getCenter();
-                center.z = center.z - skirtHeight;
-
-                Vector3d centerWorldCoordinate = GlobeUtils.geographicToCartesianWgs84(center);
-                Matrix4d transformMatrix = GlobeUtils.transformMatrixAtCartesianPointWgs84(centerWorldCoordinate);
-                Matrix4d transformMatrixInv = new Matrix4d(transformMatrix).invert();
-
-                List<Vector3d> localPositions = new ArrayList<>();
-                for (Vector3d position : building.getPositions()) {
-                    Vector3d positionWorldCoordinate = GlobeUtils.geographicToCartesianWgs84(position);
-                    Vector3d localPosition = positionWorldCoordinate.mulPosition(transformMatrixInv);
-                    localPosition.z = 0.0d;
-                    localPositions.add(new Vector3dOnlyHashEquals(localPosition));
-                }
-                Collections.reverse(localPositions);
+        }
 
-                List<GaiaExtrusionSurface> extrusionSurfaces = gaiaExtruder.extrude(localPositions, building.getRoofHeight(), building.getFloorHeight());
+        List<GaiaSceneTempHolder> finish() {
+            if (!pipeLineStrings.isEmpty()) {
+                convertPipeLineStrings(pipeLineStrings, sceneTemps, input, output);
+                pipeLineStrings.clear();
+            }
+            if (!scenes.isEmpty()) {
+                writeTemp();
+            }
+            return sceneTemps;
+        }
 
-                GaiaNode node = new GaiaNode();
-                node.setTransformMatrix(new Matrix4d().identity());
-                GaiaMesh mesh = new GaiaMesh();
-                node.getMeshes().add(mesh);
+        private GaiaScene createScene(GaiaExtrusionBuilding building) {
+            GaiaScene scene = easySceneCreator.createScene(input);
+            GaiaNode rootNode = scene.getNodes().get(0);
 
-                GaiaPrimitive primitive = createPrimitiveFromGaiaExtrusionSurfaces(extrusionSurfaces);
-                if (primitive.getSurfaces().isEmpty() || primitive.getVertices().size() < 3) {
-                    log.debug("Invalid Geometry : {}", building.getId());
-                    log.debug("Vertices count : {}", primitive.getVertices().size());
-                    log.debug("Surfaces count : {}", primitive.getSurfaces().size());
-                    continue;
-                }
+            GaiaAttribute gaiaAttribute = scene.getAttribute();
+            gaiaAttribute.setAttributes(building.getProperties());
+            Map<String, String> attributes = gaiaAttribute.getAttributes();
+            gaiaAttribute.setNodeName(rootNode.getName());
+            attributes.put("name", building.getName());
 
-                primitive.setMaterialIndex(0);
-                mesh.getPrimitives().add(primitive);
+            Vector3d center = building.getBoundingBox().getCenter();
+            center.z = center.z - skirtHeight;
 
-                rootNode.getChildren().add(node);
+            Vector3d centerWorldCoordinate = GlobeUtils.geographicToCartesianWgs84(center);
+            Matrix4d transformMatrix = GlobeUtils.transformMatrixAtCartesianPointWgs84(centerWorldCoordinate);
+            Matrix4d transformMatrixInv = new Matrix4d(transformMatrix).invert();
 
-                Matrix4d rootTransformMatrix = new Matrix4d().identity();
-                rootTransformMatrix.translate(center, rootTransformMatrix);
-                rootNode.setTransformMatrix(rootTransformMatrix);
+            List<Vector3d> localPositions = new ArrayList<>();
+            for (Vector3d position : building.getPositions()) {
+                Vector3d positionWorldCoordinate = GlobeUtils.geographicToCartesianWgs84(position);
+                Vector3d localPosition = positionWorldCoordinate.mulPosition(transformMatrixInv);
+                localPosition.z = 0.0d;
+                localPositions.add(new Vector3dOnlyHashEquals(localPosition));
+            }
+            Collections.reverse(localPositions);
 
-                if (rootNode.getChildren().size() <= 0) {
-                    log.debug("Invalid Scene : {}", rootNode.getName());
-                    continue;
-                }
+            List<GaiaExtrusionSurface> extrusionSurfaces = gaiaExtruder.extrude(localPositions, building.getRoofHeight(), building.getFloorHeight());
 
-                scenes.add(scene);
-                if (scenes.size() >= sceneCount) {
-                    String tempName = UUID.randomUUID() + "_" + input.getName();
-                    File tempFile = new File(output, tempName);
-
-                    scenes.forEach((gaiaScene) -> {
-                        gaiaScene.setOriginalPath(tempFile.toPath());
-                    });
-                    log.info("[{}] write temp : {}", tempName, scenes.size());
-                    GaiaSceneTempHolder sceneTemp = GaiaSceneTempHolder.builder()
-                            .tempScene(scenes)
-                            .tempFile(tempFile).build();
-                    sceneTemp.minimize(tempFile);
-                    sceneTemps.add(sceneTemp);
-                    scenes.clear();
-                }
+            GaiaNode node = new GaiaNode();
+            node.setTransformMatrix(new Matrix4d().identity());
+            GaiaMesh mesh = new GaiaMesh();
+            node.getMeshes().add(mesh);
+
+            GaiaPrimitive primitive = createPrimitiveFromGaiaExtrusionSurfaces(extrusionSurfaces);
+            if (primitive.getSurfaces().isEmpty() || primitive.getVertices().size() < 3) {
+                log.debug("Invalid Geometry : {}", building.getId());
+                log.debug("Vertices count : {}", primitive.getVertices().size());
+                log.debug("Surfaces count : {}", primitive.getSurfaces().size());
+                return null;
             }
-            convertPipeLineStrings(pipeLineStrings, sceneTemps, input, output);
-            if (!scenes.isEmpty()) {
-                String tempName = UUID.randomUUID() + "_" + input.getName();
-                File tempFile = new File(output, tempName);
 
-                scenes.forEach((gaiaScene) -> {
-                    gaiaScene.setOriginalPath(tempFile.toPath());
-                });
-                log.info("[{}] write temp : {}", tempName, scenes.size());
-                GaiaSceneTempHolder sceneTemp = GaiaSceneTempHolder.builder()
-                        .tempScene(scenes)
-                        .tempFile(tempFile).build();
-                sceneTemp.minimize(tempFile);
-                sceneTemps.add(sceneTemp);
+            primitive.setMaterialIndex(0);
+            mesh.getPrimitives().add(primitive);
+
+            rootNode.getChildren().add(node);
+
+            Matrix4d rootTransformMatrix = new Matrix4d().identity();
+            rootTransformMatrix.translate(center, rootTransformMatrix);
+            rootNode.setTransformMatrix(rootTransformMatrix);
+
+            if (rootNode.getChildren().size() <= 0) {
+                log.debug("Invalid Scene : {}", rootNode.getName());
+                return null;
             }
-        } catch (IOException e) {
-            log.error("Failed to read GeoJSON file : {}", input.getAbsolutePath(), e);
-            throw new RuntimeException(e);
+            return scene;
+        }
+
+        private void writeTemp() {
+            String tempName = UUID.randomUUID() + "_" + input.getName();
+            File tempFile = new File(output, tempName);
+
+            scenes.forEach((gaiaScene) -> {
+                gaiaScene.setOriginalPath(tempFile.toPath());
+            });
+            log.info("[{}] write temp : {}", tempName, scenes.size());
+            GaiaSceneTempHolder sceneTemp = GaiaSceneTempHolder.builder()
+                    .tempScene(scenes)
+                    .tempFile(tempFile).build();
+            sceneTemp.minimize(tempFile);
+            sceneTemps.add(sceneTemp);
+            scenes.clear();
         }
-        return sceneTemps;
     }
 
     @Override
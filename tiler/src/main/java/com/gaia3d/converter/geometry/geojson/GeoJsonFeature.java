@@ -0,0 +1,19 @@
+package com.gaia3d.converter.geometry.geojson;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.locationtech.jts.geom.Geometry;
+
+import java.util.Map;
+
+/**
+ * A feature read by the GeoJsonStreamReader.
+ * The properties keep the json values : String, Integer, Long, Double, Boolean, null, or the json text of an object or array.
+ */
+@Getter
+@AllArgsConstructor
+public class GeoJsonFeature {
+    private final String id;
+    private final Geometry geometry;
+    private final Map<String, Object> properties;
+}
@@ -0,0 +1,585 @@
+package com.gaia3d.converter.geometry.geojson;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.*;
+import org.locationtech.proj4j.CRSFactory;
+import org.locationtech.proj4j.CoordinateReferenceSystem;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads GeoJSON token by token and hands each feature to a consumer, without building the FeatureCollection.
+ * Reads a FeatureCollection, a single Feature or Geometry,
+ * and GeoJSONSeq : features separated by the record separator (RFC 8142) or one feature per line.
+ * A sequence file can be split into byte ranges that start on a record, so the ranges can be read on several threads.
+ */
+@Slf4j
+public class GeoJsonStreamReader {
+    private static final int RECORD_SEPARATOR = 0x1E;
+    private static final int NOT_SEQUENCE = -1;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final CRSFactory CRS_FACTORY = new CRSFactory();
+    private static final Pattern EPSG_PATTERN = Pattern.compile("EPSG:(?:[\\d.]*:)?(\\d+)", Pattern.CASE_INSENSITIVE);
+
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+    private final File file;
+    private Integer recordSeparator = null;
+
+    public GeoJsonStreamReader(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Reads the crs member of a FeatureCollection, when it is written before the features as GDAL and QGIS do.
+     */
+    public CoordinateReferenceSystem readCrs() throws IOException {
+        try (JsonParser parser = createParser(0, file.length())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.currentName();
+                parser.nextToken();
+                if ("crs".equals(fieldName)) {
+                    return readCrs(parser);
+                } else if ("features".equals(fieldName)) {
+                    return null;
+                }
+                parser.skipChildren();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads the names of the properties of all the features, skipping the geometries.
+     * The features of a file do not have to share their properties, so this is the schema of the file.
+     */
+    public Set<String> readPropertyNames() throws IOException {
+        Set<String> propertyNames = new LinkedHashSet<>();
+        try (JsonParser parser = createParser(0, file.length())) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.START_OBJECT) {
+                    readPropertyNames(parser, propertyNames);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return propertyNames;
+    }
+
+    public boolean isSequence() throws IOException {
+        return getRecordSeparator() != NOT_SEQUENCE;
+    }
+
+    /**
+     * Splits a sequence file into byte ranges of about rangeByteLength, each one starting on a record.
+     * Any other file is one range.
+     */
+    public List<long[]> splitRanges(long rangeByteLength) throws IOException {
+        int separator = getRecordSeparator();
+        long length = file.length();
+        List<long[]> ranges = new ArrayList<>();
+        if (separator == NOT_SEQUENCE) {
+            ranges.add(new long[]{0, length});
+            return ranges;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long start = 0;
+            while (start < length) {
+                long end = findRecordStart(channel, start + rangeByteLength, separator, length);
+                ranges.add(new long[]{start, end});
+                start = end;
+            }
+        }
+        return ranges;
+    }
+
+    public void read(Consumer<GeoJsonFeature> consumer) throws IOException {
+        read(0, file.length(), consumer);
+    }
+
+    /**
+     * Reads the features of the root values found between the start and the end bytes.
+     */
+    public void read(long start, long end, Consumer<GeoJsonFeature> consumer) throws IOException {
+        try (JsonParser parser = createParser(start, end)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.START_OBJECT) {
+                    readObject(parser, start, consumer);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    /**
+     * A sequence starts with the record separator, or its first feature ends on its first line.
+     */
+    private int getRecordSeparator() throws IOException {
+        if (recordSeparator != null) {
+            return recordSeparator;
+        }
+        recordSeparator = NOT_SEQUENCE;
+        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
+            int value = inputStream.read();
+            while (value == ' ' || value == '\t' || value == '\r' || value == '\n') {
+                value = inputStream.read();
+            }
+            if (value == RECORD_SEPARATOR) {
+                recordSeparator = RECORD_SEPARATOR;
+                return recordSeparator;
+            }
+        }
+        try (JsonParser parser = createParser(0, file.length())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return recordSeparator;
+            }
+            int lineNr = parser.currentTokenLocation().getLineNr();
+            boolean isFeature = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.currentName();
+                parser.nextToken();
+                if ("type".equals(fieldName)) {
+                    if (!"Feature".equals(parser.getValueAsString())) {
+                        return recordSeparator;
+                    }
+                    isFeature = true;
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (isFeature && parser.currentLocation().getLineNr() == lineNr) {
+                recordSeparator = (int) '\n';
+            }
+        }
+        return recordSeparator;
+    }
+
+    /**
+     * Returns the position of the first record that starts at or after the position.
+     */
+    private long findRecordStart(FileChannel channel, long position, int separator, long length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long offset = position;
+        while (offset < length) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == separator) {
+                    // the record separator opens a record, the line feed closes one.***
+                    return separator == RECORD_SEPARATOR ? offset + i : offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return length;
+    }
+
+    private JsonParser createParser(long start, long end) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            channel.position(start);
+            return JSON_FACTORY.createParser(new RecordInputStream(Channels.newInputStream(channel), end - start));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads a FeatureCollection, a Feature or a Geometry, the parser is on the start of the object.
+     */
+    private void readObject(JsonParser parser, long start, Consumer<GeoJsonFeature> consumer) throws IOException {
+        long offset = start + parser.currentTokenLocation().getByteOffset();
+        String type = null;
+        String id = null;
+        Geometry geometry = null;
+        Map<String, Object> properties = null;
+        Object coordinates = null;
+        List<Geometry> geometries = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch (fieldName) {
+                case "type":
+                    type = parser.getValueAsString();
+                    break;
+                case "id":
+                    id = token == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+                    break;
+                case "features":
+                    readFeatures(parser, start, consumer);
+                    break;
+                case "geometry":
+                    geometry = readGeometry(parser);
+                    break;
+                case "properties":
+                    properties = readProperties(parser);
+                    break;
+                case "coordinates":
+                    coordinates = readCoordinates(parser);
+                    break;
+                case "geometries":
+                    geometries = readGeometries(parser);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        if (id == null) {
+            id = "features." + offset;
+        }
+        if (properties == null) {
+            properties = new LinkedHashMap<>();
+        }
+        if ("Feature".equals(type)) {
+            consumer.accept(new GeoJsonFeature(id, geometry, properties));
+        } else if (type != null && !"FeatureCollection".equals(type)) {
+            consumer.accept(new GeoJsonFeature(id, createGeometry(type, coordinates, geometries), properties));
+        }
+    }
+
+    private void readPropertyNames(JsonParser parser, Set<String> propertyNames) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if ("features".equals(fieldName) && token == JsonToken.START_ARRAY) {
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                    if (token == JsonToken.START_OBJECT) {
+                        readPropertyNames(parser, propertyNames);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else if ("properties".equals(fieldName) && token == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    propertyNames.add(parser.currentName());
+                    parser.nextToken();
+                    parser.skipChildren();
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void readFeatures(JsonParser parser, long start, Consumer<GeoJsonFeature> consumer) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token == JsonToken.START_OBJECT) {
+                readObject(parser, start, consumer);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private Geometry readGeometry(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String type = null;
+        Object coordinates = null;
+        List<Geometry> geometries = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            parser.nextToken();
+            if ("type".equals(fieldName)) {
+                type = parser.getValueAsString();
+            } else if ("coordinates".equals(fieldName)) {
+                coordinates = readCoordinates(parser);
+            } else if ("geometries".equals(fieldName)) {
+                geometries = readGeometries(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return createGeometry(type, coordinates, geometries);
+    }
+
+    private List<Geometry> readGeometries(JsonParser parser) throws IOException {
+        List<Geometry> geometries = new ArrayList<>();
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return geometries;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            Geometry geometry = readGeometry(parser);
+            if (geometry != null) {
+                geometries.add(geometry);
+            }
+        }
+        return geometries;
+    }
+
+    /**
+     * Reads a position as a Coordinate, and the nested arrays of positions as lists.
+     */
+    private Object readCoordinates(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            double[] values = new double[3];
+            int count = 0;
+            while (token != JsonToken.END_ARRAY) {
+                if (count < 3) {
+                    values[count] = parser.getDoubleValue();
+                }
+                count++;
+                token = parser.nextToken();
+            }
+            return count >= 3 ? new Coordinate(values[0], values[1], values[2]) : new Coordinate(values[0], values[1]);
+        }
+        List<Object> coordinates = new ArrayList<>();
+        while (token != JsonToken.END_ARRAY) {
+            coordinates.add(readCoordinates(parser));
+            token = parser.nextToken();
+        }
+        return coordinates;
+    }
+
+    private Map<String, Object> readProperties(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        Map<String, Object> properties = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken token = parser.nextToken();
+            properties.put(name, readValue(parser, token));
+        }
+        return properties;
+    }
+
+    private Object readValue(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+                return parser.getNumberValue();
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDoubleValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_NULL:
+                return null;
+            default:
+                // the objects and arrays are kept as their json text.***
+                StringWriter writer = new StringWriter();
+                try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+                    generator.copyCurrentStructure(parser);
+                }
+                return writer.toString();
+        }
+    }
+
+    private CoordinateReferenceSystem readCrs(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String name = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if ("properties".equals(fieldName) && token == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String propertyName = parser.currentName();
+                    parser.nextToken();
+                    if ("name".equals(propertyName)) {
+                        name = parser.getValueAsString();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return createCrs(name);
+    }
+
+    /**
+     * Creates the crs of a named crs like "EPSG:5186", "urn:ogc:def:crs:EPSG::5186" or "urn:ogc:def:crs:OGC:1.3:CRS84".
+     */
+    protected static CoordinateReferenceSystem createCrs(String name) {
+        if (name == null) {
+            return null;
+        }
+        String epsgCode = null;
+        if (name.toUpperCase().endsWith("CRS84")) {
+            epsgCode = "4326";
+        } else {
+            Matcher matcher = EPSG_PATTERN.matcher(name);
+            if (matcher.find()) {
+                epsgCode = matcher.group(1);
+            }
+        }
+        if (epsgCode == null) {
+            log.warn("Unsupported GeoJSON crs : {}", name);
+            return null;
+        }
+        try {
+            return CRS_FACTORY.createFromName("EPSG:" + epsgCode);
+        } catch (RuntimeException e) {
+            log.warn("Failed to create GeoJSON crs : {}", name, e);
+            return null;
+        }
+    }
+
+    private Geometry createGeometry(String type, Object coordinates, List<Geometry> geometries) {
+        if (type == null) {
+            return null;
+        }
+        try {
+            switch (type) {
+                case "Point":
+                    return geometryFactory.createPoint((Coordinate) coordinates);
+                case "MultiPoint":
+                    return geometryFactory.createMultiPointFromCoords(toCoordinates(coordinates));
+                case "LineString":
+                    return geometryFactory.createLineString(toCoordinates(coordinates));
+                case "MultiLineString":
+                    List<Object> lines = toList(coordinates);
+                    LineString[] lineStrings = new LineString[lines.size()];
+                    for (int i = 0; i < lineStrings.length; i++) {
+                        lineStrings[i] = geometryFactory.createLineString(toCoordinates(lines.get(i)));
+                    }
+                    return geometryFactory.createMultiLineString(lineStrings);
+                case "Polygon":
+                    return createPolygon(coordinates);
+                case "MultiPolygon":
+                    List<Object> polygonList = toList(coordinates);
+                    Polygon[] polygons = new Polygon[polygonList.size()];
+                    for (int i = 0; i < polygons.length; i++) {
+                        polygons[i] = createPolygon(polygonList.get(i));
+                    }
+                    return geometryFactory.createMultiPolygon(polygons);
+                case "GeometryCollection":
+                    List<Geometry> collection = geometries != null ? geometries : new ArrayList<>();
+                    return geometryFactory.createGeometryCollection(collection.toArray(new Geometry[0]));
+                default:
+                    log.debug("Is Not Supported Geometry Type : {}", type);
+                    return null;
+            }
+        } catch (IllegalArgumentException | ClassCastException e) {
+            log.debug("Is Invalid Geometry : {}, {}", type, e.getMessage());
+            return null;
+        }
+    }
+
+    private Polygon createPolygon(Object coordinates) {
+        List<Object> rings = toList(coordinates);
+        if (rings.isEmpty()) {
+            return geometryFactory.createPolygon();
+        }
+        LinearRing shell = geometryFactory.createLinearRing(toCoordinates(rings.get(0)));
+        LinearRing[] holes = new LinearRing[rings.size() - 1];
+        for (int i = 0; i < holes.length; i++) {
+            holes[i] = geometryFactory.createLinearRing(toCoordinates(rings.get(i + 1)));
+        }
+        return geometryFactory.createPolygon(shell, holes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object> toList(Object coordinates) {
+        if (coordinates == null) {
+            return new ArrayList<>();
+        }
+        return (List<Object>) coordinates;
+    }
+
+    private Coordinate[] toCoordinates(Object coordinates) {
+        List<Object> positions = toList(coordinates);
+        Coordinate[] result = new Coordinate[positions.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (Coordinate) positions.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Reads at most the length of a range and turns the record separators into white spaces for the json parser.
+     */
+    private static class RecordInputStream extends FilterInputStream {
+        private long remaining;
+
+        RecordInputStream(InputStream inputStream, long length) {
+            super(inputStream);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int value = super.read();
+            if (value >= 0) {
+                remaining--;
+            }
+            return value == RECORD_SEPARATOR ? ' ' : value;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(bytes, offset, (int) Math.min(length, remaining));
+            if (read > 0) {
+                remaining -= read;
+                for (int i = offset; i < offset + read; i++) {
+                    if (bytes[i] == RECORD_SEPARATOR) {
+                        bytes[i] = ' ';
+                    }
+                }
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long length) throws IOException {
+            long skipped = super.skip(Math.min(length, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+    }
+}
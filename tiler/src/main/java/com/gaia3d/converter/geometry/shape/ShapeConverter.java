@@ -41,13 +41,18 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @RequiredArgsConstructor
 public class ShapeConverter extends AbstractGeometryConverter implements Converter {
 
+    private static final int BUILDING_BATCH_COUNT = 10000;
+    private static final int MIN_BATCH_COUNT = 1000;
+
     private final GlobalOptions globalOptions = GlobalOptions.getInstance();
+    private int maxBatchCount = BUILDING_BATCH_COUNT;
 
     @Override
     public List<GaiaScene> load(String path) {
@@ -67,18 +72,10 @@ public class ShapeConverter extends AbstractGeometryConverter implements Convert
     @Override
     public List<GaiaSceneTempHolder> convertTemp(File input, File output) {
         List<GaiaSceneTempHolder> sceneTemps = new ArrayList<>();
-        InnerRingRemover innerRingRemover = new InnerRingRemover();
-
         boolean isDefaultCrs = globalOptions.getCrs().equals(GlobalOptions.DEFAULT_CRS);
-        boolean flipCoordinate = globalOptions.isFlipCoordinate();
-        String nameColumnName = globalOptions.getNameColumn();
-        String heightColumnName = globalOptions.getHeightColumn();
-        String altitudeColumnName = globalOptions.getAltitudeColumn();
-        String diameterColumnName = globalOptions.getDiameterColumn();
-
-        double absoluteAltitudeValue = globalOptions.getAbsoluteAltitude();
-        double minimumHeightValue = globalOptions.getMinimumHeight();
-        double skirtHeight = globalOptions.getSkirtHeight();
+        int threadCount = Math.max(1, globalOptions.getMultiThreadCount());
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        Deque<Future<List<GaiaSceneTempHolder>>> futures = new ArrayDeque<>();
 
         ShpFiles shpFiles = null;
         ShapefileReader reader = null;
@@ -95,8 +92,6 @@ public class ShapeConverter extends AbstractGeometryConverter implements Convert
 
             SimpleFeatureCollection features = source.getFeatures(query);
             FeatureIterator<SimpleFeature> iterator = features.features();
-            List<GaiaExtrusionBuilding> buildings = new ArrayList<>();
-            List<GaiaPipeLineString> pipeLineStrings = new ArrayList<>();
 
             var coordinateReferenceSystem = features.getSchema().getCoordinateReferenceSystem();
             if (isDefaultCrs && coordinateReferenceSystem != null) {
@@ -105,157 +100,240 @@ public class ShapeConverter extends AbstractGeometryConverter implements Convert
                 globalOptions.setCrs(crs);
             }
 
+            // this thread only decodes the features, the batches are extruded and written on the thread pool.***
+            int batchSize = getBatchSize(totalCount, threadCount);
+            List<ShapeFeature> batch = new ArrayList<>(batchSize);
             while (iterator.hasNext()) {
-                SimpleFeature feature = iterator.next();
-                Geometry geom = (Geometry) feature.getDefaultGeometry();
-                if (geom == null) {
-                    log.debug("Is Null Geometry : {}", feature.getID());
+                ShapeFeature shapeFeature = readFeature(iterator.next());
+                if (shapeFeature == null) {
                     continue;
                 }
-
-                List<Polygon> polygons = new ArrayList<>();
-                List<LineString> lineStrings = new ArrayList<>();
-                if (geom instanceof MultiPolygon) {
-                    int count = geom.getNumGeometries();
-                    for (int i = 0; i < count; i++) {
-                        Polygon polygon = (Polygon) geom.getGeometryN(i);
-                        polygons.add(polygon);
-                    }
-                } else if (geom instanceof Polygon) {
-                    polygons.add((Polygon) geom);
-                } else if (geom instanceof LineString) {
-                    lineStrings.add((LineString) geom);
-                } else if (geom instanceof MultiLineString) {
-                    int count = geom.getNumGeometries();
-                    for (int i = 0; i < count; i++) {
-                        LineString lineString = (LineString) geom.getGeometryN(i);
-                        lineStrings.add(lineString);
+                batch.add(shapeFeature);
+                if (batch.size() >= batchSize) {
+                    submitBatch(executorService, futures, batch, input, output);
+                    batch = new ArrayList<>(batchSize);
+                    // collecting the oldest batch first keeps the order of the temp files and bounds the batches in memory.***
+                    while (futures.size() > threadCount * 2) {
+                        sceneTemps.addAll(futures.poll().get());
                     }
-                } else {
-                    log.debug("Is Not Supported Geometry Type : {}", geom.getGeometryType());
-                    continue;
                 }
+            }
+            if (!batch.isEmpty()) {
+                submitBatch(executorService, futures, batch, input, output);
+            }
+            iterator.close();
+            reader.close();
+            shpFiles.dispose();
+            dataStore.dispose();
 
-                Map<String, String> attributes = new HashMap<>();
-                FeatureType featureType = feature.getFeatureType();
-                Collection<PropertyDescriptor> featureDescriptors = featureType.getDescriptors();
-                AtomicInteger index = new AtomicInteger(0);
-                featureDescriptors.forEach(attributeDescriptor -> {
-                    Object attribute = feature.getAttribute(index.getAndIncrement());
-                    if (attribute instanceof Geometry) {
-                        return;
-                    }
-                    String attributeString = castStringFromObject(attribute, "null");
-                    attributes.put(attributeDescriptor.getName().getLocalPart(), attributeString);
-                });
+            while (!futures.isEmpty()) {
+                sceneTemps.addAll(futures.poll().get());
+            }
+        } catch (IOException e) {
+            shpFiles.dispose();
+            log.error("Error while reading shapefile", e);
+            throw new RuntimeException(e);
+        } catch (InterruptedException | ExecutionException e) {
+            shpFiles.dispose();
+            log.error("Error while converting shapefile on thread", e);
+            throw new RuntimeException(e);
+        } finally {
+            // the pool threads are not daemon, so the pool is stopped on any failure too.***
+            executorService.shutdownNow();
+        }
+        return sceneTemps;
+    }
 
-                for (LineString lineString : lineStrings) {
-                    Coordinate[] coordinates = lineString.getCoordinates();
-                    List<Vector3d> positions = new ArrayList<>();
-                    if (coordinates.length < 2) {
-                        log.warn("Invalid LineString : {}", feature.getID());
-                        continue;
-                    }
-                    for (Coordinate coordinate : coordinates) {
-                        Point point = new GeometryFactory().createPoint(coordinate);
-                        double x, y, z;
-                        if (flipCoordinate) {
-                            x = point.getY();
-                            y = point.getX();
-                        } else {
-                            x = point.getX();
-                            y = point.getY();
-                        }
-                        z = point.getCoordinate().getZ();
-                        Vector3d position = new Vector3d(x, y, z); // usually crs 3857.***
-                        positions.add(position);
-                    }
-                    double diameter = getDiameter(feature, diameterColumnName);
+    /**
+     * Limits the features of a batch, BUILDING_BATCH_COUNT by default.
+     */
+    protected void setMaxBatchCount(int maxBatchCount) {
+        this.maxBatchCount = maxBatchCount;
+    }
 
-                    GaiaPipeLineString pipeLineString = GaiaPipeLineString.builder().id(feature.getID()).profileType(PipeType.CIRCULAR).diameter(diameter).properties(attributes).positions(positions).build();
-                    pipeLineString.setOriginalFilePath(input.getPath());
-                    pipeLineStrings.add(pipeLineString);
+    /**
+     * Splits the features among the threads, between MIN_BATCH_COUNT and maxBatchCount features a batch.
+     */
+    private int getBatchSize(int totalCount, int threadCount) {
+        if (totalCount <= 0) {
+            return maxBatchCount;
+        }
+        int batchSize = (totalCount + threadCount - 1) / threadCount;
+        return Math.max(Math.min(MIN_BATCH_COUNT, maxBatchCount), Math.min(maxBatchCount, batchSize));
+    }
+
+    private void submitBatch(ExecutorService executorService, Deque<Future<List<GaiaSceneTempHolder>>> futures, List<ShapeFeature> batch, File input, File output) throws InterruptedException, ExecutionException {
+        Callable<List<GaiaSceneTempHolder>> callableTask = () -> convertFeatures(batch, input, output);
+        Future<List<GaiaSceneTempHolder>> future = executorService.submit(callableTask);
+        if (globalOptions.isDebug()) {
+            future.get();
+        }
+        futures.add(future);
+    }
+
+    /**
+     * Reads the geometry and the attributes of a feature, the values of the option columns are read here once.
+     */
+    private ShapeFeature readFeature(SimpleFeature feature) {
+        Geometry geom = (Geometry) feature.getDefaultGeometry();
+        if (geom == null) {
+            log.debug("Is Null Geometry : {}", feature.getID());
+            return null;
+        }
+        boolean isPolygonal = geom instanceof Polygon || geom instanceof MultiPolygon;
+        boolean isLineal = geom instanceof LineString || geom instanceof MultiLineString;
+        if (!isPolygonal && !isLineal) {
+            log.debug("Is Not Supported Geometry Type : {}", geom.getGeometryType());
+            return null;
+        }
+
+        Map<String, String> attributes = new HashMap<>();
+        FeatureType featureType = feature.getFeatureType();
+        Collection<PropertyDescriptor> featureDescriptors = featureType.getDescriptors();
+        AtomicInteger index = new AtomicInteger(0);
+        featureDescriptors.forEach(attributeDescriptor -> {
+            Object attribute = feature.getAttribute(index.getAndIncrement());
+            if (attribute instanceof Geometry) {
+                return;
+            }
+            String attributeString = castStringFromObject(attribute, "null");
+            attributes.put(attributeDescriptor.getName().getLocalPart(), attributeString);
+        });
+
+        ShapeFeature shapeFeature = new ShapeFeature(feature.getID(), geom, attributes);
+        if (isPolygonal) {
+            String altitudeColumnName = globalOptions.getAltitudeColumn();
+            shapeFeature.name = getAttributeValueOfDefault(feature, globalOptions.getNameColumn(), "Extrusion-Building");
+            shapeFeature.height = getHeight(feature, globalOptions.getHeightColumn(), globalOptions.getMinimumHeight());
+            shapeFeature.altitude = altitudeColumnName != null ? getAltitude(feature, altitudeColumnName) : globalOptions.getAbsoluteAltitude();
+        } else {
+            shapeFeature.diameter = getDiameter(feature, globalOptions.getDiameterColumn());
+        }
+        return shapeFeature;
+    }
+
+    /**
+     * Converts a batch of features into buildings and pipe lines, and writes their scenes to temp files.
+     */
+    private List<GaiaSceneTempHolder> convertFeatures(List<ShapeFeature> shapeFeatures, File input, File output) {
+        List<GaiaSceneTempHolder> sceneTemps = new ArrayList<>();
+        InnerRingRemover innerRingRemover = new InnerRingRemover();
+        boolean flipCoordinate = globalOptions.isFlipCoordinate();
+        double skirtHeight = globalOptions.getSkirtHeight();
+
+        List<GaiaExtrusionBuilding> buildings = new ArrayList<>();
+        List<GaiaPipeLineString> pipeLineStrings = new ArrayList<>();
+        for (ShapeFeature feature : shapeFeatures) {
+            Geometry geom = feature.geometry;
+            List<Polygon> polygons = new ArrayList<>();
+            List<LineString> lineStrings = new ArrayList<>();
+            if (geom instanceof MultiPolygon) {
+                int count = geom.getNumGeometries();
+                for (int i = 0; i < count; i++) {
+                    Polygon polygon = (Polygon) geom.getGeometryN(i);
+                    polygons.add(polygon);
+                }
+            } else if (geom instanceof Polygon) {
+                polygons.add((Polygon) geom);
+            } else if (geom instanceof LineString) {
+                lineStrings.add((LineString) geom);
+            } else if (geom instanceof MultiLineString) {
+                int count = geom.getNumGeometries();
+                for (int i = 0; i < count; i++) {
+                    LineString lineString = (LineString) geom.getGeometryN(i);
+                    lineStrings.add(lineString);
                 }
+            }
 
-                for (Polygon polygon : polygons) {
-                    if (!polygon.isValid()) {
-                        log.warn("{} Is Invalid Polygon.", feature.getID());
-                        continue;
-                    }
-                    LineString lineString = polygon.getExteriorRing();
-                    Coordinate[] outerCoordinates = lineString.getCoordinates();
-
-                    int innerRingCount = polygon.getNumInteriorRing();
-                    List<Coordinate[]> innerCoordinates = new ArrayList<>();
-                    for (int i = 0; i < innerRingCount; i++) {
-                        LineString innerRing = polygon.getInteriorRingN(i);
-                        Coordinate[] innerCoordinatesArray = innerRing.getCoordinates();
-                        innerCoordinates.add(innerCoordinatesArray);
-                    }
-                    if (innerRingCount > 0) {
-                        outerCoordinates = innerRingRemover.removeAll(outerCoordinates, innerCoordinates);
+            for (LineString lineString : lineStrings) {
+                Coordinate[] coordinates = lineString.getCoordinates();
+                List<Vector3d> positions = new ArrayList<>();
+                if (coordinates.length < 2) {
+                    log.warn("Invalid LineString : {}", feature.id);
+                    continue;
+                }
+                for (Coordinate coordinate : coordinates) {
+                    double x, y, z;
+                    if (flipCoordinate) {
+                        x = coordinate.getY();
+                        y = coordinate.getX();
+                    } else {
+                        x = coordinate.getX();
+                        y = coordinate.getY();
                     }
+                    z = coordinate.getZ();
+                    Vector3d position = new Vector3d(x, y, z); // usually crs 3857.***
+                    positions.add(position);
+                }
+
+                GaiaPipeLineString pipeLineString = GaiaPipeLineString.builder().id(feature.id).profileType(PipeType.CIRCULAR).diameter(feature.diameter).properties(feature.attributes).positions(positions).build();
+                pipeLineString.setOriginalFilePath(input.getPath());
+                pipeLineStrings.add(pipeLineString);
+            }
 
-                    GaiaBoundingBox boundingBox = new GaiaBoundingBox();
-                    List<Vector3d> positions = new ArrayList<>();
-
-                    for (Coordinate coordinate : outerCoordinates) {
-                        double x, y, z;
-                        if (flipCoordinate) {
-                            x = coordinate.getY();
-                            y = coordinate.getX();
-                        } else {
-                            x = coordinate.getX();
-                            y = coordinate.getY();
-                        }
-                        z = coordinate.getZ();
-
-                        Vector3d position;
-                        CoordinateReferenceSystem crs = globalOptions.getCrs();
-                        if (crs != null && !crs.getName().equals("EPSG:4326")) {
-                            ProjCoordinate projCoordinate = new ProjCoordinate(x, y, boundingBox.getMinZ());
-                            ProjCoordinate centerWgs84 = GlobeUtils.transform(crs, projCoordinate);
-                            position = new Vector3d(centerWgs84.x, centerWgs84.y, 0.0d);
-                        } else {
-                            position = new Vector3d(x, y, 0.0d);
-                        }
-
-                        positions.add(position);
-                        boundingBox.addPoint(position);
+            for (Polygon polygon : polygons) {
+                if (!polygon.isValid()) {
+                    log.warn("{} Is Invalid Polygon.", feature.id);
+                    continue;
+                }
+                LineString lineString = polygon.getExteriorRing();
+                Coordinate[] outerCoordinates = lineString.getCoordinates();
+
+                int innerRingCount = polygon.getNumInteriorRing();
+                List<Coordinate[]> innerCoordinates = new ArrayList<>();
+                for (int i = 0; i < innerRingCount; i++) {
+                    LineString innerRing = polygon.getInteriorRingN(i);
+                    Coordinate[] innerCoordinatesArray = innerRing.getCoordinates();
+                    innerCoordinates.add(innerCoordinatesArray);
+                }
+                if (innerRingCount > 0) {
+                    outerCoordinates = innerRingRemover.removeAll(outerCoordinates, innerCoordinates);
+                }
+
+                GaiaBoundingBox boundingBox = new GaiaBoundingBox();
+                List<Vector3d> positions = new ArrayList<>();
+
+                for (Coordinate coordinate : outerCoordinates) {
+                    double x, y;
+                    if (flipCoordinate) {
+                        x = coordinate.getY();
+                        y = coordinate.getX();
+                    } else {
+                        x = coordinate.getX();
+                        y = coordinate.getY();
                     }
 
-                    String name = getAttributeValueOfDefault(feature, nameColumnName, "Extrusion-Building");
-                    if (positions.size() >= 3) {
-                        double height = getHeight(feature, heightColumnName, minimumHeightValue);
-                        double altitude = absoluteAltitudeValue;
-                        if (altitudeColumnName != null) {
-                            altitude = getAltitude(feature, altitudeColumnName);
-                        }
-                        GaiaExtrusionBuilding building = GaiaExtrusionBuilding.builder().id(feature.getID())
-                                .name(name)
-                                .boundingBox(boundingBox)
-                                .floorHeight(altitude)
-                                .roofHeight(height + skirtHeight)
-                                .positions(positions)
-                                .originalFilePath(input.getPath()).properties(attributes).build();
-                        buildings.add(building);
+                    Vector3d position;
+                    CoordinateReferenceSystem crs = globalOptions.getCrs();
+                    if (crs != null && !crs.getName().equals("EPSG:4326")) {
+                        ProjCoordinate projCoordinate = new ProjCoordinate(x, y, boundingBox.getMinZ());
+                        ProjCoordinate centerWgs84 = GlobeUtils.transform(crs, projCoordinate);
+                        position = new Vector3d(centerWgs84.x, centerWgs84.y, 0.0d);
                     } else {
-                        log.warn("Invalid Geometry : {}, {}", feature.getID(), name);
+                        position = new Vector3d(x, y, 0.0d);
                     }
+
+                    positions.add(position);
+                    boundingBox.addPoint(position);
                 }
-            }
-            iterator.close();
-            reader.close();
-            shpFiles.dispose();
-            dataStore.dispose();
 
-            convertPipeLineStrings(pipeLineStrings, sceneTemps, input, output);
-            convertExtrusionBuildings(buildings, sceneTemps, input, output);
-        } catch (IOException e) {
-            shpFiles.dispose();
-            log.error("Error while reading shapefile", e);
-            throw new RuntimeException(e);
+                if (positions.size() >= 3) {
+                    GaiaExtrusionBuilding building = GaiaExtrusionBuilding.builder().id(feature.id)
+                            .name(feature.name)
+                            .boundingBox(boundingBox)
+                            .floorHeight(feature.altitude)
+                            .roofHeight(feature.height + skirtHeight)
+                            .positions(positions)
+                            .originalFilePath(input.getPath()).properties(feature.attributes).build();
+                    buildings.add(building);
+                } else {
+                    log.warn("Invalid Geometry : {}, {}", feature.id, feature.name);
+                }
+            }
         }
+
+        convertPipeLineStrings(pipeLineStrings, sceneTemps, input, output);
+        convertExtrusionBuildings(buildings, sceneTemps, input, output);
         return sceneTemps;
     }
 
@@ -506,4 +584,23 @@ public class ShapeConverter extends AbstractGeometryConverter implements Convert
             sceneTemps.add(sceneTemp);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * A feature decoded by the reading thread, with the values of the option columns.
+     */
+    private static class ShapeFeature {
+        private final String id;
+        private final Geometry geometry;
+        private final Map<String, String> attributes;
+        private String name;
+        private double height;
+        private double altitude;
+        private double diameter;
+
+        ShapeFeature(String id, Geometry geometry, Map<String, String> attributes) {
+            this.id = id;
+            this.geometry = geometry;
+            this.attributes = attributes;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.gaia3d.converter.jgltf;
+
+import com.gaia3d.io.GatheringFileWriter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * GlbContent is an assembled glb file kept as its chunks (header, json, binary body) without copying them together.
+ * The byte length is known before writing, so the glb can be streamed after the header of a b3dm or i3dm.
+ */
+public class GlbContent {
+    private final ByteBuffer[] buffers;
+    private final long byteLength;
+
+    public GlbContent(ByteBuffer... buffers) {
+        this.buffers = buffers;
+        this.byteLength = GatheringFileWriter.getRemaining(buffers);
+    }
+
+    public long getByteLength() {
+        return byteLength;
+    }
+
+    /**
+     * @return new views of the chunks, positioned at their start
+     */
+    public ByteBuffer[] getBuffers() {
+        ByteBuffer[] views = new ByteBuffer[buffers.length];
+        for (int i = 0; i < buffers.length; i++) {
+            views[i] = buffers[i].duplicate();
+        }
+        return views;
+    }
+}
@@ -12,6 +12,8 @@ import java.util.List;
  * GltfBinary is a class that contains the binary data of the glTF file.
  * It contains the binary data of the glTF file, and the information of the buffer of each node.
  * The binary data of the glTF file is stored in the body variable.
+ * The encoded images stored as bufferViews are placed before the node buffers, each padded to 4 bytes.
+ * The EXT_meshopt_compression streams replace the node buffers when the buffers are compressed.
  */
 @Getter
 @Setter
@@ -21,13 +23,25 @@ public class GltfBinary {
     private int imageId = -1;
 
     private ByteBuffer body = null;
+    private List<byte[]> imageBuffers = new ArrayList<>();
+    private List<byte[]> compressedBuffers = new ArrayList<>();
     private List<GltfNodeBuffer> nodeBuffers = new ArrayList<>();
 
     public void fill() {
-        body = ByteBuffer.allocate(nodeBuffers.stream().mapToInt(GltfNodeBuffer::getTotalByteBufferLength).sum());
+        int imagesLength = imageBuffers.stream().mapToInt((imageBuffer) -> padMultiple4(imageBuffer.length)).sum();
+        int compressedLength = compressedBuffers.stream().mapToInt((compressedBuffer) -> padMultiple4(compressedBuffer.length)).sum();
+        body = ByteBuffer.allocate(imagesLength + compressedLength + nodeBuffers.stream().mapToInt(GltfNodeBuffer::getTotalByteBufferLength).sum());
         ByteBuffer bodyBuffer = body;
         bodyBuffer.order(ByteOrder.LITTLE_ENDIAN);
         bodyBuffer.clear();
+        imageBuffers.forEach((imageBuffer) -> {
+            bodyBuffer.put(imageBuffer);
+            bodyBuffer.position(bodyBuffer.position() + padMultiple4(imageBuffer.length) - imageBuffer.length);
+        });
+        compressedBuffers.forEach((compressedBuffer) -> {
+            bodyBuffer.put(compressedBuffer);
+            bodyBuffer.position(bodyBuffer.position() + padMultiple4(compressedBuffer.length) - compressedBuffer.length);
+        });
         nodeBuffers.forEach((nodeBuffer) -> {
             if (nodeBuffer.getIndicesBuffer() != null) {
                 nodeBuffer.getIndicesBuffer().rewind();
@@ -62,4 +76,12 @@ public class GltfBinary {
         });
         bodyBuffer.rewind();
     }
+
+    private int padMultiple4(int value) {
+        int remainder = value % 4;
+        if (remainder == 0) {
+            return value;
+        }
+        return value + (4 - remainder);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.gaia3d.converter.jgltf;
+
+import java.util.Arrays;
+
+/**
+ * Storage of the images written by the GltfWriter.
+ * URI : base64 data uri in the json.
+ * BINARY : encoded image bytes in a bufferView of the glb binary chunk.
+ * EXTERNAL : shared image files named by the content hash, written once for every content.
+ */
+public enum GltfImageType {
+    URI,
+    BINARY,
+    EXTERNAL;
+
+    public static GltfImageType fromName(String name) {
+        if (name == null || name.isEmpty()) {
+            return null;
+        }
+        return Arrays.stream(GltfImageType.values())
+                .filter((type) -> type.name().equalsIgnoreCase(name))
+                .findFirst()
+                .orElse(null);
+    }
+}
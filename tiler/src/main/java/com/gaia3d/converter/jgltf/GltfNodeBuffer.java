@@ -29,6 +29,11 @@ public class GltfNodeBuffer {
 
     private int totalByteBufferLength = -1;
 
+    // KHR_mesh_quantization, positions as unsigned shorts and normals as bytes
+    private boolean quantized = false;
+    // texcoords as normalized unsigned shorts, only when they are in the range [0, 1]
+    private boolean quantizedTexcoords = false;
+
     private ByteBuffer indicesBuffer = null;
     private ByteBuffer positionsBuffer = null;
     private ByteBuffer normalsBuffer = null;
@@ -0,0 +1,72 @@
+package com.gaia3d.converter.jgltf;
+
+import com.gaia3d.util.DecimalUtils;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size and throughput of the glb contents and images written by the GltfWriter.
+ */
+@Slf4j
+public class GltfWriteStatistics {
+    private static final GltfWriteStatistics instance = new GltfWriteStatistics();
+
+    private final AtomicLong contentCount = new AtomicLong(0);
+    private final AtomicLong contentBytes = new AtomicLong(0);
+    private final AtomicLong imageCount = new AtomicLong(0);
+    private final AtomicLong imageBytes = new AtomicLong(0);
+    private final AtomicLong sharedImageCount = new AtomicLong(0);
+    private final AtomicLong sharedImageBytes = new AtomicLong(0);
+    private final AtomicLong writeNanos = new AtomicLong(0);
+
+    public static GltfWriteStatistics getInstance() {
+        return instance;
+    }
+
+    public void addContent(long byteLength, long nanos) {
+        contentCount.incrementAndGet();
+        contentBytes.addAndGet(byteLength);
+        writeNanos.addAndGet(nanos);
+    }
+
+    /**
+     * Adds an external image, a shared image was already written by another content.
+     */
+    public void addImage(long byteLength, boolean shared) {
+        if (shared) {
+            sharedImageCount.incrementAndGet();
+            sharedImageBytes.addAndGet(byteLength);
+        } else {
+            imageCount.incrementAndGet();
+            imageBytes.addAndGet(byteLength);
+        }
+    }
+
+    public long getTotalBytes() {
+        return contentBytes.get() + imageBytes.get();
+    }
+
+    /**
+     * Logs the written size and the write throughput per thread, then resets the statistics.
+     */
+    public synchronized void report() {
+        if (contentCount.get() > 0) {
+            double seconds = Math.max(writeNanos.get(), 1) / 1000000000.0d;
+            long bytesPerSecond = (long) (getTotalBytes() / seconds);
+            log.info("[Post][glTF] contents : {} ({}), images : {} ({}), shared images : {} ({})",
+                    contentCount.get(), DecimalUtils.byteCountToDisplaySize(contentBytes.get()),
+                    imageCount.get(), DecimalUtils.byteCountToDisplaySize(imageBytes.get()),
+                    sharedImageCount.get(), DecimalUtils.byteCountToDisplaySize(sharedImageBytes.get()));
+            log.info("[Post][glTF] total size : {}, write throughput : {}/s per thread",
+                    DecimalUtils.byteCountToDisplaySize(getTotalBytes()), DecimalUtils.byteCountToDisplaySize(bytesPerSecond));
+        }
+        contentCount.set(0);
+        contentBytes.set(0);
+        imageCount.set(0);
+        imageBytes.set(0);
+        sharedImageCount.set(0);
+        sharedImageBytes.set(0);
+        writeNanos.set(0);
+    }
+}
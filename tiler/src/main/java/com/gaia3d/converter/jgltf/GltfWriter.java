@@ -6,6 +6,7 @@ import com.gaia3d.basic.types.AttributeType;
 import com.gaia3d.basic.types.FormatType;
 import com.gaia3d.basic.types.TextureType;
 import com.gaia3d.command.mago.GlobalOptions;
+import com.gaia3d.io.GatheringFileWriter;
 import com.gaia3d.util.GeometryUtils;
 import com.gaia3d.util.ImageResizer;
 import com.gaia3d.util.ImageUtils;
@@ -15,7 +16,7 @@ import de.javagl.jgltf.model.GltfModel;
 import de.javagl.jgltf.model.GltfModels;
 import de.javagl.jgltf.model.io.GltfModelWriter;
 import de.javagl.jgltf.model.io.v2.GltfAssetV2;
-import lombok.NoArgsConstructor;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FilenameUtils;
 import org.joml.Matrix4d;
@@ -31,6 +32,14 @@ import java.awt.image.BufferedImage;
 import java.io.*;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
 /**
@@ -42,8 +51,43 @@ import java.util.*;
  * @see GaiaScene , GltfBinary
  */
 @Slf4j
-@NoArgsConstructor
 public class GltfWriter {
+    public static final String IMAGE_DIRECTORY = "images";
+    private static final int GLB_MAGIC = 0x46546C67; // "glTF"
+    private static final int GLB_VERSION = 2;
+    private static final int GLB_HEADER_LENGTH = 12;
+    private static final int CHUNK_HEADER_LENGTH = 8;
+    private static final int CHUNK_TYPE_JSON = 0x4E4F534A; // "JSON"
+    private static final int CHUNK_TYPE_BIN = 0x004E4942; // "BIN"
+    private static final String KHR_MESH_QUANTIZATION = "KHR_mesh_quantization";
+    private static final String EXT_MESHOPT_COMPRESSION = "EXT_meshopt_compression";
+    private static final int QUANTIZED_MAX = 65535;
+
+    private final GltfImageType imageType;
+    private final File contentDirectory;
+    // positions as unsigned shorts with a dequantization node, normals as bytes, texcoords as unsigned shorts
+    @Setter
+    private boolean quantized = false;
+    // vertex and index buffers compressed with the meshopt codec, the node buffers become a fallback buffer
+    @Setter
+    private boolean meshoptCompressed = false;
+
+    public GltfWriter() {
+        this(GltfImageType.URI, null);
+    }
+
+    /**
+     * @param imageType storage of the images in the glb files
+     * @param contentDirectory directory of the glb contents, the EXTERNAL images are shared in its 'images' directory
+     */
+    public GltfWriter(GltfImageType imageType, File contentDirectory) {
+        this.imageType = imageType == null ? GltfImageType.URI : imageType;
+        this.contentDirectory = contentDirectory;
+        if (this.imageType == GltfImageType.EXTERNAL && contentDirectory == null) {
+            throw new IllegalArgumentException("The content directory is required for external images.");
+        }
+    }
+
     public void writeGltf(GaiaScene gaiaScene, File outputPath) {
         try {
             GltfModel gltfModel = convert(gaiaScene);
@@ -59,21 +103,22 @@ public class GltfWriter {
     }
     public void writeGlb(GaiaScene gaiaScene, File outputPath) {
         try {
-            GltfModel gltfModel = convert(gaiaScene);
-            GltfModelWriter writer = new GltfModelWriter();
-            writer.writeBinary(gltfModel, outputPath);
+            GlbContent glbContent = createGlb(gaiaScene);
+            GatheringFileWriter.write(outputPath.toPath(), glbContent.getBuffers());
         } catch (IOException e) {
             log.error(e.getMessage());
             log.error("Failed to write glb file.");
         }
     }
     public void writeGlb(GaiaScene gaiaScene, OutputStream outputStream) {
-        try {
-            GltfModel gltfModel = convert(gaiaScene);
-            GltfModelWriter writer = new GltfModelWriter();
-            writer.writeBinary(gltfModel, outputStream);
+        try (WritableByteChannel channel = Channels.newChannel(outputStream)) {
+            GlbContent glbContent = createGlb(gaiaScene);
+            for (ByteBuffer buffer : glbContent.getBuffers()) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
             outputStream.flush();
-            outputStream.close();
         } catch (IOException e) {
             log.error(e.getMessage());
             log.error("Failed to write glb file.");
@@ -83,22 +128,165 @@ public class GltfWriter {
         writeGlb(gaiaScene, new File(outputPath));
     }
 
+    /**
+     * Assembles the glb of the scene without writing it, the caller streams the chunks after its own header.
+     */
+    public GlbContent createGlb(GaiaScene gaiaScene) throws IOException {
+        long startTime = System.nanoTime();
+        // the URI images stay as data uris in the json chunk
+        GltfBinary binary = new GltfBinary();
+        GlTF gltf = createGltf(gaiaScene, binary, imageType, meshoptCompressed);
+        GlbContent glbContent = createBinaryGlb(gltf, binary.getBody());
+        GltfWriteStatistics.getInstance().addContent(glbContent.getByteLength(), System.nanoTime() - startTime);
+        return glbContent;
+    }
+
+    /**
+     * Creates the glb container with the json chunk and the binary chunk, the binary body is not copied.
+     */
+    private GlbContent createBinaryGlb(GlTF gltf, ByteBuffer body) throws IOException {
+        ByteArrayOutputStream jsonStream = new ByteArrayOutputStream();
+        de.javagl.jgltf.model.io.GltfWriter jsonWriter = new de.javagl.jgltf.model.io.GltfWriter();
+        jsonWriter.setIndenting(false);
+        jsonWriter.write(gltf, jsonStream);
+        byte[] json = jsonStream.toByteArray();
+        int jsonLength = padMultiple4(json.length);
+        int bodyLength = body == null ? 0 : body.capacity(); // the body parts are padded to 4 bytes
+        int totalLength = GLB_HEADER_LENGTH + CHUNK_HEADER_LENGTH + jsonLength;
+        if (bodyLength > 0) {
+            totalLength += CHUNK_HEADER_LENGTH + bodyLength;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(GLB_HEADER_LENGTH + CHUNK_HEADER_LENGTH);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(GLB_MAGIC);
+        header.putInt(GLB_VERSION);
+        header.putInt(totalLength);
+        header.putInt(jsonLength);
+        header.putInt(CHUNK_TYPE_JSON);
+        header.flip();
+
+        ByteBuffer jsonPadding = ByteBuffer.allocate(jsonLength - json.length + (bodyLength > 0 ? CHUNK_HEADER_LENGTH : 0));
+        jsonPadding.order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = json.length; i < jsonLength; i++) {
+            jsonPadding.put((byte) ' ');
+        }
+        if (bodyLength > 0) {
+            jsonPadding.putInt(bodyLength);
+            jsonPadding.putInt(CHUNK_TYPE_BIN);
+        }
+        jsonPadding.flip();
+
+        if (bodyLength > 0) {
+            ByteBuffer bodyView = body.duplicate();
+            bodyView.clear();
+            return new GlbContent(header, ByteBuffer.wrap(json), jsonPadding, bodyView);
+        }
+        return new GlbContent(header, ByteBuffer.wrap(json), jsonPadding);
+    }
+
     private GltfModel convert(GaiaScene gaiaScene) {
         GltfBinary binary = new GltfBinary();
+        GlTF gltf = createGltf(gaiaScene, binary, GltfImageType.URI, false);
+        if (binary.getBody() != null) {
+            GltfAssetV2 asset = new GltfAssetV2(gltf, binary.getBody());
+            return GltfModels.create(asset);
+        }
+        return null;
+    }
+
+    private GlTF createGltf(GaiaScene gaiaScene, GltfBinary binary, GltfImageType sceneImageType, boolean compressed) {
         GlTF gltf = new GlTF();
         gltf.setAsset(genAsset());
         gltf.addSamplers(genSampler());
         initScene(gltf);
 
-        gaiaScene.getMaterials().forEach(gaiaMaterial -> createMaterial(gltf, gaiaMaterial));
+        gaiaScene.getMaterials().forEach(gaiaMaterial -> createMaterial(gltf, binary, gaiaMaterial, sceneImageType));
         convertNode(gltf, binary, null, gaiaScene.getNodes());
 
+        if (quantized) {
+            addRequiredExtension(gltf, KHR_MESH_QUANTIZATION);
+        }
+        if (compressed) {
+            compressNodeBuffers(gltf, binary);
+        }
         binary.fill();
-        if (binary.getBody() != null) {
-            GltfAssetV2 asset = new GltfAssetV2(gltf, binary.getBody());
-            return GltfModels.create(asset);
+        return gltf;
+    }
+
+    private void addRequiredExtension(GlTF gltf, String extension) {
+        if (gltf.getExtensionsUsed() == null || !gltf.getExtensionsUsed().contains(extension)) {
+            gltf.addExtensionsUsed(extension);
+        }
+        if (gltf.getExtensionsRequired() == null || !gltf.getExtensionsRequired().contains(extension)) {
+            gltf.addExtensionsRequired(extension);
         }
-        return null;
+    }
+
+    /**
+     * Replaces the node buffers with the meshopt compressed streams placed after the images in the buffer 0.
+     * The uncompressed bufferViews are moved to a fallback buffer without data, as EXT_meshopt_compression requires.
+     */
+    private void compressNodeBuffers(GlTF gltf, GltfBinary binary) {
+        List<GltfNodeBuffer> nodeBuffers = binary.getNodeBuffers();
+        if (nodeBuffers.isEmpty()) {
+            return;
+        }
+        Buffer buffer = initBuffer(gltf);
+        int imagesLength = binary.getImageBuffers().stream().mapToInt((imageBuffer) -> padMultiple4(imageBuffer.length)).sum();
+        int nodesLength = buffer.getByteLength() - imagesLength;
+
+        Buffer fallbackBuffer = new Buffer();
+        fallbackBuffer.setByteLength(nodesLength);
+        Map<String, Object> fallbackExtension = new LinkedHashMap<>();
+        fallbackExtension.put("fallback", true);
+        fallbackBuffer.addExtensions(EXT_MESHOPT_COMPRESSION, fallbackExtension);
+        gltf.addBuffers(fallbackBuffer);
+        int fallbackBufferId = gltf.getBuffers().size() - 1;
+
+        int compressedOffset = imagesLength;
+        for (GltfNodeBuffer nodeBuffer : nodeBuffers) {
+            int indicesBufferViewId = nodeBuffer.getIndicesBufferViewId();
+            if (indicesBufferViewId > -1 && nodeBuffer.getIndicesAccessorId() > -1) {
+                Accessor indicesAccessor = gltf.getAccessors().get(nodeBuffer.getIndicesAccessorId());
+                int indexSize = indicesAccessor.getComponentType() == GltfConstants.GL_UNSIGNED_INT ? 4 : 2;
+                int count = indicesAccessor.getCount();
+                byte[] compressedBytes = MeshoptEncoder.encodeIndexSequence(nodeBuffer.getIndicesBuffer(), count, indexSize);
+                compressedOffset = compressBufferView(gltf, binary, indicesBufferViewId, fallbackBufferId, imagesLength, compressedOffset, compressedBytes, count, indexSize, "INDICES");
+            }
+            int[] attributeBufferViewIds = {nodeBuffer.getPositionsBufferViewId(), nodeBuffer.getNormalsBufferViewId(), nodeBuffer.getColorsBufferViewId(), nodeBuffer.getTexcoordsBufferViewId(), nodeBuffer.getBatchIdBufferViewId()};
+            ByteBuffer[] attributeBuffers = {nodeBuffer.getPositionsBuffer(), nodeBuffer.getNormalsBuffer(), nodeBuffer.getColorsBuffer(), nodeBuffer.getTexcoordsBuffer(), nodeBuffer.getBatchIdBuffer()};
+            for (int i = 0; i < attributeBufferViewIds.length; i++) {
+                if (attributeBufferViewIds[i] < 0) {
+                    continue;
+                }
+                int stride = gltf.getBufferViews().get(attributeBufferViewIds[i]).getByteStride();
+                int count = attributeBuffers[i].capacity() / stride;
+                byte[] compressedBytes = MeshoptEncoder.encodeVertexBuffer(attributeBuffers[i], count, stride);
+                compressedOffset = compressBufferView(gltf, binary, attributeBufferViewIds[i], fallbackBufferId, imagesLength, compressedOffset, compressedBytes, count, stride, "ATTRIBUTES");
+            }
+        }
+        log.debug("[Post][glTF] meshopt compressed {} bytes to {} bytes", nodesLength, compressedOffset - imagesLength);
+        buffer.setByteLength(compressedOffset);
+        nodeBuffers.clear();
+        addRequiredExtension(gltf, EXT_MESHOPT_COMPRESSION);
+    }
+
+    private int compressBufferView(GlTF gltf, GltfBinary binary, int bufferViewId, int fallbackBufferId, int imagesLength, int compressedOffset, byte[] compressedBytes, int count, int stride, String mode) {
+        BufferView bufferView = gltf.getBufferViews().get(bufferViewId);
+        Map<String, Object> extension = new LinkedHashMap<>();
+        extension.put("buffer", 0);
+        extension.put("byteOffset", compressedOffset);
+        extension.put("byteLength", compressedBytes.length);
+        extension.put("byteStride", stride);
+        extension.put("count", count);
+        extension.put("mode", mode);
+        bufferView.addExtensions(EXT_MESHOPT_COMPRESSION, extension);
+        bufferView.setBuffer(fallbackBufferId);
+        bufferView.setByteOffset(bufferView.getByteOffset() - imagesLength);
+        bufferView.setByteLength(count * stride);
+        binary.getCompressedBuffers().add(compressedBytes);
+        return compressedOffset + padMultiple4(compressedBytes.length);
     }
 
     private void convertNode(GlTF gltf, GltfBinary binary, Node parentNode, List<GaiaNode> gaiaNodes) {
@@ -164,7 +352,8 @@ public class GltfWriter {
             log.warn("[Warning] The number of vertices count than 65535 ({})", vertexCount);
         }
 
-        GltfNodeBuffer nodeBuffer = initNodeBuffer(gaiaMesh, isOverShortVertices);
+        boolean isQuantizedTexcoords = quantized && isUnitRange(texcoords);
+        GltfNodeBuffer nodeBuffer = initNodeBuffer(gaiaMesh, isOverShortVertices, isQuantizedTexcoords);
         createBuffer(gltf, nodeBuffer);
 
         ByteBuffer indicesBuffer = nodeBuffer.getIndicesBuffer();
@@ -191,14 +380,50 @@ public class GltfWriter {
                 }
             }
         }
+        float[] positionsMin = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE};
+        float[] positionsMax = {-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+        for (int i = 0; i < positions.length; i++) {
+            positionsMin[i % 3] = Math.min(positionsMin[i % 3], positions[i]);
+            positionsMax[i % 3] = Math.max(positionsMax[i % 3], positions[i]);
+        }
+        float[] positionsOffset = positionsMin.clone();
+        float positionScale = 1.0f;
+        if (quantized && positions.length > 0) {
+            float extent = Math.max(positionsMax[0] - positionsMin[0], Math.max(positionsMax[1] - positionsMin[1], positionsMax[2] - positionsMin[2]));
+            positionScale = extent > 0.0f ? extent / QUANTIZED_MAX : 1.0f;
+        }
         if (positionsBuffer != null) {
-            for (Float position: positions) {
-                positionsBuffer.putFloat(position);
+            if (quantized) {
+                // uniform scale, the dequantization node keeps the aspect of the mesh
+                int[] quantizedMin = {QUANTIZED_MAX, QUANTIZED_MAX, QUANTIZED_MAX};
+                int[] quantizedMax = {0, 0, 0};
+                for (int i = 0; i < positions.length; i++) {
+                    int quantizedValue = Math.round((positions[i] - positionsMin[i % 3]) / positionScale);
+                    quantizedValue = Math.max(0, Math.min(QUANTIZED_MAX, quantizedValue));
+                    positionsBuffer.putShort((short) quantizedValue);
+                    quantizedMin[i % 3] = Math.min(quantizedMin[i % 3], quantizedValue);
+                    quantizedMax[i % 3] = Math.max(quantizedMax[i % 3], quantizedValue);
+                    if (i % 3 == 2) {
+                        positionsBuffer.putShort((short) 0);
+                    }
+                }
+                for (int i = 0; i < 3; i++) {
+                    positionsMin[i] = quantizedMin[i];
+                    positionsMax[i] = quantizedMax[i];
+                }
+            } else {
+                for (float position : positions) {
+                    positionsBuffer.putFloat(position);
+                }
             }
         }
         if (normalsBuffer != null) {
-            for (Float normal: normals) {
-                normalsBuffer.putFloat(normal);
+            if (quantized) {
+                normalsBuffer.put(convertNormals(normals));
+            } else {
+                for (Float normal: normals) {
+                    normalsBuffer.putFloat(normal);
+                }
             }
         }
         if (colorsBuffer != null) {
@@ -208,7 +433,11 @@ public class GltfWriter {
         }
         if (texcoordsBuffer != null) {
             for (Float textureCoordinate: texcoords) {
-                texcoordsBuffer.putFloat(textureCoordinate);
+                if (isQuantizedTexcoords) {
+                    texcoordsBuffer.putShort((short) Math.round(textureCoordinate * QUANTIZED_MAX));
+                } else {
+                    texcoordsBuffer.putFloat(textureCoordinate);
+                }
             }
         }
         if (batchIdBuffer != null) {
@@ -227,11 +456,23 @@ public class GltfWriter {
             }
         }
         if (positionsBufferViewId > -1 && positions.length > 0) {
-            int verticesAccessorId = createAccessor(gltf, positionsBufferViewId, 0, positions.length / 3, GltfConstants.GL_FLOAT, AccessorType.VEC3, false);
+            int positionsComponentType = quantized ? GltfConstants.GL_UNSIGNED_SHORT : GltfConstants.GL_FLOAT;
+            int verticesAccessorId = createAccessor(gltf, positionsBufferViewId, 0, positions.length / 3, positionsComponentType, AccessorType.VEC3, false);
+            // the position bounds are required by the glTF specification
+            Accessor positionsAccessor = gltf.getAccessors().get(verticesAccessorId);
+            if (quantized) {
+                positionsAccessor.setMin(new Number[]{(int) positionsMin[0], (int) positionsMin[1], (int) positionsMin[2]});
+                positionsAccessor.setMax(new Number[]{(int) positionsMax[0], (int) positionsMax[1], (int) positionsMax[2]});
+            } else {
+                positionsAccessor.setMin(new Number[]{positionsMin[0], positionsMin[1], positionsMin[2]});
+                positionsAccessor.setMax(new Number[]{positionsMax[0], positionsMax[1], positionsMax[2]});
+            }
             nodeBuffer.setPositionsAccessorId(verticesAccessorId);
         }
         if (normalsBufferViewId > -1 && normals.length > 0) {
-            int normalsAccessorId = createAccessor(gltf, normalsBufferViewId, 0, normals.length / 3, GltfConstants.GL_FLOAT, AccessorType.VEC3, false);
+            int normalsAccessorId = quantized ?
+                    createAccessor(gltf, normalsBufferViewId, 0, normals.length / 3, GltfConstants.GL_BYTE, AccessorType.VEC3, true) :
+                    createAccessor(gltf, normalsBufferViewId, 0, normals.length / 3, GltfConstants.GL_FLOAT, AccessorType.VEC3, false);
             nodeBuffer.setNormalsAccessorId(normalsAccessorId);
         }
         if (colorsBufferViewId > -1 && colors.length > 0) {
@@ -239,7 +480,9 @@ public class GltfWriter {
             nodeBuffer.setColorsAccessorId(colorsAccessorId);
         }
         if (texcoordsBufferViewId > -1 && texcoords.length > 0) {
-            int texcoordsAccessorId = createAccessor(gltf, texcoordsBufferViewId, 0, texcoords.length / 2, GltfConstants.GL_FLOAT, AccessorType.VEC2, false);
+            int texcoordsAccessorId = isQuantizedTexcoords ?
+                    createAccessor(gltf, texcoordsBufferViewId, 0, texcoords.length / 2, GltfConstants.GL_UNSIGNED_SHORT, AccessorType.VEC2, true) :
+                    createAccessor(gltf, texcoordsBufferViewId, 0, texcoords.length / 2, GltfConstants.GL_FLOAT, AccessorType.VEC2, false);
             nodeBuffer.setTexcoordsAccessorId(texcoordsAccessorId);
         }
         if (batchIdBufferViewId > -1 && batchIds.length > 0) {
@@ -251,10 +494,35 @@ public class GltfWriter {
         GaiaPrimitive gaiaPrimitive = gaiaMesh.getPrimitives().get(0);
         MeshPrimitive primitive = createPrimitive(nodeBuffer, gaiaPrimitive, materials);
         int meshId = createMesh(gltf, primitive);
-        node.setMesh(meshId);
+        if (quantized && positions.length > 0) {
+            // the child node dequantizes the positions
+            Node meshNode = new Node();
+            meshNode.setMatrix(new float[]{
+                    positionScale, 0, 0, 0,
+                    0, positionScale, 0, 0,
+                    0, 0, positionScale, 0,
+                    positionsOffset[0], positionsOffset[1], positionsOffset[2], 1});
+            meshNode.setMesh(meshId);
+            gltf.addNodes(meshNode);
+            node.addChildren(gltf.getNodes().size() - 1);
+        } else {
+            node.setMesh(meshId);
+        }
         return nodeBuffer;
     }
 
+    private boolean isUnitRange(float[] values) {
+        if (values == null || values.length == 0) {
+            return false;
+        }
+        for (float value : values) {
+            if (value < 0.0f || value > 1.0f) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private int padMultiple4(int value) {
         int remainder = value % 4;
         if (remainder == 0) {
@@ -263,17 +531,22 @@ public class GltfWriter {
         return value + (4 - remainder);
     }
 
-    private GltfNodeBuffer initNodeBuffer(GaiaMesh gaiaMesh, boolean isIntegerIndices) {
+    private GltfNodeBuffer initNodeBuffer(GaiaMesh gaiaMesh, boolean isIntegerIndices, boolean isQuantizedTexcoords) {
         GltfNodeBuffer nodeBuffer = new GltfNodeBuffer();
+        nodeBuffer.setQuantized(quantized);
+        nodeBuffer.setQuantizedTexcoords(isQuantizedTexcoords);
+        int BYTE_SIZE = 1;
         int SHORT_SIZE = 2;
         int INT_SIZE = 4;
         int FLOAT_SIZE = 4;
 
+        int vertexCount = gaiaMesh.getPositionsCount() / 3;
         int indicesCapacity = gaiaMesh.getIndicesCount() * (isIntegerIndices ? INT_SIZE : SHORT_SIZE);
-        int positionsCapacity = gaiaMesh.getPositionsCount() * FLOAT_SIZE;
-        int normalsCapacity = gaiaMesh.getPositionsCount() * FLOAT_SIZE;
+        // the quantized positions and normals are padded to 4 components
+        int positionsCapacity = quantized ? vertexCount * 4 * SHORT_SIZE : gaiaMesh.getPositionsCount() * FLOAT_SIZE;
+        int normalsCapacity = quantized ? vertexCount * 4 * BYTE_SIZE : gaiaMesh.getPositionsCount() * FLOAT_SIZE;
         int colorsCapacity = gaiaMesh.getColorsCount();
-        int texcoordCapacity = gaiaMesh.getTexcoordsCount() * FLOAT_SIZE;
+        int texcoordCapacity = gaiaMesh.getTexcoordsCount() * (isQuantizedTexcoords ? SHORT_SIZE : FLOAT_SIZE);
         int batchIdCapacity = gaiaMesh.getBatchIdsCount() * FLOAT_SIZE;
 
         indicesCapacity = padMultiple4(indicesCapacity);
@@ -376,7 +649,7 @@ public class GltfWriter {
         }
         if (nodeBuffer.getPositionsBuffer() != null) {
             ByteBuffer positionBuffer = nodeBuffer.getPositionsBuffer();
-            int bufferViewId = createBufferView(gltf, bufferId, bufferLength + bufferOffset, positionBuffer.capacity(), 12, GL20.GL_ARRAY_BUFFER);
+            int bufferViewId = createBufferView(gltf, bufferId, bufferLength + bufferOffset, positionBuffer.capacity(), nodeBuffer.isQuantized() ? 8 : 12, GL20.GL_ARRAY_BUFFER);
             nodeBuffer.setPositionsBufferViewId(bufferViewId);
             BufferView bufferView = gltf.getBufferViews().get(bufferViewId);
             bufferView.setName("positions");
@@ -384,7 +657,7 @@ public class GltfWriter {
         }
         if (nodeBuffer.getNormalsBuffer() != null) {
             ByteBuffer normalsBuffer = nodeBuffer.getNormalsBuffer();
-            int bufferViewId = createBufferView(gltf, bufferId, bufferLength + bufferOffset, normalsBuffer.capacity(), 12, GL20.GL_ARRAY_BUFFER);
+            int bufferViewId = createBufferView(gltf, bufferId, bufferLength + bufferOffset, normalsBuffer.capacity(), nodeBuffer.isQuantized() ? 4 : 12, GL20.GL_ARRAY_BUFFER);
             nodeBuffer.setNormalsBufferViewId(bufferViewId);
             BufferView bufferView = gltf.getBufferViews().get(bufferViewId);
             bufferView.setName("normals");
@@ -400,7 +673,7 @@ public class GltfWriter {
         }
         if (nodeBuffer.getTexcoordsBuffer() != null) {
             ByteBuffer texcoordsBuffer = nodeBuffer.getTexcoordsBuffer();
-            int bufferViewId = createBufferView(gltf, bufferId, bufferLength + bufferOffset, texcoordsBuffer.capacity(), 8, GL20.GL_ARRAY_BUFFER);
+            int bufferViewId = createBufferView(gltf, bufferId, bufferLength + bufferOffset, texcoordsBuffer.capacity(), nodeBuffer.isQuantizedTexcoords() ? 4 : 8, GL20.GL_ARRAY_BUFFER);
             nodeBuffer.setTexcoordsBufferViewId(bufferViewId);
             BufferView bufferView = gltf.getBufferViews().get(bufferViewId);
             bufferView.setName("texcoords");
@@ -446,7 +719,7 @@ public class GltfWriter {
         return node;
     }
 
-    private void createMaterial(GlTF gltf, GaiaMaterial gaiaMaterial) {
+    private void createMaterial(GlTF gltf, GltfBinary binary, GaiaMaterial gaiaMaterial, GltfImageType sceneImageType) {
         List<GaiaTexture> diffuseTextures = gaiaMaterial.getTextures().get(TextureType.DIFFUSE);
 
         Material material = new Material();
@@ -477,7 +750,7 @@ public class GltfWriter {
         MaterialPbrMetallicRoughness pbrMetallicRoughness = new MaterialPbrMetallicRoughness();
         if (!diffuseTextures.isEmpty()) {
             GaiaTexture gaiaTexture = diffuseTextures.get(0);
-            int textureId = createTexture(gltf, gaiaTexture);
+            int textureId = createTexture(gltf, binary, gaiaTexture, sceneImageType);
             TextureInfo textureInfo = new TextureInfo();
             textureInfo.setIndex(textureId);
             pbrMetallicRoughness.setBaseColorTexture(textureInfo);
@@ -494,20 +767,85 @@ public class GltfWriter {
         gltf.addMaterials(material);
     }
 
-    private int createImage(GlTF gltf, GaiaTexture gaiaTexture) {
+    private int createImage(GlTF gltf, GltfBinary binary, GaiaTexture gaiaTexture, GltfImageType sceneImageType) {
         String extension = FilenameUtils.getExtension(gaiaTexture.getPath());
         String mimeType = ImageUtils.getMimeTypeByExtension(extension);
-        String uri = writeImage(gaiaTexture.getBufferedImage(), mimeType);
+        byte[] imageBytes = writeImage(gaiaTexture.getBufferedImage(), mimeType);
         Image image = new Image();
-        image.setUri(uri);
         image.setMimeType(mimeType);
+        if (imageBytes != null) {
+            if (sceneImageType == GltfImageType.BINARY) {
+                image.setBufferView(createImageBufferView(gltf, binary, imageBytes));
+            } else if (sceneImageType == GltfImageType.EXTERNAL) {
+                image.setUri(writeExternalImage(imageBytes, mimeType));
+            } else {
+                image.setUri("data:" + mimeType + ";base64," + Base64.getEncoder().encodeToString(imageBytes));
+            }
+        }
         gltf.addImages(image);
         return gltf.getImages().size() -1;
     }
 
-    private int createTexture(GlTF gltf, GaiaTexture gaiaTexture) {
+    /**
+     * The images are created before the meshes, so they are placed at the front of the binary body.
+     */
+    private int createImageBufferView(GlTF gltf, GltfBinary binary, byte[] imageBytes) {
+        Buffer buffer = initBuffer(gltf);
+        int bufferLength = buffer.getByteLength() == null ? 0 : buffer.getByteLength();
+        int bufferViewId = createBufferView(gltf, 0, bufferLength, imageBytes.length, -1, -1);
+        buffer.setByteLength(bufferLength + padMultiple4(imageBytes.length));
+        binary.getImageBuffers().add(imageBytes);
+        return bufferViewId;
+    }
+
+    /**
+     * Writes the image once in the shared image directory, the file name is the hash of the image bytes.
+     * @return uri of the image relative to the content directory
+     */
+    private String writeExternalImage(byte[] imageBytes, String mimeType) {
+        String fileName = hashImage(imageBytes) + "." + ImageUtils.getFormatNameByMimeType(mimeType);
+        File imageDirectory = new File(contentDirectory, IMAGE_DIRECTORY);
+        File imageFile = new File(imageDirectory, fileName);
+        String uri = IMAGE_DIRECTORY + "/" + fileName;
+        if (imageFile.exists()) {
+            GltfWriteStatistics.getInstance().addImage(imageBytes.length, true);
+            return uri;
+        }
+
+        try {
+            Files.createDirectories(imageDirectory.toPath());
+            // another thread can write the same image, the complete file is moved in at once
+            Path tempPath = Files.createTempFile(imageDirectory.toPath(), fileName, ".tmp");
+            Files.write(tempPath, imageBytes);
+            try {
+                Files.move(tempPath, imageFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, imageFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            log.error("Failed to write the external image : {}", imageFile.getAbsolutePath());
+            throw new RuntimeException(e);
+        }
+        GltfWriteStatistics.getInstance().addImage(imageBytes.length, false);
+        return uri;
+    }
+
+    private String hashImage(byte[] imageBytes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            StringBuilder result = new StringBuilder();
+            for (byte value : digest.digest(imageBytes)) {
+                result.append(String.format("%02x", value));
+            }
+            return result.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private int createTexture(GlTF gltf, GltfBinary binary, GaiaTexture gaiaTexture, GltfImageType sceneImageType) {
         gaiaTexture.getBufferedImage();
-        int imageSource = createImage(gltf, gaiaTexture);
+        int imageSource = createImage(gltf, binary, gaiaTexture, sceneImageType);
 
         Texture texture = new Texture();
         texture.setSampler(0);
@@ -571,10 +909,13 @@ public class GltfWriter {
     }
 
 
-    private String writeImage(BufferedImage bufferedImage, String mimeType) {
+    /**
+     * Encodes the image resized to the power of two.
+     */
+    private byte[] writeImage(BufferedImage bufferedImage, String mimeType) {
         ImageResizer imageResizer = new ImageResizer();
         String formatName = ImageUtils.getFormatNameByMimeType(mimeType);
-        String imageString = null;
+        byte[] imageBytes = null;
         try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
             int width = bufferedImage.getWidth();
             int height = bufferedImage.getHeight();
@@ -587,21 +928,20 @@ public class GltfWriter {
 
             if (mimeType.equals("image/jpeg")) {
                 float quality = 0.75f;
-                imageString = writeJpegImage(bufferedImage, quality);
+                imageBytes = writeJpegImage(bufferedImage, quality);
             } else {
                 ImageIO.write(bufferedImage, formatName, baos);
-                byte[] bytes = baos.toByteArray();
-                imageString = "data:" + mimeType + ";base64," + Base64.getEncoder().encodeToString(bytes);
+                imageBytes = baos.toByteArray();
                 bufferedImage.flush();
             }
         } catch (IOException e) {
             log.error(e.getMessage());
             log.error("Error writing image");
         }
-        return imageString;
+        return imageBytes;
     }
 
-    private String writeJpegImage(BufferedImage bufferedImage, float quality) {
+    private byte[] writeJpegImage(BufferedImage bufferedImage, float quality) {
         ByteArrayOutputStream baos = null;
         ImageOutputStream ios = null;
         try {
@@ -616,14 +956,13 @@ public class GltfWriter {
             param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT); // 3
             param.setCompressionQuality(quality);  // 4
             writer.write(null, new IIOImage(bufferedImage, null, null), param); // 5
+            ios.flush();
             byte[] bytes = baos.toByteArray();
-            String imageString = "data:image/jpeg;base64," + Base64.getEncoder().encodeToString(bytes);
             bufferedImage.flush();
-            bytes = null;
 
             baos.close();
             ios.close();
-            return imageString;
+            return bytes;
         } catch (IOException e) {
             log.error(e.getMessage());
             log.error("Error writing jpeg image");
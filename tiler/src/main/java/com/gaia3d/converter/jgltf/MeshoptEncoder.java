@@ -0,0 +1,196 @@
+package com.gaia3d.converter.jgltf;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Pure java encoder of the EXT_meshopt_compression bitstream (version 0 vertex codec, version 1 index sequence codec).
+ * Vertex buffers are split into blocks, each byte of the vertex is delta encoded against the previous vertex
+ * and stored in groups of 16 with 0, 2, 4 or 8 bits per value.
+ * Index buffers are stored as zigzag varint deltas against two baselines.
+ */
+public class MeshoptEncoder {
+    private static final int VERTEX_HEADER = 0xa0;
+    private static final int SEQUENCE_HEADER = 0xd1;
+    private static final int BYTE_GROUP_SIZE = 16;
+    private static final int TAIL_MAX_SIZE = 32;
+    private static final int VERTEX_BLOCK_SIZE_BYTES = 8192;
+    private static final int VERTEX_BLOCK_MAX_SIZE = 256;
+    private static final int SEQUENCE_TAIL_SIZE = 4;
+    private static final int BASELINE_SWITCH_DISTANCE = 30;
+
+    /**
+     * @param vertexData vertex buffer from its position 0, little endian
+     * @param vertexSize byte stride of a vertex, a multiple of 4 up to 256
+     * @return the ATTRIBUTES mode stream, its length is the exact byteLength of the compressed bufferView
+     */
+    public static byte[] encodeVertexBuffer(ByteBuffer vertexData, int vertexCount, int vertexSize) {
+        if (vertexSize <= 0 || vertexSize > 256 || vertexSize % 4 != 0) {
+            throw new IllegalArgumentException("Invalid vertex size : " + vertexSize);
+        }
+        int blockSize = getVertexBlockSize(vertexSize);
+        int blockCount = (vertexCount + blockSize - 1) / blockSize;
+        int blockHeaderSize = (blockSize / BYTE_GROUP_SIZE + 3) / 4;
+        int tailSize = Math.max(vertexSize, TAIL_MAX_SIZE);
+        byte[] result = new byte[1 + blockCount * vertexSize * (blockHeaderSize + blockSize) + tailSize];
+
+        int offset = 0;
+        result[offset++] = (byte) VERTEX_HEADER;
+
+        byte[] firstVertex = new byte[vertexSize];
+        for (int k = 0; vertexCount > 0 && k < vertexSize; k++) {
+            firstVertex[k] = vertexData.get(k);
+        }
+        byte[] lastVertex = firstVertex.clone();
+        byte[] deltas = new byte[VERTEX_BLOCK_MAX_SIZE];
+        for (int blockStart = 0; blockStart < vertexCount; blockStart += blockSize) {
+            int blockVertexCount = Math.min(blockSize, vertexCount - blockStart);
+            int alignedCount = (blockVertexCount + BYTE_GROUP_SIZE - 1) & ~(BYTE_GROUP_SIZE - 1);
+            for (int k = 0; k < vertexSize; k++) {
+                Arrays.fill(deltas, (byte) 0);
+                int previous = lastVertex[k] & 0xff;
+                for (int i = 0; i < blockVertexCount; i++) {
+                    int value = vertexData.get((blockStart + i) * vertexSize + k) & 0xff;
+                    deltas[i] = zigzag8(value - previous);
+                    previous = value;
+                }
+                offset = encodeBytes(result, offset, deltas, alignedCount);
+            }
+            for (int k = 0; k < vertexSize; k++) {
+                lastVertex[k] = vertexData.get((blockStart + blockVertexCount - 1) * vertexSize + k);
+            }
+        }
+
+        // the tail is the baseline vertex, prefixed with zeros up to 32 bytes
+        offset += tailSize - vertexSize;
+        System.arraycopy(firstVertex, 0, result, offset, vertexSize);
+        offset += vertexSize;
+        return Arrays.copyOf(result, offset);
+    }
+
+    /**
+     * @param indexData index buffer from its position 0, little endian
+     * @param indexSize 2 (unsigned short) or 4 (unsigned int)
+     * @return the INDICES mode stream, its length is the exact byteLength of the compressed bufferView
+     */
+    public static byte[] encodeIndexSequence(ByteBuffer indexData, int indexCount, int indexSize) {
+        if (indexSize != 2 && indexSize != 4) {
+            throw new IllegalArgumentException("Invalid index size : " + indexSize);
+        }
+        ByteBuffer indices = indexData.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        byte[] result = new byte[1 + indexCount * 5 + SEQUENCE_TAIL_SIZE];
+        int offset = 0;
+        result[offset++] = (byte) SEQUENCE_HEADER;
+
+        int[] last = new int[2];
+        int current = 0;
+        for (int i = 0; i < indexCount; i++) {
+            int index = indexSize == 2 ? indices.getShort(i * 2) & 0xffff : indices.getInt(i * 4);
+            // switch to the other baseline when the index jumps away from the current one
+            int currentDelta = index - last[current];
+            if (Math.abs(currentDelta) >= BASELINE_SWITCH_DISTANCE) {
+                current ^= 1;
+            }
+            int delta = index - last[current];
+            int value = (delta << 1) ^ (delta >> 31);
+            offset = encodeVByte(result, offset, (((long) value << 1) | current) & 0xffffffffL);
+            last[current] = index;
+        }
+        offset += SEQUENCE_TAIL_SIZE;
+        return Arrays.copyOf(result, offset);
+    }
+
+    private static int getVertexBlockSize(int vertexSize) {
+        int result = VERTEX_BLOCK_SIZE_BYTES / vertexSize;
+        result &= ~(BYTE_GROUP_SIZE - 1);
+        return Math.min(result, VERTEX_BLOCK_MAX_SIZE);
+    }
+
+    private static byte zigzag8(int delta) {
+        byte value = (byte) delta;
+        return (byte) ((value << 1) ^ (value >> 7));
+    }
+
+    private static int encodeVByte(byte[] data, int offset, long value) {
+        do {
+            data[offset++] = (byte) ((value & 127) | (value > 127 ? 128 : 0));
+            value >>>= 7;
+        } while (value != 0);
+        return offset;
+    }
+
+    private static int encodeBytes(byte[] data, int offset, byte[] values, int count) {
+        int headerOffset = offset;
+        int headerSize = (count / BYTE_GROUP_SIZE + 3) / 4;
+        Arrays.fill(data, headerOffset, headerOffset + headerSize, (byte) 0);
+        offset += headerSize;
+
+        for (int i = 0; i < count; i += BYTE_GROUP_SIZE) {
+            int bestBits = 8;
+            int bestSize = measureBytesGroup(values, i, 8);
+            for (int bits = 1; bits < 8; bits *= 2) {
+                int size = measureBytesGroup(values, i, bits);
+                if (size < bestSize) {
+                    bestBits = bits;
+                    bestSize = size;
+                }
+            }
+            int bitsLog2 = bestBits == 1 ? 0 : bestBits == 2 ? 1 : bestBits == 4 ? 2 : 3;
+            int group = i / BYTE_GROUP_SIZE;
+            data[headerOffset + group / 4] |= (byte) (bitsLog2 << ((group % 4) * 2));
+            offset = encodeBytesGroup(data, offset, values, i, bestBits);
+        }
+        return offset;
+    }
+
+    /**
+     * One bit stands for a group of zeros, which stores nothing.
+     */
+    private static int measureBytesGroup(byte[] values, int start, int bits) {
+        if (bits == 1) {
+            for (int i = 0; i < BYTE_GROUP_SIZE; i++) {
+                if (values[start + i] != 0) {
+                    return Integer.MAX_VALUE;
+                }
+            }
+            return 0;
+        } else if (bits == 8) {
+            return BYTE_GROUP_SIZE;
+        }
+        int sentinel = (1 << bits) - 1;
+        int size = BYTE_GROUP_SIZE * bits / 8;
+        for (int i = 0; i < BYTE_GROUP_SIZE; i++) {
+            if ((values[start + i] & 0xff) >= sentinel) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    private static int encodeBytesGroup(byte[] data, int offset, byte[] values, int start, int bits) {
+        if (bits == 1) {
+            return offset;
+        } else if (bits == 8) {
+            System.arraycopy(values, start, data, offset, BYTE_GROUP_SIZE);
+            return offset + BYTE_GROUP_SIZE;
+        }
+        int valuesPerByte = 8 / bits;
+        int sentinel = (1 << bits) - 1;
+        for (int i = 0; i < BYTE_GROUP_SIZE; i += valuesPerByte) {
+            int packed = 0;
+            for (int k = 0; k < valuesPerByte; k++) {
+                int value = values[start + i + k] & 0xff;
+                packed = (packed << bits) | Math.min(value, sentinel);
+            }
+            data[offset++] = (byte) packed;
+        }
+        // the values that do not fit follow the packed bytes
+        for (int i = 0; i < BYTE_GROUP_SIZE; i++) {
+            if ((values[start + i] & 0xff) >= sentinel) {
+                data[offset++] = values[start + i];
+            }
+        }
+        return offset;
+    }
+}
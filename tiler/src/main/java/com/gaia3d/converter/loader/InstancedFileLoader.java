@@ -21,9 +21,15 @@ import java.io.File;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 /**
  * Loads files from the input directory.
+ * Each instance model is loaded once per model file and its scene is shared by every instance of it.
  */
 @Slf4j
 @RequiredArgsConstructor
@@ -31,9 +37,8 @@ public class InstancedFileLoader implements FileLoader {
     private final Converter converter;
     private final AttributeReader kmlReader;
 
-    /* For instanced model */
-    private File instanceFile = null;
-    private GaiaScene instanceScene = null;
+    /* For instanced model, keyed by the normalized model path, a failed model is kept as a null scene */
+    private final Map<Path, Future<GaiaScene>> instanceScenes = new ConcurrentHashMap<>();
 
     public List<File> loadTemp(File tempPath, List<File> files) {
         return files;
@@ -88,14 +93,13 @@ public class InstancedFileLoader implements FileLoader {
             List<KmlInfo> kmlInfos = kmlReader.readAll(file);
             if (kmlInfos != null) {
                 for (KmlInfo kmlInfo : kmlInfos) {
-                    if (instanceFile == null || instanceScene == null) {
-                        instanceFile = new File(file.getParent(), kmlInfo.getHref());
-                        List<GaiaScene> scenes = loadScene(instanceFile);
-                        for (GaiaScene scene : scenes) {
-                            if (instanceScene == null) {
-                                instanceScene = scene;
-                            }
-                        }
+                    if (kmlInfo.getHref() == null) {
+                        log.warn("[Load][Instance] The placemark has no model href : {}", kmlInfo.getName());
+                        continue;
+                    }
+                    GaiaScene instanceScene = getInstanceScene(new File(file.getParent(), kmlInfo.getHref()));
+                    if (instanceScene == null) {
+                        continue;
                     }
                     TileInfo tileInfo = TileInfo.builder()
                             .isI3dm(true)
@@ -107,12 +111,9 @@ public class InstancedFileLoader implements FileLoader {
                 }
             }
         } else {
-            File meshData = new File(globalOptions.getInstancePath());
-            List<GaiaScene> scenes = loadScene(meshData);
-            for (GaiaScene scene : scenes) {
-                if (instanceScene == null) {
-                    instanceScene = scene;
-                }
+            GaiaScene instanceScene = getInstanceScene(new File(globalOptions.getInstancePath()));
+            if (instanceScene == null) {
+                return tileInfos;
             }
             // geojson, shape type
             List<KmlInfo> kmlInfos = kmlReader.readAll(file);
@@ -130,4 +131,36 @@ public class InstancedFileLoader implements FileLoader {
         }
         return tileInfos;
     }
+
+    /**
+     * Returns the shared scene of the model file, the first request loads it while the others wait for it.
+     * Returns null for a model that failed to load, which is not loaded again.
+     */
+    public GaiaScene getInstanceScene(File instanceFile) {
+        Path instancePath = instanceFile.toPath().toAbsolutePath().normalize();
+        FutureTask<GaiaScene> task = new FutureTask<>(() -> loadInstanceScene(instancePath));
+        Future<GaiaScene> instanceScene = instanceScenes.putIfAbsent(instancePath, task);
+        if (instanceScene == null) {
+            instanceScene = task;
+            task.run();
+        }
+        try {
+            return instanceScene.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private GaiaScene loadInstanceScene(Path instancePath) {
+        List<GaiaScene> scenes = loadScene(instancePath.toFile());
+        if (scenes == null || scenes.isEmpty()) {
+            log.warn("[Load][Instance] Failed to load the instance model : {}", instancePath);
+            return null;
+        }
+        log.info("[Load][Instance] Loaded the instance model : {}", instancePath.getFileName());
+        return scenes.get(0);
+    }
 }
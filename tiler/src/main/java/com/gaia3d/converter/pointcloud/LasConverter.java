@@ -4,6 +4,7 @@ import com.gaia3d.basic.geometry.GaiaBoundingBox;
 import com.gaia3d.basic.geometry.octree.GaiaOctreeVertices;
 import com.gaia3d.basic.pointcloud.GaiaPointCloud;
 import com.gaia3d.basic.model.GaiaVertex;
+import com.gaia3d.basic.pointcloud.GaiaPointBuffer;
 import com.gaia3d.basic.pointcloud.GaiaPointCloudHeader;
 import com.gaia3d.basic.pointcloud.GaiaPointCloudTemp;
 import com.gaia3d.command.mago.GlobalOptions;
@@ -62,7 +63,13 @@ public class LasConverter {
                 .build();
     }
 
-    public void loadToTemp(GaiaPointCloudHeader pointCloudHeader, File file) {
+    /**
+     * Reads the points of a LAS/LAZ file into shards of the temp grid cells.
+     * The shards are owned by the calling thread, so several files can be read at the same time.
+     * @param shardName suffix of the shard files, unique per file
+     * @return shards of the cells that received points, keyed by the cell
+     */
+    public Map<GaiaPointCloudTemp, GaiaPointCloudTemp> loadToTemp(GaiaPointCloudHeader pointCloudHeader, File file, String shardName) {
         GlobalOptions globalOptions = GlobalOptions.getInstance();
 
         LASReader reader = new LASReader(file);
@@ -100,25 +107,28 @@ public class LasConverter {
         log.debug("File Creation Date: {}", fileCreationDate);
         log.debug("Header Size: {}", headerSize);
 
-        boolean isDefaultCrs = globalOptions.getCrs().equals(GlobalOptions.DEFAULT_CRS);
-        header.getVariableLengthRecords().forEach((record) -> {
-            if (isDefaultCrs && record.getUserID().equals("LASF_Projection")) {
-                String wktCRS = record.getDataAsString();
-                CoordinateReferenceSystem crs = GlobeUtils.convertWkt(wktCRS);
-                if (crs != null) {
-                    var convertedCrs = GlobeUtils.convertProj4jCrsFromGeotoolsCrs(crs);
-                    globalOptions.setCrs(convertedCrs);
-                    log.info(" - Coordinate Reference System : {}", wktCRS);
-                } else {
-                    String epsg = GlobeUtils.extractEpsgCodeFromWTK(wktCRS);
-                    if (epsg != null) {
-                        CRSFactory factory = new CRSFactory();
-                        globalOptions.setCrs(factory.createFromName("EPSG:" + epsg));
-                        log.info(" - Coordinate Reference System : {}", epsg);
+        // the crs is shared by all readers
+        synchronized (globalOptions) {
+            boolean isDefaultCrs = globalOptions.getCrs().equals(GlobalOptions.DEFAULT_CRS);
+            header.getVariableLengthRecords().forEach((record) -> {
+                if (isDefaultCrs && record.getUserID().equals("LASF_Projection")) {
+                    String wktCRS = record.getDataAsString();
+                    CoordinateReferenceSystem crs = GlobeUtils.convertWkt(wktCRS);
+                    if (crs != null) {
+                        var convertedCrs = GlobeUtils.convertProj4jCrsFromGeotoolsCrs(crs);
+                        globalOptions.setCrs(convertedCrs);
+                        log.info(" - Coordinate Reference System : {}", wktCRS);
+                    } else {
+                        String epsg = GlobeUtils.extractEpsgCodeFromWTK(wktCRS);
+                        if (epsg != null) {
+                            CRSFactory factory = new CRSFactory();
+                            globalOptions.setCrs(factory.createFromName("EPSG:" + epsg));
+                            log.info(" - Coordinate Reference System : {}", epsg);
+                        }
                     }
                 }
-            }
-        });
+            });
+        }
 
         int percentage = globalOptions.getPointRatio();
         if (percentage < 1) {
@@ -128,38 +138,41 @@ public class LasConverter {
         }
         int volumeFactor = (int) Math.ceil(100 / percentage);
         int count = 0;
-        for (LASPoint point : pointIterable) {
-            if (count++ % volumeFactor != 0) {
-                continue;
-            }
-            double x = point.getX() * xScaleFactor + xOffset;
-            double y = point.getY() * yScaleFactor + yOffset;
-            double z = point.getZ() * zScaleFactor + zOffset;
-            byte[] rgb;
-
-            if (hasRgbColor) {
-                if (globalOptions.isForce4ByteRGB()) {
-                    rgb = getColorByByteRGB(point); // only for test
+        Map<GaiaPointCloudTemp, GaiaPointCloudTemp> shards = new LinkedHashMap<>();
+        try {
+            for (LASPoint point : pointIterable) {
+                if (count++ % volumeFactor != 0) {
+                    continue;
+                }
+                double x = point.getX() * xScaleFactor + xOffset;
+                double y = point.getY() * yScaleFactor + yOffset;
+                double z = point.getZ() * zScaleFactor + zOffset;
+                int rgb;
+
+                if (hasRgbColor) {
+                    if (globalOptions.isForce4ByteRGB()) {
+                        rgb = getColorByByteRGB(point); // only for test
+                    } else {
+                        rgb = getColorByRGB(point);
+                    }
                 } else {
-                    rgb = getColorByRGB(point);
+                    //rgb = getColorIntensity(point);
+                    rgb = getHeight(z);
                 }
-            } else {
-                //rgb = getColorIntensity(point);
-                rgb = getHeight(z);
-            }
-            Vector3d position = new Vector3d(x, y, z);
 
-            GaiaVertex vertex = new GaiaVertex();
-            vertex.setPosition(position);
-            vertex.setColor(rgb);
-
-            GaiaPointCloudTemp tempFile = pointCloudHeader.findTemp(position);
-            if (tempFile == null) {
-                log.error("Failed to find temp file.");
-            } else {
-                tempFile.writePosition(position, rgb);
+                GaiaPointCloudTemp tempFile = pointCloudHeader.findTemp(x, y);
+                if (tempFile == null) {
+                    log.error("Failed to find temp file.");
+                } else {
+                    GaiaPointCloudTemp shard = shards.computeIfAbsent(tempFile, (cell) -> cell.createShard(shardName));
+                    shard.writePosition(x, y, z, rgb);
+                }
             }
+        } finally {
+            pointIterable.close();
+            shards.values().forEach(GaiaPointCloudTemp::close);
         }
+        return shards;
     }
 
     // Detail Volume
@@ -205,12 +218,12 @@ public class LasConverter {
         List<GaiaPointCloud> pointClouds = new ArrayList<>();
         GaiaPointCloud pointCloud = new GaiaPointCloud();
         GaiaBoundingBox boundingBox = pointCloud.getGaiaBoundingBox();
+        GaiaPointCloudTemp headerTemp = new GaiaPointCloudTemp(file);
         try {
-            GaiaPointCloudTemp readTemp = new GaiaPointCloudTemp(file);
-            readTemp.readHeader();
+            headerTemp.readHeader();
 
-            double[] quantizationOffset = readTemp.getQuantizedVolumeOffset();
-            double[] quantizationScale = readTemp.getQuantizedVolumeScale();
+            double[] quantizationOffset = headerTemp.getQuantizedVolumeOffset();
+            double[] quantizationScale = headerTemp.getQuantizedVolumeScale();
             double[] originalMinPosition = new double[]{quantizationOffset[0], quantizationOffset[1], quantizationOffset[2]};
             double[] originalMaxPosition = new double[]{quantizationOffset[0] + quantizationScale[0], quantizationOffset[1] + quantizationScale[1], quantizationOffset[2] + quantizationScale[2]};
             Vector3d minPosition = new Vector3d(originalMinPosition[0], originalMinPosition[1], originalMinPosition[2]);
@@ -218,16 +231,14 @@ public class LasConverter {
 
             boundingBox.addPoint(minPosition);
             boundingBox.addPoint(maxPosition);
-
-            readTemp.getInputStream().close();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        } finally {
+            headerTemp.close();
         }
 
 
         GaiaPointCloudTemp readTemp = new GaiaPointCloudTemp(file);
         pointCloud.setMinimized(true);
-        pointCloud.setVertices(null);
+        pointCloud.setPoints(null);
         pointCloud.setGaiaBoundingBox(boundingBox);
         pointCloud.setPointCloudTemp(readTemp);
         pointClouds.add(pointCloud);
@@ -265,75 +276,53 @@ public class LasConverter {
     /**
      * Get color by RGB
      * @param point LASPoint
-     * @return byte[3]
+     * @return packed RGB
      */
-    private byte[] getColorByRGB(LASPoint point) {
+    private int getColorByRGB(LASPoint point) {
         double red = (double) point.getRed() / 65535;
         double green = (double) point.getGreen() / 65535;
         double blue = (double) point.getBlue() / 65535;
-
-        byte[] rgb = new byte[3];
-        rgb[0] = (byte) (red * 255);
-        rgb[1] = (byte) (green * 255);
-        rgb[2] = (byte) (blue * 255);
-        return rgb;
+        return GaiaPointBuffer.packColor((byte) (red * 255), (byte) (green * 255), (byte) (blue * 255));
     }
 
     /**
      * Get color by RGB
      * @param point LASPoint
-     * @return byte[3]
+     * @return packed RGB
      */
-    private byte[] getColorByByteRGB(LASPoint point) {
-        byte[] rgb = new byte[3];
-        rgb[0] = (byte) point.getRed();
-        rgb[1] = (byte) point.getGreen();
-        rgb[2] = (byte) point.getBlue();
-
-        return rgb;
+    private int getColorByByteRGB(LASPoint point) {
+        return GaiaPointBuffer.packColor((byte) point.getRed(), (byte) point.getGreen(), (byte) point.getBlue());
     }
 
     /**
      * Get color by intensity (Gray scale)
      * @param point LASPoint
-     * @return byte[3]
+     * @return packed RGB
      */
-    private byte[] getColorIntensity(LASPoint point) {
+    private int getColorIntensity(LASPoint point) {
         char intensity = point.getIntensity();
         double intensityDouble = (double) intensity / 65535;
 
         byte color = (byte) (intensityDouble * 255);
-        byte[] rgb = new byte[3];
-        rgb[0] = color;
-        rgb[1] = color;
-        rgb[2] = color;
-        return rgb;
+        return GaiaPointBuffer.packColor(color, color, color);
     }
 
     /**
      *
      * @param point LASPoint
-     * @return byte[3]
+     * @return packed RGB
      */
-    private byte[] getClassification(LASPoint point) {
+    private int getClassification(LASPoint point) {
         short classification = point.getClassification();
         double classificatgionDouble = (double) classification / 65535;
 
         byte color = (byte) (classificatgionDouble * 255);
-        byte[] rgb = new byte[3];
-        rgb[0] = color;
-        rgb[1] = color;
-        rgb[2] = color;
-        return rgb;
+        return GaiaPointBuffer.packColor(color, color, color);
     }
 
-    private byte[] getHeight(double z) {
+    private int getHeight(double z) {
         byte color = (byte) (z / 65535 * 255);
-        byte[] rgb = new byte[3];
-        rgb[0] = color;
-        rgb[1] = color;
-        rgb[2] = color;
-        return rgb;
+        return GaiaPointBuffer.packColor(color, color, color);
     }
 
 }
@@ -10,9 +10,12 @@ import org.joml.Vector3d;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -39,8 +42,8 @@ public class PointCloudTempGenerator {
         log.info("[Pre] Generating temp files");
         try {
             tempFiles = createTempGrid(tempPath);
-            generateTempFiles(fileList);
-            //generateTempFilesOnThread(fileList);
+            //generateTempFiles(fileList);
+            generateTempFilesOnThread(fileList);
             closeAllStreams();
             tempFiles = removeEmptyFiles(tempFiles);
             //tempFiles = shuffleTempFiles(tempFiles);
@@ -111,27 +114,56 @@ public class PointCloudTempGenerator {
     private void generateTempFiles(List<File> fileList) {
         int fileLength = fileList.size();
         AtomicInteger fileCount = new AtomicInteger(0);
-        fileList.forEach((originalFile) -> {
-            converter.loadToTemp(combinedHeader, originalFile);
+        for (int i = 0; i < fileLength; i++) {
+            File originalFile = fileList.get(i);
+            Map<GaiaPointCloudTemp, GaiaPointCloudTemp> shards = converter.loadToTemp(combinedHeader, originalFile, String.valueOf(i));
+            shards.forEach(GaiaPointCloudTemp::appendShard);
             log.info("[Pre][{}/{}] Generated temp file for {}", fileCount.incrementAndGet(), fileLength, originalFile.getName());
-        });
+        }
     }
 
+    /**
+     * Reads the source files on several threads, each file into its own shards of the grid cells.
+     * The shards are appended to the cells in the order of the file list, so the temp files are the same as the sequential run.
+     */
     private void generateTempFilesOnThread(List<File> fileList) {
         GlobalOptions globalOptions = GlobalOptions.getInstance();
         ExecutorService executorService = Executors.newFixedThreadPool(globalOptions.getMultiThreadCount());
+        int fileLength = fileList.size();
+        AtomicInteger fileCount = new AtomicInteger(0);
+        List<Future<Map<GaiaPointCloudTemp, GaiaPointCloudTemp>>> futures = new ArrayList<>();
+        Map<GaiaPointCloudTemp, List<GaiaPointCloudTemp>> cellShards = new LinkedHashMap<>();
+        try {
+            for (int i = 0; i < fileLength; i++) {
+                File originalFile = fileList.get(i);
+                String shardName = String.valueOf(i);
+                Callable<Map<GaiaPointCloudTemp, GaiaPointCloudTemp>> callableTask = () -> {
+                    Map<GaiaPointCloudTemp, GaiaPointCloudTemp> shards = converter.loadToTemp(combinedHeader, originalFile, shardName);
+                    log.info("[Pre][{}/{}] Generated temp file for {}", fileCount.incrementAndGet(), fileLength, originalFile.getName());
+                    return shards;
+                };
+                Future<Map<GaiaPointCloudTemp, GaiaPointCloudTemp>> future = executorService.submit(callableTask);
+                if (globalOptions.isDebug()) {
+                    future.get();
+                }
+                futures.add(future);
+            }
+            for (Future<Map<GaiaPointCloudTemp, GaiaPointCloudTemp>> future : futures) {
+                future.get().forEach((cell, shard) -> cellShards.computeIfAbsent(cell, (key) -> new ArrayList<>()).add(shard));
+            }
+        } catch (Exception e) {
+            executorService.shutdownNow();
+            log.error("Failed to generate temp files on thread.", e);
+            throw new RuntimeException(e);
+        }
+
+        log.info("[Pre] Merging temp file shards");
         List<Runnable> tasks = new ArrayList<>();
-        fileList.forEach((originalFile) -> {
-            Runnable callableTask = () -> {
-                log.info("[Pre] Generated temp file for {}", originalFile.getName());
-                converter.loadToTemp(combinedHeader, originalFile);
-            };
-            tasks.add(callableTask);
-        });
+        cellShards.forEach((cell, shards) -> tasks.add(() -> shards.forEach(cell::appendShard)));
         try {
             executeThread(executorService, tasks);
         } catch (InterruptedException e) {
-            log.error("Failed to generate temp files on thread.", e);
+            log.error("Failed to merge temp file shards on thread.", e);
             throw new RuntimeException(e);
         }
     }
@@ -172,7 +204,7 @@ public class PointCloudTempGenerator {
 
     private List<File> shuffleTempFilesOnThread(List<File> tempFiles) {
         GlobalOptions globalOptions = GlobalOptions.getInstance();
-        List<File> shuffledTempFiles = new ArrayList<>();
+        File[] shuffledTempFiles = new File[tempFiles.size()];
         ExecutorService executorService = Executors.newFixedThreadPool(globalOptions.getMultiThreadCount());
         List<Runnable> tasks = new ArrayList<>();
         AtomicInteger tempCount = new AtomicInteger(0);
@@ -189,37 +221,35 @@ public class PointCloudTempGenerator {
         log.info("[Pre] Shuffling temp files with limit size: {}", limitSize);*/
 
         //int finalLimitSize = limitSize;
-        tempFiles.forEach((tempFile) -> {
+        for (int i = 0; i < fileLength; i++) {
+            File tempFile = tempFiles.get(i);
+            int index = i;
             Runnable callableTask = () -> {
                 int count = tempCount.incrementAndGet();
                 log.info("[Pre][{}/{}] Shuffling temp file: {}", count, fileLength, tempFile.getAbsoluteFile());
                 GaiaPointCloudTemp temp = new GaiaPointCloudTemp(tempFile);
                 temp.shuffleTempMoreFast(count, fileLength);
-                shuffledTempFiles.add(temp.getTempFile());
+                shuffledTempFiles[index] = temp.getTempFile();
             };
             tasks.add(callableTask);
-        });
+        }
         try {
             executeThread(executorService, tasks);
         } catch (InterruptedException e) {
             log.error("Failed to shuffle temp files on thread.", e);
             throw new RuntimeException(e);
         }
-        return shuffledTempFiles;
+        return new ArrayList<>(Arrays.asList(shuffledTempFiles));
     }
 
     private void closeAllStreams() {
         GaiaPointCloudTemp[][] tempGridAll = combinedHeader.getTempGrid();
         for (GaiaPointCloudTemp[] tempGridX : tempGridAll) {
             for (GaiaPointCloudTemp tempGridY : tempGridX) {
-                OutputStream outputStream = tempGridY.getOutputStream();
-                if (outputStream != null) {
-                    try {
-                        outputStream.flush();
-                        outputStream.close();
-                    } catch (Exception e) {
-                        log.error("Failed to close input stream", e);
-                    }
+                try {
+                    tempGridY.close();
+                } catch (Exception e) {
+                    log.error("Failed to close output stream", e);
                 }
             }
         }
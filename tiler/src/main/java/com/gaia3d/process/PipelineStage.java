@@ -0,0 +1,173 @@
+package com.gaia3d.process;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * A stage of the streaming tiling pipeline.
+ * Items are handed over through a bounded queue, so a slow stage blocks its producers (backpressure).
+ * @param <T> item type
+ */
+@Slf4j
+public class PipelineStage<T> {
+    private static final Object END_OF_STAGE = new Object();
+
+    @Getter
+    private final String name;
+    private final int threadCount;
+    private final Consumer<T> handler;
+    private final BlockingQueue<Object> queue;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final AtomicLong processedCount = new AtomicLong(0);
+
+    private ExecutorService executorService;
+    private List<Future<?>> workers;
+
+    public PipelineStage(String name, int threadCount, int queueSize, Consumer<T> handler) {
+        this.name = name;
+        this.threadCount = Math.max(1, threadCount);
+        this.handler = handler;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+    }
+
+    public void start() {
+        executorService = Executors.newFixedThreadPool(threadCount);
+        workers = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            workers.add(executorService.submit(this::work));
+        }
+        log.debug("[{}] Started stage with {} threads.", name, threadCount);
+    }
+
+    /**
+     * Hands an item to this stage. Blocks while the queue is full.
+     */
+    public void submit(T item) throws InterruptedException {
+        checkFailure();
+        queue.put(item);
+    }
+
+    /**
+     * Signals that no more items will be submitted and waits until all queued items are processed.
+     */
+    public void finish() throws InterruptedException {
+        if (executorService == null) {
+            return;
+        }
+        for (int i = 0; i < threadCount; i++) {
+            queue.put(END_OF_STAGE);
+        }
+        try {
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (Exception e) {
+            log.error("[{}] Failed to finish stage.", name, e);
+            throw new RuntimeException(e);
+        } finally {
+            executorService.shutdownNow();
+        }
+        checkFailure();
+        log.debug("[{}] Finished stage. processed : {}", name, processedCount.get());
+    }
+
+    /**
+     * Stops the workers without waiting for the queued items.
+     */
+    public void shutdownNow() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Finishes the stages in pipeline order, also after a failure, and rethrows the first failure.
+     * Once the calling thread is interrupted the remaining stages are shut down, so no worker is left waiting in its queue.
+     * @param failure the failure of the submitting thread, or null
+     */
+    public static void finishAll(List<? extends PipelineStage<?>> stages, Throwable failure) throws InterruptedException {
+        boolean interrupted = failure instanceof InterruptedException;
+        for (PipelineStage<?> stage : stages) {
+            if (interrupted) {
+                stage.shutdownNow();
+                continue;
+            }
+            try {
+                stage.finish();
+            } catch (InterruptedException e) {
+                interrupted = true;
+                stage.shutdownNow();
+                failure = addFailure(failure, e);
+            } catch (RuntimeException e) {
+                failure = addFailure(failure, e);
+            }
+        }
+        if (failure instanceof InterruptedException) {
+            throw (InterruptedException) failure;
+        } else if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw new RuntimeException(failure);
+        }
+    }
+
+    private static Throwable addFailure(Throwable failure, Throwable e) {
+        if (failure == null) {
+            return e;
+        }
+        failure.addSuppressed(e);
+        return failure;
+    }
+
+    public long getProcessedCount() {
+        return processedCount.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void work() {
+        try {
+            while (true) {
+                Object item = queue.take();
+                if (item == END_OF_STAGE) {
+                    return;
+                }
+                if (failure.get() != null) {
+                    // keep draining so that the producers are never blocked after a failure
+                    continue;
+                }
+                try {
+                    handler.accept((T) item);
+                    processedCount.incrementAndGet();
+                } catch (Throwable e) {
+                    log.error("[{}] Failed to process item.", name, e);
+                    failure.compareAndSet(null, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkFailure() {
+        Throwable throwable = failure.get();
+        if (throwable != null) {
+            throw new RuntimeException("Pipeline stage failed : " + name, throwable);
+        }
+    }
+}
@@ -30,6 +30,8 @@ public enum ProcessOptions {
 
     // Execution Options
     MULTI_THREAD_COUNT("multiThreadCount", "mc", "multiThreadCount", true, "set Multi-Thread count"),
+    STREAMING("streaming", "st", "streaming", false, "[Experimental] Streaming pipeline mode, overlaps loading, pre-processing and post-processing stages (Default: false)"),
+    STAGE_THREAD_COUNT("stageThreadCount", "stc", "stageThreadCount", true, "Thread count of each streaming stage as 'load,pre,post' (Default: multiThreadCount for each stage)"),
 
     // 3DTiles Options
     REFINE_ADD("refineAdd", "ra", "refineAdd", false, "Set 3D Tiles Refine 'ADD' mode"),
@@ -51,6 +53,7 @@ public enum ProcessOptions {
     FLIP_UP_AXIS("flipUpAxis", "ru", "flipUpAxis", false, "Rotate the matrix 180 degrees about the X-axis. (Default: false)"),
 
     IGNORE_TEXTURES("ignoreTextures", "igtx", "ignoreTextures", false,"Ignore diffuse textures. "),
+    IMAGE_TYPE("imageType", "imt", "imageType", true, "Texture image storage of the glb contents (uri, binary, external). 'external' writes shared images named by the content hash in 'data/images'. (Default: uri)"),
     AUTO_UP_AXIS("autoUpAxis", "aa", "autoUpAxis", false, "Automatically Assign 3D Matrix Axes. If your 3D data up-axis is incorrect, try this option."),
 
     // Extrusion Options
@@ -71,6 +74,9 @@ public enum ProcessOptions {
     LARGE_MESH("largeMesh", "lm", "largeMesh", false, "[Experimental] Large Mesh Splitting Mode (Default: false)"),
     VOXEL_LOD("voxelLod", "vl", "voxelLod", false, "[Experimental] Voxel Level Of Detail setting for i3dm (Default: false)"),
     PHOTOREALISTIC("photorealistic", "pr", "photorealistic", false, "[Experimental] Photorealistic mode for b3dm (Default: false)"),
+    SIMPLIFY("simplify", "smp", "simplify", false, "[Experimental] Simplify the meshes of the lower LOD b3dm contents with the half-edge decimator (Default: false)"),
+    QUANTIZATION("quantization", "qz", "quantization", false, "[Experimental] Quantize the vertex attributes of the glb contents (KHR_mesh_quantization) and the instance positions and normals of the i3dm contents (Default: false)"),
+    MESHOPT("meshopt", "mo", "meshopt", false, "[Experimental] Compress the vertex and index buffers of the glb contents (EXT_meshopt_compression) (Default: false)"),
     ZERO_ORIGIN("zeroOrigin", "zo", "zeroOrigin", false, "[Experimental] fix 3d root transformed matrix origin to zero point.");
 
     private final String longName;
@@ -0,0 +1,52 @@
+package com.gaia3d.process;
+
+import com.gaia3d.process.tileprocess.tile.TileInfo;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Thread-safe collector of the pre-processed tile infos.
+ * Workers append without locking, and the result is ordered by file index and serial,
+ * so the tileset does not depend on the thread scheduling.
+ */
+public class TileInfoCollector {
+    private final ConcurrentLinkedQueue<Entry> entries = new ConcurrentLinkedQueue<>();
+
+    public void add(int fileIndex, TileInfo tileInfo) {
+        entries.add(new Entry(fileIndex, tileInfo));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the collected tile infos ordered by file index and serial.
+     */
+    public List<TileInfo> getSortedTileInfos() {
+        List<Entry> sortedEntries = new ArrayList<>(entries);
+        sortedEntries.sort(Comparator.comparingInt(Entry::getFileIndex)
+                .thenComparingInt((entry) -> entry.getTileInfo().getSerial()));
+        List<TileInfo> tileInfos = new ArrayList<>(sortedEntries.size());
+        for (Entry entry : sortedEntries) {
+            tileInfos.add(entry.getTileInfo());
+        }
+        return tileInfos;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Entry {
+        private final int fileIndex;
+        private final TileInfo tileInfo;
+    }
+}
@@ -1,7 +1,9 @@
 package com.gaia3d.process;
 
 import com.gaia3d.command.mago.GlobalOptions;
+import com.gaia3d.converter.jgltf.GltfWriteStatistics;
 import com.gaia3d.converter.loader.FileLoader;
+import com.gaia3d.process.postprocess.GaiaSetCache;
 import com.gaia3d.process.postprocess.PostProcess;
 import com.gaia3d.process.preprocess.PreProcess;
 import com.gaia3d.process.tileprocess.Pipeline;
@@ -10,6 +12,8 @@ import com.gaia3d.process.tileprocess.Tiler;
 import com.gaia3d.process.tileprocess.tile.ContentInfo;
 import com.gaia3d.process.tileprocess.tile.TileInfo;
 import com.gaia3d.process.tileprocess.tile.tileset.Tileset;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FileUtils;
@@ -51,11 +55,19 @@ public class TilingPipeline implements Pipeline {
             readAllFiles(fileLoader);
             /* Pre-process */
             createTemp(fileLoader);
-            executePreProcesses(fileLoader);
+            if (globalOptions.isStreaming()) {
+                executeStreamingPreProcesses(fileLoader);
+            } else {
+                executePreProcesses(fileLoader);
+            }
             /* Main-process */
             executeTilingProcess();
             /* Post-process */
-            executePostProcesses();
+            if (globalOptions.isStreaming()) {
+                executeStreamingPostProcesses();
+            } else {
+                executePostProcesses();
+            }
             /* Delete temp files */
             deleteTemp();
         } catch (InterruptedException e) {
@@ -72,7 +84,7 @@ public class TilingPipeline implements Pipeline {
 
     private void executePreProcesses(FileLoader fileLoader) throws InterruptedException {
         log.info("[Pre] Start the pre-processing.");
-        tileInfos = new ArrayList<>();
+        TileInfoCollector collector = new TileInfoCollector();
 
         ExecutorService executorService = Executors.newFixedThreadPool(globalOptions.getMultiThreadCount());
         List<Runnable> tasks = new ArrayList<>();
@@ -98,13 +110,14 @@ public class TilingPipeline implements Pipeline {
                         for (PreProcess preProcessors : preProcesses) {
                             preProcessors.run(tileInfo);
                         }
-                        tileInfos.add(tileInfo);
+                        collector.add(finalCount, tileInfo);
                     }
                 }
             };
             tasks.add(callableTask);
         }
         executeThread(executorService, tasks);
+        tileInfos = collector.getSortedTileInfos();
 
         log.info("[Pre] Total Node Count {}", nodeCount);
         log.info("[Pre] End the pre-processing.");
@@ -125,6 +138,7 @@ public class TilingPipeline implements Pipeline {
         ExecutorService executorService = Executors.newFixedThreadPool(globalOptions.getMultiThreadCount());
         List<Runnable> tasks = new ArrayList<>();
         contentInfos = tileset.findAllContentInfo();
+        GaiaSetCache.getInstance().register(contentInfos);
         AtomicInteger count = new AtomicInteger(1);
         int contentCount = contentInfos.size();
         globalOptions.setTileCount(contentCount);
@@ -132,19 +146,7 @@ public class TilingPipeline implements Pipeline {
         for (ContentInfo contentInfo : contentInfos) {
             Runnable callableTask = () -> {
                 log.info("[Post][{}/{}] post-process in progress. : {}", count.getAndIncrement(), contentCount, contentInfo.getName());
-                List<TileInfo> tileInfos = contentInfo.getTileInfos();
-                List<TileInfo> tileInfosClone = tileInfos.stream()
-                        .map((childTileInfo) -> TileInfo.builder()
-                            .scene(childTileInfo.getScene())
-                            .kmlInfo(childTileInfo.getKmlInfo())
-                            .scenePath(childTileInfo.getScenePath())
-                            .tempPath(childTileInfo.getTempPath())
-                            .transformMatrix(childTileInfo.getTransformMatrix())
-                            .boundingBox(childTileInfo.getBoundingBox())
-                            .pointCloud(childTileInfo.getPointCloud())
-                            .build())
-                        .collect(Collectors.toList());
-                contentInfo.setTileInfos(tileInfosClone);
+                List<TileInfo> tileInfosClone = cloneTileInfos(contentInfo);
                 for (PostProcess postProcessor : postProcesses) {
                     postProcessor.run(contentInfo);
                 }
@@ -154,9 +156,153 @@ public class TilingPipeline implements Pipeline {
             tasks.add(callableTask);
         }
         executeThread(executorService, tasks);
+        GaiaSetCache.getInstance().clear();
+        GltfWriteStatistics.getInstance().report();
         log.info("[Post] End the post-processing.");
     }
 
+    /**
+     * Streaming pre-process.
+     * Loader workers convert the files and hand each tile info to the pre-process workers through a bounded queue,
+     * so the loading and the pre-processing of different files overlap.
+     */
+    private void executeStreamingPreProcesses(FileLoader fileLoader) throws InterruptedException {
+        log.info("[Pre] Start the streaming pre-processing.");
+        TileInfoCollector collector = new TileInfoCollector();
+        int fileCount = fileList.size();
+        int queueSize = globalOptions.getStageQueueSize();
+        AtomicLong nodeCount = new AtomicLong(0);
+
+        PipelineStage<IndexedTileInfo> preProcessStage = new PipelineStage<>("Pre", getStageThreadCount(globalOptions.getPreProcessThreadCount()), queueSize, (indexedTileInfo) -> {
+            TileInfo tileInfo = indexedTileInfo.getTileInfo();
+            for (PreProcess preProcessors : preProcesses) {
+                preProcessors.run(tileInfo);
+            }
+            collector.add(indexedTileInfo.getFileIndex(), tileInfo);
+        });
+        PipelineStage<Integer> loadStage = new PipelineStage<>("Load", getStageThreadCount(globalOptions.getLoadThreadCount()), queueSize, (fileIndex) -> {
+            File file = fileList.get(fileIndex);
+            log.info("[Pre][{}/{}] Loading file : {}", fileIndex + 1, fileCount, file.getName());
+            List<TileInfo> loadedTileInfos = fileLoader.loadTileInfo(file);
+            if (loadedTileInfos == null) {
+                log.warn("[Pre][{}/{}] Failed to load file : {}.", fileIndex + 1, fileCount, file.getName());
+                return;
+            }
+            int infoLength = loadedTileInfos.size();
+            nodeCount.addAndGet(infoLength);
+            for (int index = 0; index < infoLength; index++) {
+                TileInfo tileInfo = loadedTileInfos.get(index);
+                if (tileInfo != null) {
+                    tileInfo.setSerial(index + 1);
+                    submitToStage(preProcessStage, new IndexedTileInfo(fileIndex, tileInfo));
+                }
+            }
+        });
+
+        Throwable failure = null;
+        try {
+            preProcessStage.start();
+            loadStage.start();
+            for (int fileIndex = 0; fileIndex < fileCount; fileIndex++) {
+                loadStage.submit(fileIndex);
+            }
+        } catch (Throwable e) {
+            failure = e;
+        } finally {
+            PipelineStage.finishAll(List.of(loadStage, preProcessStage), failure);
+        }
+        tileInfos = collector.getSortedTileInfos();
+
+        log.info("[Pre] Total Node Count {}", nodeCount);
+        log.info("[Pre] End the streaming pre-processing.");
+    }
+
+    /**
+     * Streaming post-process.
+     * Each post-process (e.g. GaiaMaximizer -> GaiaRelocator -> Batched3DModel) runs as its own stage,
+     * so a content can be written while the following contents are still being maximized.
+     */
+    private void executeStreamingPostProcesses() throws InterruptedException {
+        log.info("[Post] Start the streaming post-processing.");
+        contentInfos = tileset.findAllContentInfo();
+        GaiaSetCache.getInstance().register(contentInfos);
+        AtomicInteger count = new AtomicInteger(1);
+        int contentCount = contentInfos.size();
+        int queueSize = globalOptions.getStageQueueSize();
+        int threadCount = getStageThreadCount(globalOptions.getPostProcessThreadCount());
+        globalOptions.setTileCount(contentCount);
+
+        List<PipelineStage<ContentInfo>> stages = new ArrayList<>();
+        PipelineStage<ContentInfo> nextStage = null;
+        for (int index = postProcesses.size() - 1; index >= 0; index--) {
+            PostProcess postProcessor = postProcesses.get(index);
+            PipelineStage<ContentInfo> followingStage = nextStage;
+            String stageName = "Post-" + postProcessor.getClass().getSimpleName();
+            PipelineStage<ContentInfo> stage = new PipelineStage<>(stageName, threadCount, queueSize, (contentInfo) -> {
+                postProcessor.run(contentInfo);
+                if (followingStage != null) {
+                    submitToStage(followingStage, contentInfo);
+                } else {
+                    contentInfo.deleteTexture();
+                    contentInfo.getTileInfos().clear();
+                }
+            });
+            stages.add(0, stage);
+            nextStage = stage;
+        }
+
+        Throwable failure = null;
+        try {
+            for (PipelineStage<ContentInfo> stage : stages) {
+                stage.start();
+            }
+            if (nextStage != null) {
+                for (ContentInfo contentInfo : contentInfos) {
+                    log.info("[Post][{}/{}] post-process in progress. : {}", count.getAndIncrement(), contentCount, contentInfo.getName());
+                    cloneTileInfos(contentInfo);
+                    nextStage.submit(contentInfo);
+                }
+            }
+        } catch (Throwable e) {
+            failure = e;
+        } finally {
+            PipelineStage.finishAll(stages, failure);
+        }
+        GaiaSetCache.getInstance().clear();
+        GltfWriteStatistics.getInstance().report();
+        log.info("[Post] End the streaming post-processing.");
+    }
+
+    private <T> void submitToStage(PipelineStage<T> stage, T item) {
+        try {
+            stage.submit(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private int getStageThreadCount(int threadCount) {
+        return globalOptions.isDebug() ? 1 : threadCount;
+    }
+
+    private List<TileInfo> cloneTileInfos(ContentInfo contentInfo) {
+        List<TileInfo> tileInfos = contentInfo.getTileInfos();
+        List<TileInfo> tileInfosClone = tileInfos.stream()
+                .map((childTileInfo) -> TileInfo.builder()
+                    .scene(childTileInfo.getScene())
+                    .kmlInfo(childTileInfo.getKmlInfo())
+                    .scenePath(childTileInfo.getScenePath())
+                    .tempPath(childTileInfo.getTempPath())
+                    .transformMatrix(childTileInfo.getTransformMatrix())
+                    .boundingBox(childTileInfo.getBoundingBox())
+                    .pointCloud(childTileInfo.getPointCloud())
+                    .build())
+                .collect(Collectors.toList());
+        contentInfo.setTileInfos(tileInfosClone);
+        return tileInfosClone;
+    }
+
     private void createTemp(FileLoader fileLoader) {
         /* create temp directory */
         File tempFile = new File(globalOptions.getOutputPath(), "temp");
@@ -193,4 +339,11 @@ public class TilingPipeline implements Pipeline {
             }
         } while (!executorService.awaitTermination(2, TimeUnit.SECONDS));
     }
+
+    @Getter
+    @AllArgsConstructor
+    private static class IndexedTileInfo {
+        private final int fileIndex;
+        private final TileInfo tileInfo;
+    }
 }
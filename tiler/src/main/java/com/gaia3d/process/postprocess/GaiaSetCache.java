@@ -0,0 +1,195 @@
+package com.gaia3d.process.postprocess;
+
+import com.gaia3d.basic.exchangable.GaiaBuffer;
+import com.gaia3d.basic.exchangable.GaiaBufferDataSet;
+import com.gaia3d.basic.exchangable.GaiaSet;
+import com.gaia3d.basic.model.GaiaMaterial;
+import com.gaia3d.process.tileprocess.tile.ContentInfo;
+import com.gaia3d.process.tileprocess.tile.TileInfo;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of the maximized GaiaSets, keyed by the temp path.
+ * The same object is used by the content nodes of several LODs, so the temp file is read only once per run.
+ * The cached set is never modified, each caller gets its own working copy.
+ * An entry is pinned while it is being read or copied, and it is released as soon as every registered use is consumed.
+ * The unpinned entries are evicted in LRU order when the cache exceeds its byte size limit.
+ */
+@Slf4j
+public class GaiaSetCache {
+    private static final GaiaSetCache instance = new GaiaSetCache();
+    private static final double DEFAULT_MEMORY_RATIO = 0.25;
+
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Path, Integer> registeredUses = new LinkedHashMap<>();
+    private final AtomicLong hitCount = new AtomicLong(0);
+    private final AtomicLong missCount = new AtomicLong(0);
+
+    @Getter
+    @Setter
+    private long maxByteSize = (long) (Runtime.getRuntime().maxMemory() * DEFAULT_MEMORY_RATIO);
+    @Getter
+    private long byteSize = 0;
+
+    public static GaiaSetCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Registers how many times each temp file will be maximized by the given contents.
+     */
+    public synchronized void register(List<ContentInfo> contentInfos) {
+        for (ContentInfo contentInfo : contentInfos) {
+            List<TileInfo> tileInfos = contentInfo.getTileInfos();
+            if (tileInfos == null) {
+                continue;
+            }
+            for (TileInfo tileInfo : tileInfos) {
+                Path tempPath = tileInfo.getTempPath();
+                if (tempPath != null) {
+                    registeredUses.merge(tempPath, 1, Integer::sum);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a working copy of the set stored in the temp file.
+     */
+    public GaiaSet get(Path tempPath) throws IOException {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(tempPath);
+            if (entry == null) {
+                entry = new Entry(tempPath);
+                entries.put(tempPath, entry);
+            }
+            entry.pinCount++;
+        }
+
+        GaiaSet copy = null;
+        try {
+            synchronized (entry) {
+                if (entry.set == null) {
+                    missCount.incrementAndGet();
+                    GaiaSet set = GaiaSet.readFile(tempPath);
+                    if (set == null) {
+                        throw new IOException("Failed to read the temp file: " + tempPath);
+                    }
+                    long setByteSize = calcByteSize(set);
+                    synchronized (this) {
+                        entry.set = set;
+                        entry.byteSize = setByteSize;
+                        byteSize += setByteSize;
+                    }
+                } else {
+                    hitCount.incrementAndGet();
+                }
+                copy = copy(entry.set);
+            }
+        } finally {
+            release(entry);
+        }
+        return copy;
+    }
+
+    public synchronized void clear() {
+        log.info("[Post][Cache] hit : {}, miss : {}", hitCount.get(), missCount.get());
+        entries.values().forEach(Entry::clear);
+        entries.clear();
+        registeredUses.clear();
+        byteSize = 0;
+        hitCount.set(0);
+        missCount.set(0);
+    }
+
+    private synchronized void release(Entry entry) {
+        entry.pinCount--;
+        Integer remainUses = registeredUses.computeIfPresent(entry.path, (path, uses) -> uses - 1);
+        if (remainUses != null && remainUses <= 0) {
+            registeredUses.remove(entry.path);
+            if (entry.pinCount <= 0) {
+                remove(entry);
+            }
+        }
+        if (entry.set == null && entry.pinCount <= 0) {
+            remove(entry);
+        }
+        evict();
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<Path, Entry>> iterator = entries.entrySet().iterator();
+        while (byteSize > maxByteSize && iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            if (entry.pinCount > 0) {
+                continue;
+            }
+            iterator.remove();
+            byteSize -= entry.byteSize;
+            entry.clear();
+        }
+    }
+
+    private void remove(Entry entry) {
+        if (entries.get(entry.path) == entry) {
+            entries.remove(entry.path);
+            byteSize -= entry.byteSize;
+            entry.clear();
+        }
+    }
+
+    private GaiaSet copy(GaiaSet set) {
+        GaiaSet copy = set.clone();
+        copy.setAttribute(set.getAttribute());
+        List<GaiaMaterial> materials = set.getMaterials();
+        List<GaiaMaterial> copiedMaterials = copy.getMaterials();
+        for (int i = 0; i < materials.size(); i++) {
+            GaiaMaterial material = materials.get(i);
+            GaiaMaterial copiedMaterial = copiedMaterials.get(i);
+            copiedMaterial.setRepeat(material.isRepeat());
+            copiedMaterial.setBlend(material.isBlend());
+            copiedMaterial.setOpaque(material.isOpaque());
+        }
+        return copy;
+    }
+
+    private long calcByteSize(GaiaSet set) {
+        long size = 0;
+        for (GaiaBufferDataSet bufferDataSet : set.getBufferDataList()) {
+            for (GaiaBuffer buffer : bufferDataSet.getBuffers().values()) {
+                size += buffer.getFloats() == null ? 0 : (long) buffer.getFloats().length * Float.BYTES;
+                size += buffer.getInts() == null ? 0 : (long) buffer.getInts().length * Integer.BYTES;
+                size += buffer.getShorts() == null ? 0 : (long) buffer.getShorts().length * Short.BYTES;
+                size += buffer.getBytes() == null ? 0 : buffer.getBytes().length;
+            }
+        }
+        return size;
+    }
+
+    private static class Entry {
+        private final Path path;
+        private GaiaSet set;
+        private long byteSize;
+        private int pinCount;
+
+        private Entry(Path path) {
+            this.path = path;
+        }
+
+        private void clear() {
+            set = null;
+            byteSize = 0;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.gaia3d.process.postprocess;
+
+import com.gaia3d.basic.exchangable.GaiaSet;
+import com.gaia3d.basic.halfedge.DecimateParameters;
+import com.gaia3d.basic.halfedge.HalfEdgeScene;
+import com.gaia3d.basic.halfedge.HalfEdgeUtils;
+import com.gaia3d.basic.model.GaiaAttribute;
+import com.gaia3d.basic.model.GaiaScene;
+import com.gaia3d.process.tileprocess.tile.ContentInfo;
+import com.gaia3d.process.tileprocess.tile.LevelOfDetail;
+import com.gaia3d.process.tileprocess.tile.TileInfo;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Path;
+
+/**
+ * Simplifies the objects of the lower LOD contents with the quadric half-edge decimator, between GaiaMaximizer and Batched3DModel.
+ * The error bound grows with the geometric error of the LOD, the LOD 0 contents keep the full resolution.
+ * The contents are already run on the post-process threads, so the objects of a content are simplified on the calling thread.
+ */
+@Slf4j
+public class GaiaSimplifier implements PostProcess {
+    private static final double WELD_ERROR = 1e-4;
+    private static final double HEDGE_LENGTH_RATIO = 0.05;
+    private static final double MAX_DIFF_ANGLE_DEGREES = 15.0;
+
+    @Override
+    public ContentInfo run(ContentInfo contentInfo) {
+        LevelOfDetail lod = contentInfo.getLod();
+        if (lod == null || lod.getLevel() < 1) {
+            return contentInfo;
+        }
+        DecimateParameters decimateParameters = createDecimateParameters(lod);
+        for (TileInfo tileInfo : contentInfo.getTileInfos()) {
+            GaiaSet set = tileInfo.getSet();
+            if (set == null) {
+                continue;
+            }
+            try {
+                tileInfo.setSet(simplify(set, tileInfo.getTempPath(), decimateParameters));
+            } catch (RuntimeException e) {
+                log.error("[Post][Simplify] Failed to simplify the object : {}", tileInfo.getTempPath(), e);
+            }
+        }
+        return contentInfo;
+    }
+
+    /**
+     * The decimation parameters of a LOD, the surfaces may move 5% of the geometric error.
+     */
+    public static DecimateParameters createDecimateParameters(LevelOfDetail lod) {
+        int level = Math.max(lod.getLevel(), 1);
+        double maxDiffAngDegrees = Math.min(2.5 + 2.5 * level, MAX_DIFF_ANGLE_DEGREES);
+        double hedgeMinLength = lod.getGeometricError() * HEDGE_LENGTH_RATIO;
+        DecimateParameters decimateParameters = new DecimateParameters();
+        decimateParameters.setBasicValues(maxDiffAngDegrees, hedgeMinLength, 1.0, 6.0, 1000000, 1, 1.0);
+        return decimateParameters;
+    }
+
+    /**
+     * Returns the simplified copy of the set, the given set is consumed.
+     */
+    public static GaiaSet simplify(GaiaSet set, Path originalPath, DecimateParameters decimateParameters) {
+        GaiaScene scene = new GaiaScene(set);
+        scene.setOriginalPath(originalPath);
+        if (scene.getAttribute() == null) {
+            scene.setAttribute(new GaiaAttribute());
+        }
+        scene.makeTriangleFaces();
+        // texture seams and hard edges stay as frontiers of the half-edge surfaces
+        scene.weldVertices(WELD_ERROR, true, true, true, true);
+
+        HalfEdgeScene halfEdgeScene = HalfEdgeUtils.halfEdgeSceneFromGaiaScene(scene);
+        halfEdgeScene.doTrianglesReductionQuadric(decimateParameters);
+        GaiaScene simplifiedScene = HalfEdgeUtils.gaiaSceneFromHalfEdgeScene(halfEdgeScene);
+        halfEdgeScene.deleteObjects();
+
+        GaiaSet simplifiedSet = GaiaSet.fromGaiaScene(simplifiedScene);
+        simplifiedSet.setMaterials(set.getMaterials());
+        simplifiedSet.setAttribute(scene.getAttribute());
+        simplifiedSet.setProjectName(set.getProjectName());
+        return simplifiedSet;
+    }
+}
@@ -0,0 +1,11 @@
+package com.gaia3d.process.postprocess.batch;
+
+import java.util.List;
+
+/**
+ * Packs the images of a texture atlas.
+ * Sets the batched boundary of every image from its origin boundary, the images must not overlap.
+ */
+public interface AtlasPacker {
+    void pack(List<GaiaBatchImage> images);
+}
@@ -8,22 +8,24 @@ import com.gaia3d.basic.model.GaiaAttribute;
 import com.gaia3d.basic.model.GaiaNode;
 import com.gaia3d.basic.model.GaiaScene;
 import com.gaia3d.command.mago.GlobalOptions;
+import com.gaia3d.converter.jgltf.GlbContent;
 import com.gaia3d.converter.jgltf.GltfWriter;
 import com.gaia3d.process.postprocess.TileModel;
 import com.gaia3d.process.postprocess.instance.GaiaFeatureTable;
 import com.gaia3d.process.tileprocess.tile.ContentInfo;
 import com.gaia3d.process.tileprocess.tile.TileInfo;
 import com.gaia3d.util.StringUtils;
+import com.gaia3d.io.GatheringFileWriter;
 import com.gaia3d.io.LittleEndianDataInputStream;
 import com.gaia3d.io.LittleEndianDataOutputStream;
 import lombok.extern.slf4j.Slf4j;
 import org.joml.Matrix3d;
 import org.joml.Matrix4d;
-import org.lwjgl.BufferUtils;
 
 import java.io.*;
 import java.nio.ByteBuffer;
-import java.nio.file.Files;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
@@ -34,10 +36,15 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class Batched3DModel implements TileModel {
     private static final String MAGIC = "b3dm";
     private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 28;
     private final GltfWriter gltfWriter;
 
     public Batched3DModel() {
-        this.gltfWriter = new GltfWriter();
+        GlobalOptions globalOptions = GlobalOptions.getInstance();
+        File contentDirectory = globalOptions.getOutputPath() == null ? null : new File(globalOptions.getOutputPath(), "data");
+        this.gltfWriter = new GltfWriter(globalOptions.getImageType(), contentDirectory);
+        this.gltfWriter.setQuantized(globalOptions.isQuantization());
+        this.gltfWriter.setMeshoptCompressed(globalOptions.isMeshopt());
     }
 
     @Override
@@ -113,16 +120,17 @@ public class Batched3DModel implements TileModel {
             log.info("[Create][data] Created output data directory:", outputRoot);
         }
 
-        byte[] glbBytes;
-        if (globalOptions.isGlb()) {
-            String glbFileName = nodeCode + ".glb";
-            File glbOutputFile = outputRoot.resolve(glbFileName).toFile();
-            this.gltfWriter.writeGlb(scene, glbOutputFile);
-            glbBytes = readGlb(glbOutputFile);
-        } else {
-            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-            this.gltfWriter.writeGlb(scene, byteArrayOutputStream);
-            glbBytes = byteArrayOutputStream.toByteArray();
+        GlbContent glbContent;
+        try {
+            glbContent = this.gltfWriter.createGlb(scene);
+            if (globalOptions.isGlb()) {
+                String glbFileName = nodeCode + ".glb";
+                GatheringFileWriter.write(outputRoot.resolve(glbFileName), glbContent.getBuffers());
+            }
+        } catch (IOException e) {
+            log.error(e.getMessage());
+            log.error("Failed to write glb file.");
+            return contentInfo;
         }
         scene = null;
 
@@ -167,49 +175,49 @@ public class Batched3DModel implements TileModel {
         try {
             String featureTableText = StringUtils.doPadding8Bytes(objectMapper.writeValueAsString(featureTable));
             featureTableJson = featureTableText;
-            featureTableJSONByteLength = featureTableText.length();
+            featureTableJSONByteLength = featureTableText.getBytes(StandardCharsets.UTF_8).length;
 
             String batchTableText = StringUtils.doPadding8Bytes(objectMapper.writeValueAsString(batchTableMap));
             batchTableJson = batchTableText;
-            batchTableJSONByteLength = batchTableText.length();
+            batchTableJSONByteLength = batchTableText.getBytes(StandardCharsets.UTF_8).length;
         } catch (JsonProcessingException e) {
             log.error(e.getMessage());
             throw new RuntimeException(e);
         }
 
-        int byteLength = 28 + featureTableJSONByteLength + batchTableJSONByteLength + glbBytes.length;
-
-        File b3dmOutputFile = outputRoot.resolve(nodeCode + "." + MAGIC).toFile();
-        try (LittleEndianDataOutputStream stream = new LittleEndianDataOutputStream(new BufferedOutputStream(new FileOutputStream(b3dmOutputFile)))) {
-            // 28-byte header (first 20 bytes)
-            stream.writePureText(MAGIC);
-            stream.writeInt(VERSION);
-            stream.writeInt(byteLength);
-            stream.writeInt(featureTableJSONByteLength);
-            int featureTableBinaryByteLength = 0;
-            stream.writeInt(featureTableBinaryByteLength);
-            // 28-byte header (next 8 bytes)
-            stream.writeInt(batchTableJSONByteLength);
-            int batchTableBinaryByteLength = 0;
-            stream.writeInt(batchTableBinaryByteLength);
-            stream.writePureText(featureTableJson);
-            stream.writePureText(batchTableJson);
-            // body
-            stream.write(glbBytes);
-            glbBytes = null;
-        } catch (Exception e) {
+        int byteLength = (int) (HEADER_SIZE + featureTableJSONByteLength + batchTableJSONByteLength + glbContent.getByteLength());
+
+        // 28-byte header
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        header.put(MAGIC.getBytes(StandardCharsets.UTF_8));
+        header.putInt(VERSION);
+        header.putInt(byteLength);
+        header.putInt(featureTableJSONByteLength);
+        int featureTableBinaryByteLength = 0;
+        header.putInt(featureTableBinaryByteLength);
+        header.putInt(batchTableJSONByteLength);
+        int batchTableBinaryByteLength = 0;
+        header.putInt(batchTableBinaryByteLength);
+        header.flip();
+
+        // the header, the tables and the glb chunks are streamed without copying the glb
+        ByteBuffer[] glbBuffers = glbContent.getBuffers();
+        ByteBuffer[] buffers = new ByteBuffer[3 + glbBuffers.length];
+        buffers[0] = header;
+        buffers[1] = ByteBuffer.wrap(featureTableJson.getBytes(StandardCharsets.UTF_8));
+        buffers[2] = ByteBuffer.wrap(batchTableJson.getBytes(StandardCharsets.UTF_8));
+        System.arraycopy(glbBuffers, 0, buffers, 3, glbBuffers.length);
+
+        Path b3dmOutputPath = outputRoot.resolve(nodeCode + "." + MAGIC);
+        try {
+            GatheringFileWriter.write(b3dmOutputPath, buffers);
+        } catch (IOException e) {
             log.error(e.getMessage());
         }
         return contentInfo;
     }
 
-    private byte[] readGlb(File glbOutputFile) {
-        ByteBuffer byteBuffer = readFile(glbOutputFile, true);
-        byte[] bytes = new byte[byteBuffer.remaining()];
-        byteBuffer.get(bytes);
-        return bytes;
-    }
-
     public void extract(File b3dm, File output) {
         byte[] glbBytes = null;
         try (LittleEndianDataInputStream stream = new LittleEndianDataInputStream(new BufferedInputStream(new FileInputStream(b3dm)))) {
@@ -248,28 +256,4 @@ public class Batched3DModel implements TileModel {
             throw new RuntimeException(e);
         }
     }
-
-    public ByteBuffer readFile(File file, boolean flip) {
-        Path path = file.toPath();
-        try (var is = new BufferedInputStream(Files.newInputStream(path))) {
-            int size = (int) Files.size(path);
-            ByteBuffer byteBuffer = BufferUtils.createByteBuffer(size);
-
-            int bufferSize = 8192;
-            bufferSize = Math.min(size, bufferSize);
-            byte[] buffer = new byte[bufferSize];
-            while (buffer.length > 0 && is.read(buffer) != -1) {
-                byteBuffer.put(buffer);
-                if (is.available() < bufferSize) {
-                    buffer = new byte[is.available()];
-                }
-            }
-            if (flip)
-                byteBuffer.flip();
-            return byteBuffer;
-        } catch (IOException e) {
-            log.error("FileUtils.readBytes: " + e.getMessage());
-        }
-        return null;
-    }
 }
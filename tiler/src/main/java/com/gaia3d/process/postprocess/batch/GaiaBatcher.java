@@ -31,104 +31,48 @@ public class GaiaBatcher {
     private final List<GaiaBufferDataSet> batchedDataSets = new ArrayList<>();
     private final List<GaiaMaterial> batchedMaterials = new ArrayList<>();
 
-    private void reassignMaterialsToGaiaBufferDataSetWithSameMaterial(List<GaiaBufferDataSet> dataSets, LevelOfDetail lod) {
-        int datasetsCount = dataSets.size();
-        Map<GaiaBufferDataSet, Boolean> visitedMap = new HashMap<>();
-        for (int i = 0; i < datasetsCount; i++) {
-            GaiaBufferDataSet dataSet = dataSets.get(i);
-            if (visitedMap.containsKey(dataSet)) {
-                continue;
-            }
-
+    /**
+     * Groups the equal materials by the material key, the dataSets of a group use the first material of the group.
+     */
+    private void reassignMaterialsToGaiaBufferDataSetWithSameMaterial(List<GaiaBufferDataSet> dataSets) {
+        Map<String, GaiaMaterial> materialsByKey = new HashMap<>();
+        for (GaiaBufferDataSet dataSet : dataSets) {
             int materialId = dataSet.getMaterialId();
-            if(materialId < 0 || materialId >= batchedMaterials.size()) {
+            if (materialId < 0 || materialId >= batchedMaterials.size()) {
                 log.error("MaterialId is out of range");
                 continue;
             }
-            GaiaMaterial material = batchedMaterials.get(dataSet.getMaterialId());
-            for (int  j= i + 1; j < datasetsCount; j++) {
-                GaiaBufferDataSet dataSet2 = dataSets.get(j);
-                GaiaMaterial material2 = batchedMaterials.get(dataSet2.getMaterialId());
-                if (visitedMap.containsKey(dataSet2)) {
-                    continue;
-                }
-                if (dataSet == dataSet2) continue;
-                if (material2 == material) {
-                    visitedMap.put(dataSet2, true); // set visited.***
-                    continue;
-                }
-                if (areEqualMaterials(material2, material, lod.getTextureScale())) {
-                    dataSet2.setMaterialId(material.getId());
-                    visitedMap.put(dataSet2, true); // set visited.***
-                }
+            GaiaMaterial material = batchedMaterials.get(materialId);
+            if (material == null) {
+                continue;
             }
+            GaiaMaterial masterMaterial = materialsByKey.computeIfAbsent(getMaterialKey(material), (key) -> material);
+            dataSet.setMaterialId(masterMaterial.getId());
         }
     }
 
-    /** compare two materials.***
-     * @param materialA
-     * @param materialB
-     * @param scaleFactor
+    /**
+     * Key of the equal materials.
+     * Materials with diffuse textures are equal by the texture fingerprints, the others by the diffuse color.
      */
-    private boolean areEqualMaterials(GaiaMaterial materialA, GaiaMaterial materialB, float scaleFactor) {
-        // This function determines if two materials are equal.
-        if (materialA == null && materialB == null) {
-            return true;
-        } else if (materialA == null || materialB == null) {
-            return false;
-        } else if (materialA == materialB) {
-            return true;
-        }
-
-        Map<TextureType, List<GaiaTexture>> textureMapA = materialA.getTextures();
-        Set<TextureType> keysA = textureMapA.keySet();
-        Map<TextureType, List<GaiaTexture>> textureMapB = materialB.getTextures();
-        Set<TextureType> keysB = textureMapB.keySet();
-
-        if (keysA.size() != keysB.size()) {
-            return false;
-        }
-
-
-        boolean hasTexture = false;
-        boolean hasTextureAreEquals = true;
-        for (TextureType key : keysA) {
-            if (key != TextureType.DIFFUSE) {
-                continue;
-            }
-            List<GaiaTexture> listTexturesA = textureMapA.get(key);
-            List<GaiaTexture> listTexturesB = materialB.getTextures().get(key);
-            if (listTexturesA == null && listTexturesB == null) {
-                continue;
-            } else if (listTexturesA == null || listTexturesB == null) {
-                hasTextureAreEquals = false;
-            }
-            if (listTexturesA.size() != listTexturesB.size()) {
-                hasTextureAreEquals = false;
-            }
-
-            for (int i = 0; i < listTexturesA.size() && i < listTexturesB.size(); i++) {
-                GaiaTexture textureA = listTexturesA.get(i);
-                GaiaTexture textureB = listTexturesB.get(i);
-                hasTexture = true;
-
-                // check if the fullPath of the textures are equal.***
-                String fullPathA = textureA.getFullPath();
-                String fullPathB = textureB.getFullPath();
-                if (fullPathA.equals(fullPathB)) {
-                    hasTextureAreEquals = true;
-                } else if (!textureA.isEqualTexture(textureB, scaleFactor)) {
-                    hasTextureAreEquals = false;
-                }
+    private String getMaterialKey(GaiaMaterial material) {
+        Map<TextureType, List<GaiaTexture>> textures = material.getTextures();
+        StringBuilder key = new StringBuilder();
+        key.append(textures.size());
+
+        List<GaiaTexture> diffuseTextures = textures.get(TextureType.DIFFUSE);
+        if (diffuseTextures == null || diffuseTextures.isEmpty()) {
+            Vector4d color = material.getDiffuseColor();
+            key.append(":color");
+            if (color != null) {
+                key.append(':').append(color.x).append(',').append(color.y).append(',').append(color.z).append(',').append(color.w);
             }
+            return key.toString();
         }
-
-        if (!hasTexture) {
-            Vector4d colorA = materialA.getDiffuseColor();
-            Vector4d colorB = materialB.getDiffuseColor();
-            return colorA.equals(colorB);
+        for (GaiaTexture texture : diffuseTextures) {
+            key.append(":texture:").append(texture.getFingerprint());
         }
-        return hasTextureAreEquals;
+        return key.toString();
     }
 
     private void setBatchId(List<GaiaSet> sets) {
@@ -224,7 +168,7 @@ public class GaiaBatcher {
         });
 
         // check if exist equal materials.***
-        reassignMaterialsToGaiaBufferDataSetWithSameMaterial(batchedDataSets, lod);
+        reassignMaterialsToGaiaBufferDataSetWithSameMaterial(batchedDataSets);
         List<GaiaMaterial> filteredMaterials = getMaterialsListOfBufferDataSet(batchedDataSets, new ArrayList<>());
 
         // batch dataSets with same material.***
@@ -33,13 +33,19 @@ public class GaiaTextureCoordinator {
     private final List<GaiaMaterial> materials;
     private final List<GaiaBufferDataSet> bufferDataSets;
     private final GlobalOptions globalOptions = GlobalOptions.getInstance();
+    private final AtlasPacker atlasPacker;
     private BufferedImage atlasImage;
 
 
     public GaiaTextureCoordinator(String name, List<GaiaMaterial> materials, List<GaiaBufferDataSet> bufferDataSets) {
+        this(name, materials, bufferDataSets, new MaxRectsAtlasPacker());
+    }
+
+    public GaiaTextureCoordinator(String name, List<GaiaMaterial> materials, List<GaiaBufferDataSet> bufferDataSets, AtlasPacker atlasPacker) {
         this.ATLAS_IMAGE = name;
         this.materials = materials;
         this.bufferDataSets = bufferDataSets;
+        this.atlasPacker = atlasPacker;
         this.initBatchImage(0, 0, BufferedImage.TYPE_INT_ARGB);
     }
 
@@ -65,133 +71,6 @@ public class GaiaTextureCoordinator {
         }
     }
 
-    private boolean intersectsRectangleAtlasingProcess(List<GaiaRectangle> listRectangles, GaiaRectangle rectangle) {
-        // this function returns true if the rectangle intersects with any existent rectangle of the listRectangles.***
-        boolean intersects = false;
-        double error = 10E-5;
-        for (GaiaRectangle existentRectangle : listRectangles) {
-            if (existentRectangle == rectangle) {
-                continue;
-            }
-            if (existentRectangle.intersects(rectangle, error)) {
-                intersects = true;
-                break;
-            }
-        }
-        return intersects;
-    }
-
-    private Vector2d getBestPositionMosaicInAtlas(List<GaiaBatchImage> listProcessSplitDataList, GaiaBatchImage splitDataToPutInMosaic) {
-        Vector2d resultVec = new Vector2d();
-
-        double currPosX, currPosY;
-        double candidatePosX = 0.0, candidatePosY = 0.0;
-        double currMosaicPerimeter, candidateMosaicPerimeter;
-        candidateMosaicPerimeter = -1.0;
-
-        //GaiaRectangle rect_toPutInMosaic = splitDataToPutInMosaic.getOriginBoundary();
-
-        // make existent rectangles list using listProcessSplitDataList.***
-        List<GaiaRectangle> listRectangles = new ArrayList<>();
-        GaiaRectangle beforeMosaicRectangle = new GaiaRectangle(0.0, 0.0, 0.0, 0.0);
-        int existentSplitDatasCount = listProcessSplitDataList.size();
-        for (int i = 0; i < existentSplitDatasCount; i++) {
-            GaiaBatchImage existentSplitData = listProcessSplitDataList.get(i);
-            GaiaRectangle batchedBoundary = existentSplitData.batchedBoundary;
-            if (i == 0) {
-                beforeMosaicRectangle.copyFrom(batchedBoundary);
-            } else {
-                beforeMosaicRectangle.addBoundingRectangle(batchedBoundary);
-            }
-            listRectangles.add(batchedBoundary);
-        }
-
-        // Now, try to find the best positions to put our rectangle.***
-        for (int i = 0; i < existentSplitDatasCount; i++) {
-            GaiaBatchImage existentSplitData = listProcessSplitDataList.get(i);
-            GaiaRectangle currRect = existentSplitData.batchedBoundary;
-
-            // for each existent rectangles, there are 2 possibles positions: leftUp & rightDown.***
-            // in this 2 possibles positions we put our leftDownCorner of rectangle of "splitDataToPutInMosaic".***
-
-            // If in some of two positions our rectangle intersects with any other rectangle, then discard.***
-            // If no intersects with others rectangles, then calculate the mosaic-perimeter.
-            // We choose the minor perimeter of the mosaic.***
-
-            double width = splitDataToPutInMosaic.getOriginBoundary().getWidth();
-            double height = splitDataToPutInMosaic.getOriginBoundary().getHeight();
-
-            // 1- leftUp corner.***
-            currPosX = currRect.getMinX();
-            currPosY = currRect.getMaxY();
-
-            // setup our rectangle.***
-            if (splitDataToPutInMosaic.batchedBoundary == null) {
-                splitDataToPutInMosaic.batchedBoundary = new GaiaRectangle(0.0, 0.0, 0.0, 0.0);
-            }
-            splitDataToPutInMosaic.batchedBoundary.setMinX(currPosX);
-            splitDataToPutInMosaic.batchedBoundary.setMinY(currPosY);
-            splitDataToPutInMosaic.batchedBoundary.setMaxX(currPosX + width);
-            splitDataToPutInMosaic.batchedBoundary.setMaxY(currPosY + height);
-
-            // put our rectangle into mosaic & check that no intersects with another rectangles.***
-            if (!this.intersectsRectangleAtlasingProcess(listRectangles, splitDataToPutInMosaic.batchedBoundary)) {
-                GaiaRectangle afterMosaicRectangle = new GaiaRectangle(0.0, 0.0, 0.0, 0.0);
-                afterMosaicRectangle.copyFrom(beforeMosaicRectangle);
-                afterMosaicRectangle.addBoundingRectangle(splitDataToPutInMosaic.batchedBoundary);
-
-                // calculate the perimeter of the mosaic.***
-                if (candidateMosaicPerimeter < 0.0) {
-                    candidateMosaicPerimeter = afterMosaicRectangle.getPerimeter();
-                    candidatePosX = currPosX;
-                    candidatePosY = currPosY;
-                } else {
-                    currMosaicPerimeter = afterMosaicRectangle.getPerimeter();
-                    if (candidateMosaicPerimeter > currMosaicPerimeter) {
-                        candidateMosaicPerimeter = currMosaicPerimeter;
-                        candidatePosX = currPosX;
-                        candidatePosY = currPosY;
-                    }
-                }
-            }
-
-            // 2- rightDown corner.***
-            currPosX = currRect.getMaxX();
-            currPosY = currRect.getMinY();
-
-            // setup our rectangle.***
-            splitDataToPutInMosaic.batchedBoundary.setMinX(currPosX);
-            splitDataToPutInMosaic.batchedBoundary.setMinY(currPosY);
-            splitDataToPutInMosaic.batchedBoundary.setMaxX(currPosX + width);
-            splitDataToPutInMosaic.batchedBoundary.setMaxY(currPosY + height);
-
-            // put our rectangle into mosaic & check that no intersects with another rectangles.***
-            if (!this.intersectsRectangleAtlasingProcess(listRectangles, splitDataToPutInMosaic.batchedBoundary)) {
-                GaiaRectangle afterMosaicRectangle = new GaiaRectangle(0.0, 0.0, 0.0, 0.0);
-                afterMosaicRectangle.copyFrom(beforeMosaicRectangle);
-                afterMosaicRectangle.addBoundingRectangle(splitDataToPutInMosaic.batchedBoundary);
-
-                // calculate the perimeter of the mosaic.***
-                if (candidateMosaicPerimeter < 0.0) {
-                    candidateMosaicPerimeter = afterMosaicRectangle.getPerimeter();
-                    candidatePosX = currPosX;
-                    candidatePosY = currPosY;
-                } else {
-                    currMosaicPerimeter = afterMosaicRectangle.getPerimeter();
-                    if (candidateMosaicPerimeter > currMosaicPerimeter) {
-                        candidateMosaicPerimeter = currMosaicPerimeter;
-                        candidatePosX = currPosX;
-                        candidatePosY = currPosY;
-                    }
-                }
-            }
-        }
-
-        resultVec.set(candidatePosX, candidatePosY);
-
-        return resultVec;
-    }
-
     private float modf(float value, Double intPart) {
         intPart = Math.floor(value);
         return (float) (value - intPart);
@@ -266,23 +145,7 @@ public class GaiaTextureCoordinator {
         Collections.reverse(splittedImages);
 
         // do the atlasing process.***
-        List<GaiaBatchImage> listProcessSplitDatas = new ArrayList<>();
-        for (int i = 0; i < splittedImages.size(); i++) {
-            GaiaBatchImage splittedImage = splittedImages.get(i);
-            GaiaRectangle originBoundary = splittedImage.getOriginBoundary();
-
-            if (i == 0) {
-                splittedImage.setBatchedBoundary(originBoundary);
-            } else {
-                // 1rst, find the best position for image into atlas.***
-                Vector2d bestPosition = this.getBestPositionMosaicInAtlas(listProcessSplitDatas, splittedImage);
-                splittedImage.batchedBoundary.setMinX(bestPosition.x);
-                splittedImage.batchedBoundary.setMinY(bestPosition.y);
-                splittedImage.batchedBoundary.setMaxX(bestPosition.x + originBoundary.getWidth());
-                splittedImage.batchedBoundary.setMaxY(bestPosition.y + originBoundary.getHeight());
-            }
-            listProcessSplitDatas.add(splittedImage);
-        }
+        atlasPacker.pack(splittedImages);
 
         int maxWidth = getMaxWidth(splittedImages);
         int maxHeight = getMaxHeight(splittedImages);
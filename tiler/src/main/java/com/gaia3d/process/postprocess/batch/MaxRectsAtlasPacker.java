@@ -0,0 +1,179 @@
+package com.gaia3d.process.postprocess.batch;
+
+import com.gaia3d.basic.geometry.GaiaRectangle;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * MaxRects atlas packer with the best short side fit heuristic.
+ * The free rectangles are kept in primitive arrays, only the rectangles split by a placement are pruned.
+ * The atlas starts from the square of the total image area and grows until every image fits.
+ */
+@Slf4j
+public class MaxRectsAtlasPacker implements AtlasPacker {
+    private static final double GROWTH_FACTOR = 1.03;
+
+    private int[] freeXs = new int[64];
+    private int[] freeYs = new int[64];
+    private int[] freeWidths = new int[64];
+    private int[] freeHeights = new int[64];
+    private int freeCount;
+
+    @Override
+    public void pack(List<GaiaBatchImage> images) {
+        int imageCount = images.size();
+        if (imageCount == 0) {
+            return;
+        }
+
+        int[] widths = new int[imageCount];
+        int[] heights = new int[imageCount];
+        long totalArea = 0;
+        int maxWidth = 0;
+        int maxHeight = 0;
+        for (int i = 0; i < imageCount; i++) {
+            GaiaRectangle originBoundary = images.get(i).getOriginBoundary();
+            widths[i] = (int) Math.ceil(originBoundary.getWidth());
+            heights[i] = (int) Math.ceil(originBoundary.getHeight());
+            totalArea += (long) widths[i] * heights[i];
+            maxWidth = Math.max(maxWidth, widths[i]);
+            maxHeight = Math.max(maxHeight, heights[i]);
+        }
+
+        int side = (int) Math.ceil(Math.sqrt(totalArea));
+        int binWidth = Math.max(maxWidth, side);
+        int binHeight = Math.max(maxHeight, side);
+        int[] xs = new int[imageCount];
+        int[] ys = new int[imageCount];
+        while (!tryPack(widths, heights, binWidth, binHeight, xs, ys)) {
+            if (binWidth <= binHeight) {
+                binWidth = (int) Math.ceil(binWidth * GROWTH_FACTOR);
+            } else {
+                binHeight = (int) Math.ceil(binHeight * GROWTH_FACTOR);
+            }
+        }
+        log.debug("[Atlas] packed {} images in {} x {}", imageCount, binWidth, binHeight);
+
+        for (int i = 0; i < imageCount; i++) {
+            GaiaBatchImage image = images.get(i);
+            GaiaRectangle originBoundary = image.getOriginBoundary();
+            image.setBatchedBoundary(new GaiaRectangle(xs[i], ys[i], xs[i] + originBoundary.getWidth(), ys[i] + originBoundary.getHeight()));
+        }
+    }
+
+    private boolean tryPack(int[] widths, int[] heights, int binWidth, int binHeight, int[] xs, int[] ys) {
+        freeCount = 0;
+        addFreeRectangle(0, 0, binWidth, binHeight);
+        for (int i = 0; i < widths.length; i++) {
+            int width = widths[i];
+            int height = heights[i];
+            int best = -1;
+            int bestShortSide = Integer.MAX_VALUE;
+            int bestLongSide = Integer.MAX_VALUE;
+            for (int f = 0; f < freeCount; f++) {
+                if (freeWidths[f] < width || freeHeights[f] < height) {
+                    continue;
+                }
+                int leftoverWidth = freeWidths[f] - width;
+                int leftoverHeight = freeHeights[f] - height;
+                int shortSide = Math.min(leftoverWidth, leftoverHeight);
+                int longSide = Math.max(leftoverWidth, leftoverHeight);
+                if (shortSide < bestShortSide || (shortSide == bestShortSide && longSide < bestLongSide)) {
+                    best = f;
+                    bestShortSide = shortSide;
+                    bestLongSide = longSide;
+                }
+            }
+            if (best < 0) {
+                return false;
+            }
+            xs[i] = freeXs[best];
+            ys[i] = freeYs[best];
+            placeRectangle(xs[i], ys[i], width, height);
+        }
+        return true;
+    }
+
+    /**
+     * Splits the free rectangles overlapped by the placed rectangle and prunes the new ones.
+     */
+    private void placeRectangle(int x, int y, int width, int height) {
+        int oldCount = freeCount;
+        for (int f = 0; f < oldCount; f++) {
+            int freeX = freeXs[f];
+            int freeY = freeYs[f];
+            int freeMaxX = freeX + freeWidths[f];
+            int freeMaxY = freeY + freeHeights[f];
+            if (x >= freeMaxX || x + width <= freeX || y >= freeMaxY || y + height <= freeY) {
+                continue;
+            }
+            if (x > freeX) {
+                addFreeRectangle(freeX, freeY, x - freeX, freeMaxY - freeY);
+            }
+            if (x + width < freeMaxX) {
+                addFreeRectangle(x + width, freeY, freeMaxX - x - width, freeMaxY - freeY);
+            }
+            if (y > freeY) {
+                addFreeRectangle(freeX, freeY, freeMaxX - freeX, y - freeY);
+            }
+            if (y + height < freeMaxY) {
+                addFreeRectangle(freeX, y + height, freeMaxX - freeX, freeMaxY - y - height);
+            }
+            freeWidths[f] = 0; // removed
+        }
+
+        // a new rectangle can be contained by any other, an old one only by a new one
+        for (int i = oldCount; i < freeCount; i++) {
+            if (freeWidths[i] == 0) {
+                continue;
+            }
+            for (int j = 0; j < freeCount; j++) {
+                if (i == j || freeWidths[j] == 0) {
+                    continue;
+                }
+                if (contains(j, i)) {
+                    freeWidths[i] = 0;
+                    break;
+                }
+                if (contains(i, j)) {
+                    freeWidths[j] = 0;
+                }
+            }
+        }
+
+        int count = 0;
+        for (int f = 0; f < freeCount; f++) {
+            if (freeWidths[f] != 0) {
+                freeXs[count] = freeXs[f];
+                freeYs[count] = freeYs[f];
+                freeWidths[count] = freeWidths[f];
+                freeHeights[count] = freeHeights[f];
+                count++;
+            }
+        }
+        freeCount = count;
+    }
+
+    private boolean contains(int outer, int inner) {
+        return freeXs[inner] >= freeXs[outer] && freeYs[inner] >= freeYs[outer]
+                && freeXs[inner] + freeWidths[inner] <= freeXs[outer] + freeWidths[outer]
+                && freeYs[inner] + freeHeights[inner] <= freeYs[outer] + freeHeights[outer];
+    }
+
+    private void addFreeRectangle(int x, int y, int width, int height) {
+        if (freeCount == freeXs.length) {
+            int capacity = freeCount * 2;
+            freeXs = Arrays.copyOf(freeXs, capacity);
+            freeYs = Arrays.copyOf(freeYs, capacity);
+            freeWidths = Arrays.copyOf(freeWidths, capacity);
+            freeHeights = Arrays.copyOf(freeHeights, capacity);
+        }
+        freeXs[freeCount] = x;
+        freeYs[freeCount] = y;
+        freeWidths[freeCount] = width;
+        freeHeights[freeCount] = height;
+        freeCount++;
+    }
+}
@@ -29,6 +29,10 @@ public class GaiaFeatureTable {
     private Normal normalRight;
     @JsonProperty("NORMAL_UP")
     private Normal normalUp;
+    @JsonProperty("NORMAL_RIGHT_OCT32P")
+    private Normal normalRightOct32p;
+    @JsonProperty("NORMAL_UP_OCT32P")
+    private Normal normalUpOct32p;
     @JsonProperty("SCALE")
     private Scale scale;
 
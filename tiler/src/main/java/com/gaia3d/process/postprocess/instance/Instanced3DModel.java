@@ -14,35 +14,47 @@ import com.gaia3d.converter.kml.KmlInfo;
 import com.gaia3d.process.postprocess.TileModel;
 import com.gaia3d.process.postprocess.batch.GaiaBatchTableMap;
 import com.gaia3d.process.postprocess.batch.GaiaBatcher;
-import com.gaia3d.process.postprocess.pointcloud.Position;
 import com.gaia3d.process.tileprocess.tile.ContentInfo;
 import com.gaia3d.process.tileprocess.tile.TileInfo;
 import com.gaia3d.util.GeometryUtils;
 import com.gaia3d.util.GlobeUtils;
 import com.gaia3d.util.StringUtils;
-import com.gaia3d.io.LittleEndianDataOutputStream;
+import com.gaia3d.io.GatheringFileWriter;
 import lombok.extern.slf4j.Slf4j;
 import org.joml.Matrix3d;
 import org.joml.Matrix4d;
 import org.joml.Vector3d;
 
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 public class Instanced3DModel implements TileModel {
     private static final String MAGIC = "i3dm";
     private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
     private final GltfWriter gltfWriter;
+    /* the instance glb of each model and LOD, created once by the first content that needs it */
+    private final Map<Path, Future<File>> instances = new ConcurrentHashMap<>();
 
     public Instanced3DModel() {
-        this.gltfWriter = new GltfWriter();
+        GlobalOptions globalOptions = GlobalOptions.getInstance();
+        File contentDirectory = globalOptions.getOutputPath() == null ? null : new File(globalOptions.getOutputPath(), "data");
+        this.gltfWriter = new GltfWriter(globalOptions.getImageType(), contentDirectory);
+        this.gltfWriter.setQuantized(globalOptions.isQuantization());
+        this.gltfWriter.setMeshoptCompressed(globalOptions.isMeshopt());
     }
 
     @Override
@@ -58,7 +70,7 @@ public class Instanced3DModel implements TileModel {
         List<TileInfo> tileInfos = contentInfo.getTileInfos();
         int instanceLength = tileInfos.size();
 
-        float[] positions = new float[instanceLength * 3];
+        double[] positions = new double[instanceLength * 3];
         float[] normalUps = new float[instanceLength * 3];
         float[] normalRights = new float[instanceLength * 3];
         float[] scales = new float[instanceLength];
@@ -118,9 +130,9 @@ public class Instanced3DModel implements TileModel {
             // scale
             double scale = kmlInfo.getScaleZ();
 
-            positions[positionIndex.getAndIncrement()] = (float) localPositionYUp.x;
-            positions[positionIndex.getAndIncrement()] = (float) localPositionYUp.y;
-            positions[positionIndex.getAndIncrement()] = (float) localPositionYUp.z;
+            positions[positionIndex.getAndIncrement()] = localPositionYUp.x;
+            positions[positionIndex.getAndIncrement()] = localPositionYUp.y;
+            positions[positionIndex.getAndIncrement()] = localPositionYUp.z;
 
             /*positions[positionIndex.getAndIncrement()] = (float) 0;
             positions[positionIndex.getAndIncrement()] = (float) 0;
@@ -146,24 +158,13 @@ public class Instanced3DModel implements TileModel {
         instanced3DModelBinary.setScales(scales);
 
         GlobalOptions globalOptions = GlobalOptions.getInstance();
+        instanced3DModelBinary.setQuantized(globalOptions.isQuantization());
         File outputFile = new File(globalOptions.getOutputPath());
         Path outputRoot = outputFile.toPath().resolve("data");
         if (!outputRoot.toFile().exists() && outputRoot.toFile().mkdir()) {
             log.info("[Create][data] Created output data directory:", outputRoot);
         }
 
-        byte[] positionBytes = instanced3DModelBinary.getPositionBytes();
-        byte[] normalUpBytes = instanced3DModelBinary.getNormalUpBytes();
-        byte[] normalRightBytes = instanced3DModelBinary.getNormalRightBytes();
-        byte[] scaleBytes = instanced3DModelBinary.getScaleBytes();
-
-        byte[] featureTableBytes = new byte[positionBytes.length + normalUpBytes.length + normalRightBytes.length + scaleBytes.length];
-        System.arraycopy(positionBytes, 0, featureTableBytes, 0, positionBytes.length);
-        System.arraycopy(normalUpBytes, 0, featureTableBytes, positionBytes.length, normalUpBytes.length);
-        System.arraycopy(normalRightBytes, 0, featureTableBytes, positionBytes.length + normalUpBytes.length, normalRightBytes.length);
-        System.arraycopy(scaleBytes, 0, featureTableBytes, positionBytes.length + normalUpBytes.length + normalRightBytes.length, scaleBytes.length);
-
-
         GaiaScene scene = tileInfos.get(0).getScene();
         GaiaFeatureTable featureTable = new GaiaFeatureTable();
         if (!globalOptions.isClassicTransformMatrix()) {
@@ -189,10 +190,7 @@ public class Instanced3DModel implements TileModel {
 
         featureTable.setInstancesLength(instanceLength);
         featureTable.setEastNorthUp(false);
-        featureTable.setPosition(new Position(0));
-        featureTable.setNormalUp(new Normal(positionBytes.length));
-        featureTable.setNormalRight(new Normal(positionBytes.length + normalUpBytes.length));
-        featureTable.setScale(new Scale(positionBytes.length + normalUpBytes.length + normalRightBytes.length));
+        ByteBuffer featureTableBinary = instanced3DModelBinary.writeFeatureTableBinary(featureTable);
 
         GaiaBatchTableMap<String, List<String>> batchTableMap = new GaiaBatchTableMap<>();
         AtomicInteger finalBatchIdIndex = new AtomicInteger();
@@ -242,49 +240,84 @@ public class Instanced3DModel implements TileModel {
             log.error(e.getMessage());
             throw new RuntimeException(e);
         }
-        featureTableJSONByteLength = featureTableJson.length();
-        int featureTableBinaryByteLength = featureTableBytes.length;
+        byte[] featureTableJsonBytes = featureTableJson.getBytes(StandardCharsets.UTF_8);
+        featureTableJSONByteLength = featureTableJsonBytes.length;
+        int featureTableBinaryByteLength = featureTableBinary.remaining();
 
-        batchTableJSONByteLength = batchTableJson.length();
+        byte[] batchTableJsonBytes = batchTableJson.getBytes(StandardCharsets.UTF_8);
+        batchTableJSONByteLength = batchTableJsonBytes.length;
         int batchTableBinaryByteLength = 0;
 
         String lod = contentInfo.getLod().toString();
-        String gltfUrl = "instance-" + lod + ".glb";
-        int byteLength = 32 + featureTableJSONByteLength + featureTableBinaryByteLength + batchTableJSONByteLength + batchTableBinaryByteLength + gltfUrl.length();
+        String gltfUrl = getInstanceName(tileInfos.get(0).getScene()) + "-" + lod + ".glb";
+        int byteLength = HEADER_SIZE + featureTableJSONByteLength + featureTableBinaryByteLength + batchTableJSONByteLength + batchTableBinaryByteLength + gltfUrl.length();
 
         File gltfOutputFile = outputRoot.resolve(gltfUrl).toFile();
-        if (!gltfOutputFile.exists()) {
-            createInstance(gltfOutputFile, contentInfo, tileInfos.get(0));
-        }
-
-        File b3dmOutputFile = outputRoot.resolve(nodeCode + "." + MAGIC).toFile();
-        try (LittleEndianDataOutputStream stream = new LittleEndianDataOutputStream(new BufferedOutputStream(new FileOutputStream(b3dmOutputFile)))) {
-            // 32-byte header (first 20 bytes)
-            stream.writePureText(MAGIC);
-            stream.writeInt(VERSION);
-            stream.writeInt(byteLength);
-            stream.writeInt(featureTableJSONByteLength);
-            stream.writeInt(featureTableBinaryByteLength);
-
-            // 32-byte header (next 12 bytes)
-            stream.writeInt(batchTableJSONByteLength);
-            //stream.writeInt(0);
-            stream.writeInt(batchTableBinaryByteLength);
-            stream.writeInt(gltfFormat);
-
-            // body
-            stream.writePureText(featureTableJson);
-            stream.write(featureTableBytes);
-            stream.writePureText(batchTableJson);
-            //stream.write(new byte[0]);
-            stream.writePureText(gltfUrl);// padding
-        } catch (Exception e) {
+        getOrCreateInstance(gltfOutputFile, contentInfo, tileInfos.get(0));
+
+        // 32-byte header
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        header.put(MAGIC.getBytes(StandardCharsets.UTF_8));
+        header.putInt(VERSION);
+        header.putInt(byteLength);
+        header.putInt(featureTableJSONByteLength);
+        header.putInt(featureTableBinaryByteLength);
+        header.putInt(batchTableJSONByteLength);
+        header.putInt(batchTableBinaryByteLength);
+        header.putInt(gltfFormat);
+        header.flip();
+
+        // the feature table binary is written in one buffer, streamed without copying it
+        Path i3dmOutputPath = outputRoot.resolve(nodeCode + "." + MAGIC);
+        try {
+            GatheringFileWriter.write(i3dmOutputPath, header,
+                    ByteBuffer.wrap(featureTableJsonBytes),
+                    featureTableBinary,
+                    ByteBuffer.wrap(batchTableJsonBytes),
+                    ByteBuffer.wrap(gltfUrl.getBytes(StandardCharsets.UTF_8)));
+        } catch (IOException e) {
             log.error(e.getMessage());
         }
         return contentInfo;
     }
 
-    private synchronized void createInstance(File file, ContentInfo contentInfo, TileInfo tileInfo) {
+    /**
+     * The glb name of an instance model, unique per model file.
+     */
+    protected static String getInstanceName(GaiaScene scene) {
+        Path originalPath = scene.getOriginalPath();
+        if (originalPath == null || originalPath.getFileName() == null) {
+            return "instance";
+        }
+        String fileName = originalPath.getFileName().toString();
+        int extensionIndex = fileName.lastIndexOf('.');
+        String modelName = (extensionIndex > 0 ? fileName.substring(0, extensionIndex) : fileName).replaceAll("[^A-Za-z0-9_-]", "_");
+        int pathHash = originalPath.toAbsolutePath().normalize().toString().hashCode();
+        return "instance-" + modelName + "-" + String.format("%08x", pathHash);
+    }
+
+    /**
+     * Creates the instance glb once, the contents of the same model and LOD wait for it only while it is created.
+     */
+    private File getOrCreateInstance(File file, ContentInfo contentInfo, TileInfo tileInfo) {
+        FutureTask<File> task = new FutureTask<>(() -> createInstance(file, contentInfo, tileInfo));
+        Future<File> instance = instances.putIfAbsent(file.toPath(), task);
+        if (instance == null) {
+            instance = task;
+            task.run();
+        }
+        try {
+            return instance.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private File createInstance(File file, ContentInfo contentInfo, TileInfo tileInfo) {
         boolean isVoxelLod = GlobalOptions.getInstance().isVoxelLod();
 
         try {
@@ -334,5 +367,6 @@ public class Instanced3DModel implements TileModel {
             log.error(e.getMessage());
             throw new RuntimeException(e);
         }
+        return file;
     }
 }
@@ -1,63 +1,165 @@
 package com.gaia3d.process.postprocess.instance;
 
+import com.gaia3d.process.postprocess.pointcloud.Position;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The per instance properties of an i3dm, written as the binary body of the feature table.
+ * The quantized layout uses POSITION_QUANTIZED over the bounds of the instances,
+ * NORMAL_UP_OCT32P / NORMAL_RIGHT_OCT32P and omits SCALE when every instance has the unit scale.
+ */
 @Slf4j
 @Setter
 @Getter
 public class Instanced3DModelBinary {
-    private float[] positions;
+    private static final int QUANTIZED_RANGE = 65535;
+
+    private double[] positions;
     private float[] normalUps;
     private float[] normalRights;
     private float[] scales;
+    private boolean quantized = false;
 
-    public byte[] getPositionBytes() {
-        byte[] positionsBytes = new byte[positions.length * 4];
-        for (int i = 0; i < positions.length; i++) {
-            int intBits = Float.floatToIntBits(positions[i]);
-            positionsBytes[i * 4] = (byte) (intBits & 0xff);
-            positionsBytes[i * 4 + 1] = (byte) ((intBits >> 8) & 0xff);
-            positionsBytes[i * 4 + 2] = (byte) ((intBits >> 16) & 0xff);
-            positionsBytes[i * 4 + 3] = (byte) ((intBits >> 24) & 0xff);
+    /**
+     * Sets the binary semantics of the feature table and writes their values, one after another, into one buffer.
+     * Each semantic starts aligned to its component size and the body is padded to 8 bytes.
+     */
+    public ByteBuffer writeFeatureTableBinary(GaiaFeatureTable featureTable) {
+        int instancesLength = scales.length;
+        boolean hasScale = !quantized || !isUnitScale();
+        int positionByteLength = instancesLength * 3 * (quantized ? 2 : 4);
+        int normalByteLength = instancesLength * (quantized ? 2 * 2 : 3 * 4);
+        int scaleByteLength = hasScale ? instancesLength * 4 : 0;
+
+        // the float scales go first, so every semantic stays aligned to its component size.***
+        int scaleOffset = 0;
+        int positionOffset = scaleOffset + scaleByteLength;
+        int normalUpOffset = positionOffset + positionByteLength;
+        int normalRightOffset = normalUpOffset + normalByteLength;
+        int byteLength = padding8Bytes(normalRightOffset + normalByteLength);
+
+        ByteBuffer buffer = ByteBuffer.allocate(byteLength);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (hasScale) {
+            for (float scale : scales) {
+                buffer.putFloat(scale);
+            }
+            featureTable.setScale(new Scale(scaleOffset));
+        }
+        if (quantized) {
+            putQuantizedPositions(buffer, featureTable);
+            featureTable.setPositionQuantized(new Position(positionOffset));
+            putOctEncodedNormals(buffer, normalUps);
+            featureTable.setNormalUpOct32p(new Normal(normalUpOffset));
+            putOctEncodedNormals(buffer, normalRights);
+            featureTable.setNormalRightOct32p(new Normal(normalRightOffset));
+        } else {
+            for (double position : positions) {
+                buffer.putFloat((float) position);
+            }
+            featureTable.setPosition(new Position(positionOffset));
+            for (float normalUp : normalUps) {
+                buffer.putFloat(normalUp);
+            }
+            featureTable.setNormalUp(new Normal(normalUpOffset));
+            for (float normalRight : normalRights) {
+                buffer.putFloat(normalRight);
+            }
+            featureTable.setNormalRight(new Normal(normalRightOffset));
         }
-        return positionsBytes;
+        buffer.position(0);
+        return buffer;
     }
 
-    public byte[] getNormalUpBytes() {
-        byte[] normalUpsBytes = new byte[normalUps.length * 4];
-        for (int i = 0; i < normalUps.length; i++) {
-            int intBits = Float.floatToIntBits(normalUps[i]);
-            normalUpsBytes[i * 4] = (byte) (intBits & 0xff);
-            normalUpsBytes[i * 4 + 1] = (byte) ((intBits >> 8) & 0xff);
-            normalUpsBytes[i * 4 + 2] = (byte) ((intBits >> 16) & 0xff);
-            normalUpsBytes[i * 4 + 3] = (byte) ((intBits >> 24) & 0xff);
+    private boolean isUnitScale() {
+        for (float scale : scales) {
+            if (scale != 1.0f) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * POSITION = POSITION_QUANTIZED * QUANTIZED_VOLUME_SCALE / 65535.0 + QUANTIZED_VOLUME_OFFSET
+     */
+    private void putQuantizedPositions(ByteBuffer buffer, GaiaFeatureTable featureTable) {
+        double[] min = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
+        double[] max = {-Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        for (int i = 0; i < positions.length; i++) {
+            min[i % 3] = Math.min(min[i % 3], positions[i]);
+            max[i % 3] = Math.max(max[i % 3], positions[i]);
+        }
+        float[] quantizedVolumeOffset = new float[3];
+        float[] quantizedVolumeScale = new float[3];
+        for (int axis = 0; axis < 3; axis++) {
+            if (positions.length == 0) {
+                break;
+            }
+            quantizedVolumeOffset[axis] = (float) min[axis];
+            quantizedVolumeScale[axis] = (float) (max[axis] - quantizedVolumeOffset[axis]);
         }
-        return normalUpsBytes;
+        for (int i = 0; i < positions.length; i++) {
+            int axis = i % 3;
+            double volumeScale = quantizedVolumeScale[axis];
+            double quantizedPosition = volumeScale > 0.0 ? (positions[i] - quantizedVolumeOffset[axis]) / volumeScale * QUANTIZED_RANGE : 0.0;
+            buffer.putShort((short) clamp((int) Math.round(quantizedPosition), 0, QUANTIZED_RANGE));
+        }
+        featureTable.setQuantizedVolumeOffset(quantizedVolumeOffset);
+        featureTable.setQuantizedVolumeScale(quantizedVolumeScale);
     }
 
-    public byte[] getNormalRightBytes() {
-        byte[] normalRightsBytes = new byte[normalRights.length * 4];
-        for (int i = 0; i < normalRights.length; i++) {
-            int intBits = Float.floatToIntBits(normalRights[i]);
-            normalRightsBytes[i * 4] = (byte) (intBits & 0xff);
-            normalRightsBytes[i * 4 + 1] = (byte) ((intBits >> 8) & 0xff);
-            normalRightsBytes[i * 4 + 2] = (byte) ((intBits >> 16) & 0xff);
-            normalRightsBytes[i * 4 + 3] = (byte) ((intBits >> 24) & 0xff);
+    private void putOctEncodedNormals(ByteBuffer buffer, float[] normals) {
+        int[] encoded = new int[2];
+        for (int i = 0; i < normals.length; i += 3) {
+            octEncode(normals[i], normals[i + 1], normals[i + 2], encoded);
+            buffer.putShort((short) encoded[0]);
+            buffer.putShort((short) encoded[1]);
         }
-        return normalRightsBytes;
     }
 
-    public byte[] getScaleBytes() {
-        byte[] scalesBytes = new byte[scales.length * 4];
-        for (int i = 0; i < scales.length; i++) {
-            int intBits = Float.floatToIntBits(scales[i]);
-            scalesBytes[i * 4] = (byte) (intBits & 0xff);
-            scalesBytes[i * 4 + 1] = (byte) ((intBits >> 8) & 0xff);
-            scalesBytes[i * 4 + 2] = (byte) ((intBits >> 16) & 0xff);
-            scalesBytes[i * 4 + 3] = (byte) ((intBits >> 24) & 0xff);
+    /**
+     * Encodes a unit vector into two unsigned 16-bit values of the octahedron projection.
+     */
+    public static int[] octEncode(double x, double y, double z, int[] result) {
+        double length = Math.abs(x) + Math.abs(y) + Math.abs(z);
+        if (length == 0.0) {
+            result[0] = QUANTIZED_RANGE / 2;
+            result[1] = QUANTIZED_RANGE / 2;
+            return result;
+        }
+        double octX = x / length;
+        double octY = y / length;
+        if (z < 0.0) {
+            double foldedX = (1.0 - Math.abs(octY)) * signNotZero(octX);
+            double foldedY = (1.0 - Math.abs(octX)) * signNotZero(octY);
+            octX = foldedX;
+            octY = foldedY;
         }
-        return scalesBytes;
+        result[0] = toUnsignedNormalized(octX);
+        result[1] = toUnsignedNormalized(octY);
+        return result;
+    }
+
+    private static int toUnsignedNormalized(double value) {
+        double clamped = Math.max(-1.0, Math.min(1.0, value));
+        return (int) Math.round((clamped * 0.5 + 0.5) * QUANTIZED_RANGE);
+    }
+
+    private static double signNotZero(double value) {
+        return value < 0.0 ? -1.0 : 1.0;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static int padding8Bytes(int byteLength) {
+        return (byteLength + 7) & ~7;
     }
 }
@@ -1,13 +1,18 @@
 package com.gaia3d.process.postprocess.pointcloud;
 
-import com.gaia3d.io.LittleEndianDataOutputStream;
+import com.gaia3d.io.GatheringFileWriter;
 import lombok.extern.slf4j.Slf4j;
 
-import java.io.BufferedOutputStream;
-import java.io.File;
-import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.List;
 
+/**
+ * Writes the pnts file, the feature table binary parts are streamed one after another without concatenating them.
+ */
 @Slf4j
 public class PointCloudBinaryWriter {
     private static final String MAGIC = "pnts";
@@ -17,45 +22,53 @@ public class PointCloudBinaryWriter {
     private final String featureTableJson;
     private final String batchTableJson;
 
-    private final byte[] featureTableBytes;
+    private final List<byte[]> featureTableBinaries;
     private final byte[] batchTableBytes;
 
-    public PointCloudBinaryWriter(String featureTable, String batchTable, byte[] featureTableBytes, byte[] batchTableBytes) {
+    public PointCloudBinaryWriter(String featureTable, String batchTable, List<byte[]> featureTableBinaries, byte[] batchTableBytes) {
         this.featureTableJson = featureTable;
         this.batchTableJson = batchTable;
-        this.featureTableBytes = featureTableBytes;
+        this.featureTableBinaries = featureTableBinaries;
         this.batchTableBytes = batchTableBytes;
     }
 
     public void write(Path outputRoot, String nodeCode) {
-        int featureTableJSONByteLength = featureTableJson.length();
-        int batchTableJSONByteLength = batchTableJson.length();
+        byte[] featureTableJsonBytes = featureTableJson.getBytes(StandardCharsets.UTF_8);
+        byte[] batchTableJsonBytes = batchTableJson.getBytes(StandardCharsets.UTF_8);
+        int featureTableJSONByteLength = featureTableJsonBytes.length;
+        int batchTableJSONByteLength = batchTableJsonBytes.length;
 
-        int featureTableBinaryByteLength = featureTableBytes.length;
+        int featureTableBinaryByteLength = featureTableBinaries.stream().mapToInt((bytes) -> bytes.length).sum();
         int batchTableBinaryByteLength = batchTableBytes.length;
 
         int byteLength = HEADER_SIZE + featureTableJSONByteLength + batchTableJSONByteLength + featureTableBinaryByteLength + batchTableBinaryByteLength;
 
-        File b3dmOutputFile = outputRoot.resolve(nodeCode + "." + MAGIC).toFile();
-        try (LittleEndianDataOutputStream stream = new LittleEndianDataOutputStream(new BufferedOutputStream(new FileOutputStream(b3dmOutputFile)))) {
-            // 28-byte header (first 20 bytes)
-            stream.writePureText(MAGIC);
-            stream.writeInt(VERSION);
-            stream.writeInt(byteLength);
-            stream.writeInt(featureTableJSONByteLength);
-            stream.writeInt(featureTableBinaryByteLength);
-
-            // 28-byte header (next 8 bytes)
-            stream.writeInt(batchTableJSONByteLength);
-            stream.writeInt(batchTableBinaryByteLength);
-
-            // body
-            stream.writePureText(featureTableJson);
-            stream.write(featureTableBytes);
-
-            stream.writePureText(batchTableJson);
-            stream.write(batchTableBytes);
-        } catch (Exception e) {
+        // 28-byte header
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        header.put(MAGIC.getBytes(StandardCharsets.UTF_8));
+        header.putInt(VERSION);
+        header.putInt(byteLength);
+        header.putInt(featureTableJSONByteLength);
+        header.putInt(featureTableBinaryByteLength);
+        header.putInt(batchTableJSONByteLength);
+        header.putInt(batchTableBinaryByteLength);
+        header.flip();
+
+        ByteBuffer[] buffers = new ByteBuffer[4 + featureTableBinaries.size()];
+        int index = 0;
+        buffers[index++] = header;
+        buffers[index++] = ByteBuffer.wrap(featureTableJsonBytes);
+        for (byte[] featureTableBinary : featureTableBinaries) {
+            buffers[index++] = ByteBuffer.wrap(featureTableBinary);
+        }
+        buffers[index++] = ByteBuffer.wrap(batchTableJsonBytes);
+        buffers[index] = ByteBuffer.wrap(batchTableBytes);
+
+        Path pntsOutputPath = outputRoot.resolve(nodeCode + "." + MAGIC);
+        try {
+            GatheringFileWriter.write(pntsOutputPath, buffers);
+        } catch (IOException e) {
             log.error(e.getMessage());
         }
     }
@@ -7,14 +7,15 @@ import com.fasterxml.jackson.core.json.JsonWriteFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gaia3d.basic.geometry.GaiaBoundingBox;
 import com.gaia3d.basic.model.GaiaScene;
+import com.gaia3d.basic.pointcloud.GaiaPointBuffer;
 import com.gaia3d.basic.pointcloud.GaiaPointCloud;
-import com.gaia3d.basic.model.GaiaVertex;
 import com.gaia3d.command.mago.GlobalOptions;
 import com.gaia3d.process.postprocess.TileModel;
 import com.gaia3d.process.postprocess.batch.GaiaBatchTable;
 import com.gaia3d.process.postprocess.instance.GaiaFeatureTable;
 import com.gaia3d.process.tileprocess.tile.ContentInfo;
 import com.gaia3d.process.tileprocess.tile.TileInfo;
+import com.gaia3d.util.CoordinateTransformer;
 import com.gaia3d.util.GlobeUtils;
 import com.gaia3d.util.StringUtils;
 import lombok.RequiredArgsConstructor;
@@ -22,13 +23,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.joml.Matrix3d;
 import org.joml.Matrix4d;
 import org.joml.Vector3d;
-import org.locationtech.proj4j.BasicCoordinateTransform;
 import org.locationtech.proj4j.CoordinateReferenceSystem;
-import org.locationtech.proj4j.InvalidValueException;
 import org.locationtech.proj4j.ProjCoordinate;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -54,7 +54,7 @@ public class PointCloudModel implements TileModel {
         tileInfos.forEach((tileInfo) -> {
             GaiaPointCloud pointCloud = tileInfo.getPointCloud();
             //pointCloud.maximizeTemp();
-            //List<GaiaVertex> gaiaVertex = pointCloud.getVertices();
+            //GaiaPointBuffer points = pointCloud.getPoints();
             vertexCount.addAndGet(pointCloud.getVertexCount());
             boundingBox.addBoundingBox(pointCloud.getGaiaBoundingBox());
             //pointCloud.minimizeTemp();
@@ -63,7 +63,7 @@ public class PointCloudModel implements TileModel {
         Vector3d originalMinPosition = boundingBox.getMinPosition();
         Vector3d originalMaxPosition = boundingBox.getMaxPosition();
         CoordinateReferenceSystem source = globalOptions.getCrs();
-        BasicCoordinateTransform transformer = new BasicCoordinateTransform(source, GlobeUtils.wgs84);
+        CoordinateTransformer transformer = CoordinateTransformer.getInstance(source);
 
         ProjCoordinate transformedMinCoordinate = transformer.transform(new ProjCoordinate(originalMinPosition.x, originalMinPosition.y, originalMinPosition.z), new ProjCoordinate());
         Vector3d minPosition = new Vector3d(transformedMinCoordinate.x, transformedMinCoordinate.y, originalMinPosition.z);
@@ -97,54 +97,49 @@ public class PointCloudModel implements TileModel {
         Matrix4d rotationMatrix4d = new Matrix4d(rotationMatrix3d);
 
         GaiaBoundingBox quantizedVolume = new GaiaBoundingBox();
-        AtomicInteger mainIndex = new AtomicInteger();
-        AtomicInteger positionIndex = new AtomicInteger();
-        AtomicInteger colorIndex= new AtomicInteger();
-        AtomicInteger batchIdIndex= new AtomicInteger();
-        tileInfos.forEach((tileInfo) -> {
+        Vector3d localPosition = new Vector3d();
+        int mainIndex = 0;
+        for (TileInfo tileInfo : tileInfos) {
             GaiaPointCloud pointCloud = tileInfo.getPointCloud();
             pointCloud.maximize();
-            List<GaiaVertex> gaiaVertex = pointCloud.getVertices();
-            gaiaVertex.forEach((vertex) -> {
-                int index = mainIndex.getAndIncrement();
-                if (index > vertexLength) {
-                    log.error("Index out of bound");
-                    return;
-                }
+            GaiaPointBuffer points = pointCloud.getPoints();
+            int pointCount = points.size();
 
-                Vector3d position = vertex.getPosition();
-                Vector3d wgs84Position = new Vector3d();
-                try {
-                    ProjCoordinate transformedCoordinate = transformer.transform(new ProjCoordinate(position.x, position.y, position.z), new ProjCoordinate());
-                    wgs84Position = new Vector3d(transformedCoordinate.x, transformedCoordinate.y, position.z);
-                } catch (InvalidValueException e) {
-                    log.debug("Invalid value exception", e);
-                }
+            // source crs to cartesian (ECEF) in one batch
+            double[] worldPositions = new double[pointCount * 3];
+            System.arraycopy(points.getPositions(), 0, worldPositions, 0, worldPositions.length);
+            transformer.transformToCartesian(worldPositions);
 
-                Vector3d positionWorldCoordinate = GlobeUtils.geographicToCartesianWgs84(wgs84Position);
-                Vector3d localPosition = positionWorldCoordinate.mulPosition(transformMatrixInv, new Vector3d());
-                float batchId = vertex.getBatchId();
+            for (int i = 0; i < pointCount; i++) {
+                int index = mainIndex++;
+                if (index >= vertexLength) {
+                    log.error("Index out of bound");
+                    break;
+                }
 
-                localPosition.mulPosition(rotationMatrix4d, localPosition);
+                int worldIndex = i * 3;
+                localPosition.set(worldPositions[worldIndex], worldPositions[worldIndex + 1], worldPositions[worldIndex + 2]);
+                localPosition.mulPosition(transformMatrixInv);
+                localPosition.mulPosition(rotationMatrix4d);
 
                 float x = (float) localPosition.x;
                 float y = (float) -localPosition.z;
                 float z = (float) localPosition.y;
-                quantizedVolume.addPoint(new Vector3d(x, y, z));
+                quantizedVolume.addPoint(x, y, z);
 
-                positions[positionIndex.getAndIncrement()] = x;
-                positions[positionIndex.getAndIncrement()] = y;
-                positions[positionIndex.getAndIncrement()] = z;
+                int positionIndex = index * 3;
+                positions[positionIndex] = x;
+                positions[positionIndex + 1] = y;
+                positions[positionIndex + 2] = z;
 
-                byte[] color = vertex.getColor();
-                colors[colorIndex.getAndIncrement()] = color[0];
-                colors[colorIndex.getAndIncrement()] = color[1];
-                colors[colorIndex.getAndIncrement()] = color[2];
+                colors[positionIndex] = points.getRed(i);
+                colors[positionIndex + 1] = points.getGreen(i);
+                colors[positionIndex + 2] = points.getBlue(i);
 
-                batchIds[batchIdIndex.getAndIncrement()] = batchId;
-            });
+                batchIds[index] = 0;
+            }
             pointCloud.minimizeTemp();
-        });
+        }
 
         // quantization
         Vector3d quantizationScale = calcQuantizedVolumeScale(quantizedVolume);
@@ -212,9 +207,9 @@ public class PointCloudModel implements TileModel {
 
         byte[] positionBytes = pointCloudBinary.getPositionBytes();
         byte[] colorBytes = pointCloudBinary.getColorBytes();
-        byte[] featureTableBytes = new byte[positionBytes.length + colorBytes.length /*+ batchIdBytes.length*/];
-        System.arraycopy(positionBytes, 0, featureTableBytes, 0, positionBytes.length);
-        System.arraycopy(colorBytes, 0, featureTableBytes, positionBytes.length, colorBytes.length);
+        List<byte[]> featureTableBinaries = new ArrayList<>();
+        featureTableBinaries.add(positionBytes);
+        featureTableBinaries.add(colorBytes);
 
         byte[] batchTableBytes = new byte[0];
         GaiaFeatureTable featureTable = new GaiaFeatureTable();
@@ -249,7 +244,7 @@ public class PointCloudModel implements TileModel {
             throw new RuntimeException(e);
         }
 
-        PointCloudBinaryWriter writer = new PointCloudBinaryWriter(featureTableJson, batchTableJson, featureTableBytes, batchTableBytes);
+        PointCloudBinaryWriter writer = new PointCloudBinaryWriter(featureTableJson, batchTableJson, featureTableBinaries, batchTableBytes);
         writer.write(outputRoot, contentInfo.getNodeCode());
         return contentInfo;
     }
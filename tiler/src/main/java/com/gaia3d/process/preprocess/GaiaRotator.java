@@ -10,10 +10,15 @@ import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.joml.Matrix4d;
 
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
 @Slf4j
 @NoArgsConstructor
 public class GaiaRotator implements PreProcess {
-    private GaiaScene recentScene = null;
+    /* the instance scenes are shared by many tile infos, each one is rotated once */
+    private final Set<GaiaScene> rotatedScenes = Collections.newSetFromMap(Collections.synchronizedMap(new WeakHashMap<>()));
 
     @Override
     public TileInfo run(TileInfo tileInfo) {
@@ -33,10 +38,9 @@ public class GaiaRotator implements PreProcess {
 
         GaiaScene gaiaScene = tileInfo.getScene();
         // Skip if the scene is already processed
-        if (recentScene == gaiaScene) {
+        if (!rotatedScenes.add(gaiaScene)) {
             return tileInfo;
         }
-        recentScene = gaiaScene;
 
         //log.info("rotateX: {}, isSwapUpAxis: {}, isFlipUpAxis: {}", rotateX, isSwapUpAxis, isFlipUpAxis);
         // 90 degree rotation
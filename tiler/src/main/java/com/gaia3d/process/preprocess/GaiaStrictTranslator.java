@@ -6,6 +6,7 @@ import com.gaia3d.basic.types.FormatType;
 import com.gaia3d.command.mago.GlobalOptions;
 import com.gaia3d.converter.kml.KmlInfo;
 import com.gaia3d.process.tileprocess.tile.TileInfo;
+import com.gaia3d.util.CoordinateTransformer;
 import com.gaia3d.util.GlobeUtils;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -133,6 +134,7 @@ public class GaiaStrictTranslator implements PreProcess {
         // check for meshes.***
         GlobalOptions globalOptions = GlobalOptions.getInstance();
         CoordinateReferenceSystem crs = globalOptions.getCrs();
+        CoordinateTransformer transformer = CoordinateTransformer.getInstance(crs);
 
         // check node's parent matrix.***
         Matrix4d transformMatrix = new Matrix4d(node.getTransformMatrix());
@@ -153,18 +155,23 @@ public class GaiaStrictTranslator implements PreProcess {
                     for (GaiaPrimitive primitive : primitives) {
                         List<GaiaVertex> vertices = primitive.getVertices();
                         if (vertices != null && !vertices.isEmpty()) {
-                            for (GaiaVertex vertex : vertices) {
-                                Vector3d pos = new Vector3d(vertex.getPosition());
+                            // CRS coords of the primitive.***
+                            double[] positions = new double[vertices.size() * 3];
+                            Vector3d pos = new Vector3d();
+                            for (int i = 0; i < vertices.size(); i++) {
+                                pos.set(vertices.get(i).getPosition());
                                 pos.add(offset);
-                                transformMatrix.transformPosition(pos); // CRS coords.***
-
-                                // calculate the geoCoords of the "pos".***
-                                ProjCoordinate vertexSource = new ProjCoordinate(pos.x, pos.y, pos.z);
-                                ProjCoordinate vertexWgs84 = GlobeUtils.transform(crs, vertexSource);
+                                transformMatrix.transformPosition(pos);
+                                positions[i * 3] = pos.x;
+                                positions[i * 3 + 1] = pos.y;
+                                positions[i * 3 + 2] = pos.z;
+                            }
 
-                                // calculate the posWC of the "vertexWgs84".***
-                                double[] posWC = GlobeUtils.geographicToCartesianWgs84(vertexWgs84.x, vertexWgs84.y, vertexSource.z);
-                                Vector3d posWCVector = new Vector3d(posWC[0], posWC[1], posWC[2]);
+                            // calculate the posWC of all vertices at once.***
+                            transformer.transformToCartesian(positions);
+                            for (int i = 0; i < vertices.size(); i++) {
+                                GaiaVertex vertex = vertices.get(i);
+                                Vector3d posWCVector = new Vector3d(positions[i * 3], positions[i * 3 + 1], positions[i * 3 + 2]);
                                 Vector3d posLC = globalTMatrixInv.transformPosition(posWCVector);
 
                                 resultBBoxLC.addPoint(posLC);
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.core.json.JsonWriteFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gaia3d.basic.exception.TileProcessingException;
 import com.gaia3d.basic.geometry.GaiaBoundingBox;
+import com.gaia3d.basic.model.GaiaScene;
 import com.gaia3d.command.mago.GlobalOptions;
 import com.gaia3d.process.tileprocess.Tiler;
 import com.gaia3d.process.tileprocess.tile.tileset.Tileset;
@@ -23,7 +24,9 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -35,8 +38,9 @@ public class Instanced3DModelTiler extends DefaultTiler implements Tiler {
 
     @Override
     public Tileset run(List<TileInfo> tileInfos) {
-        if (!tileInfos.isEmpty()) {
-            instanceGeometricError = calcGeometricError(List.of(tileInfos.get(0)));
+        List<List<TileInfo>> modelTileInfos = groupByModel(tileInfos);
+        for (List<TileInfo> instances : modelTileInfos) {
+            instanceGeometricError = Math.max(instanceGeometricError, calcGeometricError(List.of(instances.get(0))));
         }
         if (instanceGeometricError < 32.0) {
             instanceGeometricError = 32.0;
@@ -59,7 +63,18 @@ public class Instanced3DModelTiler extends DefaultTiler implements Tiler {
         root.setGeometricError(instanceGeometricError);
 
         try {
-            createNode(root, tileInfos);
+            if (modelTileInfos.size() > 1) {
+                // a tile has one content, so every model has its own subtree of i3dm contents
+                log.info("[Tile][Instance] {} instance models", modelTileInfos.size());
+                for (int index = 0; index < modelTileInfos.size(); index++) {
+                    List<TileInfo> instances = modelTileInfos.get(index);
+                    Node modelNode = createLogicalNode(root, instances, index);
+                    root.getChildren().add(modelNode);
+                    createNode(modelNode, instances);
+                }
+            } else {
+                createNode(root, tileInfos);
+            }
         } catch (IOException e) {
             log.error("Error : ", e);
             throw new RuntimeException(e);
@@ -93,6 +108,23 @@ public class Instanced3DModelTiler extends DefaultTiler implements Tiler {
         }
     }
 
+    /**
+     * Groups the instances by their shared model scene, in the order of their first instance.
+     */
+    private List<List<TileInfo>> groupByModel(List<TileInfo> tileInfos) {
+        Map<GaiaScene, List<TileInfo>> modelTileInfos = new IdentityHashMap<>();
+        List<List<TileInfo>> groups = new ArrayList<>();
+        for (TileInfo tileInfo : tileInfos) {
+            List<TileInfo> instances = modelTileInfos.computeIfAbsent(tileInfo.getScene(), (scene) -> {
+                List<TileInfo> group = new ArrayList<>();
+                groups.add(group);
+                return group;
+            });
+            instances.add(tileInfo);
+        }
+        return groups;
+    }
+
     private void createNode(Node parentNode, List<TileInfo> tileInfos) throws IOException {
         BoundingVolume parentBoundingVolume = parentNode.getBoundingVolume();
         BoundingVolume squareBoundingVolume = parentBoundingVolume.createSqureBoundingVolume();
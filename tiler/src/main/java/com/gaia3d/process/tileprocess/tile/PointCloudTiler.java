@@ -13,12 +13,11 @@ import com.gaia3d.process.tileprocess.tile.tileset.asset.*;
 import com.gaia3d.process.tileprocess.tile.tileset.node.BoundingVolume;
 import com.gaia3d.process.tileprocess.tile.tileset.node.Content;
 import com.gaia3d.process.tileprocess.tile.tileset.node.Node;
-import com.gaia3d.util.GlobeUtils;
+import com.gaia3d.util.CoordinateTransformer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.joml.Matrix4d;
 import org.joml.Vector3d;
-import org.locationtech.proj4j.BasicCoordinateTransform;
 import org.locationtech.proj4j.CoordinateReferenceSystem;
 import org.locationtech.proj4j.ProjCoordinate;
 
@@ -29,7 +28,9 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -38,6 +39,7 @@ public class PointCloudTiler extends DefaultTiler implements Tiler {
 
     private double rootGeometricError = 0.0d;
     private final int MAXIMUM_DEPTH = 12;
+    private final int TASK_POINT_BUDGET_RATIO = 4; // points held in memory by a node task, relative to the maximum points per tile
 
     @Override
     public Tileset run(List<TileInfo> tileInfos) {
@@ -49,7 +51,7 @@ public class PointCloudTiler extends DefaultTiler implements Tiler {
         Vector3d originalMinPosition = originalBoundingBox.getMinPosition();
         Vector3d originalMaxPosition = originalBoundingBox.getMaxPosition();
 
-        BasicCoordinateTransform transformer = new BasicCoordinateTransform(source, GlobeUtils.wgs84);
+        CoordinateTransformer transformer = CoordinateTransformer.getInstance(source);
         ProjCoordinate transformedMinCoordinate = transformer.transform(new ProjCoordinate(originalMinPosition.x, originalMinPosition.y, originalMinPosition.z), new ProjCoordinate());
         Vector3d minPosition = new Vector3d(transformedMinCoordinate.x, transformedMinCoordinate.y, originalMinPosition.z);
         ProjCoordinate transformedMaxCoordinate = transformer.transform(new ProjCoordinate(originalMaxPosition.x, originalMaxPosition.y, originalMaxPosition.z), new ProjCoordinate());
@@ -149,34 +151,99 @@ public class PointCloudTiler extends DefaultTiler implements Tiler {
         List<GaiaPointCloud> pointClouds = tileInfos.stream()
                 .map(TileInfo::getPointCloud)
                 .collect(Collectors.toList());
-        int index = 0;
         int maximumIndex = pointClouds.size();
         int rootPointLimit = globalOptions.getMaximumPointPerTile() / 16;
+        int taskPointBudget = globalOptions.getMaximumPointPerTile() * TASK_POINT_BUDGET_RATIO;
+
+        List<NodeTask> tasks = new ArrayList<>();
+        int index = 0;
         for (GaiaPointCloud pointCloud : pointClouds) {
             pointCloud.setCode((index++) + "");
-            pointCloud.maximize();
-            List<GaiaPointCloud> allPointClouds = new ArrayList<>();
-            createNode(allPointClouds, index, maximumIndex, parentNode, pointCloud, rootPointLimit, 0);
-            minimizeAllPointCloud(index, maximumIndex, allPointClouds);
+            tasks.add(new NodeTask(index, maximumIndex, parentNode, pointCloud, rootPointLimit, 0, taskPointBudget, true));
+        }
+
+        printJvmMemory();
+        ForkJoinPool forkJoinPool = new ForkJoinPool(Math.max(1, globalOptions.getMultiThreadCount()));
+        try {
+            List<Node> childNodes = forkJoinPool.invoke(new RecursiveTask<>() {
+                @Override
+                protected List<Node> compute() {
+                    return joinNodeTasks(tasks);
+                }
+            });
+            // children are attached in the cell order, so the node codes and the tileset do not depend on the thread scheduling
+            parentNode.getChildren().addAll(childNodes);
+        } catch (RuntimeException e) {
+            log.error("[ERROR] Failed to create point cloud nodes.", e);
+            throw new TileProcessingException(e.getMessage());
+        } finally {
+            forkJoinPool.shutdown();
+        }
+        printJvmMemory();
+    }
+
+    private List<Node> joinNodeTasks(List<NodeTask> tasks) {
+        ForkJoinTask.invokeAll(tasks);
+        List<Node> nodes = new ArrayList<>();
+        for (NodeTask task : tasks) {
+            Node node = task.join();
+            if (node != null) {
+                nodes.add(node);
+            }
         }
+        return nodes;
     }
 
-    private void createNode(List<GaiaPointCloud> allPointClouds, int index, int maximumIndex, Node parentNode, GaiaPointCloud pointCloud, int pointLimit, int depth) {
+    /**
+     * Builds the subtree of a grid cell or of a distributed part of a node.
+     * The content of the node is written to the temp file as soon as it is created,
+     * and a child bigger than the task budget is spilled to disk until its own task runs.
+     */
+    private class NodeTask extends RecursiveTask<Node> {
+        private final int index;
+        private final int maximumIndex;
+        private final Node parentNode;
+        private final GaiaPointCloud pointCloud;
+        private final int pointLimit;
+        private final int depth;
+        private final int taskPointBudget;
+        private final boolean isMinimized;
+
+        private NodeTask(int index, int maximumIndex, Node parentNode, GaiaPointCloud pointCloud, int pointLimit, int depth, int taskPointBudget, boolean isMinimized) {
+            this.index = index;
+            this.maximumIndex = maximumIndex;
+            this.parentNode = parentNode;
+            this.pointCloud = pointCloud;
+            this.pointLimit = pointLimit;
+            this.depth = depth;
+            this.taskPointBudget = taskPointBudget;
+            this.isMinimized = isMinimized;
+        }
+
+        @Override
+        protected Node compute() {
+            if (isMinimized) {
+                pointCloud.maximize();
+            }
+            return createNode(index, maximumIndex, parentNode, pointCloud, pointLimit, depth, taskPointBudget);
+        }
+    }
+
+    private Node createNode(int index, int maximumIndex, Node parentNode, GaiaPointCloud pointCloud, int pointLimit, int depth, int taskPointBudget) {
         GlobalOptions globalOptions = GlobalOptions.getInstance();
 
-        allPointClouds.add(pointCloud);
-        int vertexLength = pointCloud.getVertices().size();
+        int vertexLength = pointCloud.getPoints().size();
         List<GaiaPointCloud> divided = pointCloud.divideChunkSize(pointLimit);
         GaiaPointCloud selfPointCloud = divided.get(0);
-        allPointClouds.add(selfPointCloud);
         GaiaPointCloud remainPointCloud = divided.get(1);
+        pointCloud.minimizeTemp();
 
         GaiaBoundingBox childBoundingBox = selfPointCloud.getGaiaBoundingBox();
         Vector3d originalMinPosition = childBoundingBox.getMinPosition();
         Vector3d originalMaxPosition = childBoundingBox.getMaxPosition();
 
         CoordinateReferenceSystem source = globalOptions.getCrs();
-        BasicCoordinateTransform transformer = new BasicCoordinateTransform(source, GlobeUtils.wgs84);
+        CoordinateTransformer transformer = CoordinateTransformer.getInstance(source);
         ProjCoordinate transformedMinCoordinate = transformer.transform(new ProjCoordinate(originalMinPosition.x, originalMinPosition.y, originalMinPosition.z), new ProjCoordinate());
         Vector3d minPosition = new Vector3d(transformedMinCoordinate.x, transformedMinCoordinate.y, originalMinPosition.z);
         ProjCoordinate transformedMaxCoordinate = transformer.transform(new ProjCoordinate(originalMaxPosition.x, originalMaxPosition.y, originalMaxPosition.z), new ProjCoordinate());
@@ -246,42 +313,50 @@ public class PointCloudTiler extends DefaultTiler implements Tiler {
         content.setContentInfo(contentInfo);
         childNode.setContent(content);
 
-        parentNode.getChildren().add(childNode);
         log.info("[Tile][{}/{}][ContentNode][{}]", index, maximumIndex, childNode.getNodeCode());
+        minimizePointCloud(index, maximumIndex, childNode.getNodeCode(), selfPointCloud);
 
         if (vertexLength > 0) { // vertexLength > DEFUALT_MAX_COUNT
             //GaiaBoundingBox remainBoundingBox = calcSquareBoundingBox(remainPointCloud.getGaiaBoundingBox());
             //remainPointCloud.setGaiaBoundingBox(remainBoundingBox);
             List<GaiaPointCloud> distributes = remainPointCloud.distribute();
-            distributes.forEach(distribute -> {
-                if (!distribute.getVertices().isEmpty()) {
-                    int newPointLimit = (int) (pointLimit * 1.75d); // (/3)
-                    if (newPointLimit > globalOptions.getMaximumPointPerTile()) {
-                        newPointLimit = globalOptions.getMaximumPointPerTile();
-                    }
-
-                    int newDepth = depth + 1;
-                    if (newDepth < MAXIMUM_DEPTH) {
-                        createNode(allPointClouds, index, maximumIndex, childNode, distribute, newPointLimit, newDepth);
-                    } else {
-                        log.info("[Tile][{}/{}][DepthLimit][{}]", index, maximumIndex, newDepth);
-                    }
+            remainPointCloud.minimizeTemp();
+
+            int newPointLimit = (int) (pointLimit * 1.75d); // (/3)
+            if (newPointLimit > globalOptions.getMaximumPointPerTile()) {
+                newPointLimit = globalOptions.getMaximumPointPerTile();
+            }
+            int newDepth = depth + 1;
+
+            List<NodeTask> tasks = new ArrayList<>();
+            for (GaiaPointCloud distribute : distributes) {
+                if (distribute.getPoints().isEmpty()) {
+                    continue;
                 }
-            });
+                if (newDepth >= MAXIMUM_DEPTH) {
+                    log.info("[Tile][{}/{}][DepthLimit][{}]", index, maximumIndex, newDepth);
+                    continue;
+                }
+                boolean isSpilled = distribute.getPoints().size() > taskPointBudget;
+                if (isSpilled) {
+                    distribute.minimize(createTempFile());
+                }
+                tasks.add(new NodeTask(index, maximumIndex, childNode, distribute, newPointLimit, newDepth, taskPointBudget, isSpilled));
+            }
+            childNode.getChildren().addAll(joinNodeTasks(tasks));
         }
+        return childNode;
     }
 
-    private void minimizeAllPointCloud(int index, int maximumIndex, List<GaiaPointCloud> allPointClouds) {
-        int size = allPointClouds.size();
-        AtomicInteger atomicInteger = new AtomicInteger(1);
-        printJvmMemory();
-        allPointClouds.forEach(pointCloud -> {
-            File tempPath = new File(GlobalOptions.getInstance().getOutputPath(), "temp");
-            File tempFile = new File(tempPath, UUID.randomUUID().toString());
-            pointCloud.minimize(tempFile);
-            log.info("[Tile][{}/{}][Minimize][{}/{}] Write temp file : {}", index, maximumIndex, atomicInteger.getAndIncrement(), size, tempFile.getName());
-        });
-        //System.gc();
+    private void minimizePointCloud(int index, int maximumIndex, String nodeCode, GaiaPointCloud pointCloud) {
+        File tempFile = createTempFile();
+        pointCloud.minimize(tempFile);
+        log.info("[Tile][{}/{}][Minimize][{}] Write temp file : {}", index, maximumIndex, nodeCode, tempFile.getName());
+    }
+
+    private File createTempFile() {
+        File tempPath = new File(GlobalOptions.getInstance().getOutputPath(), "temp");
+        return new File(tempPath, UUID.randomUUID().toString());
     }
 
     private void printJvmMemory() {
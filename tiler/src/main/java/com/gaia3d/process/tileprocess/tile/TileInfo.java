@@ -6,6 +6,7 @@ import com.gaia3d.basic.model.GaiaNode;
 import com.gaia3d.basic.model.GaiaScene;
 import com.gaia3d.basic.pointcloud.GaiaPointCloud;
 import com.gaia3d.converter.kml.KmlInfo;
+import com.gaia3d.process.postprocess.GaiaSetCache;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
@@ -64,6 +65,7 @@ public class TileInfo {
 
     /**
      * Load the minimized scene file and create a GaiaSet object.
+     * The file is read through the GaiaSetCache, so an object shared by several LOD contents is read only once.
      */
     public void maximize() {
         if (this.tempPath == null) {
@@ -78,7 +80,7 @@ public class TileInfo {
             this.set = null;
         }
         try {
-            this.set = GaiaSet.readFile(this.tempPath);
+            this.set = GaiaSetCache.getInstance().get(this.tempPath);
         } catch (IOException e) {
             log.error("Failed to read the temp file: {}", this.tempPath);
         }
@@ -702,7 +702,7 @@ public class Batched3DModelTilerPhR extends DefaultTiler implements Tiler {
             double maxAspectRatio = 6.0;
             DecimateParameters decimateParameters = new DecimateParameters();
             decimateParameters.setBasicValues(maxDiffAngDeg, hedgeMinLength, frontierMaxDiffAngDeg, maxAspectRatio, 1000000, 2, 1.8);
-            halfEdgeScene.doTrianglesReduction(decimateParameters);
+            halfEdgeScene.doTrianglesReductionQuadric(decimateParameters);
 
             if (halfEdgeScene.getTrianglesCount() == 0) continue;
 
@@ -912,7 +912,7 @@ public class Batched3DModelTilerPhR extends DefaultTiler implements Tiler {
             double maxAspectRatio = 6.0;
             DecimateParameters decimateParameters = new DecimateParameters();
             decimateParameters.setBasicValues(maxDiffAngDeg, hedgeMinLength, frontierMaxDiffAngDeg, maxAspectRatio, 1000000, 2, 1.8);
-            halfEdgeScene.doTrianglesReduction(decimateParameters);
+            halfEdgeScene.doTrianglesReductionQuadric(decimateParameters);
             if (halfEdgeScene.getTrianglesCount() == 0) continue;
 
             List<GaiaMaterial> materials = new ArrayList<>();
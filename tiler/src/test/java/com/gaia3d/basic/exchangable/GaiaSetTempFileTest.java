@@ -0,0 +1,162 @@
+package com.gaia3d.basic.exchangable;
+
+import com.gaia3d.basic.geometry.GaiaBoundingBox;
+import com.gaia3d.basic.model.GaiaAttribute;
+import com.gaia3d.basic.model.GaiaMaterial;
+import com.gaia3d.basic.model.GaiaTexture;
+import com.gaia3d.basic.types.AccessorType;
+import com.gaia3d.basic.types.AttributeType;
+import com.gaia3d.basic.types.TextureType;
+import lombok.extern.slf4j.Slf4j;
+import org.joml.Matrix4d;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class GaiaSetTempFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void writeAndRead() throws IOException {
+        GaiaSet original = createGaiaSet(16, 1024);
+        File file = tempDir.resolve("set.tmp").toFile();
+        GaiaSetTempFile.write(original, file);
+        assertTrue(GaiaSetTempFile.isTempFile(file));
+
+        GaiaSet result = GaiaSetTempFile.read(file);
+        assertEquals(original.getProjectName(), result.getProjectName());
+        assertEquals(original.getAttribute().getIdentifier(), result.getAttribute().getIdentifier());
+        assertEquals(original.getAttribute().getAttributes(), result.getAttribute().getAttributes());
+        assertEquals(original.getMaterials().size(), result.getMaterials().size());
+
+        GaiaMaterial originalMaterial = original.getMaterials().get(0);
+        GaiaMaterial resultMaterial = result.getMaterials().get(0);
+        assertEquals(originalMaterial.getDiffuseColor(), resultMaterial.getDiffuseColor());
+        GaiaTexture resultTexture = resultMaterial.getTextures().get(TextureType.DIFFUSE).get(0);
+        assertEquals("facade.jpg", resultTexture.getPath());
+        assertEquals(TextureType.DIFFUSE, resultTexture.getType());
+        assertEquals(originalMaterial.getTextures().get(TextureType.DIFFUSE).get(0).getFingerprint(), resultTexture.getFingerprint());
+
+        assertEquals(original.getBufferDataList().size(), result.getBufferDataList().size());
+        for (int i = 0; i < original.getBufferDataList().size(); i++) {
+            GaiaBufferDataSet originalData = original.getBufferDataList().get(i);
+            GaiaBufferDataSet resultData = result.getBufferDataList().get(i);
+            assertEquals(originalData.getGuid(), resultData.getGuid());
+            assertEquals(originalData.getTransformMatrix(), resultData.getTransformMatrix());
+            assertEquals(originalData.getBoundingBox().getMaxZ(), resultData.getBoundingBox().getMaxZ());
+            for (AttributeType attributeType : originalData.getBuffers().keySet()) {
+                GaiaBuffer originalBuffer = originalData.getBuffers().get(attributeType);
+                GaiaBuffer resultBuffer = resultData.getBuffers().get(attributeType);
+                assertEquals(originalBuffer.getAccessorType(), resultBuffer.getAccessorType());
+                assertEquals(originalBuffer.getElementsCount(), resultBuffer.getElementsCount());
+                assertArrayEquals(originalBuffer.getFloats(), resultBuffer.getFloats());
+                assertArrayEquals(originalBuffer.getInts(), resultBuffer.getInts());
+            }
+        }
+    }
+
+    /**
+     * Compares the binary temp format with the java serialization, used by the previous versions.
+     */
+    @Test
+    @Disabled
+    void compareWithObjectStream() throws IOException, ClassNotFoundException {
+        GaiaSet gaiaSet = createGaiaSet(64, 65536);
+        int iteration = 5;
+
+        File objectFile = tempDir.resolve("object.tmp").toFile();
+        long objectWriteTime = 0;
+        long objectReadTime = 0;
+        for (int i = 0; i < iteration; i++) {
+            long start = System.nanoTime();
+            try (ObjectOutputStream outputStream = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(objectFile)))) {
+                outputStream.writeObject(gaiaSet);
+            }
+            objectWriteTime += System.nanoTime() - start;
+            start = System.nanoTime();
+            try (ObjectInputStream inputStream = new ObjectInputStream(new BufferedInputStream(new FileInputStream(objectFile)))) {
+                assertNotNull(inputStream.readObject());
+            }
+            objectReadTime += System.nanoTime() - start;
+        }
+
+        File binaryFile = tempDir.resolve("binary.tmp").toFile();
+        long binaryWriteTime = 0;
+        long binaryReadTime = 0;
+        for (int i = 0; i < iteration; i++) {
+            long start = System.nanoTime();
+            GaiaSetTempFile.write(gaiaSet, binaryFile);
+            binaryWriteTime += System.nanoTime() - start;
+            start = System.nanoTime();
+            assertNotNull(GaiaSetTempFile.read(binaryFile));
+            binaryReadTime += System.nanoTime() - start;
+        }
+
+        log.info("[ObjectStream] size : {} bytes, write : {} ms, read : {} ms", objectFile.length(), objectWriteTime / iteration / 1000000, objectReadTime / iteration / 1000000);
+        log.info("[TempFile] size : {} bytes, write : {} ms, read : {} ms", binaryFile.length(), binaryWriteTime / iteration / 1000000, binaryReadTime / iteration / 1000000);
+        assertTrue(binaryFile.length() <= objectFile.length());
+    }
+
+    private GaiaSet createGaiaSet(int bufferDataCount, int vertexCount) {
+        Random random = new Random(0);
+        GaiaAttribute attribute = new GaiaAttribute();
+        attribute.getAttributes().put("name", "building");
+
+        GaiaTexture texture = new GaiaTexture();
+        texture.setParentPath("images");
+        texture.setPath("facade.jpg");
+        texture.setType(TextureType.DIFFUSE);
+        GaiaMaterial material = new GaiaMaterial();
+        material.setId(0);
+        List<GaiaTexture> textures = new ArrayList<>();
+        textures.add(texture);
+        material.getTextures().put(TextureType.DIFFUSE, textures);
+        List<GaiaMaterial> materials = new ArrayList<>();
+        materials.add(material);
+
+        List<GaiaBufferDataSet> bufferDataList = new ArrayList<>();
+        for (int i = 0; i < bufferDataCount; i++) {
+            GaiaBufferDataSet bufferDataSet = new GaiaBufferDataSet();
+            bufferDataSet.setId(i);
+            bufferDataSet.setGuid("guid-" + i);
+            bufferDataSet.setTransformMatrix(new Matrix4d().translate(i, i * 2, i * 3));
+            bufferDataSet.setBoundingBox(new GaiaBoundingBox(0, 0, 0, 10, 10, i, true));
+
+            float[] positions = new float[vertexCount * 3];
+            for (int j = 0; j < positions.length; j++) {
+                positions[j] = random.nextFloat();
+            }
+            int[] indices = new int[vertexCount];
+            for (int j = 0; j < indices.length; j++) {
+                indices[j] = j;
+            }
+            GaiaBuffer positionBuffer = new GaiaBuffer();
+            positionBuffer.setAttributeType(AttributeType.POSITION);
+            positionBuffer.setAccessorType(AccessorType.VEC3);
+            positionBuffer.setElementsCount(vertexCount);
+            positionBuffer.setGlDimension((byte) 3);
+            positionBuffer.setFloats(positions);
+            GaiaBuffer indicesBuffer = new GaiaBuffer();
+            indicesBuffer.setAttributeType(AttributeType.INDICE);
+            indicesBuffer.setAccessorType(AccessorType.SCALAR);
+            indicesBuffer.setElementsCount(vertexCount);
+            indicesBuffer.setGlDimension((byte) 1);
+            indicesBuffer.setInts(indices);
+            bufferDataSet.getBuffers().put(AttributeType.POSITION, positionBuffer);
+            bufferDataSet.getBuffers().put(AttributeType.INDICE, indicesBuffer);
+            bufferDataList.add(bufferDataSet);
+        }
+        return new GaiaSet(bufferDataList, materials, attribute, "project", null, null, null, null);
+    }
+}
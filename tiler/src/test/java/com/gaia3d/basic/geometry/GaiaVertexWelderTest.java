@@ -0,0 +1,117 @@
+package com.gaia3d.basic.geometry;
+
+import com.gaia3d.basic.model.GaiaFace;
+import com.gaia3d.basic.model.GaiaPrimitive;
+import com.gaia3d.basic.model.GaiaSurface;
+import com.gaia3d.basic.model.GaiaVertex;
+import lombok.extern.slf4j.Slf4j;
+import org.joml.Vector2d;
+import org.joml.Vector3d;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class GaiaVertexWelderTest {
+
+    @Test
+    void weldAcrossCellBoundary() {
+        List<GaiaVertex> vertices = new ArrayList<>();
+        vertices.add(createVertex(0.0995, 0.0, 0.0));
+        vertices.add(createVertex(0.1005, 0.0, 0.0)); // next cell, within the error
+        vertices.add(createVertex(0.3, 0.0, 0.0));
+        vertices.add(createVertex(0.3, 0.0, -0.0009));
+
+        int[] masters = new GaiaVertexWelder(0.01, false, false, false, false).findMasters(vertices);
+        assertArrayEquals(new int[]{0, 0, 2, 2}, masters);
+    }
+
+    @Test
+    void keepAttributeMismatch() {
+        List<GaiaVertex> vertices = new ArrayList<>();
+        vertices.add(createVertex(1.0, 1.0, 1.0));
+        vertices.add(createVertex(1.0, 1.0, 1.0));
+        vertices.add(createVertex(1.0, 1.0, 1.0));
+        vertices.get(0).setTexcoords(new Vector2d(0.0, 0.0));
+        vertices.get(1).setTexcoords(new Vector2d(0.5, 0.5));
+        vertices.get(2).setTexcoords(new Vector2d(0.0, 0.0));
+        vertices.get(2).setBatchId(1);
+
+        assertArrayEquals(new int[]{0, 1, 2}, new GaiaVertexWelder(0.001, true, false, false, true).findMasters(vertices));
+        assertArrayEquals(new int[]{0, 1, 0}, new GaiaVertexWelder(0.001, true, false, false, false).findMasters(vertices));
+        assertArrayEquals(new int[]{0, 0, 2}, new GaiaVertexWelder(0.001, false, false, false, true).findMasters(vertices));
+    }
+
+    @Test
+    void weldPrimitive() {
+        // two triangles of a quad with the shared edge duplicated, and a sliver collapsed by the weld
+        GaiaPrimitive primitive = new GaiaPrimitive();
+        List<GaiaVertex> vertices = new ArrayList<>();
+        vertices.add(createVertex(0.0, 0.0, 0.0));
+        vertices.add(createVertex(1.0, 0.0, 0.0));
+        vertices.add(createVertex(1.0, 1.0, 0.0));
+        vertices.add(createVertex(0.0, 0.0, 0.0));
+        vertices.add(createVertex(1.0, 1.0, 0.0));
+        vertices.add(createVertex(0.0, 1.0, 0.0));
+        vertices.add(createVertex(0.0, 1.0, 0.0001));
+        primitive.setVertices(vertices);
+
+        GaiaSurface surface = new GaiaSurface();
+        surface.getFaces().add(createFace(0, 1, 2));
+        surface.getFaces().add(createFace(3, 4, 5));
+        surface.getFaces().add(createFace(4, 5, 6));
+        primitive.getSurfaces().add(surface);
+
+        primitive.weldVertices(0.001, false, false, false, false);
+        assertEquals(4, primitive.getVertices().size());
+        assertEquals(2, surface.getFaces().size());
+        assertArrayEquals(new int[]{0, 1, 2}, surface.getFaces().get(0).getIndices());
+        assertArrayEquals(new int[]{0, 2, 3}, surface.getFaces().get(1).getIndices());
+        assertEquals(0.0, primitive.getVertices().get(3).getPosition().z);
+    }
+
+    /**
+     * Reports the weld time of a triangle soup of 180000 vertices.
+     */
+    @Test
+    @Disabled
+    void benchmark() {
+        int gridSize = 300;
+        List<GaiaVertex> vertices = new ArrayList<>();
+        for (int i = 0; i < gridSize; i++) {
+            for (int j = 0; j < gridSize; j++) {
+                // every grid point is duplicated as in a triangle soup
+                vertices.add(createVertex(i * 0.5, j * 0.5, 0.0));
+                vertices.add(createVertex(i * 0.5, j * 0.5, 0.0));
+            }
+        }
+        long start = System.nanoTime();
+        int[] masters = new GaiaVertexWelder(0.001, false, false, false, false).findMasters(vertices);
+        long time = System.nanoTime() - start;
+
+        int masterCount = 0;
+        for (int i = 0; i < masters.length; i++) {
+            if (masters[i] == i) {
+                masterCount++;
+            }
+        }
+        assertEquals(gridSize * gridSize, masterCount);
+        log.info("[Benchmark] weld {} vertices : {} ms", vertices.size(), time / 1000000);
+    }
+
+    private GaiaVertex createVertex(double x, double y, double z) {
+        GaiaVertex vertex = new GaiaVertex();
+        vertex.setPosition(new Vector3d(x, y, z));
+        return vertex;
+    }
+
+    private GaiaFace createFace(int... indices) {
+        GaiaFace face = new GaiaFace();
+        face.setIndices(indices);
+        return face;
+    }
+}
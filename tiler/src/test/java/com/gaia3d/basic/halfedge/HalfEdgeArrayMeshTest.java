@@ -0,0 +1,208 @@
+package com.gaia3d.basic.halfedge;
+
+import com.gaia3d.basic.model.GaiaFace;
+import com.gaia3d.basic.model.GaiaPrimitive;
+import com.gaia3d.basic.model.GaiaSurface;
+import com.gaia3d.basic.model.GaiaVertex;
+import lombok.extern.slf4j.Slf4j;
+import org.joml.Vector2d;
+import org.joml.Vector3d;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class HalfEdgeArrayMeshTest {
+
+    @Test
+    void convertGaiaPrimitive() {
+        GaiaPrimitive primitive = createGridPrimitive(10, 2.0, false);
+        primitive.setMaterialIndex(3);
+        HalfEdgeArrayMesh mesh = HalfEdgeArrayMesh.fromGaiaPrimitive(primitive);
+        assertEquals(100, mesh.getVerticesCount());
+        assertEquals(162, mesh.getTrianglesCount());
+        assertTrue(checkTwins(mesh));
+        int frontiersCount = 0;
+        for (int h = 0; h < mesh.getHalfEdgesCount(); h++) {
+            if (mesh.getTwin(h) == -1) {
+                frontiersCount++;
+            }
+        }
+        assertEquals(36, frontiersCount);
+
+        GaiaPrimitive converted = mesh.toGaiaPrimitive();
+        assertEquals(3, converted.getMaterialIndex());
+        assertEquals(100, converted.getVertices().size());
+        assertEquals(162, converted.getSurfaces().get(0).getFaces().size());
+        assertEquals(calculateArea(mesh), calculateArea(HalfEdgeArrayMesh.fromGaiaPrimitive(converted)), 1.0e-9);
+        assertEquals(primitive.getVertices().get(55).getTexcoords(), converted.getVertices().get(55).getTexcoords());
+    }
+
+    @Test
+    void weldVertices() {
+        // every triangle has its own vertices, as the exported meshes usually have
+        GaiaPrimitive primitive = createGridPrimitive(10, 0.0, true);
+        HalfEdgeArrayMesh mesh = HalfEdgeArrayMesh.fromGaiaPrimitive(primitive);
+        assertEquals(162 * 3, mesh.getVerticesCount());
+        mesh.weldVertices(1.0e-6, true, false, false, false);
+        assertEquals(100, mesh.getVerticesCount());
+        assertEquals(162, mesh.getTrianglesCount());
+        assertTrue(checkTwins(mesh));
+    }
+
+    @Test
+    void cutByPlane() {
+        HalfEdgeArrayMesh mesh = HalfEdgeArrayMesh.fromGaiaPrimitive(createGridPrimitive(10, 2.0, false));
+        double area = calculateArea(mesh);
+        Vector3d planePosition = new Vector3d(4.5, 3.3, 0.0);
+        assertTrue(mesh.cutByPlane(PlaneType.YZ, planePosition, 1.0e-6));
+        assertTrue(mesh.cutByPlane(PlaneType.XZ, planePosition, 1.0e-6));
+        assertFalse(mesh.cutByPlane(PlaneType.YZ, planePosition, 1.0e-6));
+        assertEquals(area, calculateArea(mesh), 1.0e-6);
+        assertTrue(checkTwins(mesh));
+
+        int[] classifyIds = mesh.classifyFacesByPlane(PlaneType.YZ, planePosition);
+        HalfEdgeArrayMesh left = mesh.cloneByClassifyId(classifyIds, 1);
+        HalfEdgeArrayMesh right = mesh.cloneByClassifyId(classifyIds, 2);
+        assertEquals(mesh.getTrianglesCount(), left.getTrianglesCount() + right.getTrianglesCount());
+        assertEquals(area, calculateArea(left) + calculateArea(right), 1.0e-6);
+        for (int v = 0; v < left.getVerticesCount(); v++) {
+            assertTrue(left.getPositions()[v * 3] <= 4.5 + 1.0e-9);
+        }
+        for (int v = 0; v < right.getVerticesCount(); v++) {
+            assertTrue(right.getPositions()[v * 3] >= 4.5 - 1.0e-9);
+        }
+        // the texCoords follow the positions on the cut edges
+        for (int v = 0; v < right.getVerticesCount(); v++) {
+            assertEquals(right.getPositions()[v * 3] / 9.0, right.getTexcoords()[v * 2], 1.0e-9);
+        }
+    }
+
+    @Test
+    void decimate() {
+        HalfEdgeArrayMesh mesh = HalfEdgeArrayMesh.fromGaiaPrimitive(createGridPrimitive(30, 0.0, false));
+        DecimateParameters decimateParameters = new DecimateParameters();
+        decimateParameters.setMaxQuadricError(1.0e-6);
+        mesh.decimate(decimateParameters);
+
+        assertTrue(mesh.getTrianglesCount() < 29 * 29 * 2 / 10);
+        assertEquals(29.0 * 29.0, calculateArea(mesh), 1.0e-6);
+        assertTrue(checkTwins(mesh));
+        boolean[] used = new boolean[mesh.getVerticesCount()];
+        for (int h = 0; h < mesh.getHalfEdgesCount(); h++) {
+            used[mesh.getStartVertex(h)] = true;
+        }
+        for (boolean isUsed : used) {
+            assertTrue(isUsed);
+        }
+    }
+
+    /**
+     * Compares the weld and decimation of the object half-edge surface and the array mesh.
+     */
+    @Test
+    @Disabled
+    void benchmark() {
+        GaiaPrimitive primitive = createGridPrimitive(200, 2.0, true);
+        DecimateParameters decimateParameters = new DecimateParameters();
+        decimateParameters.setBasicValues(10.0, 0.5, 1.0, 6.0, 1000000, 1, 1.0);
+
+        long objectTime = System.nanoTime();
+        HalfEdgeSurface surface = HalfEdgeUtils.halfEdgeSurfaceFromGaiaSurface(primitive.getSurfaces().get(0), primitive.getVertices());
+        surface.weldVertices(1.0e-6, true, false, false, false);
+        surface.doTrianglesReductionQuadric(decimateParameters);
+        objectTime = System.nanoTime() - objectTime;
+
+        long arrayTime = System.nanoTime();
+        HalfEdgeArrayMesh mesh = HalfEdgeArrayMesh.fromGaiaPrimitive(primitive);
+        mesh.weldVertices(1.0e-6, true, false, false, false);
+        mesh.decimate(decimateParameters);
+        arrayTime = System.nanoTime() - arrayTime;
+
+        log.info("[Benchmark] weld and decimate {} triangles, objects : {} ms -> {} triangles, arrays : {} ms -> {} triangles",
+                199 * 199 * 2, objectTime / 1000000, surface.getTrianglesCount(), arrayTime / 1000000, mesh.getTrianglesCount());
+        assertTrue(mesh.getTrianglesCount() < 199 * 199 * 2);
+    }
+
+    private boolean checkTwins(HalfEdgeArrayMesh mesh) {
+        for (int h = 0; h < mesh.getHalfEdgesCount(); h++) {
+            int twin = mesh.getTwin(h);
+            if (twin == -1) {
+                continue;
+            }
+            if (mesh.getTwin(twin) != h || mesh.getStartVertex(twin) != mesh.getEndVertex(h) || mesh.getEndVertex(twin) != mesh.getStartVertex(h)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private double calculateArea(HalfEdgeArrayMesh mesh) {
+        double[] positions = mesh.getPositions();
+        double area = 0.0;
+        for (int t = 0; t < mesh.getTrianglesCount(); t++) {
+            Vector3d[] corners = new Vector3d[3];
+            for (int k = 0; k < 3; k++) {
+                int vertex = mesh.getStartVertex(t * 3 + k);
+                corners[k] = new Vector3d(positions[vertex * 3], positions[vertex * 3 + 1], positions[vertex * 3 + 2]);
+            }
+            Vector3d ab = new Vector3d(corners[1]).sub(corners[0]);
+            Vector3d ac = new Vector3d(corners[2]).sub(corners[0]);
+            area += ab.cross(ac).length() * 0.5;
+        }
+        return area;
+    }
+
+    /**
+     * A grid with one meter spacing waving with the given amplitude, the texCoords span the grid.
+     */
+    private GaiaPrimitive createGridPrimitive(int gridSize, double amplitude, boolean splitVertices) {
+        List<GaiaVertex> gridVertices = new ArrayList<>();
+        for (int y = 0; y < gridSize; y++) {
+            for (int x = 0; x < gridSize; x++) {
+                GaiaVertex vertex = new GaiaVertex();
+                vertex.setPosition(new Vector3d(x, y, amplitude * Math.sin(x * 0.1) * Math.cos(y * 0.1)));
+                vertex.setTexcoords(new Vector2d((double) x / (gridSize - 1), (double) y / (gridSize - 1)));
+                gridVertices.add(vertex);
+            }
+        }
+        GaiaPrimitive primitive = new GaiaPrimitive();
+        GaiaSurface surface = new GaiaSurface();
+        for (int y = 0; y < gridSize - 1; y++) {
+            for (int x = 0; x < gridSize - 1; x++) {
+                int corner = y * gridSize + x;
+                surface.getFaces().add(createFace(primitive, gridVertices, splitVertices, corner, corner + 1, corner + gridSize));
+                surface.getFaces().add(createFace(primitive, gridVertices, splitVertices, corner + 1, corner + gridSize + 1, corner + gridSize));
+            }
+        }
+        if (!splitVertices) {
+            primitive.getVertices().addAll(gridVertices);
+        }
+        primitive.getSurfaces().add(surface);
+        return primitive;
+    }
+
+    private GaiaFace createFace(GaiaPrimitive primitive, List<GaiaVertex> gridVertices, boolean splitVertices, int a, int b, int c) {
+        GaiaFace face = new GaiaFace();
+        if (splitVertices) {
+            int[] indices = new int[3];
+            int[] gridIndices = {a, b, c};
+            for (int k = 0; k < 3; k++) {
+                GaiaVertex gridVertex = gridVertices.get(gridIndices[k]);
+                GaiaVertex vertex = new GaiaVertex();
+                vertex.setPosition(new Vector3d(gridVertex.getPosition()));
+                vertex.setTexcoords(new Vector2d(gridVertex.getTexcoords()));
+                indices[k] = primitive.getVertices().size();
+                primitive.getVertices().add(vertex);
+            }
+            face.setIndices(indices);
+        } else {
+            face.setIndices(new int[]{a, b, c});
+        }
+        return face;
+    }
+}
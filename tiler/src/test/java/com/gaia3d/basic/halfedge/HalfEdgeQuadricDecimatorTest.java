@@ -0,0 +1,205 @@
+package com.gaia3d.basic.halfedge;
+
+import com.gaia3d.basic.geometry.GaiaBoundingBox;
+import com.gaia3d.basic.model.GaiaFace;
+import com.gaia3d.basic.model.GaiaSurface;
+import com.gaia3d.basic.model.GaiaVertex;
+import lombok.extern.slf4j.Slf4j;
+import org.joml.Vector3d;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class HalfEdgeQuadricDecimatorTest {
+
+    @Test
+    void decimateFlatGrid() {
+        HalfEdgeSurface surface = createGridSurface(30, 0.0);
+        int originalCount = surface.getTrianglesCount();
+        new HalfEdgeQuadricDecimator(surface).decimate(0, 1.0e-6, new DecimateParameters());
+
+        // a flat grid only keeps its corners and the frontiers stay straight
+        assertTrue(surface.getTrianglesCount() < originalCount / 10);
+        assertEquals(29.0 * 29.0, calculateArea(surface), 1.0e-6);
+        GaiaBoundingBox boundingBox = surface.calculateBoundingBox(null);
+        assertEquals(0.0, boundingBox.getMinX(), 1.0e-9);
+        assertEquals(29.0, boundingBox.getMaxX(), 1.0e-9);
+        assertEquals(29.0, boundingBox.getMaxY(), 1.0e-9);
+        assertTrue(surface.checkTwins());
+        assertTrue(checkFaces(surface));
+    }
+
+    @Test
+    void decimateToTargetCount() {
+        HalfEdgeSurface surface = createGridSurface(50, 2.0);
+        DecimateParameters decimateParameters = new DecimateParameters();
+        decimateParameters.setBasicValues(60.0, 0.5, 4.0, 10.0, 1000000, 1, 1.0);
+        new HalfEdgeQuadricDecimator(surface).decimate(1000, Double.MAX_VALUE, decimateParameters);
+
+        int count = surface.getTrianglesCount();
+        assertTrue(count <= 1000);
+        assertTrue(count >= 990);
+        assertTrue(checkFaces(surface));
+    }
+
+    @Test
+    void decimateByErrorBound() {
+        DecimateParameters decimateParameters = new DecimateParameters();
+        decimateParameters.setTargetTrianglesRatio(0.0);
+        decimateParameters.setMaxQuadricError(0.01);
+        HalfEdgeSurface fineSurface = createGridSurface(40, 2.0);
+        fineSurface.doTrianglesReductionQuadric(decimateParameters);
+
+        decimateParameters.setMaxQuadricError(0.2);
+        HalfEdgeSurface coarseSurface = createGridSurface(40, 2.0);
+        coarseSurface.doTrianglesReductionQuadric(decimateParameters);
+
+        int originalCount = 39 * 39 * 2;
+        log.info("[Decimate] error 0.01 : {}, error 0.2 : {} of {} triangles", fineSurface.getTrianglesCount(), coarseSurface.getTrianglesCount(), originalCount);
+        assertTrue(fineSurface.getTrianglesCount() < originalCount);
+        assertTrue(coarseSurface.getTrianglesCount() < fineSurface.getTrianglesCount());
+    }
+
+    @Test
+    void keepClosedMeshClosed() {
+        HalfEdgeSurface surface = createSphereSurface(32, 64, 10.0);
+        int originalCount = surface.getTrianglesCount();
+        DecimateParameters decimateParameters = new DecimateParameters();
+        decimateParameters.setBasicValues(30.0, 0.5, 4.0, 10.0, 1000000, 1, 1.0);
+        new HalfEdgeQuadricDecimator(surface).decimate(originalCount / 4, Double.MAX_VALUE, decimateParameters);
+
+        assertTrue(surface.getTrianglesCount() <= originalCount / 4);
+        for (HalfEdge halfEdge : surface.getHalfEdges()) {
+            assertNotNull(halfEdge.getTwin());
+            assertSame(halfEdge, halfEdge.getTwin().getTwin());
+            assertTrue(halfEdge.isTwineableByPointers(halfEdge.getTwin()));
+        }
+        // euler characteristic of a sphere
+        int edgesCount = surface.getHalfEdges().size() / 2;
+        assertEquals(2, surface.getVertices().size() - edgesCount + surface.getFaces().size());
+        assertTrue(checkFaces(surface));
+    }
+
+    /**
+     * Compares the iterative reduction with the quadric decimation of 20000 and 80000 triangle grids.
+     */
+    @Test
+    @Disabled
+    void benchmark() {
+        for (int gridSize : new int[]{100, 200}) {
+            DecimateParameters decimateParameters = new DecimateParameters();
+            decimateParameters.setBasicValues(10.0, 0.5, 1.0, 6.0, 1000000, 1, 1.0);
+
+            HalfEdgeSurface iterativeSurface = createGridSurface(gridSize, 2.0);
+            int originalCount = iterativeSurface.getTrianglesCount();
+            long iterativeTime = System.nanoTime();
+            iterativeSurface.doTrianglesReduction(decimateParameters);
+            iterativeTime = System.nanoTime() - iterativeTime;
+
+            HalfEdgeSurface quadricSurface = createGridSurface(gridSize, 2.0);
+            long quadricTime = System.nanoTime();
+            quadricSurface.doTrianglesReductionQuadric(decimateParameters);
+            quadricTime = System.nanoTime() - quadricTime;
+
+            log.info("[Benchmark] {} triangles, iterative : {} ms -> {} triangles, quadric : {} ms -> {} triangles",
+                    originalCount, iterativeTime / 1000000, iterativeSurface.getTrianglesCount(), quadricTime / 1000000, quadricSurface.getTrianglesCount());
+            assertTrue(quadricSurface.getTrianglesCount() < originalCount);
+        }
+    }
+
+    private double calculateArea(HalfEdgeSurface surface) {
+        double area = 0.0;
+        for (HalfEdgeFace face : surface.getFaces()) {
+            List<HalfEdgeVertex> vertices = face.getVertices(null);
+            Vector3d a = vertices.get(0).getPosition();
+            Vector3d ab = new Vector3d(vertices.get(1).getPosition()).sub(a);
+            Vector3d ac = new Vector3d(vertices.get(2).getPosition()).sub(a);
+            area += ab.cross(ac).length() * 0.5;
+        }
+        return area;
+    }
+
+    private boolean checkFaces(HalfEdgeSurface surface) {
+        for (HalfEdgeFace face : surface.getFaces()) {
+            List<HalfEdgeVertex> vertices = face.getVertices(null);
+            if (vertices.size() != 3 || face.isDegenerated()) {
+                return false;
+            }
+            for (HalfEdgeVertex vertex : vertices) {
+                if (vertex.getStatus() == ObjectStatus.DELETED || !surface.getVertices().contains(vertex)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A grid with one meter spacing, waving with the given amplitude.
+     */
+    private HalfEdgeSurface createGridSurface(int gridSize, double amplitude) {
+        List<GaiaVertex> vertices = new ArrayList<>();
+        for (int y = 0; y < gridSize; y++) {
+            for (int x = 0; x < gridSize; x++) {
+                GaiaVertex vertex = new GaiaVertex();
+                vertex.setPosition(new Vector3d(x, y, amplitude * Math.sin(x * 0.1) * Math.cos(y * 0.1)));
+                vertices.add(vertex);
+            }
+        }
+        GaiaSurface surface = new GaiaSurface();
+        for (int y = 0; y < gridSize - 1; y++) {
+            for (int x = 0; x < gridSize - 1; x++) {
+                int corner = y * gridSize + x;
+                surface.getFaces().add(createFace(corner, corner + 1, corner + gridSize));
+                surface.getFaces().add(createFace(corner + 1, corner + gridSize + 1, corner + gridSize));
+            }
+        }
+        return HalfEdgeUtils.halfEdgeSurfaceFromGaiaSurface(surface, vertices);
+    }
+
+    private HalfEdgeSurface createSphereSurface(int rings, int segments, double radius) {
+        List<GaiaVertex> vertices = new ArrayList<>();
+        GaiaVertex northPole = new GaiaVertex();
+        northPole.setPosition(new Vector3d(0.0, 0.0, radius));
+        vertices.add(northPole);
+        for (int i = 1; i < rings; i++) {
+            double latitude = Math.PI * i / rings;
+            for (int j = 0; j < segments; j++) {
+                double longitude = 2.0 * Math.PI * j / segments;
+                GaiaVertex vertex = new GaiaVertex();
+                vertex.setPosition(new Vector3d(radius * Math.sin(latitude) * Math.cos(longitude), radius * Math.sin(latitude) * Math.sin(longitude), radius * Math.cos(latitude)));
+                vertices.add(vertex);
+            }
+        }
+        GaiaVertex southPole = new GaiaVertex();
+        southPole.setPosition(new Vector3d(0.0, 0.0, -radius));
+        vertices.add(southPole);
+        int southIndex = vertices.size() - 1;
+
+        GaiaSurface surface = new GaiaSurface();
+        for (int j = 0; j < segments; j++) {
+            int nextJ = (j + 1) % segments;
+            surface.getFaces().add(createFace(0, 1 + j, 1 + nextJ));
+            for (int i = 1; i < rings - 1; i++) {
+                int upper = 1 + (i - 1) * segments;
+                int lower = 1 + i * segments;
+                surface.getFaces().add(createFace(upper + j, lower + j, lower + nextJ));
+                surface.getFaces().add(createFace(upper + j, lower + nextJ, upper + nextJ));
+            }
+            int last = 1 + (rings - 2) * segments;
+            surface.getFaces().add(createFace(last + j, southIndex, last + nextJ));
+        }
+        return HalfEdgeUtils.halfEdgeSurfaceFromGaiaSurface(surface, vertices);
+    }
+
+    private GaiaFace createFace(int a, int b, int c) {
+        GaiaFace face = new GaiaFace();
+        face.setIndices(new int[]{a, b, c});
+        return face;
+    }
+}
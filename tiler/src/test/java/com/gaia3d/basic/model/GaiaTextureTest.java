@@ -0,0 +1,61 @@
+package com.gaia3d.basic.model;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class GaiaTextureTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void fingerprintOfSameImage() throws IOException {
+        writeImage("wall.png", Color.RED, 64, 32);
+        Files.copy(tempDir.resolve("wall.png"), tempDir.resolve("wall_copy.png"));
+        writeImage("roof.png", Color.BLUE, 64, 32);
+        writeImage("wall_large.png", Color.RED, 128, 32);
+
+        String fingerprint = createTexture("wall.png").getFingerprint();
+        log.info("fingerprint : {}", fingerprint);
+        assertTrue(fingerprint.endsWith(":64x32"));
+        assertEquals(fingerprint, createTexture("wall_copy.png").getFingerprint());
+        assertNotEquals(fingerprint, createTexture("roof.png").getFingerprint());
+        assertNotEquals(fingerprint, createTexture("wall_large.png").getFingerprint());
+    }
+
+    @Test
+    void fingerprintOfMissingImage() {
+        GaiaTexture texture = createTexture("missing.png");
+        assertEquals("path:" + texture.getFullPath(), texture.getFingerprint());
+        assertNotEquals(texture.getFingerprint(), createTexture("missing2.png").getFingerprint());
+        assertEquals(texture.getFingerprint(), texture.clone().getFingerprint());
+    }
+
+    private GaiaTexture createTexture(String fileName) {
+        GaiaTexture texture = new GaiaTexture();
+        texture.setParentPath(tempDir.toString());
+        texture.setPath(fileName);
+        return texture;
+    }
+
+    private void writeImage(String fileName, Color color, int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(color);
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+        ImageIO.write(image, "png", new File(tempDir.toFile(), fileName));
+    }
+}
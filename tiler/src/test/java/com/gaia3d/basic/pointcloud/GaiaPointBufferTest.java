@@ -0,0 +1,104 @@
+package com.gaia3d.basic.pointcloud;
+
+import com.gaia3d.basic.geometry.GaiaBoundingBox;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class GaiaPointBufferTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void addAndGrow() {
+        GaiaPointBuffer points = new GaiaPointBuffer();
+        points.add(0, 0, 0, 0);
+        assertEquals(GaiaPointBuffer.MIN_CAPACITY, points.capacity());
+        points.clear();
+        int count = 131079;
+        for (int i = 0; i < count; i++) {
+            points.add(i, i * 2, i * 3, (byte) i, (byte) 0x80, (byte) 0xFF);
+        }
+        points.setClassification(count - 1, (byte) 6);
+
+        assertEquals(count, points.size());
+        assertTrue(points.capacity() < count * 2);
+        assertEquals(count - 1, points.getX(count - 1));
+        assertEquals((count - 1) * 3, points.getZ(count - 1));
+        assertEquals((byte) 0x80, points.getGreen(10));
+        assertEquals((byte) 0xFF, points.getBlue(10));
+        assertEquals((byte) 6, points.getClassification(count - 1));
+        assertEquals(0, points.getClassification(0));
+
+        GaiaPointBuffer range = points.copyRange(10, 20);
+        assertEquals(10, range.size());
+        assertEquals(10, range.getX(0));
+        assertEquals(points.getColor(19), range.getColor(9));
+    }
+
+    @Test
+    void distributeKeepsAllPoints() {
+        GaiaPointCloud pointCloud = createPointCloud(100000);
+        List<GaiaPointCloud> distributes = pointCloud.distributeOct();
+        assertEquals(8, distributes.size());
+
+        int total = 0;
+        for (GaiaPointCloud distribute : distributes) {
+            GaiaPointBuffer points = distribute.getPoints();
+            GaiaBoundingBox boundingBox = distribute.getGaiaBoundingBox();
+            for (int i = 0; i < points.size(); i++) {
+                assertTrue(points.getX(i) >= boundingBox.getMinX() && points.getX(i) <= boundingBox.getMaxX());
+            }
+            total += points.size();
+        }
+        assertEquals(100000, total);
+
+        List<GaiaPointCloud> divided = pointCloud.divideChunkSize(30000);
+        assertEquals(30000, divided.get(0).getPoints().size());
+        assertEquals(70000, divided.get(1).getPoints().size());
+    }
+
+    @Test
+    void minimizeAndMaximize() {
+        GaiaPointCloud pointCloud = createPointCloud(10000);
+        GaiaPointBuffer original = pointCloud.getPoints().copyRange(0, 10000);
+
+        File tempFile = tempDir.resolve("points.tmp").toFile();
+        pointCloud.minimize(tempFile);
+        assertNull(pointCloud.getPoints());
+
+        pointCloud.maximize();
+        GaiaPointBuffer points = pointCloud.getPoints();
+        assertEquals(original.size(), points.size());
+        for (int i = 0; i < points.size(); i++) {
+            assertEquals(original.getX(i), points.getX(i), 1.0E-3);
+            assertEquals(original.getY(i), points.getY(i), 1.0E-3);
+            assertEquals(original.getZ(i), points.getZ(i), 1.0E-3);
+            assertEquals(original.getColor(i), points.getColor(i));
+        }
+    }
+
+    private GaiaPointCloud createPointCloud(int count) {
+        Random random = new Random(42);
+        GaiaPointCloud pointCloud = new GaiaPointCloud();
+        GaiaPointBuffer points = pointCloud.getPoints();
+        GaiaBoundingBox boundingBox = pointCloud.getGaiaBoundingBox();
+        for (int i = 0; i < count; i++) {
+            double x = 200000.0 + random.nextDouble() * 100.0;
+            double y = 500000.0 + random.nextDouble() * 100.0;
+            double z = random.nextDouble() * 100.0;
+            points.add(x, y, z, random.nextInt() & 0xFFFFFF);
+            boundingBox.addPoint(x, y, z);
+        }
+        return pointCloud;
+    }
+}
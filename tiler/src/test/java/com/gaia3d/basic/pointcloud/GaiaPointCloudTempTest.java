@@ -0,0 +1,189 @@
+package com.gaia3d.basic.pointcloud;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class GaiaPointCloudTempTest {
+
+    private static final int SHUFFLE_BUFFER_SIZE = 65536 * 8;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void writeAndRead() {
+        GaiaPointBuffer points = createPoints(100000);
+        File file = tempDir.resolve("cell.bin").toFile();
+        writeTemp(file, points);
+        assertEquals(52 + 100000 * 16, file.length());
+
+        GaiaPointBuffer result = readTemp(file);
+        assertEquals(points.size(), result.size());
+        for (int i = 0; i < points.size(); i++) {
+            assertEquals(points.getX(i), result.getX(i), 1.0E-3);
+            assertEquals(points.getZ(i), result.getZ(i), 1.0E-3);
+            assertEquals(points.getColor(i), result.getColor(i));
+        }
+    }
+
+    @Test
+    void shuffleKeepsLegacyOrder() {
+        int pointCount = 1000;
+        GaiaPointBuffer points = createPoints(pointCount);
+        File file = tempDir.resolve("shuffle.bin").toFile();
+        writeTemp(file, points);
+
+        GaiaPointCloudTemp temp = new GaiaPointCloudTemp(file);
+        temp.shuffleTempMoreFast(1, 1);
+        assertFalse(file.exists());
+        GaiaPointBuffer result = readTemp(temp.getTempFile());
+        assertEquals(pointCount, result.size());
+
+        // the previous implementation read the shuffled indexes one by one
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < SHUFFLE_BUFFER_SIZE; i++) {
+            indexes.add(i);
+        }
+        Collections.shuffle(indexes, new Random(42));
+        int resultIndex = 0;
+        for (int index : indexes) {
+            if (index < pointCount) {
+                assertEquals(points.getColor(index), result.getColor(resultIndex++));
+            }
+        }
+    }
+
+    @Test
+    void shuffleMultipleChunks() {
+        int pointCount = SHUFFLE_BUFFER_SIZE * 2 + 1234;
+        GaiaPointBuffer points = createPoints(pointCount);
+        File file = tempDir.resolve("chunks.bin").toFile();
+        writeTemp(file, points);
+
+        GaiaPointCloudTemp temp = new GaiaPointCloudTemp(file);
+        temp.shuffleTempMoreFast(1, 1);
+        GaiaPointBuffer result = readTemp(temp.getTempFile());
+        assertEquals(pointCount, result.size());
+
+        int[] colorCounts = new int[1 << 24];
+        for (int i = 0; i < pointCount; i++) {
+            colorCounts[points.getColor(i)]++;
+            colorCounts[result.getColor(i)]--;
+        }
+        for (int colorCount : colorCounts) {
+            assertEquals(0, colorCount);
+        }
+    }
+
+    @Test
+    void appendShardsInOrder() {
+        GaiaPointBuffer points = createPoints(30000);
+        File file = tempDir.resolve("merged.bin").toFile();
+        GaiaPointCloudTemp cell = new GaiaPointCloudTemp(file);
+        cell.getQuantizedVolumeScale()[0] = 100.0;
+        cell.getQuantizedVolumeScale()[1] = 100.0;
+        cell.getQuantizedVolumeScale()[2] = 100.0;
+        cell.getQuantizedVolumeOffset()[0] = 200000.0;
+        cell.getQuantizedVolumeOffset()[1] = 500000.0;
+        cell.writeHeader();
+
+        List<GaiaPointCloudTemp> shards = new ArrayList<>();
+        for (int shardIndex = 0; shardIndex < 3; shardIndex++) {
+            GaiaPointCloudTemp shard = cell.createShard(String.valueOf(shardIndex));
+            shard.writePositionsFast(points.copyRange(shardIndex * 10000, (shardIndex + 1) * 10000));
+            shard.close();
+            shards.add(shard);
+        }
+        shards.forEach(cell::appendShard);
+        cell.close();
+        shards.forEach((shard) -> assertFalse(shard.getTempFile().exists()));
+
+        GaiaPointBuffer result = readTemp(file);
+        assertEquals(points.size(), result.size());
+        for (int i = 0; i < points.size(); i++) {
+            assertEquals(points.getY(i), result.getY(i), 1.0E-3);
+            assertEquals(points.getColor(i), result.getColor(i));
+        }
+    }
+
+    /**
+     * Reports the throughput of the temp write, read and shuffle.
+     * Set -Dpointcloud.benchmark.points to a larger count (e.g. 200000000 for a 3.2GB cell) to measure big grid cells.
+     */
+    @Test
+    @Disabled
+    void benchmark() {
+        int pointCount = Integer.getInteger("pointcloud.benchmark.points", 4000000);
+        GaiaPointBuffer points = createPoints(pointCount);
+        File file = tempDir.resolve("benchmark.bin").toFile();
+
+        long start = System.nanoTime();
+        writeTemp(file, points);
+        long writeTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        GaiaPointBuffer result = readTemp(file);
+        long readTime = System.nanoTime() - start;
+        assertEquals(pointCount, result.size());
+
+        start = System.nanoTime();
+        GaiaPointCloudTemp temp = new GaiaPointCloudTemp(file);
+        temp.shuffleTempMoreFast(1, 1);
+        long shuffleTime = System.nanoTime() - start;
+        assertEquals(52 + (long) pointCount * 16, temp.getTempFile().length());
+
+        log.info("[Benchmark] points : {}, file size : {} MB", pointCount, temp.getTempFile().length() / 1024 / 1024);
+        log.info("[Benchmark] write : {} points/sec", toPointsPerSecond(pointCount, writeTime));
+        log.info("[Benchmark] read : {} points/sec", toPointsPerSecond(pointCount, readTime));
+        log.info("[Benchmark] shuffle : {} points/sec", toPointsPerSecond(pointCount, shuffleTime));
+    }
+
+    private long toPointsPerSecond(int pointCount, long nanoTime) {
+        return (long) (pointCount / (nanoTime / 1.0E9));
+    }
+
+    private void writeTemp(File file, GaiaPointBuffer points) {
+        GaiaPointCloudTemp temp = new GaiaPointCloudTemp(file);
+        temp.getQuantizedVolumeScale()[0] = 100.0;
+        temp.getQuantizedVolumeScale()[1] = 100.0;
+        temp.getQuantizedVolumeScale()[2] = 100.0;
+        temp.getQuantizedVolumeOffset()[0] = 200000.0;
+        temp.getQuantizedVolumeOffset()[1] = 500000.0;
+        temp.getQuantizedVolumeOffset()[2] = 0.0;
+        temp.writeHeader();
+        temp.writePositionsFast(points);
+        temp.close();
+    }
+
+    private GaiaPointBuffer readTemp(File file) {
+        GaiaPointCloudTemp temp = new GaiaPointCloudTemp(file);
+        assertTrue(temp.readHeader());
+        GaiaPointBuffer points = temp.readTemp();
+        temp.close();
+        return points;
+    }
+
+    private GaiaPointBuffer createPoints(int count) {
+        Random random = new Random(7);
+        GaiaPointBuffer points = new GaiaPointBuffer(count);
+        for (int i = 0; i < count; i++) {
+            double x = 200000.0 + random.nextDouble() * 100.0;
+            double y = 500000.0 + random.nextDouble() * 100.0;
+            double z = random.nextDouble() * 100.0;
+            points.add(x, y, z, i & 0xFFFFFF);
+        }
+        return points;
+    }
+}
@@ -0,0 +1,63 @@
+package com.gaia3d.converter.geometry.citygml;
+
+import com.gaia3d.basic.model.GaiaScene;
+import com.gaia3d.converter.geometry.GaiaSceneTempHolder;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class CityGmlConverterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void convertTempInBatches() throws IOException {
+        int buildingCount = 2500;
+        File input = createCityGml(buildingCount);
+        File output = tempDir.resolve("temp").toFile();
+        assertTrue(output.mkdirs());
+
+        CityGmlConverter converter = new CityGmlConverter();
+        List<GaiaSceneTempHolder> sceneTemps = converter.convertTemp(input, output);
+        assertEquals(3, sceneTemps.size());
+
+        int sceneCount = 0;
+        for (GaiaSceneTempHolder sceneTemp : sceneTemps) {
+            assertTrue(sceneTemp.getTempFile().exists());
+            List<GaiaScene> scenes = converter.load(sceneTemp.getTempFile());
+            sceneCount += scenes.size();
+        }
+        assertEquals(buildingCount, sceneCount);
+
+        List<GaiaScene> scenes = converter.load(input);
+        assertEquals(buildingCount, scenes.size());
+    }
+
+    private File createCityGml(int buildingCount) throws IOException {
+        File file = tempDir.resolve("buildings.gml").toFile();
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath())) {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            writer.write("<core:CityModel xmlns:core=\"http://www.opengis.net/citygml/2.0\" xmlns:bldg=\"http://www.opengis.net/citygml/building/2.0\" xmlns:gml=\"http://www.opengis.net/gml\">\n");
+            for (int i = 0; i < buildingCount; i++) {
+                double x = 200000.0 + (i % 50) * 20.0;
+                double y = 500000.0 + (i / 50) * 20.0;
+                writer.write("<core:cityObjectMember><bldg:Building gml:id=\"b" + i + "\"><bldg:lod2MultiSurface><gml:MultiSurface><gml:surfaceMember><gml:Polygon><gml:exterior><gml:LinearRing><gml:posList srsDimension=\"3\">");
+                writer.write(x + " " + y + " 10 " + (x + 10) + " " + y + " 10 " + (x + 10) + " " + (y + 10) + " 10 " + x + " " + (y + 10) + " 10 " + x + " " + y + " 10");
+                writer.write("</gml:posList></gml:LinearRing></gml:exterior></gml:Polygon></gml:surfaceMember></gml:MultiSurface></bldg:lod2MultiSurface></bldg:Building></core:cityObjectMember>\n");
+            }
+            writer.write("</core:CityModel>\n");
+        }
+        return file;
+    }
+}
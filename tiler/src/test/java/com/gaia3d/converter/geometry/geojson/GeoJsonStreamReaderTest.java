@@ -0,0 +1,163 @@
+package com.gaia3d.converter.geometry.geojson;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.MultiLineString;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class GeoJsonStreamReaderTest {
+
+    @Test
+    void readFeatureCollection() throws IOException {
+        String json = "{\"type\":\"FeatureCollection\",\n"
+                + "\"crs\":{\"type\":\"name\",\"properties\":{\"name\":\"urn:ogc:def:crs:EPSG::5186\"}},\n"
+                + "\"features\":[\n"
+                + "{\"type\":\"Feature\",\"id\":\"building-1\",\"properties\":{\"height\":12,\"name\":\"A\",\"area\":35.5,\"owner\":null,\"tags\":{\"use\":[\"office\"]}},"
+                + "\"geometry\":{\"type\":\"Polygon\",\"coordinates\":[[[0,0],[10,0],[10,10],[0,10],[0,0]],[[2,2],[2,4],[4,4],[4,2],[2,2]]]}},\n"
+                + "{\"geometry\":{\"coordinates\":[[[0,0,1],[5,5,2]],[[5,5,2],[9,9,3]]],\"type\":\"MultiLineString\"},\"type\":\"Feature\",\"properties\":{\"diameter\":300}},\n"
+                + "{\"type\":\"Feature\",\"properties\":{\"name\":\"empty\"},\"geometry\":null}\n"
+                + "]}";
+        File file = writeTempFile(json);
+        try {
+            GeoJsonStreamReader reader = new GeoJsonStreamReader(file);
+            assertFalse(reader.isSequence());
+            assertEquals("EPSG:5186", reader.readCrs().getName());
+            assertEquals(List.of("height", "name", "area", "owner", "tags", "diameter"), new ArrayList<>(reader.readPropertyNames()));
+
+            List<GeoJsonFeature> features = new ArrayList<>();
+            reader.read(features::add);
+            assertEquals(3, features.size());
+
+            GeoJsonFeature building = features.get(0);
+            assertEquals("building-1", building.getId());
+            assertTrue(building.getGeometry() instanceof Polygon);
+            assertEquals(1, ((Polygon) building.getGeometry()).getNumInteriorRing());
+            assertEquals(12, building.getProperties().get("height"));
+            assertEquals(35.5, building.getProperties().get("area"));
+            assertEquals("A", building.getProperties().get("name"));
+            assertTrue(building.getProperties().containsKey("owner"));
+            assertNull(building.getProperties().get("owner"));
+            assertEquals("{\"use\":[\"office\"]}", building.getProperties().get("tags"));
+
+            GeoJsonFeature pipe = features.get(1);
+            assertTrue(pipe.getGeometry() instanceof MultiLineString);
+            assertEquals(3.0, pipe.getGeometry().getGeometryN(1).getCoordinates()[1].getZ());
+            assertNotEquals(pipe.getId(), features.get(2).getId());
+            assertNull(features.get(2).getGeometry());
+
+            Geometry expected = new WKTReader().read("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (2 2, 2 4, 4 4, 4 2, 2 2))");
+            assertTrue(expected.equalsExact(building.getGeometry()));
+            assertEquals(96.0, building.getGeometry().getArea());
+        } catch (ParseException e) {
+            fail(e);
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    @Test
+    void readSequenceRanges() throws IOException {
+        for (String separator : new String[]{"", "\u001E"}) {
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < 1000; i++) {
+                builder.append(separator).append(createPolygonFeature(i, i * 10.0, 0.0)).append('\n');
+            }
+            File file = writeTempFile(builder.toString());
+            try {
+                GeoJsonStreamReader reader = new GeoJsonStreamReader(file);
+                assertTrue(reader.isSequence());
+                assertNull(reader.readCrs());
+
+                List<String> ids = new ArrayList<>();
+                reader.read((feature) -> ids.add(feature.getId()));
+                assertEquals(1000, ids.size());
+
+                List<long[]> ranges = reader.splitRanges(1000);
+                assertTrue(ranges.size() > 10);
+                List<String> rangeIds = new ArrayList<>();
+                long position = 0;
+                for (long[] range : ranges) {
+                    assertEquals(position, range[0]);
+                    position = range[1];
+                    reader.read(range[0], range[1], (feature) -> rangeIds.add(feature.getId()));
+                }
+                assertEquals(file.length(), position);
+                assertEquals(ids, rangeIds);
+            } finally {
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+    }
+
+    @Test
+    void readPrettyPrintedFeature() throws IOException {
+        String json = "{\n  \"type\": \"Feature\",\n  \"properties\": {\"height\": 3.5},\n  \"geometry\": {\n    \"type\": \"Point\",\n    \"coordinates\": [127.0, 37.0]\n  }\n}\n";
+        File file = writeTempFile(json);
+        try {
+            GeoJsonStreamReader reader = new GeoJsonStreamReader(file);
+            assertFalse(reader.isSequence());
+            assertEquals(1, reader.splitRanges(8).size());
+            List<GeoJsonFeature> features = new ArrayList<>();
+            reader.read(features::add);
+            assertEquals(1, features.size());
+            assertEquals(127.0, features.get(0).getGeometry().getCoordinate().getX());
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    /**
+     * Reports the read throughput of a FeatureCollection of 50000 polygons.
+     */
+    @Test
+    @Disabled
+    void benchmark() throws IOException {
+        int featureCount = 50000;
+        StringBuilder builder = new StringBuilder("{\"type\":\"FeatureCollection\",\"features\":[\n");
+        for (int i = 0; i < featureCount; i++) {
+            builder.append(i > 0 ? ",\n" : "").append(createPolygonFeature(i, (i % 500) * 20.0, (i / 500) * 20.0));
+        }
+        builder.append("]}");
+        File file = writeTempFile(builder.toString());
+        try {
+            long time = System.nanoTime();
+            int[] polygonCount = {0};
+            new GeoJsonStreamReader(file).read((feature) -> {
+                if (feature.getGeometry() instanceof Polygon) {
+                    polygonCount[0]++;
+                }
+            });
+            time = System.nanoTime() - time;
+
+            log.info("[Benchmark] {} features, {} bytes, stream reader : {} ms, {} MB/sec", featureCount, file.length(), time / 1000000, String.format("%.1f", file.length() / 1.0e6 / (time / 1.0e9)));
+            assertEquals(featureCount, polygonCount[0]);
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    private String createPolygonFeature(int index, double x, double y) {
+        return String.format(Locale.US, "{\"type\":\"Feature\",\"id\":\"f%d\",\"properties\":{\"height\":%d,\"name\":\"building %d\"},"
+                        + "\"geometry\":{\"type\":\"Polygon\",\"coordinates\":[[[%.1f,%.1f],[%.1f,%.1f],[%.1f,%.1f],[%.1f,%.1f],[%.1f,%.1f]]]}}",
+                index, 3 + index % 30, index, x, y, x + 10, y, x + 10, y + 10, x, y + 10, x, y);
+    }
+
+    private File writeTempFile(String json) throws IOException {
+        File file = Files.createTempFile("geojson", ".geojson").toFile();
+        Files.write(file.toPath(), json.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
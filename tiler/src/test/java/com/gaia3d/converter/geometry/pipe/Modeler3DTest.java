@@ -0,0 +1,89 @@
+package com.gaia3d.converter.geometry.pipe;
+
+import com.gaia3d.basic.geometry.network.modeler.TopologicalEdge;
+import com.gaia3d.basic.geometry.network.modeler.TopologicalNetwork;
+import com.gaia3d.basic.geometry.network.modeler.TopologicalNode;
+import lombok.extern.slf4j.Slf4j;
+import org.joml.Vector3d;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class Modeler3DTest {
+
+    @Test
+    void buildPipeNetwork() {
+        List<PipeElbow> pipeElbows = createPipeElbows(5, PipeType.RECTANGULAR);
+        pipeElbows.forEach((pipeElbow) -> pipeElbow.setPipeRectangularSize(new float[]{0.4f, 0.3f}));
+        TopologicalNetwork network = new Modeler3D().getPipeNetworkFromPipeElbows(pipeElbows);
+
+        assertEquals(5, network.getNodes().size());
+        assertEquals(4, network.getEdges().size());
+        Pipe pipe = (Pipe) network.getEdges().get(0);
+        assertEquals(PipeType.RECTANGULAR, pipe.getProfileType());
+        assertArrayEquals(new float[]{0.4f, 0.3f}, pipe.getPipeRectangularSize());
+        assertNotSame(pipeElbows.get(0).getPipeRectangularSize(), pipe.getPipeRectangularSize());
+        assertNotNull(new Modeler3D().makeGeometry(network));
+    }
+
+    /**
+     * A pipe line of 500k points, the size of a utility network, is linked in one pass.
+     * A scan of the elbows against each other would not end within the time limit.
+     */
+    @Test
+    void buildLargePipeNetwork() {
+        int elbowCount = 500000;
+        List<PipeElbow> pipeElbows = createPipeElbows(elbowCount, PipeType.CIRCULAR);
+        TopologicalNetwork network = assertTimeoutPreemptively(Duration.ofSeconds(30), () -> new Modeler3D().getPipeNetworkFromPipeElbows(pipeElbows));
+
+        List<TopologicalNode> nodes = network.getNodes();
+        List<TopologicalEdge> edges = network.getEdges();
+        assertEquals(elbowCount, nodes.size());
+        assertEquals(elbowCount - 1, edges.size());
+        for (int i = 0; i < edges.size(); i++) {
+            assertSame(pipeElbows.get(i), edges.get(i).getStartNode());
+            assertSame(pipeElbows.get(i + 1), edges.get(i).getEndNode());
+        }
+        assertEquals(1, nodes.get(0).getEdges().size());
+        assertEquals(1, nodes.get(elbowCount - 1).getEdges().size());
+        for (int i = 1; i < elbowCount - 1; i++) {
+            assertEquals(2, nodes.get(i).getEdges().size());
+        }
+    }
+
+    /**
+     * Reports the network build time per elbow, which stays flat while the pipe line grows.
+     */
+    @Test
+    @Disabled
+    void benchmark() {
+        for (int elbowCount = 125000; elbowCount <= 2000000; elbowCount *= 2) {
+            List<PipeElbow> pipeElbows = createPipeElbows(elbowCount, PipeType.CIRCULAR);
+            new Modeler3D().getPipeNetworkFromPipeElbows(pipeElbows);
+            long time = System.nanoTime();
+            TopologicalNetwork network = new Modeler3D().getPipeNetworkFromPipeElbows(pipeElbows);
+            time = System.nanoTime() - time;
+            log.info("[Benchmark] {} elbows : {} ms, {} ns per elbow", elbowCount, time / 1000000, time / elbowCount);
+            assertEquals(elbowCount - 1, network.getEdges().size());
+        }
+    }
+
+    /**
+     * Creates the elbows of a zigzag pipe line with 10 meter segments.
+     */
+    private List<PipeElbow> createPipeElbows(int elbowCount, PipeType profileType) {
+        List<PipeElbow> pipeElbows = new ArrayList<>(elbowCount);
+        for (int i = 0; i < elbowCount; i++) {
+            PipeElbow pipeElbow = new PipeElbow(new Vector3d(i * 10.0, (i % 2) * 10.0, 0.0), profileType, 0.75f);
+            pipeElbow.setPipeRadius(0.5f);
+            pipeElbows.add(pipeElbow);
+        }
+        return pipeElbows;
+    }
+}
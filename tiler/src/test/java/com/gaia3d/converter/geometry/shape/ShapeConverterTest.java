@@ -0,0 +1,111 @@
+package com.gaia3d.converter.geometry.shape;
+
+import com.gaia3d.basic.model.GaiaScene;
+import com.gaia3d.command.mago.GlobalOptions;
+import com.gaia3d.converter.geometry.GaiaSceneTempHolder;
+import lombok.extern.slf4j.Slf4j;
+import org.geotools.data.FeatureWriter;
+import org.geotools.data.Transaction;
+import org.geotools.data.shapefile.ShapefileDataStore;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.referencing.crs.DefaultGeographicCRS;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.proj4j.CRSFactory;
+import org.locationtech.proj4j.CoordinateReferenceSystem;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class ShapeConverterTest {
+
+    @TempDir
+    File tempDirectory;
+
+    @Test
+    void convertTempInOrder() throws IOException {
+        int featureCount = 2000;
+        File input = new File(tempDirectory, "buildings.shp");
+        writeBuildings(input, featureCount);
+        File output = new File(tempDirectory, "temp");
+        assertTrue(output.mkdirs());
+
+        GlobalOptions globalOptions = GlobalOptions.getInstance();
+        CoordinateReferenceSystem crs = globalOptions.getCrs();
+        byte multiThreadCount = globalOptions.getMultiThreadCount();
+        globalOptions.setCrs(new CRSFactory().createFromName("EPSG:4326"));
+        globalOptions.setMultiThreadCount((byte) 4);
+        globalOptions.setNameColumn(GlobalOptions.DEFAULT_NAME_COLUMN);
+        globalOptions.setHeightColumn(GlobalOptions.DEFAULT_HEIGHT_COLUMN);
+        globalOptions.setDiameterColumn(GlobalOptions.DEFAULT_DIAMETER_COLUMN);
+        globalOptions.setMinimumHeight(GlobalOptions.DEFAULT_MINIMUM_HEIGHT);
+        try {
+            ShapeConverter converter = new ShapeConverter();
+            // 20 batches for 4 threads, more than the batches kept in flight.***
+            converter.setMaxBatchCount(100);
+            List<GaiaSceneTempHolder> sceneTemps = converter.convertTemp(input, output);
+            assertEquals(featureCount / 100, sceneTemps.size());
+
+            List<String> names = new ArrayList<>();
+            for (GaiaSceneTempHolder sceneTemp : sceneTemps) {
+                sceneTemp.maximize();
+                for (GaiaScene scene : sceneTemp.getTempScene()) {
+                    names.add(scene.getAttribute().getAttributes().get("name"));
+                }
+            }
+            assertEquals(featureCount, names.size());
+            for (int i = 0; i < featureCount; i++) {
+                assertEquals("building " + i, names.get(i));
+            }
+        } finally {
+            globalOptions.setCrs(crs);
+            globalOptions.setMultiThreadCount(multiThreadCount);
+        }
+    }
+
+    /**
+     * Writes a row of 10 meter square buildings near Seoul, in WGS84.
+     */
+    private void writeBuildings(File file, int featureCount) throws IOException {
+        SimpleFeatureTypeBuilder typeBuilder = new SimpleFeatureTypeBuilder();
+        typeBuilder.setName("buildings");
+        typeBuilder.setCRS(DefaultGeographicCRS.WGS84);
+        typeBuilder.add("the_geom", Polygon.class);
+        typeBuilder.add("name", String.class);
+        typeBuilder.add("height", Double.class);
+        SimpleFeatureType featureType = typeBuilder.buildFeatureType();
+
+        GeometryFactory geometryFactory = new GeometryFactory();
+        double size = 0.0001;
+        ShapefileDataStore dataStore = new ShapefileDataStore(file.toURI().toURL());
+        try {
+            dataStore.createSchema(featureType);
+            try (FeatureWriter<SimpleFeatureType, SimpleFeature> writer = dataStore.getFeatureWriterAppend(Transaction.AUTO_COMMIT)) {
+                for (int i = 0; i < featureCount; i++) {
+                    double x = 127.0 + (i % 100) * size * 2;
+                    double y = 37.0 + (i / 100) * size * 2;
+                    Polygon polygon = geometryFactory.createPolygon(new Coordinate[]{
+                            new Coordinate(x, y), new Coordinate(x + size, y), new Coordinate(x + size, y + size),
+                            new Coordinate(x, y + size), new Coordinate(x, y)});
+                    SimpleFeature feature = writer.next();
+                    feature.setDefaultGeometry(polygon);
+                    feature.setAttribute("name", "building " + i);
+                    feature.setAttribute("height", 10.0 + i % 20);
+                    writer.write();
+                }
+            }
+        } finally {
+            dataStore.dispose();
+        }
+    }
+}
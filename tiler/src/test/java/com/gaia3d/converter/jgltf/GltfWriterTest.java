@@ -0,0 +1,239 @@
+package com.gaia3d.converter.jgltf;
+
+import com.gaia3d.basic.model.*;
+import com.gaia3d.basic.types.TextureType;
+import com.gaia3d.io.GatheringFileWriter;
+import de.javagl.jgltf.model.AccessorModel;
+import de.javagl.jgltf.model.AccessorShortData;
+import de.javagl.jgltf.model.GltfConstants;
+import de.javagl.jgltf.model.GltfModel;
+import de.javagl.jgltf.model.ImageModel;
+import de.javagl.jgltf.model.NodeModel;
+import de.javagl.jgltf.model.io.GltfModelReader;
+import de.javagl.jgltf.model.io.GltfModelWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.joml.Vector2d;
+import org.joml.Vector3d;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class GltfWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void writeBinaryImage() throws IOException {
+        File glbFile = tempDir.resolve("binary.glb").toFile();
+        new GltfWriter(GltfImageType.BINARY, tempDir.toFile()).writeGlb(createScene(Color.RED), glbFile);
+
+        GltfModel gltfModel = new GltfModelReader().read(glbFile.toPath());
+        ImageModel imageModel = gltfModel.getImageModels().get(0);
+        assertNull(imageModel.getUri());
+        assertNotNull(imageModel.getBufferViewModel());
+        BufferedImage image = decodeImage(imageModel.getImageData());
+        assertEquals(64, image.getWidth());
+        assertEquals(Color.RED.getRGB(), image.getRGB(10, 40));
+
+        AccessorModel positions = gltfModel.getMeshModels().get(0).getMeshPrimitiveModels().get(0).getAttributes().get("POSITION");
+        assertArrayEquals(new float[]{2.0f, 4.0f, 0.0f}, toFloats(positions.getMax()));
+        assertTrue(readJson(glbFile).contains("\"min\""));
+    }
+
+    @Test
+    void writeSharedExternalImage() throws IOException {
+        GltfWriter gltfWriter = new GltfWriter(GltfImageType.EXTERNAL, tempDir.toFile());
+        File firstFile = tempDir.resolve("first.glb").toFile();
+        File secondFile = tempDir.resolve("second.glb").toFile();
+        File otherFile = tempDir.resolve("other.glb").toFile();
+        gltfWriter.writeGlb(createScene(Color.RED), firstFile);
+        gltfWriter.writeGlb(createScene(Color.RED), secondFile);
+        gltfWriter.writeGlb(createScene(Color.BLUE), otherFile);
+
+        File[] imageFiles = tempDir.resolve(GltfWriter.IMAGE_DIRECTORY).toFile().listFiles();
+        assertNotNull(imageFiles);
+        assertEquals(2, imageFiles.length);
+
+        GltfModel firstModel = new GltfModelReader().read(firstFile.toPath());
+        GltfModel secondModel = new GltfModelReader().read(secondFile.toPath());
+        String uri = firstModel.getImageModels().get(0).getUri();
+        assertTrue(uri.startsWith(GltfWriter.IMAGE_DIRECTORY + "/"));
+        assertEquals(uri, secondModel.getImageModels().get(0).getUri());
+        assertEquals(Color.RED.getRGB(), decodeImage(firstModel.getImageModels().get(0).getImageData()).getRGB(10, 40));
+        assertNull(firstModel.getImageModels().get(0).getBufferViewModel());
+    }
+
+    @Test
+    void writeQuantizedGlb() throws IOException {
+        File glbFile = tempDir.resolve("quantized.glb").toFile();
+        GltfWriter gltfWriter = new GltfWriter(GltfImageType.BINARY, tempDir.toFile());
+        gltfWriter.setQuantized(true);
+        gltfWriter.writeGlb(createScene(Color.RED), glbFile);
+        assertTrue(readJson(glbFile).contains("\"extensionsRequired\":[\"KHR_mesh_quantization\"]"));
+
+        GltfModel gltfModel = new GltfModelReader().read(glbFile.toPath());
+        NodeModel meshNode = gltfModel.getNodeModels().stream().filter((nodeModel) -> !nodeModel.getMeshModels().isEmpty()).findFirst().orElse(null);
+        assertNotNull(meshNode);
+        float[] matrix = meshNode.getMatrix();
+        Map<String, AccessorModel> attributes = meshNode.getMeshModels().get(0).getMeshPrimitiveModels().get(0).getAttributes();
+        AccessorModel positions = attributes.get("POSITION");
+        assertEquals(GltfConstants.GL_UNSIGNED_SHORT, positions.getComponentType());
+        AccessorShortData positionsData = (AccessorShortData) positions.getAccessorData();
+        for (int i = 0; i < 3; i++) {
+            float[] expected = {i, i * i, 0};
+            for (int c = 0; c < 3; c++) {
+                float dequantized = positionsData.getInt(i, c) * matrix[c * 5] + matrix[12 + c];
+                assertEquals(expected[c], dequantized, 1.0e-3);
+            }
+        }
+        AccessorModel texcoords = attributes.get("TEXCOORD_0");
+        assertEquals(GltfConstants.GL_UNSIGNED_SHORT, texcoords.getComponentType());
+        assertTrue(texcoords.isNormalized());
+        assertEquals(65535, ((AccessorShortData) texcoords.getAccessorData()).getInt(2, 0));
+    }
+
+    @Test
+    void createGlbWithKnownLength() throws IOException {
+        for (GltfImageType imageType : GltfImageType.values()) {
+            GlbContent glbContent = new GltfWriter(imageType, tempDir.toFile()).createGlb(createScene(Color.GREEN));
+            File glbFile = tempDir.resolve(imageType.name() + ".glb").toFile();
+            GatheringFileWriter.write(glbFile.toPath(), glbContent.getBuffers());
+            // the chunks can be written again
+            GatheringFileWriter.write(glbFile.toPath(), glbContent.getBuffers());
+
+            byte[] bytes = Files.readAllBytes(glbFile.toPath());
+            assertEquals(glbContent.getByteLength(), bytes.length);
+            assertEquals(bytes.length, ByteBuffer.wrap(bytes, 8, 4).order(ByteOrder.LITTLE_ENDIAN).getInt());
+            assertEquals(0, bytes.length % 4);
+            assertNotNull(new GltfModelReader().read(glbFile.toPath()).getImageModels().get(0).getImageData());
+        }
+    }
+
+    @Test
+    void createUriGlbInChunks() throws IOException {
+        GltfWriter gltfWriter = new GltfWriter();
+        GlbContent glbContent = gltfWriter.createGlb(createScene(Color.RED));
+        assertTrue(glbContent.getBuffers().length > 1);
+        File glbFile = tempDir.resolve("uri.glb").toFile();
+        GatheringFileWriter.write(glbFile.toPath(), glbContent.getBuffers());
+        assertTrue(readJson(glbFile).contains("\"uri\":\"data:image/png;base64,"));
+
+        // the former output, the same model written by jgltf with the images moved into the binary chunk
+        GltfModel gltfModel = new GltfModelReader().read(glbFile.toPath());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new GltfModelWriter().writeBinary(gltfModel, outputStream);
+        GltfModel formerModel = new GltfModelReader().readWithoutReferences(new ByteArrayInputStream(outputStream.toByteArray()));
+
+        assertEquals(formerModel.getAccessorModels().size(), gltfModel.getAccessorModels().size());
+        for (int i = 0; i < gltfModel.getAccessorModels().size(); i++) {
+            assertEquals(formerModel.getAccessorModels().get(i).getAccessorData().createByteBuffer(), gltfModel.getAccessorModels().get(i).getAccessorData().createByteBuffer());
+        }
+        assertEquals(formerModel.getImageModels().get(0).getImageData(), gltfModel.getImageModels().get(0).getImageData());
+        assertEquals(Color.RED.getRGB(), decodeImage(gltfModel.getImageModels().get(0).getImageData()).getRGB(10, 40));
+    }
+
+    /**
+     * Compares the glb size and the write time of the image storages.
+     */
+    @Test
+    @Disabled
+    void benchmark() {
+        int count = 50;
+        new GltfWriter().writeGlb(createScene(Color.GRAY), tempDir.resolve("warmup.glb").toFile());
+        for (GltfImageType imageType : GltfImageType.values()) {
+            GltfWriter gltfWriter = new GltfWriter(imageType, tempDir.resolve(imageType.name()).toFile());
+            long contentBytes = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                File glbFile = tempDir.resolve(imageType.name() + "_" + i + ".glb").toFile();
+                gltfWriter.writeGlb(createScene(new Color(i * 5, 100, 200)), glbFile);
+                contentBytes += glbFile.length();
+            }
+            long time = System.nanoTime() - start;
+            log.info("[Benchmark] {} {} glb : {} ms, {} bytes", imageType, count, time / 1000000, contentBytes);
+            assertTrue(contentBytes > 0);
+        }
+    }
+
+    private GaiaScene createScene(Color color) {
+        BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(color);
+        graphics.fillRect(0, 0, 64, 64);
+        graphics.setColor(Color.WHITE);
+        graphics.drawLine(0, 0, 63, 63);
+        graphics.dispose();
+
+        GaiaTexture texture = new GaiaTexture();
+        texture.setPath("wall.png");
+        texture.setParentPath(tempDir.toString());
+        texture.setBufferedImage(image);
+        List<GaiaTexture> textures = new ArrayList<>();
+        textures.add(texture);
+        GaiaMaterial material = new GaiaMaterial();
+        material.setId(0);
+        material.getTextures().put(TextureType.DIFFUSE, textures);
+
+        GaiaPrimitive primitive = new GaiaPrimitive();
+        primitive.setMaterialIndex(0);
+        for (int i = 0; i < 3; i++) {
+            GaiaVertex vertex = new GaiaVertex();
+            vertex.setPosition(new Vector3d(i, i * i, 0));
+            vertex.setTexcoords(new Vector2d(i * 0.5, 0));
+            primitive.getVertices().add(vertex);
+        }
+        GaiaFace face = new GaiaFace();
+        face.setIndices(new int[]{0, 1, 2});
+        GaiaSurface surface = new GaiaSurface();
+        surface.getFaces().add(face);
+        primitive.getSurfaces().add(surface);
+
+        GaiaMesh mesh = new GaiaMesh();
+        mesh.getPrimitives().add(primitive);
+        GaiaNode node = new GaiaNode();
+        node.getMeshes().add(mesh);
+        GaiaScene scene = new GaiaScene();
+        scene.getMaterials().add(material);
+        scene.getNodes().add(node);
+        return scene;
+    }
+
+    private BufferedImage decodeImage(ByteBuffer imageData) throws IOException {
+        byte[] bytes = new byte[imageData.remaining()];
+        imageData.duplicate().get(bytes);
+        return ImageIO.read(new ByteArrayInputStream(bytes));
+    }
+
+    private String readJson(File glbFile) throws IOException {
+        byte[] bytes = Files.readAllBytes(glbFile.toPath());
+        int jsonLength = ByteBuffer.wrap(bytes, 12, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+        return new String(bytes, 20, jsonLength);
+    }
+
+    private float[] toFloats(Number[] numbers) {
+        float[] result = new float[numbers.length];
+        for (int i = 0; i < numbers.length; i++) {
+            result[i] = numbers[i].floatValue();
+        }
+        return result;
+    }
+}
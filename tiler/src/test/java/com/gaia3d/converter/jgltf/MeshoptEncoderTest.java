@@ -0,0 +1,300 @@
+package com.gaia3d.converter.jgltf;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gaia3d.basic.model.*;
+import com.gaia3d.basic.types.TextureType;
+import lombok.extern.slf4j.Slf4j;
+import org.joml.Vector2d;
+import org.joml.Vector3d;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class MeshoptEncoderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void encodeVertexBuffer() {
+        Random random = new Random(1);
+        int[] vertexSizes = {4, 8, 12, 16, 256};
+        int[] vertexCounts = {0, 1, 17, 1000};
+        for (int vertexSize : vertexSizes) {
+            for (int vertexCount : vertexCounts) {
+                byte[] vertices = new byte[vertexCount * vertexSize];
+                for (int i = 0; i < vertices.length; i++) {
+                    // smooth values with some noise and outliers
+                    int vertex = i / vertexSize;
+                    vertices[i] = (byte) (random.nextInt(10) == 0 ? random.nextInt(256) : vertex / 3 + (i % vertexSize) * 7);
+                }
+                byte[] encoded = MeshoptEncoder.encodeVertexBuffer(ByteBuffer.wrap(vertices), vertexCount, vertexSize);
+                assertArrayEquals(vertices, decodeVertexBuffer(encoded, vertexCount, vertexSize), vertexSize + " x " + vertexCount);
+            }
+        }
+    }
+
+    @Test
+    void encodeIndexSequence() {
+        int gridSize = 300; // more than 65535 vertices
+        int[] indices = createGridIndices(gridSize);
+        ByteBuffer intIndices = ByteBuffer.allocate(indices.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+        Arrays.stream(indices).forEach(intIndices::putInt);
+        byte[] encoded = MeshoptEncoder.encodeIndexSequence(intIndices, indices.length, 4);
+        assertArrayEquals(indices, decodeIndexSequence(encoded, indices.length));
+        assertTrue(encoded.length < indices.length * 2);
+
+        int[] shortIndices = createGridIndices(100);
+        ByteBuffer shortBuffer = ByteBuffer.allocate(shortIndices.length * 2).order(ByteOrder.LITTLE_ENDIAN);
+        Arrays.stream(shortIndices).forEach((index) -> shortBuffer.putShort((short) index));
+        assertArrayEquals(shortIndices, decodeIndexSequence(MeshoptEncoder.encodeIndexSequence(shortBuffer, shortIndices.length, 2), shortIndices.length));
+    }
+
+    /**
+     * The compressed bufferViews decode to the bytes of the uncompressed glb.
+     */
+    @Test
+    void writeCompressedGlb() throws IOException {
+        File plainFile = tempDir.resolve("plain.glb").toFile();
+        File compressedFile = tempDir.resolve("compressed.glb").toFile();
+        createWriter(true, false).writeGlb(createGridScene(100), plainFile);
+        createWriter(true, true).writeGlb(createGridScene(100), compressedFile);
+
+        JsonNode plainJson = readJson(plainFile);
+        JsonNode compressedJson = readJson(compressedFile);
+        ByteBuffer plainBody = readBody(plainFile);
+        ByteBuffer compressedBody = readBody(compressedFile);
+        assertTrue(compressedJson.get("extensionsRequired").toString().contains("EXT_meshopt_compression"));
+        assertTrue(compressedJson.get("buffers").get(1).get("extensions").get("EXT_meshopt_compression").get("fallback").asBoolean());
+
+        JsonNode plainBufferViews = plainJson.get("bufferViews");
+        JsonNode compressedBufferViews = compressedJson.get("bufferViews");
+        int compressedCount = 0;
+        for (int i = 0; i < compressedBufferViews.size(); i++) {
+            JsonNode extension = compressedBufferViews.get(i).path("extensions").get("EXT_meshopt_compression");
+            if (extension == null) {
+                continue;
+            }
+            int count = extension.get("count").asInt();
+            int stride = extension.get("byteStride").asInt();
+            byte[] encoded = new byte[extension.get("byteLength").asInt()];
+            compressedBody.position(extension.get("byteOffset").asInt());
+            compressedBody.get(encoded);
+
+            byte[] expected = new byte[count * stride];
+            plainBody.position(plainBufferViews.get(i).get("byteOffset").asInt());
+            plainBody.get(expected);
+            if ("INDICES".equals(extension.get("mode").asText())) {
+                int[] indices = decodeIndexSequence(encoded, count);
+                ByteBuffer expectedIndices = ByteBuffer.wrap(expected).order(ByteOrder.LITTLE_ENDIAN);
+                for (int index = 0; index < count; index++) {
+                    assertEquals(expectedIndices.getShort(index * 2) & 0xffff, indices[index]);
+                }
+            } else {
+                assertArrayEquals(expected, decodeVertexBuffer(encoded, count, stride));
+            }
+            compressedCount++;
+        }
+        assertEquals(5, compressedCount); // indices, positions, normals, texcoords, batch ids
+    }
+
+    /**
+     * Compares the glb size and the write time of the float, quantized and compressed vertex attributes.
+     */
+    @Test
+    @Disabled
+    void benchmark() {
+        GaiaScene scene = createGridScene(250);
+        boolean[][] modes = {{false, false}, {true, false}, {false, true}, {true, true}};
+        createWriter(true, true).writeGlb(scene, tempDir.resolve("warmup.glb").toFile());
+        for (boolean[] mode : modes) {
+            GltfWriter gltfWriter = createWriter(mode[0], mode[1]);
+            File glbFile = tempDir.resolve("grid_" + mode[0] + "_" + mode[1] + ".glb").toFile();
+            int count = 10;
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                gltfWriter.writeGlb(scene, glbFile);
+            }
+            long time = (System.nanoTime() - start) / count;
+            log.info("[Benchmark] quantized {}, meshopt {} : {} bytes, {} ms", mode[0], mode[1], glbFile.length(), time / 1000000);
+            assertTrue(glbFile.length() > 0);
+        }
+    }
+
+    private GltfWriter createWriter(boolean quantized, boolean meshopt) {
+        GltfWriter gltfWriter = new GltfWriter(GltfImageType.BINARY, tempDir.toFile());
+        gltfWriter.setQuantized(quantized);
+        gltfWriter.setMeshoptCompressed(meshopt);
+        return gltfWriter;
+    }
+
+    /**
+     * A wavy terrain like grid, one batch id per row.
+     */
+    private GaiaScene createGridScene(int gridSize) {
+        GaiaPrimitive primitive = new GaiaPrimitive();
+        primitive.setMaterialIndex(0);
+        for (int y = 0; y < gridSize; y++) {
+            for (int x = 0; x < gridSize; x++) {
+                GaiaVertex vertex = new GaiaVertex();
+                double height = Math.sin(x * 0.1) * Math.cos(y * 0.1) * 5.0;
+                vertex.setPosition(new Vector3d(x * 0.5, y * 0.5, height));
+                vertex.setNormal(new Vector3d(-Math.cos(x * 0.1) * 0.5, Math.sin(y * 0.1) * 0.5, 1.0).normalize());
+                vertex.setTexcoords(new Vector2d((double) x / (gridSize - 1), (double) y / (gridSize - 1)));
+                vertex.setBatchId(y);
+                primitive.getVertices().add(vertex);
+            }
+        }
+        GaiaSurface surface = new GaiaSurface();
+        int[] indices = createGridIndices(gridSize);
+        for (int i = 0; i < indices.length; i += 3) {
+            GaiaFace face = new GaiaFace();
+            face.setIndices(new int[]{indices[i], indices[i + 1], indices[i + 2]});
+            surface.getFaces().add(face);
+        }
+        primitive.getSurfaces().add(surface);
+
+        GaiaMaterial material = new GaiaMaterial();
+        material.setId(0);
+        material.getTextures().put(TextureType.DIFFUSE, new ArrayList<>());
+        GaiaMesh mesh = new GaiaMesh();
+        mesh.getPrimitives().add(primitive);
+        GaiaNode node = new GaiaNode();
+        node.getMeshes().add(mesh);
+        GaiaScene scene = new GaiaScene();
+        scene.getMaterials().add(material);
+        scene.getNodes().add(node);
+        return scene;
+    }
+
+    private int[] createGridIndices(int gridSize) {
+        int[] indices = new int[(gridSize - 1) * (gridSize - 1) * 6];
+        int index = 0;
+        for (int y = 0; y < gridSize - 1; y++) {
+            for (int x = 0; x < gridSize - 1; x++) {
+                int corner = y * gridSize + x;
+                indices[index++] = corner;
+                indices[index++] = corner + 1;
+                indices[index++] = corner + gridSize;
+                indices[index++] = corner + 1;
+                indices[index++] = corner + gridSize + 1;
+                indices[index++] = corner + gridSize;
+            }
+        }
+        return indices;
+    }
+
+    private JsonNode readJson(File glbFile) throws IOException {
+        byte[] bytes = Files.readAllBytes(glbFile.toPath());
+        int jsonLength = ByteBuffer.wrap(bytes, 12, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+        return new ObjectMapper().readTree(new String(bytes, 20, jsonLength));
+    }
+
+    private ByteBuffer readBody(File glbFile) throws IOException {
+        byte[] bytes = Files.readAllBytes(glbFile.toPath());
+        int jsonLength = ByteBuffer.wrap(bytes, 12, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+        int bodyOffset = 20 + jsonLength + 8;
+        return ByteBuffer.wrap(Arrays.copyOfRange(bytes, bodyOffset, bytes.length));
+    }
+
+    /**
+     * Reference decoder of the ATTRIBUTES mode, written from the EXT_meshopt_compression specification.
+     */
+    private byte[] decodeVertexBuffer(byte[] data, int vertexCount, int vertexSize) {
+        assertEquals(0xa0, data[0] & 0xff);
+        int blockSize = Math.min((8192 / vertexSize) & ~15, 256);
+        int tailSize = Math.max(32, vertexSize);
+        byte[] result = new byte[vertexCount * vertexSize];
+        byte[] last = Arrays.copyOfRange(data, data.length - vertexSize, data.length);
+        int[] offset = {1};
+        for (int blockStart = 0; blockStart < vertexCount; blockStart += blockSize) {
+            int blockVertexCount = Math.min(blockSize, vertexCount - blockStart);
+            int alignedCount = (blockVertexCount + 15) & ~15;
+            for (int k = 0; k < vertexSize; k++) {
+                int[] deltas = decodeBytes(data, offset, alignedCount);
+                int previous = last[k] & 0xff;
+                for (int i = 0; i < blockVertexCount; i++) {
+                    int delta = (deltas[i] >>> 1) ^ -(deltas[i] & 1);
+                    previous = (previous + delta) & 0xff;
+                    result[(blockStart + i) * vertexSize + k] = (byte) previous;
+                }
+                last[k] = (byte) previous;
+            }
+        }
+        assertEquals(data.length - tailSize, offset[0]);
+        return result;
+    }
+
+    private int[] decodeBytes(byte[] data, int[] offset, int count) {
+        int headerOffset = offset[0];
+        offset[0] += (count / 16 + 3) / 4;
+        int[] values = new int[count];
+        for (int group = 0; group < count / 16; group++) {
+            int bitsLog2 = (data[headerOffset + group / 4] >> ((group % 4) * 2)) & 3;
+            int start = group * 16;
+            if (bitsLog2 == 3) {
+                for (int i = 0; i < 16; i++) {
+                    values[start + i] = data[offset[0]++] & 0xff;
+                }
+            } else if (bitsLog2 > 0) {
+                int bits = 1 << bitsLog2;
+                int sentinel = (1 << bits) - 1;
+                int packedLength = 16 * bits / 8;
+                for (int i = 0; i < 16; i++) {
+                    int packed = data[offset[0] + i * bits / 8] & 0xff;
+                    int shift = 8 - bits - (i * bits) % 8;
+                    values[start + i] = (packed >> shift) & sentinel;
+                }
+                offset[0] += packedLength;
+                for (int i = 0; i < 16; i++) {
+                    if (values[start + i] == sentinel) {
+                        values[start + i] = data[offset[0]++] & 0xff;
+                    }
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Reference decoder of the INDICES mode.
+     */
+    private int[] decodeIndexSequence(byte[] data, int indexCount) {
+        assertEquals(0xd1, data[0] & 0xff);
+        int[] result = new int[indexCount];
+        int[] last = new int[2];
+        int offset = 1;
+        for (int i = 0; i < indexCount; i++) {
+            long value = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = data[offset++] & 0xff;
+                value |= (long) (b & 127) << shift;
+                shift += 7;
+            } while (b >= 128);
+            int v = (int) value;
+            int current = v & 1;
+            v >>>= 1;
+            int delta = (v >>> 1) ^ -(v & 1);
+            last[current] += delta;
+            result[i] = last[current];
+        }
+        assertEquals(data.length - 4, offset);
+        return result;
+    }
+}
@@ -0,0 +1,107 @@
+package com.gaia3d.converter.loader;
+
+import com.gaia3d.basic.model.GaiaScene;
+import com.gaia3d.basic.types.FormatType;
+import com.gaia3d.command.mago.GlobalOptions;
+import com.gaia3d.converter.Converter;
+import com.gaia3d.converter.geometry.GaiaSceneTempHolder;
+import com.gaia3d.converter.kml.AttributeReader;
+import com.gaia3d.converter.kml.KmlInfo;
+import com.gaia3d.process.tileprocess.tile.TileInfo;
+import lombok.extern.slf4j.Slf4j;
+import org.joml.Vector3d;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class InstancedFileLoaderTest {
+
+    @Test
+    void loadEachModelOnce() throws Exception {
+        GlobalOptions globalOptions = GlobalOptions.getInstance();
+        FormatType inputFormat = globalOptions.getInputFormat();
+        String outputPath = globalOptions.getOutputPath();
+        globalOptions.setInputFormat(FormatType.KML);
+        globalOptions.setOutputPath(System.getProperty("java.io.tmpdir"));
+
+        String[] hrefs = {"models/tree.glb", "models/lamp.glb", "./models/tree.glb", "models/../models/bench.glb", "models/broken.glb"};
+        CountingConverter converter = new CountingConverter();
+        AttributeReader kmlReader = new AttributeReader() {
+            @Override
+            public KmlInfo read(File file) {
+                return readAll(file).get(0);
+            }
+
+            @Override
+            public List<KmlInfo> readAll(File file) {
+                List<KmlInfo> kmlInfos = new ArrayList<>();
+                for (int i = 0; i < 100; i++) {
+                    kmlInfos.add(KmlInfo.builder().name("placemark" + i).position(new Vector3d(127.0, 37.0, 0.0)).href(hrefs[i % hrefs.length]).build());
+                }
+                return kmlInfos;
+            }
+        };
+        InstancedFileLoader loader = new InstancedFileLoader(converter, kmlReader);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        List<Future<List<TileInfo>>> futures = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            File kmlFile = new File("input", "placemarks" + i + ".kml");
+            futures.add(executorService.submit(() -> loader.loadTileInfo(kmlFile)));
+        }
+        Map<String, Set<GaiaScene>> scenesByHref = new HashMap<>();
+        for (Future<List<TileInfo>> future : futures) {
+            for (TileInfo tileInfo : future.get()) {
+                String modelName = tileInfo.getKmlInfo().getHref().replaceAll(".*/", "");
+                scenesByHref.computeIfAbsent(modelName, (key) -> Collections.newSetFromMap(new IdentityHashMap<>())).add(tileInfo.getScene());
+            }
+        }
+        executorService.shutdown();
+        globalOptions.setInputFormat(inputFormat);
+        globalOptions.setOutputPath(outputPath);
+
+        // the broken model is loaded once and its placemarks are skipped.***
+        assertEquals(4, converter.loadCounts.size());
+        converter.loadCounts.values().forEach((count) -> assertEquals(1, count.get()));
+        assertEquals(3, scenesByHref.size());
+        scenesByHref.values().forEach((scenes) -> assertEquals(1, scenes.size()));
+        assertNotSame(scenesByHref.get("tree.glb").iterator().next(), scenesByHref.get("lamp.glb").iterator().next());
+    }
+
+    private static class CountingConverter implements Converter {
+        private final Map<Path, AtomicInteger> loadCounts = new ConcurrentHashMap<>();
+
+        @Override
+        public List<GaiaScene> load(String path) {
+            return load(new File(path));
+        }
+
+        @Override
+        public List<GaiaScene> load(File file) {
+            return load(file.toPath());
+        }
+
+        @Override
+        public List<GaiaScene> load(Path path) {
+            loadCounts.computeIfAbsent(path, (key) -> new AtomicInteger()).incrementAndGet();
+            if (path.getFileName().toString().equals("broken.glb")) {
+                return List.of();
+            }
+            GaiaScene scene = new GaiaScene();
+            scene.setOriginalPath(path);
+            return List.of(scene);
+        }
+
+        @Override
+        public List<GaiaSceneTempHolder> convertTemp(File input, File output) {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.gaia3d.process;
+
+import com.gaia3d.process.tileprocess.tile.TileInfo;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class TileInfoCollectorTest {
+
+    @Test
+    void collectOnMultiThread() throws InterruptedException {
+        int fileCount = 256;
+        int tileCountPerFile = 64;
+        TileInfoCollector collector = new TileInfoCollector();
+
+        ExecutorService executorService = Executors.newFixedThreadPool(32);
+        for (int fileIndex = fileCount - 1; fileIndex >= 0; fileIndex--) {
+            int finalFileIndex = fileIndex;
+            executorService.submit(() -> {
+                for (int serial = tileCountPerFile; serial > 0; serial--) {
+                    TileInfo tileInfo = TileInfo.builder()
+                            .serial(serial)
+                            .name(finalFileIndex + "-" + serial)
+                            .build();
+                    collector.add(finalFileIndex, tileInfo);
+                }
+            });
+        }
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(1, TimeUnit.MINUTES));
+
+        List<TileInfo> tileInfos = collector.getSortedTileInfos();
+        assertEquals(fileCount * tileCountPerFile, tileInfos.size());
+
+        List<String> expectedNames = new ArrayList<>();
+        for (int fileIndex = 0; fileIndex < fileCount; fileIndex++) {
+            for (int serial = 1; serial <= tileCountPerFile; serial++) {
+                expectedNames.add(fileIndex + "-" + serial);
+            }
+        }
+        for (int index = 0; index < tileInfos.size(); index++) {
+            assertEquals(expectedNames.get(index), tileInfos.get(index).getName());
+        }
+    }
+}
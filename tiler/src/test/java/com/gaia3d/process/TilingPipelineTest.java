@@ -0,0 +1,190 @@
+package com.gaia3d.process;
+
+import com.gaia3d.command.mago.GlobalOptions;
+import com.gaia3d.converter.loader.FileLoader;
+import com.gaia3d.process.postprocess.PostProcess;
+import com.gaia3d.process.preprocess.PreProcess;
+import com.gaia3d.process.tileprocess.Tiler;
+import com.gaia3d.process.tileprocess.tile.ContentInfo;
+import com.gaia3d.process.tileprocess.tile.TileInfo;
+import com.gaia3d.process.tileprocess.tile.tileset.Tileset;
+import com.gaia3d.process.tileprocess.tile.tileset.node.Content;
+import com.gaia3d.process.tileprocess.tile.tileset.node.Node;
+import lombok.extern.slf4j.Slf4j;
+import org.geotools.coverage.grid.GridCoverage2D;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class TilingPipelineTest {
+    private static final int FILE_COUNT = 64;
+
+    @TempDir
+    File tempDirectory;
+
+    private final GlobalOptions globalOptions = GlobalOptions.getInstance();
+    private String outputPath;
+    private boolean streaming;
+    private boolean debug;
+    private int stageQueueSize;
+    private int loadThreadCount;
+    private int preProcessThreadCount;
+    private int postProcessThreadCount;
+
+    @BeforeEach
+    void setUp() {
+        outputPath = globalOptions.getOutputPath();
+        streaming = globalOptions.isStreaming();
+        debug = globalOptions.isDebug();
+        stageQueueSize = globalOptions.getStageQueueSize();
+        loadThreadCount = globalOptions.getLoadThreadCount();
+        preProcessThreadCount = globalOptions.getPreProcessThreadCount();
+        postProcessThreadCount = globalOptions.getPostProcessThreadCount();
+
+        globalOptions.setOutputPath(tempDirectory.getAbsolutePath());
+        globalOptions.setStreaming(true);
+        globalOptions.setDebug(false);
+        // a queue of one item, so the producers are blocked when a stage fails.***
+        globalOptions.setStageQueueSize(1);
+        globalOptions.setLoadThreadCount(2);
+        globalOptions.setPreProcessThreadCount(2);
+        globalOptions.setPostProcessThreadCount(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        globalOptions.setOutputPath(outputPath);
+        globalOptions.setStreaming(streaming);
+        globalOptions.setDebug(debug);
+        globalOptions.setStageQueueSize(stageQueueSize);
+        globalOptions.setLoadThreadCount(loadThreadCount);
+        globalOptions.setPreProcessThreadCount(preProcessThreadCount);
+        globalOptions.setPostProcessThreadCount(postProcessThreadCount);
+    }
+
+    @Test
+    void returnOnLoadFailure() {
+        FileLoader failingFileLoader = new TestFileLoader() {
+            @Override
+            public List<TileInfo> loadTileInfo(File file) {
+                if (file.getName().equals("tile 3")) {
+                    throw new IllegalStateException("load failure");
+                }
+                return super.loadTileInfo(file);
+            }
+        };
+        TilingPipeline pipeline = new TilingPipeline(List.of(), new TestTiler(), List.of());
+        assertFailure(pipeline, failingFileLoader, "load failure");
+    }
+
+    @Test
+    void returnOnPreProcessFailure() {
+        PreProcess failingPreProcess = (tileInfo) -> {
+            if (tileInfo.getName().equals("tile 3")) {
+                throw new IllegalStateException("pre-process failure");
+            }
+            return tileInfo;
+        };
+        TilingPipeline pipeline = new TilingPipeline(List.of(failingPreProcess), new TestTiler(), List.of());
+        assertFailure(pipeline, new TestFileLoader(), "pre-process failure");
+    }
+
+    @Test
+    void returnOnPostProcessFailure() {
+        PostProcess passingPostProcess = (contentInfo) -> contentInfo;
+        PostProcess failingPostProcess = (contentInfo) -> {
+            if (contentInfo.getName().equals("content 3")) {
+                throw new IllegalStateException("post-process failure");
+            }
+            return contentInfo;
+        };
+        TilingPipeline pipeline = new TilingPipeline(List.of(), new TestTiler(), List.of(passingPostProcess, failingPostProcess, passingPostProcess));
+        assertFailure(pipeline, new TestFileLoader(), "post-process failure");
+    }
+
+    private void assertFailure(TilingPipeline pipeline, FileLoader fileLoader, String message) {
+        RuntimeException exception = assertTimeoutPreemptively(Duration.ofSeconds(30), () -> assertThrows(RuntimeException.class, () -> pipeline.process(fileLoader)));
+        Throwable cause = exception;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        assertEquals(message, cause.getMessage());
+        assertEquals(0, countStageWorkers());
+    }
+
+    private long countStageWorkers() {
+        return Thread.getAllStackTraces().entrySet().stream()
+                .filter((entry) -> entry.getKey().isAlive())
+                .map(Map.Entry::getValue)
+                .filter((stackTrace) -> {
+                    for (StackTraceElement element : stackTrace) {
+                        if (element.getClassName().equals(PipelineStage.class.getName()) && element.getMethodName().equals("work")) {
+                            return true;
+                        }
+                    }
+                    return false;
+                }).count();
+    }
+
+    private static class TestFileLoader implements FileLoader {
+        @Override
+        public List<File> loadTemp(File tempPath, List<File> files) {
+            return files;
+        }
+
+        @Override
+        public List<TileInfo> loadTileInfo(File file) {
+            return List.of(TileInfo.builder().name(file.getName()).build());
+        }
+
+        @Override
+        public List<File> loadFiles() {
+            List<File> files = new ArrayList<>();
+            for (int i = 0; i < FILE_COUNT; i++) {
+                files.add(new File("tile " + i));
+            }
+            return files;
+        }
+
+        @Override
+        public List<GridCoverage2D> loadGridCoverages(List<GridCoverage2D> coverages) {
+            return coverages;
+        }
+    }
+
+    private static class TestTiler implements Tiler {
+        @Override
+        public Tileset run(List<TileInfo> tileInfos) {
+            Node root = new Node();
+            List<Node> children = new ArrayList<>();
+            for (int i = 0; i < FILE_COUNT; i++) {
+                ContentInfo contentInfo = new ContentInfo();
+                contentInfo.setName("content " + i);
+                contentInfo.setTileInfos(new ArrayList<>());
+                Content content = new Content();
+                content.setContentInfo(contentInfo);
+                Node child = new Node();
+                child.setContent(content);
+                children.add(child);
+            }
+            root.setChildren(children);
+            Tileset tileset = new Tileset();
+            tileset.setRoot(root);
+            return tileset;
+        }
+
+        @Override
+        public void writeTileset(Tileset tileset) {
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.gaia3d.process.postprocess;
+
+import com.gaia3d.basic.exchangable.GaiaBuffer;
+import com.gaia3d.basic.exchangable.GaiaBufferDataSet;
+import com.gaia3d.basic.exchangable.GaiaSet;
+import com.gaia3d.basic.exchangable.GaiaSetTempFile;
+import com.gaia3d.basic.model.GaiaAttribute;
+import com.gaia3d.basic.types.AttributeType;
+import com.gaia3d.process.tileprocess.tile.ContentInfo;
+import com.gaia3d.process.tileprocess.tile.TileInfo;
+import org.joml.Vector3d;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GaiaSetCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void sharedAcrossLods() throws IOException {
+        Path tempPath = tempDir.resolve("object.tmp");
+        GaiaSetTempFile.write(createGaiaSet(), tempPath.toFile());
+
+        List<ContentInfo> contentInfos = new ArrayList<>();
+        for (int lod = 0; lod < 3; lod++) {
+            ContentInfo contentInfo = new ContentInfo();
+            List<TileInfo> tileInfos = new ArrayList<>();
+            tileInfos.add(TileInfo.builder().tempPath(tempPath).build());
+            contentInfo.setTileInfos(tileInfos);
+            contentInfos.add(contentInfo);
+        }
+
+        GaiaSetCache cache = new GaiaSetCache();
+        cache.register(contentInfos);
+
+        GaiaSet first = cache.get(tempPath);
+        assertTrue(cache.getByteSize() > 0);
+        first.translate(new Vector3d(100, 100, 100));
+
+        GaiaSet second = cache.get(tempPath);
+        assertNotSame(first, second);
+        assertEquals(1.0f, getPositions(second)[0]);
+        assertNotNull(second.getAttribute());
+
+        cache.get(tempPath);
+        assertEquals(0, cache.getByteSize());
+    }
+
+    @Test
+    void evictByByteSize() throws IOException {
+        GaiaSetCache cache = new GaiaSetCache();
+        cache.setMaxByteSize(1);
+        for (int i = 0; i < 4; i++) {
+            Path tempPath = tempDir.resolve("object" + i + ".tmp");
+            GaiaSetTempFile.write(createGaiaSet(), tempPath.toFile());
+            assertNotNull(cache.get(tempPath));
+            assertEquals(0, cache.getByteSize());
+        }
+    }
+
+    private float[] getPositions(GaiaSet set) {
+        return set.getBufferDataList().get(0).getBuffers().get(AttributeType.POSITION).getFloats();
+    }
+
+    private GaiaSet createGaiaSet() {
+        GaiaBuffer positionBuffer = new GaiaBuffer();
+        positionBuffer.setElementsCount(1);
+        positionBuffer.setFloats(new float[]{1.0f, 2.0f, 3.0f});
+        GaiaBufferDataSet bufferDataSet = new GaiaBufferDataSet();
+        bufferDataSet.getBuffers().put(AttributeType.POSITION, positionBuffer);
+        List<GaiaBufferDataSet> bufferDataList = new ArrayList<>();
+        bufferDataList.add(bufferDataSet);
+        return new GaiaSet(bufferDataList, new ArrayList<>(), new GaiaAttribute(), "project", null, null, null, null);
+    }
+}
@@ -0,0 +1,129 @@
+package com.gaia3d.process.postprocess;
+
+import com.gaia3d.basic.exchangable.GaiaBuffer;
+import com.gaia3d.basic.exchangable.GaiaBufferDataSet;
+import com.gaia3d.basic.exchangable.GaiaSet;
+import com.gaia3d.basic.geometry.GaiaBoundingBox;
+import com.gaia3d.basic.model.*;
+import com.gaia3d.basic.types.AttributeType;
+import com.gaia3d.process.tileprocess.tile.ContentInfo;
+import com.gaia3d.process.tileprocess.tile.LevelOfDetail;
+import com.gaia3d.process.tileprocess.tile.TileInfo;
+import lombok.extern.slf4j.Slf4j;
+import org.joml.Vector2d;
+import org.joml.Vector3d;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class GaiaSimplifierTest {
+
+    @Test
+    void simplifyByLevelOfDetail() {
+        int fullCount = countTriangles(createGridSet(40));
+        int previousCount = fullCount;
+        for (int level = 1; level <= 3; level++) {
+            LevelOfDetail lod = LevelOfDetail.getByLevel(level);
+            GaiaSet simplifiedSet = GaiaSimplifier.simplify(createGridSet(40), Path.of("grid.tmp"), GaiaSimplifier.createDecimateParameters(lod));
+            int count = countTriangles(simplifiedSet);
+            log.info("[Simplify] LOD{} : {} -> {} triangles", level, fullCount, count);
+            assertTrue(count > 0);
+            assertTrue(count < fullCount / 2);
+            assertTrue(count <= previousCount);
+            assertNotNull(simplifiedSet.getAttribute());
+            previousCount = count;
+
+            // the bounds of the grid are kept by the frontier edges
+            GaiaBoundingBox boundingBox = simplifiedSet.getBoundingBox();
+            assertEquals(0.0, boundingBox.getMinX(), 1.0e-3);
+            assertEquals(39.0, boundingBox.getMaxX(), 1.0e-3);
+            assertEquals(39.0, boundingBox.getMaxY(), 1.0e-3);
+        }
+    }
+
+    @Test
+    void keepLevelOfDetailZero() {
+        GaiaSet set = createGridSet(10);
+        ContentInfo contentInfo = createContentInfo(LevelOfDetail.LOD0, set, Path.of("grid.tmp"));
+        new GaiaSimplifier().run(contentInfo);
+        assertSame(set, contentInfo.getTileInfos().get(0).getSet());
+    }
+
+    @Test
+    void simplifyContent() {
+        GaiaSet set = createGridSet(20);
+        ContentInfo contentInfo = createContentInfo(LevelOfDetail.LOD2, set, Path.of("grid.tmp"));
+        new GaiaSimplifier().run(contentInfo);
+
+        GaiaSet simplifiedSet = contentInfo.getTileInfos().get(0).getSet();
+        assertNotSame(set, simplifiedSet);
+        assertTrue(countTriangles(simplifiedSet) < countTriangles(createGridSet(20)));
+    }
+
+    private ContentInfo createContentInfo(LevelOfDetail lod, GaiaSet set, Path tempPath) {
+        List<TileInfo> tileInfos = new ArrayList<>();
+        tileInfos.add(TileInfo.builder().set(set).tempPath(tempPath).build());
+        ContentInfo contentInfo = new ContentInfo();
+        contentInfo.setName("content");
+        contentInfo.setLod(lod);
+        contentInfo.setTileInfos(tileInfos);
+        return contentInfo;
+    }
+
+    private int countTriangles(GaiaSet set) {
+        int count = 0;
+        for (GaiaBufferDataSet bufferDataSet : set.getBufferDataList()) {
+            GaiaBuffer indices = bufferDataSet.getBuffers().get(AttributeType.INDICE);
+            if (indices != null) {
+                count += indices.getInts().length / 3;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * A gently waving grid with one meter spacing and one texture, as a terrain would be.
+     */
+    private GaiaSet createGridSet(int gridSize) {
+        GaiaPrimitive primitive = new GaiaPrimitive();
+        primitive.setMaterialIndex(0);
+        for (int y = 0; y < gridSize; y++) {
+            for (int x = 0; x < gridSize; x++) {
+                GaiaVertex vertex = new GaiaVertex();
+                vertex.setPosition(new Vector3d(x, y, Math.sin(x * 0.2) * Math.cos(y * 0.2)));
+                vertex.setTexcoords(new Vector2d((double) x / (gridSize - 1), (double) y / (gridSize - 1)));
+                primitive.getVertices().add(vertex);
+            }
+        }
+        GaiaSurface surface = new GaiaSurface();
+        for (int y = 0; y < gridSize - 1; y++) {
+            for (int x = 0; x < gridSize - 1; x++) {
+                int corner = y * gridSize + x;
+                GaiaFace first = new GaiaFace();
+                first.setIndices(new int[]{corner, corner + 1, corner + gridSize});
+                GaiaFace second = new GaiaFace();
+                second.setIndices(new int[]{corner + 1, corner + gridSize + 1, corner + gridSize});
+                surface.getFaces().add(first);
+                surface.getFaces().add(second);
+            }
+        }
+        primitive.getSurfaces().add(surface);
+
+        GaiaMesh mesh = new GaiaMesh();
+        mesh.getPrimitives().add(primitive);
+        GaiaNode node = new GaiaNode();
+        node.getMeshes().add(mesh);
+        GaiaMaterial material = new GaiaMaterial();
+        material.setId(0);
+        GaiaScene scene = new GaiaScene();
+        scene.setOriginalPath(Path.of("grid.gltf"));
+        scene.getNodes().add(node);
+        scene.getMaterials().add(material);
+        return GaiaSet.fromGaiaScene(scene);
+    }
+}
@@ -0,0 +1,105 @@
+package com.gaia3d.process.postprocess.batch;
+
+import com.gaia3d.basic.geometry.GaiaRectangle;
+import lombok.extern.slf4j.Slf4j;
+import org.joml.Vector2d;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class AtlasPackerTest {
+
+    @Test
+    void packWithoutOverlap() {
+        List<GaiaBatchImage> images = createImages(500, 1);
+        new MaxRectsAtlasPacker().pack(images);
+        assertNoOverlap(images);
+        for (GaiaBatchImage image : images) {
+            assertEquals(image.getOriginBoundary().getWidth(), image.getBatchedBoundary().getWidth());
+            assertEquals(image.getOriginBoundary().getHeight(), image.getBatchedBoundary().getHeight());
+            assertTrue(image.getBatchedBoundary().getMinX() >= 0.0);
+            assertTrue(image.getBatchedBoundary().getMinY() >= 0.0);
+        }
+    }
+
+    @Test
+    void packSingleImage() {
+        List<GaiaBatchImage> images = createImages(1, 2);
+        new MaxRectsAtlasPacker().pack(images);
+        assertEquals(0.0, images.get(0).getBatchedBoundary().getMinX());
+        assertEquals(0.0, images.get(0).getBatchedBoundary().getMinY());
+    }
+
+    /**
+     * Compares the packing time and the atlas fill ratio with the previous packer.
+     */
+    @Test
+    @Disabled
+    void benchmark() {
+        int[] imageCounts = {100, 400};
+        for (int imageCount : imageCounts) {
+            packAndReport(new PerimeterAtlasPacker(), createImages(imageCount, 3));
+            packAndReport(new MaxRectsAtlasPacker(), createImages(imageCount, 3));
+        }
+        packAndReport(new MaxRectsAtlasPacker(), createImages(5000, 3));
+    }
+
+    private void packAndReport(AtlasPacker packer, List<GaiaBatchImage> images) {
+        long start = System.nanoTime();
+        packer.pack(images);
+        long time = System.nanoTime() - start;
+
+        double imageArea = 0.0;
+        double atlasWidth = 0.0;
+        double atlasHeight = 0.0;
+        for (GaiaBatchImage image : images) {
+            GaiaRectangle boundary = image.getBatchedBoundary();
+            imageArea += boundary.getArea();
+            atlasWidth = Math.max(atlasWidth, boundary.getMaxX());
+            atlasHeight = Math.max(atlasHeight, boundary.getMaxY());
+        }
+        double fillRatio = imageArea / (atlasWidth * atlasHeight);
+        log.info("[Benchmark] {} {} images : {} ms, atlas {} x {}, fill ratio {}", packer.getClass().getSimpleName(), images.size(), time / 1000000, (int) atlasWidth, (int) atlasHeight, String.format("%.3f", fillRatio));
+        assertTrue(fillRatio > 0.0 && fillRatio <= 1.0);
+    }
+
+    private void assertNoOverlap(List<GaiaBatchImage> images) {
+        for (int i = 0; i < images.size(); i++) {
+            GaiaRectangle a = images.get(i).getBatchedBoundary();
+            for (int j = i + 1; j < images.size(); j++) {
+                GaiaRectangle b = images.get(j).getBatchedBoundary();
+                boolean overlaps = a.getMinX() < b.getMaxX() && b.getMinX() < a.getMaxX() && a.getMinY() < b.getMaxY() && b.getMinY() < a.getMaxY();
+                assertFalse(overlaps, "images " + i + " and " + j + " overlap");
+            }
+        }
+    }
+
+    /**
+     * Facade like textures sorted from the largest area, as GaiaTextureCoordinator does.
+     */
+    private List<GaiaBatchImage> createImages(int count, long seed) {
+        Random random = new Random(seed);
+        int[] sizes = {16, 32, 64, 128, 256, 512};
+        List<GaiaBatchImage> images = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int width = sizes[random.nextInt(sizes.length)];
+            int height = sizes[random.nextInt(sizes.length - 1)];
+            if (random.nextBoolean()) {
+                width -= random.nextInt(width / 2);
+            }
+            GaiaBatchImage image = new GaiaBatchImage();
+            image.setOriginBoundary(new GaiaRectangle(new Vector2d(0, 0), new Vector2d(width, height)));
+            image.setMaterialId(i);
+            images.add(image);
+        }
+        images.sort(Comparator.comparingDouble((GaiaBatchImage image) -> image.getOriginBoundary().getArea()).reversed());
+        return images;
+    }
+}
@@ -0,0 +1,122 @@
+package com.gaia3d.process.postprocess.instance;
+
+import lombok.extern.slf4j.Slf4j;
+import org.joml.Vector3d;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class Instanced3DModelBinaryTest {
+
+    @Test
+    void writeFloatFeatureTable() {
+        Instanced3DModelBinary binary = createBinary(5, 1.0f);
+        GaiaFeatureTable featureTable = new GaiaFeatureTable();
+        ByteBuffer buffer = binary.writeFeatureTableBinary(featureTable);
+
+        assertNotNull(featureTable.getPosition());
+        assertNotNull(featureTable.getNormalUp());
+        assertNotNull(featureTable.getNormalRight());
+        assertNotNull(featureTable.getScale());
+        assertNull(featureTable.getPositionQuantized());
+        assertEquals(0, buffer.remaining() % 8);
+        // the positions follow the scales
+        assertEquals(0, featureTable.getScale().byteOffset);
+        assertEquals((float) binary.getPositions()[7], buffer.getFloat(5 * 4 + 7 * 4));
+        assertEquals(binary.getNormalRights()[4], buffer.getFloat(featureTable.getNormalRight().byteOffset + 4 * 4));
+    }
+
+    @Test
+    void writeQuantizedFeatureTable() {
+        int instancesLength = 1001;
+        Instanced3DModelBinary binary = createBinary(instancesLength, 1.0f);
+        ByteBuffer floatBuffer = binary.writeFeatureTableBinary(new GaiaFeatureTable());
+
+        binary.setQuantized(true);
+        GaiaFeatureTable featureTable = new GaiaFeatureTable();
+        ByteBuffer buffer = binary.writeFeatureTableBinary(featureTable);
+        log.info("[Quantize] {} instances, float : {} bytes, quantized : {} bytes", instancesLength, floatBuffer.remaining(), buffer.remaining());
+        assertNull(featureTable.getPosition());
+        assertNull(featureTable.getNormalUp());
+        // the unit scales are omitted
+        assertNull(featureTable.getScale());
+        assertTrue(buffer.remaining() * 2 < floatBuffer.remaining());
+        assertEquals(0, buffer.remaining() % 8);
+
+        float[] offset = featureTable.getQuantizedVolumeOffset();
+        float[] scale = featureTable.getQuantizedVolumeScale();
+        double[] positions = binary.getPositions();
+        int positionOffset = 0;
+        for (int i = 0; i < positions.length; i++) {
+            int quantized = buffer.getShort(positionOffset + i * 2) & 0xffff;
+            double position = quantized * scale[i % 3] / 65535.0 + offset[i % 3];
+            assertEquals(positions[i], position, scale[i % 3] / 65535.0);
+        }
+
+        float[] normalUps = binary.getNormalUps();
+        int normalUpOffset = featureTable.getNormalUpOct32p().byteOffset;
+        for (int i = 0; i < instancesLength; i++) {
+            int x = buffer.getShort(normalUpOffset + i * 4) & 0xffff;
+            int y = buffer.getShort(normalUpOffset + i * 4 + 2) & 0xffff;
+            Vector3d normal = octDecode(x, y);
+            Vector3d expected = new Vector3d(normalUps[i * 3], normalUps[i * 3 + 1], normalUps[i * 3 + 2]);
+            assertTrue(normal.angle(expected) < Math.toRadians(0.01));
+        }
+    }
+
+    @Test
+    void keepScaleWhenQuantized() {
+        Instanced3DModelBinary binary = createBinary(4, 2.5f);
+        binary.setQuantized(true);
+        GaiaFeatureTable featureTable = new GaiaFeatureTable();
+        ByteBuffer buffer = binary.writeFeatureTableBinary(featureTable);
+        assertNotNull(featureTable.getScale());
+        assertEquals(2.5f, buffer.getFloat(featureTable.getScale().byteOffset + 3 * 4));
+        assertEquals(0, featureTable.getNormalUpOct32p().byteOffset % 2);
+        assertEquals(0, featureTable.getNormalRightOct32p().byteOffset % 2);
+    }
+
+    private Instanced3DModelBinary createBinary(int instancesLength, float scale) {
+        Random random = new Random(42);
+        double[] positions = new double[instancesLength * 3];
+        float[] normalUps = new float[instancesLength * 3];
+        float[] normalRights = new float[instancesLength * 3];
+        float[] scales = new float[instancesLength];
+        for (int i = 0; i < instancesLength; i++) {
+            positions[i * 3] = random.nextDouble() * 500.0 - 250.0;
+            positions[i * 3 + 1] = random.nextDouble() * 500.0 - 250.0;
+            positions[i * 3 + 2] = random.nextDouble() * 20.0;
+            Vector3d up = new Vector3d(random.nextGaussian(), random.nextGaussian(), random.nextGaussian()).normalize();
+            Vector3d right = up.cross(new Vector3d(0.0, 0.0, 1.0), new Vector3d()).normalize();
+            normalUps[i * 3] = (float) up.x;
+            normalUps[i * 3 + 1] = (float) up.y;
+            normalUps[i * 3 + 2] = (float) up.z;
+            normalRights[i * 3] = (float) right.x;
+            normalRights[i * 3 + 1] = (float) right.y;
+            normalRights[i * 3 + 2] = (float) right.z;
+            scales[i] = scale;
+        }
+        Instanced3DModelBinary binary = new Instanced3DModelBinary();
+        binary.setPositions(positions);
+        binary.setNormalUps(normalUps);
+        binary.setNormalRights(normalRights);
+        binary.setScales(scales);
+        return binary;
+    }
+
+    private Vector3d octDecode(int encodedX, int encodedY) {
+        double x = encodedX / 65535.0 * 2.0 - 1.0;
+        double y = encodedY / 65535.0 * 2.0 - 1.0;
+        double z = 1.0 - Math.abs(x) - Math.abs(y);
+        if (z < 0.0) {
+            double oldX = x;
+            x = (1.0 - Math.abs(y)) * (oldX < 0.0 ? -1.0 : 1.0);
+            y = (1.0 - Math.abs(oldX)) * (y < 0.0 ? -1.0 : 1.0);
+        }
+        return new Vector3d(x, y, z).normalize();
+    }
+}
@@ -0,0 +1,163 @@
+package com.gaia3d.process.postprocess.instance;
+
+import com.gaia3d.basic.geometry.GaiaBoundingBox;
+import com.gaia3d.basic.model.*;
+import com.gaia3d.command.mago.GlobalOptions;
+import com.gaia3d.converter.kml.KmlInfo;
+import com.gaia3d.process.tileprocess.tile.ContentInfo;
+import com.gaia3d.process.tileprocess.tile.LevelOfDetail;
+import com.gaia3d.process.tileprocess.tile.TileInfo;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+import org.joml.Vector3d;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class Instanced3DModelTest {
+    private static final int MODELS_COUNT = 8;
+    private static final int CONTENTS_COUNT = 400;
+    private static final int INSTANCES_COUNT = 200;
+
+    @Test
+    void writeOneInstancePerModel() throws Exception {
+        Path outputPath = Files.createTempDirectory("i3dm");
+        GlobalOptions globalOptions = GlobalOptions.getInstance();
+        String originalOutputPath = globalOptions.getOutputPath();
+        globalOptions.setOutputPath(outputPath.toString());
+        try {
+            List<ContentInfo> contentInfos = createContentInfos(outputPath, 2, 16);
+            writeContents(new Instanced3DModel(), contentInfos, 4);
+
+            File[] glbFiles = outputPath.resolve("data").toFile().listFiles((dir, name) -> name.endsWith(".glb"));
+            File[] i3dmFiles = outputPath.resolve("data").toFile().listFiles((dir, name) -> name.endsWith(".i3dm"));
+            assertNotNull(glbFiles);
+            assertNotNull(i3dmFiles);
+            assertEquals(2, glbFiles.length);
+            assertEquals(16, i3dmFiles.length);
+        } finally {
+            globalOptions.setOutputPath(originalOutputPath);
+            FileUtils.deleteQuietly(outputPath.toFile());
+        }
+    }
+
+    /**
+     * Reports the i3dm tiles written per second with 1 to 8 threads.
+     */
+    @Test
+    @Disabled
+    void benchmark() throws Exception {
+        GlobalOptions globalOptions = GlobalOptions.getInstance();
+        String originalOutputPath = globalOptions.getOutputPath();
+        try {
+            for (int threadCount : new int[]{1, 2, 4, 8}) {
+                Path outputPath = Files.createTempDirectory("i3dm");
+                globalOptions.setOutputPath(outputPath.toString());
+                List<ContentInfo> contentInfos = createContentInfos(outputPath, MODELS_COUNT, CONTENTS_COUNT);
+                long time = System.nanoTime();
+                writeContents(new Instanced3DModel(), contentInfos, threadCount);
+                time = System.nanoTime() - time;
+                log.info("[Benchmark] {} threads : {} i3dm tiles of {} instances, {} tiles/sec", threadCount, CONTENTS_COUNT, INSTANCES_COUNT, String.format("%.1f", CONTENTS_COUNT / (time / 1.0e9)));
+                FileUtils.deleteQuietly(outputPath.toFile());
+            }
+        } finally {
+            globalOptions.setOutputPath(originalOutputPath);
+        }
+    }
+
+    private void writeContents(Instanced3DModel instanced3DModel, List<ContentInfo> contentInfos, int threadCount) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        List<Future<ContentInfo>> futures = new ArrayList<>();
+        for (ContentInfo contentInfo : contentInfos) {
+            futures.add(executorService.submit(() -> instanced3DModel.run(contentInfo)));
+        }
+        for (Future<ContentInfo> future : futures) {
+            future.get();
+        }
+        executorService.shutdown();
+    }
+
+    private List<ContentInfo> createContentInfos(Path outputPath, int modelsCount, int contentsCount) throws IOException {
+        List<GaiaScene> scenes = new ArrayList<>();
+        for (int model = 0; model < modelsCount; model++) {
+            scenes.add(createBoxScene(outputPath.resolve("model" + model + ".glb")));
+        }
+        List<ContentInfo> contentInfos = new ArrayList<>();
+        for (int content = 0; content < contentsCount; content++) {
+            GaiaScene scene = scenes.get(content % modelsCount);
+            double longitude = 127.0 + content * 0.001;
+            List<TileInfo> tileInfos = new ArrayList<>();
+            GaiaBoundingBox boundingBox = new GaiaBoundingBox();
+            for (int instance = 0; instance < INSTANCES_COUNT; instance++) {
+                Vector3d position = new Vector3d(longitude + instance * 1.0e-5, 37.0 + instance * 1.0e-5, 0.0);
+                boundingBox.addPoint(position);
+                KmlInfo kmlInfo = KmlInfo.builder().name("instance" + instance).position(position).heading(instance).scaleX(1.0).scaleY(1.0).scaleZ(1.0).build();
+                tileInfos.add(TileInfo.builder().isI3dm(true).kmlInfo(kmlInfo).scene(scene).outputPath(outputPath).build());
+            }
+            ContentInfo contentInfo = new ContentInfo();
+            contentInfo.setName("C" + content);
+            contentInfo.setNodeCode("RC" + content);
+            contentInfo.setLod(LevelOfDetail.getByLevel(0));
+            contentInfo.setBoundingBox(boundingBox);
+            contentInfo.setTileInfos(tileInfos);
+            contentInfos.add(contentInfo);
+        }
+        return contentInfos;
+    }
+
+    /**
+     * A unit box of 12 triangles with flat normals.
+     */
+    private GaiaScene createBoxScene(Path originalPath) {
+        double[][] corners = {{0, 0, 0}, {1, 0, 0}, {1, 1, 0}, {0, 1, 0}, {0, 0, 1}, {1, 0, 1}, {1, 1, 1}, {0, 1, 1}};
+        int[][] quads = {{0, 3, 2, 1}, {4, 5, 6, 7}, {0, 1, 5, 4}, {1, 2, 6, 5}, {2, 3, 7, 6}, {3, 0, 4, 7}};
+        GaiaPrimitive primitive = new GaiaPrimitive();
+        primitive.setMaterialIndex(0);
+        GaiaSurface surface = new GaiaSurface();
+        for (int[] quad : quads) {
+            int first = primitive.getVertices().size();
+            Vector3d a = new Vector3d(corners[quad[0]][0], corners[quad[0]][1], corners[quad[0]][2]);
+            Vector3d b = new Vector3d(corners[quad[1]][0], corners[quad[1]][1], corners[quad[1]][2]);
+            Vector3d c = new Vector3d(corners[quad[2]][0], corners[quad[2]][1], corners[quad[2]][2]);
+            Vector3d normal = new Vector3d(b).sub(a).cross(new Vector3d(c).sub(a)).normalize();
+            for (int corner : quad) {
+                GaiaVertex vertex = new GaiaVertex();
+                vertex.setPosition(new Vector3d(corners[corner][0], corners[corner][1], corners[corner][2]));
+                vertex.setNormal(new Vector3d(normal));
+                primitive.getVertices().add(vertex);
+            }
+            GaiaFace firstFace = new GaiaFace();
+            firstFace.setIndices(new int[]{first, first + 1, first + 2});
+            GaiaFace secondFace = new GaiaFace();
+            secondFace.setIndices(new int[]{first, first + 2, first + 3});
+            surface.getFaces().add(firstFace);
+            surface.getFaces().add(secondFace);
+        }
+        primitive.getSurfaces().add(surface);
+
+        GaiaMesh mesh = new GaiaMesh();
+        mesh.getPrimitives().add(primitive);
+        GaiaNode node = new GaiaNode();
+        node.getMeshes().add(mesh);
+        GaiaMaterial material = new GaiaMaterial();
+        material.setId(0);
+        GaiaScene scene = new GaiaScene();
+        scene.setOriginalPath(originalPath);
+        scene.setAttribute(new GaiaAttribute());
+        scene.getNodes().add(node);
+        scene.getMaterials().add(material);
+        return scene;
+    }
+}
@@ -0,0 +1,121 @@
+package com.gaia3d.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.locationtech.proj4j.BasicCoordinateTransform;
+import org.locationtech.proj4j.CRSFactory;
+import org.locationtech.proj4j.CoordinateReferenceSystem;
+import org.locationtech.proj4j.Proj4jException;
+import org.locationtech.proj4j.ProjCoordinate;
+
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class CoordinateTransformerTest {
+    private final CRSFactory factory = new CRSFactory();
+
+    @Test
+    void fastPathMatchesGenericTransform() {
+        String[] codes = {"EPSG:5186", "EPSG:32652", "EPSG:3857", "EPSG:2097", "EPSG:3035"};
+        for (String code : codes) {
+            CoordinateReferenceSystem source = factory.createFromName(code);
+            CoordinateTransformer transformer = CoordinateTransformer.getInstance(source);
+            log.info("{} fast path : {}", code, transformer.isFastPath());
+
+            double[] coordinates = createCoordinates(source, 1000);
+            double[] expected = coordinates.clone();
+            transformer.transform(coordinates);
+
+            BasicCoordinateTransform transform = new BasicCoordinateTransform(source, GlobeUtils.wgs84);
+            for (int i = 0; i < expected.length; i += 3) {
+                ProjCoordinate result = transform.transform(new ProjCoordinate(expected[i], expected[i + 1], expected[i + 2]), new ProjCoordinate());
+                assertEquals(result.x, coordinates[i], 1.0E-8, code);
+                assertEquals(result.y, coordinates[i + 1], 1.0E-8, code);
+                assertEquals(expected[i + 2], coordinates[i + 2]);
+            }
+        }
+        assertTrue(CoordinateTransformer.getInstance(factory.createFromName("EPSG:5186")).isFastPath());
+        assertTrue(CoordinateTransformer.getInstance(factory.createFromName("EPSG:32652")).isFastPath());
+        assertTrue(CoordinateTransformer.getInstance(factory.createFromName("EPSG:3857")).isFastPath());
+    }
+
+    @Test
+    void transformToCartesian() {
+        CoordinateReferenceSystem source = factory.createFromName("EPSG:5186");
+        CoordinateTransformer transformer = CoordinateTransformer.getInstance(source);
+        double[] coordinates = createCoordinates(source, 100);
+        double[] geographic = coordinates.clone();
+        transformer.transform(geographic);
+        transformer.transformToCartesian(coordinates);
+        for (int i = 0; i < coordinates.length; i += 3) {
+            double[] expected = GlobeUtils.geographicToCartesianWgs84(geographic[i], geographic[i + 1], geographic[i + 2]);
+            assertEquals(expected[0], coordinates[i], 1.0E-6);
+            assertEquals(expected[1], coordinates[i + 1], 1.0E-6);
+            assertEquals(expected[2], coordinates[i + 2], 1.0E-6);
+        }
+    }
+
+    @Test
+    void throwInvalidCoordinate() {
+        CoordinateReferenceSystem source = factory.createFromName("EPSG:3035");
+        CoordinateTransformer transformer = CoordinateTransformer.getInstance(source);
+        assertFalse(transformer.isFastPath());
+        double[] coordinates = {4321000.0, 3210000.0, 0.0, 1.0E20, 1.0E20, 0.0};
+        assertThrows(Proj4jException.class, () -> transformer.transform(coordinates));
+    }
+
+    @Test
+    void cachedPerThread() throws Exception {
+        CoordinateReferenceSystem source = factory.createFromName("EPSG:5186");
+        CoordinateTransformer transformer = CoordinateTransformer.getInstance(source);
+        assertSame(transformer, CoordinateTransformer.getInstance(factory.createFromName("EPSG:5186")));
+        CoordinateTransformer otherThreadTransformer = CompletableFuture.supplyAsync(() -> CoordinateTransformer.getInstance(source)).get();
+        assertNotSame(transformer, otherThreadTransformer);
+    }
+
+    /**
+     * Compares a transform per coordinate with the batched transform of a million coordinates.
+     */
+    @Test
+    @Disabled
+    void benchmark() {
+        for (String code : new String[]{"EPSG:5186", "EPSG:3857"}) {
+            CoordinateReferenceSystem source = factory.createFromName(code);
+            int count = 1000000;
+            double[] coordinates = createCoordinates(source, count);
+
+            // previous usage, a transform per coordinate
+            long start = System.nanoTime();
+            for (int i = 0; i < coordinates.length; i += 3) {
+                BasicCoordinateTransform transform = new BasicCoordinateTransform(source, GlobeUtils.wgs84);
+                transform.transform(new ProjCoordinate(coordinates[i], coordinates[i + 1], coordinates[i + 2]), new ProjCoordinate());
+            }
+            long singleTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            CoordinateTransformer.getInstance(source).transform(coordinates);
+            long batchTime = System.nanoTime() - start;
+            log.info("[Benchmark] {} single : {} ms, batch : {} ms", code, singleTime / 1000000, batchTime / 1000000);
+        }
+    }
+
+    private double[] createCoordinates(CoordinateReferenceSystem source, int count) {
+        BasicCoordinateTransform forward = new BasicCoordinateTransform(GlobeUtils.wgs84, source);
+        double longitude = source.getProjection().getProjectionLongitudeDegrees();
+        double latitude = Math.max(-60.0, Math.min(60.0, source.getProjection().getProjectionLatitudeDegrees()));
+        Random random = new Random(42);
+        double[] coordinates = new double[count * 3];
+        ProjCoordinate projected = new ProjCoordinate();
+        for (int i = 0; i < count; i++) {
+            forward.transform(new ProjCoordinate(longitude + random.nextDouble() - 0.5, latitude + random.nextDouble() - 0.5), projected);
+            coordinates[i * 3] = projected.x;
+            coordinates[i * 3 + 1] = projected.y;
+            coordinates[i * 3 + 2] = random.nextDouble() * 100.0;
+        }
+        return coordinates;
+    }
+}